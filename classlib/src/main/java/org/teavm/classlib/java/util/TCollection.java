@@ -61,6 +61,11 @@ public interface TCollection<E> extends TIterable<E> {
         return new TStreamOverSpliterator<>(spliterator());
     }
 
+    default TStream<E> parallelStream() {
+        // Same as stream(), like TSimpleStreamImpl.parallel(), since there are no worker threads to split it to
+        return stream();
+    }
+
     default boolean removeIf(Predicate<? super E> filter) {
         TIterator<E> iterator = iterator();
         boolean removed = false;
@@ -0,0 +1,887 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util;
+
+/**
+ * In-place sorting of primitive arrays used by {@link TArrays}.
+ *
+ * Generally, dual-pivot quicksort is used, which falls back to insertion sort for short ranges and to heap sort
+ * when recursion gets too deep, so that sorting takes `O(n log n)` in the worst case. Large `int` and `long` ranges
+ * are sorted with LSD radix sort, which takes linear time, but requires a buffer of the same size as the range.
+ * Large `byte`, `short` and `char` ranges are sorted with counting sort.
+ */
+final class TDualPivotQuicksort {
+    private static final int INSERTION_SORT_THRESHOLD = 24;
+    private static final int RADIX_SORT_THRESHOLD = 1 << 14;
+    private static final int BYTE_COUNTING_SORT_THRESHOLD = 64;
+    private static final int SHORT_COUNTING_SORT_THRESHOLD = 1750;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private TDualPivotQuicksort() {
+    }
+
+    private static int depthLimit(int length) {
+        return 2 * (32 - Integer.numberOfLeadingZeros(length));
+    }
+
+    static void sort(int[] a, int low, int high) {
+        if (high - low >= RADIX_SORT_THRESHOLD) {
+            radixSort(a, low, high);
+        } else {
+            sort(a, low, high, depthLimit(high - low));
+        }
+    }
+
+    private static void sort(int[] a, int low, int high, int depth) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, low, high);
+                return;
+            }
+
+            int third = (high - low) / 3;
+            int m1 = low + third;
+            int m2 = high - 1 - third;
+            if (a[m1] > a[m2]) {
+                int tmp = a[m1];
+                a[m1] = a[m2];
+                a[m2] = tmp;
+            }
+            int pivot1 = a[m1];
+            int pivot2 = a[m2];
+            a[m1] = a[low];
+            a[m2] = a[high - 1];
+
+            int less = low + 1;
+            int greater = high - 2;
+            for (int k = less; k <= greater; ++k) {
+                int x = a[k];
+                if (x < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = x;
+                } else if (x > pivot2) {
+                    while (a[greater] > pivot2 && k < greater) {
+                        --greater;
+                    }
+                    a[k] = a[greater];
+                    a[greater--] = x;
+                    x = a[k];
+                    if (x < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = x;
+                    }
+                }
+            }
+            a[low] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[high - 1] = a[greater + 1];
+            a[greater + 1] = pivot2;
+
+            sort(a, low, less - 1, depth);
+            if (pivot1 < pivot2) {
+                sort(a, less, greater + 1, depth);
+            }
+            low = greater + 2;
+        }
+        insertionSort(a, low, high);
+    }
+
+    private static void insertionSort(int[] a, int low, int high) {
+        for (int i = low + 1; i < high; ++i) {
+            int x = a[i];
+            int j = i - 1;
+            while (j >= low && a[j] > x) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = x;
+        }
+    }
+
+    private static void heapSort(int[] a, int low, int high) {
+        int size = high - low;
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(a, low, i, size);
+        }
+        for (int end = size - 1; end > 0; --end) {
+            int tmp = a[low];
+            a[low] = a[low + end];
+            a[low + end] = tmp;
+            siftDown(a, low, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] a, int offset, int index, int size) {
+        int x = a[offset + index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= x) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = x;
+    }
+
+    private static void radixSort(int[] a, int low, int high) {
+        int length = high - low;
+        int[] buffer = new int[length];
+        int[] counts = new int[RADIX];
+        int[] source = a;
+        int sourceOffset = low;
+        int[] target = buffer;
+        int targetOffset = 0;
+        for (int shift = 0; shift < 32; shift += RADIX_BITS) {
+            for (int i = 0; i < RADIX; ++i) {
+                counts[i] = 0;
+            }
+            for (int i = 0; i < length; ++i) {
+                ++counts[digit(source[sourceOffset + i], shift)];
+            }
+            if (counts[digit(source[sourceOffset], shift)] == length) {
+                continue;
+            }
+
+            int position = targetOffset;
+            for (int i = 0; i < RADIX; ++i) {
+                int count = counts[i];
+                counts[i] = position;
+                position += count;
+            }
+            for (int i = 0; i < length; ++i) {
+                int x = source[sourceOffset + i];
+                target[counts[digit(x, shift)]++] = x;
+            }
+
+            int[] tmp = source;
+            source = target;
+            target = tmp;
+            int tmpOffset = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = tmpOffset;
+        }
+        if (source != a) {
+            System.arraycopy(source, 0, a, low, length);
+        }
+    }
+
+    private static int digit(int value, int shift) {
+        int digit = (value >>> shift) & (RADIX - 1);
+        // Flip sign bit, so that negative numbers go first
+        return shift == 32 - RADIX_BITS ? digit ^ (RADIX >> 1) : digit;
+    }
+
+    static void sort(long[] a, int low, int high) {
+        if (high - low >= RADIX_SORT_THRESHOLD) {
+            radixSort(a, low, high);
+        } else {
+            sort(a, low, high, depthLimit(high - low));
+        }
+    }
+
+    private static void sort(long[] a, int low, int high, int depth) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, low, high);
+                return;
+            }
+
+            int third = (high - low) / 3;
+            int m1 = low + third;
+            int m2 = high - 1 - third;
+            if (a[m1] > a[m2]) {
+                long tmp = a[m1];
+                a[m1] = a[m2];
+                a[m2] = tmp;
+            }
+            long pivot1 = a[m1];
+            long pivot2 = a[m2];
+            a[m1] = a[low];
+            a[m2] = a[high - 1];
+
+            int less = low + 1;
+            int greater = high - 2;
+            for (int k = less; k <= greater; ++k) {
+                long x = a[k];
+                if (x < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = x;
+                } else if (x > pivot2) {
+                    while (a[greater] > pivot2 && k < greater) {
+                        --greater;
+                    }
+                    a[k] = a[greater];
+                    a[greater--] = x;
+                    x = a[k];
+                    if (x < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = x;
+                    }
+                }
+            }
+            a[low] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[high - 1] = a[greater + 1];
+            a[greater + 1] = pivot2;
+
+            sort(a, low, less - 1, depth);
+            if (pivot1 < pivot2) {
+                sort(a, less, greater + 1, depth);
+            }
+            low = greater + 2;
+        }
+        insertionSort(a, low, high);
+    }
+
+    private static void insertionSort(long[] a, int low, int high) {
+        for (int i = low + 1; i < high; ++i) {
+            long x = a[i];
+            int j = i - 1;
+            while (j >= low && a[j] > x) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = x;
+        }
+    }
+
+    private static void heapSort(long[] a, int low, int high) {
+        int size = high - low;
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(a, low, i, size);
+        }
+        for (int end = size - 1; end > 0; --end) {
+            long tmp = a[low];
+            a[low] = a[low + end];
+            a[low + end] = tmp;
+            siftDown(a, low, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] a, int offset, int index, int size) {
+        long x = a[offset + index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= x) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = x;
+    }
+
+    private static void radixSort(long[] a, int low, int high) {
+        int length = high - low;
+        long[] buffer = new long[length];
+        int[] counts = new int[RADIX];
+        long[] source = a;
+        int sourceOffset = low;
+        long[] target = buffer;
+        int targetOffset = 0;
+        for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+            for (int i = 0; i < RADIX; ++i) {
+                counts[i] = 0;
+            }
+            for (int i = 0; i < length; ++i) {
+                ++counts[digit(source[sourceOffset + i], shift)];
+            }
+            if (counts[digit(source[sourceOffset], shift)] == length) {
+                continue;
+            }
+
+            int position = targetOffset;
+            for (int i = 0; i < RADIX; ++i) {
+                int count = counts[i];
+                counts[i] = position;
+                position += count;
+            }
+            for (int i = 0; i < length; ++i) {
+                long x = source[sourceOffset + i];
+                target[counts[digit(x, shift)]++] = x;
+            }
+
+            long[] tmp = source;
+            source = target;
+            target = tmp;
+            int tmpOffset = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = tmpOffset;
+        }
+        if (source != a) {
+            System.arraycopy(source, 0, a, low, length);
+        }
+    }
+
+    private static int digit(long value, int shift) {
+        int digit = (int) (value >>> shift) & (RADIX - 1);
+        return shift == 64 - RADIX_BITS ? digit ^ (RADIX >> 1) : digit;
+    }
+
+    static void sort(short[] a, int low, int high) {
+        if (high - low > SHORT_COUNTING_SORT_THRESHOLD) {
+            countingSort(a, low, high);
+        } else {
+            sort(a, low, high, depthLimit(high - low));
+        }
+    }
+
+    private static void sort(short[] a, int low, int high, int depth) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, low, high);
+                return;
+            }
+
+            int third = (high - low) / 3;
+            int m1 = low + third;
+            int m2 = high - 1 - third;
+            if (a[m1] > a[m2]) {
+                short tmp = a[m1];
+                a[m1] = a[m2];
+                a[m2] = tmp;
+            }
+            short pivot1 = a[m1];
+            short pivot2 = a[m2];
+            a[m1] = a[low];
+            a[m2] = a[high - 1];
+
+            int less = low + 1;
+            int greater = high - 2;
+            for (int k = less; k <= greater; ++k) {
+                short x = a[k];
+                if (x < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = x;
+                } else if (x > pivot2) {
+                    while (a[greater] > pivot2 && k < greater) {
+                        --greater;
+                    }
+                    a[k] = a[greater];
+                    a[greater--] = x;
+                    x = a[k];
+                    if (x < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = x;
+                    }
+                }
+            }
+            a[low] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[high - 1] = a[greater + 1];
+            a[greater + 1] = pivot2;
+
+            sort(a, low, less - 1, depth);
+            if (pivot1 < pivot2) {
+                sort(a, less, greater + 1, depth);
+            }
+            low = greater + 2;
+        }
+        insertionSort(a, low, high);
+    }
+
+    private static void insertionSort(short[] a, int low, int high) {
+        for (int i = low + 1; i < high; ++i) {
+            short x = a[i];
+            int j = i - 1;
+            while (j >= low && a[j] > x) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = x;
+        }
+    }
+
+    private static void heapSort(short[] a, int low, int high) {
+        int size = high - low;
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(a, low, i, size);
+        }
+        for (int end = size - 1; end > 0; --end) {
+            short tmp = a[low];
+            a[low] = a[low + end];
+            a[low + end] = tmp;
+            siftDown(a, low, 0, end);
+        }
+    }
+
+    private static void siftDown(short[] a, int offset, int index, int size) {
+        short x = a[offset + index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= x) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = x;
+    }
+
+    private static void countingSort(short[] a, int low, int high) {
+        int[] counts = new int[1 << 16];
+        for (int i = low; i < high; ++i) {
+            ++counts[a[i] - Short.MIN_VALUE];
+        }
+        int index = low;
+        for (int i = 0; i < counts.length; ++i) {
+            short value = (short) (i + Short.MIN_VALUE);
+            for (int count = counts[i]; count > 0; --count) {
+                a[index++] = value;
+            }
+        }
+    }
+
+    static void sort(char[] a, int low, int high) {
+        if (high - low > SHORT_COUNTING_SORT_THRESHOLD) {
+            countingSort(a, low, high);
+        } else {
+            sort(a, low, high, depthLimit(high - low));
+        }
+    }
+
+    private static void sort(char[] a, int low, int high, int depth) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, low, high);
+                return;
+            }
+
+            int third = (high - low) / 3;
+            int m1 = low + third;
+            int m2 = high - 1 - third;
+            if (a[m1] > a[m2]) {
+                char tmp = a[m1];
+                a[m1] = a[m2];
+                a[m2] = tmp;
+            }
+            char pivot1 = a[m1];
+            char pivot2 = a[m2];
+            a[m1] = a[low];
+            a[m2] = a[high - 1];
+
+            int less = low + 1;
+            int greater = high - 2;
+            for (int k = less; k <= greater; ++k) {
+                char x = a[k];
+                if (x < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = x;
+                } else if (x > pivot2) {
+                    while (a[greater] > pivot2 && k < greater) {
+                        --greater;
+                    }
+                    a[k] = a[greater];
+                    a[greater--] = x;
+                    x = a[k];
+                    if (x < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = x;
+                    }
+                }
+            }
+            a[low] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[high - 1] = a[greater + 1];
+            a[greater + 1] = pivot2;
+
+            sort(a, low, less - 1, depth);
+            if (pivot1 < pivot2) {
+                sort(a, less, greater + 1, depth);
+            }
+            low = greater + 2;
+        }
+        insertionSort(a, low, high);
+    }
+
+    private static void insertionSort(char[] a, int low, int high) {
+        for (int i = low + 1; i < high; ++i) {
+            char x = a[i];
+            int j = i - 1;
+            while (j >= low && a[j] > x) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = x;
+        }
+    }
+
+    private static void heapSort(char[] a, int low, int high) {
+        int size = high - low;
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(a, low, i, size);
+        }
+        for (int end = size - 1; end > 0; --end) {
+            char tmp = a[low];
+            a[low] = a[low + end];
+            a[low + end] = tmp;
+            siftDown(a, low, 0, end);
+        }
+    }
+
+    private static void siftDown(char[] a, int offset, int index, int size) {
+        char x = a[offset + index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= x) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = x;
+    }
+
+    private static void countingSort(char[] a, int low, int high) {
+        int[] counts = new int[1 << 16];
+        for (int i = low; i < high; ++i) {
+            ++counts[a[i]];
+        }
+        int index = low;
+        for (int i = 0; i < counts.length; ++i) {
+            char value = (char) i;
+            for (int count = counts[i]; count > 0; --count) {
+                a[index++] = value;
+            }
+        }
+    }
+
+    static void sort(byte[] a, int low, int high) {
+        if (high - low > BYTE_COUNTING_SORT_THRESHOLD) {
+            countingSort(a, low, high);
+        } else {
+            insertionSort(a, low, high);
+        }
+    }
+
+    private static void insertionSort(byte[] a, int low, int high) {
+        for (int i = low + 1; i < high; ++i) {
+            byte x = a[i];
+            int j = i - 1;
+            while (j >= low && a[j] > x) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = x;
+        }
+    }
+
+    private static void countingSort(byte[] a, int low, int high) {
+        int[] counts = new int[1 << 8];
+        for (int i = low; i < high; ++i) {
+            ++counts[a[i] - Byte.MIN_VALUE];
+        }
+        int index = low;
+        for (int i = 0; i < counts.length; ++i) {
+            byte value = (byte) (i + Byte.MIN_VALUE);
+            for (int count = counts[i]; count > 0; --count) {
+                a[index++] = value;
+            }
+        }
+    }
+
+    static void sort(float[] a, int low, int high) {
+        // Move NaNs to the end and replace -0.0 with 0.0, so that remaining part can be sorted with
+        // primitive comparison operators. Negative zeros are restored after sorting.
+        int negativeZeros = 0;
+        int end = high;
+        for (int k = low; k < end; ++k) {
+            float x = a[k];
+            if (x != x) {
+                a[k--] = a[--end];
+                a[end] = x;
+            } else if (x == 0 && 1 / x < 0) {
+                a[k] = 0;
+                ++negativeZeros;
+            }
+        }
+
+        sort(a, low, end, depthLimit(end - low));
+
+        if (negativeZeros > 0) {
+            int first = low;
+            int last = end;
+            while (first < last) {
+                int middle = (first + last) >>> 1;
+                if (a[middle] < 0) {
+                    first = middle + 1;
+                } else {
+                    last = middle;
+                }
+            }
+            while (negativeZeros-- > 0) {
+                a[first++] = -0.0f;
+            }
+        }
+    }
+
+    private static void sort(float[] a, int low, int high, int depth) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, low, high);
+                return;
+            }
+
+            int third = (high - low) / 3;
+            int m1 = low + third;
+            int m2 = high - 1 - third;
+            if (a[m1] > a[m2]) {
+                float tmp = a[m1];
+                a[m1] = a[m2];
+                a[m2] = tmp;
+            }
+            float pivot1 = a[m1];
+            float pivot2 = a[m2];
+            a[m1] = a[low];
+            a[m2] = a[high - 1];
+
+            int less = low + 1;
+            int greater = high - 2;
+            for (int k = less; k <= greater; ++k) {
+                float x = a[k];
+                if (x < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = x;
+                } else if (x > pivot2) {
+                    while (a[greater] > pivot2 && k < greater) {
+                        --greater;
+                    }
+                    a[k] = a[greater];
+                    a[greater--] = x;
+                    x = a[k];
+                    if (x < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = x;
+                    }
+                }
+            }
+            a[low] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[high - 1] = a[greater + 1];
+            a[greater + 1] = pivot2;
+
+            sort(a, low, less - 1, depth);
+            if (pivot1 < pivot2) {
+                sort(a, less, greater + 1, depth);
+            }
+            low = greater + 2;
+        }
+        insertionSort(a, low, high);
+    }
+
+    private static void insertionSort(float[] a, int low, int high) {
+        for (int i = low + 1; i < high; ++i) {
+            float x = a[i];
+            int j = i - 1;
+            while (j >= low && a[j] > x) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = x;
+        }
+    }
+
+    private static void heapSort(float[] a, int low, int high) {
+        int size = high - low;
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(a, low, i, size);
+        }
+        for (int end = size - 1; end > 0; --end) {
+            float tmp = a[low];
+            a[low] = a[low + end];
+            a[low + end] = tmp;
+            siftDown(a, low, 0, end);
+        }
+    }
+
+    private static void siftDown(float[] a, int offset, int index, int size) {
+        float x = a[offset + index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= x) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = x;
+    }
+
+    static void sort(double[] a, int low, int high) {
+        // Move NaNs to the end and replace -0.0 with 0.0, so that remaining part can be sorted with
+        // primitive comparison operators. Negative zeros are restored after sorting.
+        int negativeZeros = 0;
+        int end = high;
+        for (int k = low; k < end; ++k) {
+            double x = a[k];
+            if (x != x) {
+                a[k--] = a[--end];
+                a[end] = x;
+            } else if (x == 0 && 1 / x < 0) {
+                a[k] = 0;
+                ++negativeZeros;
+            }
+        }
+
+        sort(a, low, end, depthLimit(end - low));
+
+        if (negativeZeros > 0) {
+            int first = low;
+            int last = end;
+            while (first < last) {
+                int middle = (first + last) >>> 1;
+                if (a[middle] < 0) {
+                    first = middle + 1;
+                } else {
+                    last = middle;
+                }
+            }
+            while (negativeZeros-- > 0) {
+                a[first++] = -0.0;
+            }
+        }
+    }
+
+    private static void sort(double[] a, int low, int high, int depth) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, low, high);
+                return;
+            }
+
+            int third = (high - low) / 3;
+            int m1 = low + third;
+            int m2 = high - 1 - third;
+            if (a[m1] > a[m2]) {
+                double tmp = a[m1];
+                a[m1] = a[m2];
+                a[m2] = tmp;
+            }
+            double pivot1 = a[m1];
+            double pivot2 = a[m2];
+            a[m1] = a[low];
+            a[m2] = a[high - 1];
+
+            int less = low + 1;
+            int greater = high - 2;
+            for (int k = less; k <= greater; ++k) {
+                double x = a[k];
+                if (x < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = x;
+                } else if (x > pivot2) {
+                    while (a[greater] > pivot2 && k < greater) {
+                        --greater;
+                    }
+                    a[k] = a[greater];
+                    a[greater--] = x;
+                    x = a[k];
+                    if (x < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = x;
+                    }
+                }
+            }
+            a[low] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[high - 1] = a[greater + 1];
+            a[greater + 1] = pivot2;
+
+            sort(a, low, less - 1, depth);
+            if (pivot1 < pivot2) {
+                sort(a, less, greater + 1, depth);
+            }
+            low = greater + 2;
+        }
+        insertionSort(a, low, high);
+    }
+
+    private static void insertionSort(double[] a, int low, int high) {
+        for (int i = low + 1; i < high; ++i) {
+            double x = a[i];
+            int j = i - 1;
+            while (j >= low && a[j] > x) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = x;
+        }
+    }
+
+    private static void heapSort(double[] a, int low, int high) {
+        int size = high - low;
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(a, low, i, size);
+        }
+        for (int end = size - 1; end > 0; --end) {
+            double tmp = a[low];
+            a[low] = a[low + end];
+            a[low + end] = tmp;
+            siftDown(a, low, 0, end);
+        }
+    }
+
+    private static void siftDown(double[] a, int offset, int index, int size) {
+        double x = a[offset + index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && a[offset + child + 1] > a[offset + child]) {
+                ++child;
+            }
+            if (a[offset + child] <= x) {
+                break;
+            }
+            a[offset + index] = a[offset + child];
+            index = child;
+        }
+        a[offset + index] = x;
+    }
+}
@@ -34,6 +34,7 @@ public class GCIntrinsic implements Intrinsic {
             case "regionMaxCount":
             case "availableBytes":
             case "regionSize":
+            case "markStepSize":
             case "minAvailableBytes":
             case "maxAvailableBytes":
             case "resizeHeap":
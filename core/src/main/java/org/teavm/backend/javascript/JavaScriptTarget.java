@@ -28,6 +28,7 @@ import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -38,6 +39,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import org.teavm.ast.ControlFlowEntry;
+import org.teavm.backend.javascript.codegen.ChunkNamingStrategy;
 import org.teavm.backend.javascript.codegen.DefaultAliasProvider;
 import org.teavm.backend.javascript.codegen.DefaultNamingStrategy;
 import org.teavm.backend.javascript.codegen.MinifyingAliasProvider;
@@ -46,6 +48,7 @@ import org.teavm.backend.javascript.codegen.OutputSourceWriterBuilder;
 import org.teavm.backend.javascript.codegen.RememberedSource;
 import org.teavm.backend.javascript.codegen.RememberingSourceWriter;
 import org.teavm.backend.javascript.codegen.SourceWriter;
+import org.teavm.backend.javascript.intrinsics.chunk.SplitPointTransformer;
 import org.teavm.backend.javascript.intrinsics.ref.ReferenceQueueGenerator;
 import org.teavm.backend.javascript.intrinsics.ref.ReferenceQueueTransformer;
 import org.teavm.backend.javascript.intrinsics.ref.WeakReferenceDependencyListener;
@@ -65,6 +68,8 @@ import org.teavm.backend.javascript.spi.MethodContributorContext;
 import org.teavm.backend.javascript.templating.JavaScriptTemplateFactory;
 import org.teavm.cache.EmptyMethodNodeCache;
 import org.teavm.cache.MethodNodeCache;
+import org.teavm.debugging.information.DebugInformation;
+import org.teavm.debugging.information.DebugInformationBuilder;
 import org.teavm.debugging.information.DebugInformationEmitter;
 import org.teavm.debugging.information.DummyDebugInformationEmitter;
 import org.teavm.debugging.information.SourceLocation;
@@ -76,8 +81,10 @@ import org.teavm.dependency.DependencyType;
 import org.teavm.dependency.MethodDependency;
 import org.teavm.interop.PlatformMarker;
 import org.teavm.interop.Platforms;
+import org.teavm.interop.SplitPoint;
 import org.teavm.model.BasicBlock;
 import org.teavm.model.CallLocation;
+import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassHolderTransformer;
 import org.teavm.model.ClassReaderSource;
 import org.teavm.model.ElementModifier;
@@ -87,6 +94,7 @@ import org.teavm.model.MethodHolder;
 import org.teavm.model.MethodReader;
 import org.teavm.model.MethodReference;
 import org.teavm.model.Program;
+import org.teavm.model.ReferenceCache;
 import org.teavm.model.TextLocation;
 import org.teavm.model.ValueType;
 import org.teavm.model.Variable;
@@ -95,6 +103,7 @@ import org.teavm.model.instructions.InvocationType;
 import org.teavm.model.instructions.InvokeInstruction;
 import org.teavm.model.instructions.RaiseInstruction;
 import org.teavm.model.instructions.StringConstantInstruction;
+import org.teavm.model.profile.ProfileInstrumentation;
 import org.teavm.model.transformation.BoundCheckInsertion;
 import org.teavm.model.transformation.NullCheckFilter;
 import org.teavm.model.transformation.NullCheckInsertion;
@@ -134,12 +143,18 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     private JSModuleType moduleType = JSModuleType.UMD;
     private List<ExportedDeclaration> exports = new ArrayList<>();
     private int maxTopLevelNames = 80_000;
+    private int renderingThreads = 1;
+    private boolean lazyMethodBodies;
+    private LazyRendering lazyRendering;
+    private final List<SplitPointDeclaration> splitPoints = new ArrayList<>();
+    private final Map<String, DebugInformationBuilder> chunkDebugInformation = new LinkedHashMap<>();
 
     @Override
     public List<ClassHolderTransformer> getTransformers() {
         return List.of(
                 new WeakReferenceTransformer(),
-                new ReferenceQueueTransformer()
+                new ReferenceQueueTransformer(),
+                new SplitPointTransformer(this::getSplitPointChunk)
         );
     }
 
@@ -237,6 +252,68 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         this.maxTopLevelNames = maxTopLevelNames;
     }
 
+    /**
+     * Sets number of threads that decompile and render method bodies. Output does not depend on number
+     * of threads, as long as it is greater than one.
+     */
+    public void setRenderingThreads(int renderingThreads) {
+        if (renderingThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + renderingThreads);
+        }
+        this.renderingThreads = renderingThreads;
+    }
+
+    /**
+     * Declares all methods with given name in given class as split points of a chunk, in addition
+     * to methods annotated with {@link SplitPoint}. Split points are only supported
+     * with {@link JSModuleType#ES2015} module type. Unlike annotated methods, these are not protected
+     * from inlining, so with advanced optimizations some of their code may end up in the initial chunk.
+     */
+    public void addSplitPoint(String className, String methodName, String chunk) {
+        splitPoints.add(new SplitPointDeclaration(className, methodName, chunk));
+    }
+
+    /**
+     * Returns debug information of chunks emitted by the last build, by file names of chunks.
+     * Only available when {@link #setDebugEmitter(DebugInformationEmitter) debug emitter} is set.
+     */
+    public Map<String, DebugInformation> getChunkDebugInformation() {
+        var result = new LinkedHashMap<String, DebugInformation>();
+        for (var entry : chunkDebugInformation.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getDebugInformation());
+        }
+        return result;
+    }
+
+    /**
+     * Makes target emit stubs instead of bodies of regular methods, so that only methods that are actually
+     * called get optimized, decompiled and rendered, by {@link #renderLazyMethodBody(int)}. Generated code
+     * expects {@code $teavm_lazyMethodBody} global function that takes index of a method and returns text
+     * produced by {@link #renderLazyMethodBody(int)}, so this mode is only useful for development server.
+     */
+    public void setLazyMethodBodies(boolean lazyMethodBodies) {
+        this.lazyMethodBodies = lazyMethodBodies;
+    }
+
+    /**
+     * Returns methods that were emitted as stubs by the last build, in order of their indexes.
+     */
+    public List<MethodReference> getLazyMethods() {
+        return lazyRendering != null ? lazyRendering.renderer.getLazyMethods() : Collections.emptyList();
+    }
+
+    /**
+     * Renders body of a method that was emitted as a stub by the last build. The result is JavaScript expression
+     * that evaluates to the function of the method, and that must be evaluated in the scope of the stub.
+     * This method is not thread-safe and must not be called while the target builds another program.
+     */
+    public String renderLazyMethodBody(int index) {
+        if (lazyRendering == null) {
+            throw new IllegalStateException("Last build did not produce lazy method bodies");
+        }
+        return lazyRendering.render(index);
+    }
+
     @Override
     public List<TeaVMHostExtension> getHostExtensions() {
         return Collections.singletonList(this);
@@ -333,12 +410,21 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
 
     @Override
     public void emit(ListableClassHolderSource classes, BuildTarget target, String outputName) {
+        Map<String, String> chunks;
         try (OutputStream output = target.createResource(outputName);
                 Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
-            emit(classes, writer, target);
+            chunks = emit(classes, writer, target, outputName);
         } catch (IOException e) {
             throw new RenderingException(e);
         }
+        for (var chunk : chunks.entrySet()) {
+            try (OutputStream output = target.createResource(chunk.getKey());
+                    Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+                writer.write(chunk.getValue());
+            } catch (IOException e) {
+                throw new RenderingException(e);
+            }
+        }
     }
 
     @Override
@@ -359,7 +445,9 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     public void afterOptimizations(Program program, MethodReader method) {
     }
 
-    private void emit(ListableClassHolderSource classes, Writer writer, BuildTarget target) {
+    private Map<String, String> emit(ListableClassHolderSource classes, Writer writer, BuildTarget target,
+            String outputName) {
+        lazyRendering = null;
         var aliasProvider = obfuscated
                 ? new MinifyingAliasProvider(maxTopLevelNames)
                 : new DefaultAliasProvider(maxTopLevelNames);
@@ -386,7 +474,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         renderingContext.setMinifying(obfuscated);
 
         if (controller.wasCancelled()) {
-            return;
+            return Collections.emptyMap();
         }
 
         var builder = new OutputSourceWriterBuilder(naming);
@@ -408,17 +496,24 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
                 controller.getEntryPoint());
         renderer.setProperties(controller.getProperties());
         renderer.setProgressConsumer(controller::reportProgress);
+        renderer.setThreadCount(renderingThreads);
+        renderer.setLazyMethodBodies(lazyMethodBodies);
+        renderer.setSplitPoints(collectSplitPoints(classes));
 
         for (var listener : rendererListeners) {
             listener.begin(renderer, target);
         }
         if (!renderer.render(classes, controller.isFriendlyToDebugger())) {
-            return;
+            return Collections.emptyMap();
         }
         var declarations = rememberingWriter.save();
         rememberingWriter.clear();
 
+        // Render chunks before string pool, so that it includes strings used by chunks
+        var chunkBodies = renderChunkBodies(renderer, rememberingWriter);
+
         renderer.renderStringPool();
+        var stringPoolSize = renderingContext.getStringPool().size();
         renderer.renderStringConstants();
         renderer.renderCompatibilityStubs();
 
@@ -435,6 +530,18 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
             exports.add(new ExportedDeclaration(w -> w.appendFunction(alias),
                     n -> n.functionName(alias), controller.getEntryPointName()));
         }
+        if (classes.resolve(ProfileInstrumentation.DUMP) != null) {
+            var dumpAlias = "$rt_export_dumpProfile";
+            rememberingWriter.startVariableDeclaration().appendFunction(dumpAlias).append("()").ws().append("=>")
+                    .ws().appendFunction("$rt_ustr").append("(").appendMethod(ProfileInstrumentation.DUMP)
+                    .append("())").endDeclaration();
+            exports.add(new ExportedDeclaration(w -> w.appendFunction(dumpAlias),
+                    n -> n.functionName(dumpAlias), "dumpProfile"));
+        }
+        var chunkFileNames = getChunkFileNames(chunkBodies.keySet(), outputName);
+        if (!chunkBodies.isEmpty()) {
+            renderChunkLoaders(rememberingWriter, chunkFileNames);
+        }
 
         for (var listener : rendererListeners) {
             listener.complete();
@@ -446,7 +553,15 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         runtimeRenderer.prepareAstParts(renderer.isThreadLibraryUsed());
         declarations.replay(runtimeRenderer.sink, RememberedSource.FILTER_REF);
         epilogue.replay(runtimeRenderer.sink, RememberedSource.FILTER_REF);
-        runtimeRenderer.removeUnusedParts();
+        for (var bodies : chunkBodies.values()) {
+            for (var body : bodies) {
+                body.source.replay(runtimeRenderer.sink, RememberedSource.FILTER_REF);
+            }
+        }
+        if (!lazyMethodBodies) {
+            // Lazily rendered methods may use any part of runtime
+            runtimeRenderer.removeUnusedParts();
+        }
         runtimeRenderer.renderRuntime();
         var runtime = rememberingWriter.save();
         rememberingWriter.clear();
@@ -467,8 +582,17 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         runtimeEpilogue.replay(frequencyEstimator, RememberedSource.FILTER_REF);
         declarations.replay(frequencyEstimator, RememberedSource.FILTER_REF);
         epilogue.replay(frequencyEstimator, RememberedSource.FILTER_REF);
+        for (var bodies : chunkBodies.values()) {
+            for (var body : bodies) {
+                body.source.replay(frequencyEstimator, RememberedSource.FILTER_REF);
+            }
+        }
         frequencyEstimator.apply(naming);
 
+        // Print chunks before the main module, which must provide access to all names that chunks use
+        var chunkNaming = new ChunkNamingStrategy(naming);
+        var chunks = printChunks(chunkBodies, chunkFileNames, chunkNaming);
+
         var sourceWriter = builder.build(writer);
         sourceWriter.setDebugInformationEmitter(debugEmitterToUse);
         printWrapperStart(sourceWriter);
@@ -482,12 +606,263 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         declarations.write(sourceWriter, 0);
         runtimeEpilogue.write(sourceWriter, 0);
         epilogue.write(sourceWriter, 0);
+        if (!chunks.isEmpty()) {
+            renderChunkScope(sourceWriter, chunkNaming);
+        }
 
         printModuleEnd(sourceWriter);
         sourceWriter.finish();
 
         int totalSize = sourceWriter.getOffset() - start;
         printStats(sourceWriter, totalSize);
+
+        if (lazyMethodBodies) {
+            lazyRendering = new LazyRendering(renderer, rememberingWriter, builder, renderingContext,
+                    stringPoolSize);
+        }
+
+        return chunks;
+    }
+
+    private String getSplitPointChunk(ClassHolder cls, MethodHolder method) {
+        if (moduleType != JSModuleType.ES2015 || lazyMethodBodies) {
+            return null;
+        }
+        var annot = method.getAnnotations().get(SplitPoint.class.getName());
+        if (annot != null) {
+            return annot.getValue("value").getString();
+        }
+        for (var declaration : splitPoints) {
+            if (declaration.className.equals(cls.getName()) && declaration.methodName.equals(method.getName())) {
+                return declaration.chunk;
+            }
+        }
+        return null;
+    }
+
+    private Map<MethodReference, String> collectSplitPoints(ListableClassHolderSource classes) {
+        if (lazyMethodBodies) {
+            // Lazily rendered methods are loaded one by one anyway
+            return Collections.emptyMap();
+        }
+        var result = new LinkedHashMap<MethodReference, String>();
+        for (var className : classes.getClassNames()) {
+            var cls = classes.get(className);
+            for (var method : cls.getMethods()) {
+                var annot = method.getAnnotations().get(SplitPoint.class.getName());
+                if (annot != null) {
+                    result.put(method.getReference(), annot.getValue("value").getString());
+                }
+            }
+        }
+        for (var declaration : splitPoints) {
+            var cls = classes.get(declaration.className);
+            if (cls == null) {
+                continue;
+            }
+            for (var method : cls.getMethods()) {
+                if (method.getName().equals(declaration.methodName)) {
+                    result.put(method.getReference(), declaration.chunk);
+                }
+            }
+        }
+        if (!result.isEmpty() && moduleType != JSModuleType.ES2015) {
+            controller.getDiagnostics().warning(null, "Code splitting is only supported for ES2015 modules, "
+                    + "split points are ignored");
+            return Collections.emptyMap();
+        }
+        return result;
+    }
+
+    private Map<String, List<ChunkBody>> renderChunkBodies(Renderer renderer, RememberingSourceWriter writer) {
+        var result = new LinkedHashMap<String, List<ChunkBody>>();
+        var methods = renderer.getLazyMethods();
+        for (var i = 0; i < methods.size(); ++i) {
+            var chunk = renderer.getChunk(methods.get(i));
+            if (chunk == null) {
+                continue;
+            }
+            renderer.renderLazyMethodBody(i);
+            result.computeIfAbsent(chunk, k -> new ArrayList<>()).add(new ChunkBody(i, writer.save()));
+            writer.clear();
+        }
+        return result;
+    }
+
+    private static Map<String, String> getChunkFileNames(Collection<String> chunks, String outputName) {
+        var baseName = outputName.endsWith(".js")
+                ? outputName.substring(0, outputName.length() - 3)
+                : outputName;
+        var result = new LinkedHashMap<String, String>();
+        var usedNames = new HashSet<String>();
+        for (var chunk : chunks) {
+            var fileName = baseName + "-" + chunk.replaceAll("[^A-Za-z0-9_.-]", "_");
+            var suffix = 0;
+            while (!usedNames.add(suffix == 0 ? fileName : fileName + "_" + suffix)) {
+                ++suffix;
+            }
+            result.put(chunk, (suffix == 0 ? fileName : fileName + "_" + suffix) + ".js");
+        }
+        return result;
+    }
+
+    private void renderChunkLoaders(SourceWriter writer, Map<String, String> chunkFileNames) {
+        writer.startVariableDeclaration().appendFunction("$rt_chunkLoaders").append("{").indent().softNewLine();
+        var first = true;
+        for (var entry : chunkFileNames.entrySet()) {
+            if (!first) {
+                writer.append(",").softNewLine();
+            }
+            first = false;
+            var fileName = entry.getValue();
+            // Chunks are emitted to the same directory as the main module
+            fileName = fileName.substring(fileName.lastIndexOf('/') + 1);
+            RenderingUtil.writeString(writer, entry.getKey());
+            writer.append(":").ws().append("()").ws().append("=>").ws().append("import(");
+            RenderingUtil.writeString(writer, "./" + fileName);
+            writer.append(")");
+        }
+        writer.softNewLine().outdent().append("}").endDeclaration();
+
+        var alias = "$rt_export_loadChunk";
+        writer.startVariableDeclaration().appendFunction(alias).appendFunction("$rt_loadChunk").endDeclaration();
+        exports.add(new ExportedDeclaration(w -> w.appendFunction(alias), n -> n.functionName(alias),
+                "loadChunk"));
+    }
+
+    private Map<String, String> printChunks(Map<String, List<ChunkBody>> chunkBodies,
+            Map<String, String> chunkFileNames, ChunkNamingStrategy chunkNaming) {
+        chunkDebugInformation.clear();
+        var builder = new OutputSourceWriterBuilder(chunkNaming);
+        builder.setMinified(obfuscated);
+        var chunks = new LinkedHashMap<String, String>();
+        for (var entry : chunkBodies.entrySet()) {
+            var fileName = chunkFileNames.get(entry.getKey());
+            DebugInformationEmitter chunkDebugEmitter = new DummyDebugInformationEmitter();
+            if (debugEmitter != null) {
+                var debugBuilder = new DebugInformationBuilder(new ReferenceCache());
+                chunkDebugInformation.put(fileName, debugBuilder);
+                chunkDebugEmitter = debugBuilder;
+            }
+            var text = new StringBuilder();
+            var sourceWriter = builder.build(text);
+            sourceWriter.setDebugInformationEmitter(chunkDebugEmitter);
+            printChunk(sourceWriter, entry.getValue(), chunkNaming.additionalScopeName());
+            chunks.put(fileName, text.toString());
+        }
+        return chunks;
+    }
+
+    private void printChunk(OutputSourceWriter writer, List<ChunkBody> bodies, String scopeName) {
+        // Chunk is a function that takes object with access to top-level declarations of the main module
+        // and returns its method bodies along with indexes of their stubs
+        writer.append("export default ").append(scopeName).ws().append("=>").ws().append("[").indent()
+                .softNewLine();
+        for (var body : bodies) {
+            writer.append(String.valueOf(body.index)).append(",").ws();
+            body.source.write(writer, 0);
+            writer.append(",").softNewLine();
+        }
+        writer.outdent().append("];").newLine();
+        writer.finish();
+    }
+
+    private void renderChunkScope(SourceWriter writer, ChunkNamingStrategy chunkNaming) {
+        var scopeName = chunkNaming.additionalScopeName();
+        writer.startVariableDeclaration().appendFunction("$rt_chunkScope").append("{").indent().softNewLine();
+        var first = true;
+        if (chunkNaming.isAdditionalScopeUsed()) {
+            renderChunkScopeGetter(writer, scopeName);
+            first = false;
+        }
+        for (var name : chunkNaming.getTopLevelNames()) {
+            if (!first) {
+                writer.append(",").softNewLine();
+            }
+            first = false;
+            renderChunkScopeGetter(writer, name);
+            if (chunkNaming.getFieldNames().contains(name)) {
+                writer.append(",").softNewLine();
+                writer.append("set ").append(name).append("(").append(scopeName).append(")").ws().append("{").ws()
+                        .append(name).ws().append("=").ws().append(scopeName).append(";").ws().append("}");
+            }
+        }
+        writer.softNewLine().outdent().append("}").endDeclaration();
+    }
+
+    private static void renderChunkScopeGetter(SourceWriter writer, String name) {
+        writer.append("get ").append(name).append("()").ws().append("{").ws().append("return ").append(name)
+                .append(";").ws().append("}");
+    }
+
+    private static class ChunkBody {
+        final int index;
+        final RememberedSource source;
+
+        ChunkBody(int index, RememberedSource source) {
+            this.index = index;
+            this.source = source;
+        }
+    }
+
+    private static class SplitPointDeclaration {
+        final String className;
+        final String methodName;
+        final String chunk;
+
+        SplitPointDeclaration(String className, String methodName, String chunk) {
+            this.className = className;
+            this.methodName = methodName;
+            this.chunk = chunk;
+        }
+    }
+
+    private class LazyRendering {
+        final Renderer renderer;
+        final RememberingSourceWriter writer;
+        final OutputSourceWriterBuilder builder;
+        final RenderingContext context;
+        final int stringPoolSize;
+
+        LazyRendering(Renderer renderer, RememberingSourceWriter writer, OutputSourceWriterBuilder builder,
+                RenderingContext context, int stringPoolSize) {
+            this.renderer = renderer;
+            this.writer = writer;
+            this.builder = builder;
+            this.context = context;
+            this.stringPoolSize = stringPoolSize;
+        }
+
+        String render(int index) {
+            var moduleCount = importedModules.size();
+            writer.clear();
+            renderer.renderLazyMethodBody(index);
+            var body = writer.save();
+            writer.clear();
+            if (importedModules.size() != moduleCount) {
+                throw new RenderingException("Method " + renderer.getLazyMethods().get(index)
+                        + " imports JavaScript module, which is not supported for lazily rendered methods");
+            }
+
+            var result = new StringBuilder();
+            var sourceWriter = builder.build(result);
+            // Strings that were not known when the program was built. Each response carries all of them,
+            // since a page loaded earlier may have not seen strings of methods requested by other pages
+            var strings = context.getStringPool();
+            if (strings.size() > stringPoolSize) {
+                sourceWriter.appendFunction("$rt_lazyStrings").append("(" + stringPoolSize + ",").ws().append("[");
+                for (var i = stringPoolSize; i < strings.size(); ++i) {
+                    if (i > stringPoolSize) {
+                        sourceWriter.append(",").ws();
+                    }
+                    RenderingUtil.writeString(sourceWriter, strings.get(i));
+                }
+                sourceWriter.append("]),").ws();
+            }
+            body.write(sourceWriter, 0);
+            sourceWriter.finish();
+            return result.toString();
+        }
     }
 
     private void printWrapperStart(SourceWriter writer) {
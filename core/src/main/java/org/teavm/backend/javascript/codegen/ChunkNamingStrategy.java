@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.codegen;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodReference;
+
+/**
+ * Naming strategy for code of a separately loaded chunk, which can't see top-level declarations
+ * of the main module. Chunk code gets scope object as a parameter named after additional scope
+ * of the main module, and every top-level name is accessed as property of this object.
+ * Names that the main module puts into its additional scope are accessed through the property
+ * with the name of the additional scope.
+ */
+public class ChunkNamingStrategy implements NamingStrategy {
+    private final NamingStrategy naming;
+    private final Set<String> topLevelNames = new LinkedHashSet<>();
+    private final Set<String> fieldNames = new LinkedHashSet<>();
+    private boolean additionalScopeUsed;
+
+    public ChunkNamingStrategy(NamingStrategy naming) {
+        this.naming = naming;
+    }
+
+    /**
+     * Returns top-level names of the main module used by chunk code, in order of first use.
+     */
+    public Set<String> getTopLevelNames() {
+        return topLevelNames;
+    }
+
+    /**
+     * Returns top-level names of static fields, which chunk code may assign.
+     */
+    public Set<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    public boolean isAdditionalScopeUsed() {
+        return additionalScopeUsed;
+    }
+
+    @Override
+    public ScopedName className(String cls) {
+        return chunkName(naming.className(cls));
+    }
+
+    @Override
+    public String instanceMethodName(MethodDescriptor method) {
+        return naming.instanceMethodName(method);
+    }
+
+    @Override
+    public ScopedName initializerName(MethodReference method) {
+        return chunkName(naming.initializerName(method));
+    }
+
+    @Override
+    public ScopedName methodName(MethodReference method) {
+        return chunkName(naming.methodName(method));
+    }
+
+    @Override
+    public String instanceFieldName(FieldReference field) {
+        return naming.instanceFieldName(field);
+    }
+
+    @Override
+    public ScopedName fieldName(FieldReference field) {
+        var name = naming.fieldName(field);
+        if (!name.scoped) {
+            fieldNames.add(name.name);
+        }
+        return chunkName(name);
+    }
+
+    @Override
+    public ScopedName functionName(String name) {
+        return chunkName(naming.functionName(name));
+    }
+
+    @Override
+    public ScopedName classInitializerName(String className) {
+        return chunkName(naming.classInitializerName(className));
+    }
+
+    @Override
+    public String additionalScopeName() {
+        return naming.additionalScopeName();
+    }
+
+    @Override
+    public void reserveName(String name) {
+        naming.reserveName(name);
+    }
+
+    private ScopedName chunkName(ScopedName name) {
+        if (name.scoped) {
+            additionalScopeUsed = true;
+            return new ScopedName(naming.additionalScopeName() + "." + name.name, true);
+        }
+        topLevelNames.add(name.name);
+        return new ScopedName(name.name, true);
+    }
+}
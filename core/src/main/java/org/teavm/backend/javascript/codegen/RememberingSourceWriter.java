@@ -83,6 +83,10 @@ public class RememberingSourceWriter extends SourceWriter {
         this.debug = debug;
     }
 
+    public boolean isDebug() {
+        return debug;
+    }
+
     public void clear() {
         sb.setLength(0);
         lastWrittenChar = 0;
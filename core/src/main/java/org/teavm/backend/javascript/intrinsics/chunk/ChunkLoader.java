@@ -0,0 +1,32 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.intrinsics.chunk;
+
+import org.teavm.backend.javascript.spi.GeneratedBy;
+import org.teavm.interop.Async;
+
+public final class ChunkLoader {
+    private ChunkLoader() {
+    }
+
+    /**
+     * Loads chunk with given name, if it was not loaded yet, suspending current thread until
+     * the chunk is ready. Calls to this method are inserted into split points by {@link SplitPointTransformer}.
+     */
+    @Async
+    @GeneratedBy(ChunkLoaderGenerator.class)
+    public static native void load(String chunk);
+}
@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.intrinsics.chunk;
+
+import java.util.function.BiFunction;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ClassHolderTransformer;
+import org.teavm.model.ClassHolderTransformerContext;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReference;
+import org.teavm.model.instructions.InvocationType;
+import org.teavm.model.instructions.InvokeInstruction;
+import org.teavm.model.instructions.StringConstantInstruction;
+
+/**
+ * Makes split points load their chunks before running, which turns them and their callers into
+ * asynchronous methods.
+ */
+public class SplitPointTransformer implements ClassHolderTransformer {
+    private static final MethodReference LOAD_METHOD = new MethodReference(ChunkLoader.class, "load",
+            String.class, void.class);
+    private final BiFunction<ClassHolder, MethodHolder, String> chunkProvider;
+
+    /**
+     * @param chunkProvider returns chunk name of given split point, or {@code null} if method is not a split point.
+     */
+    public SplitPointTransformer(BiFunction<ClassHolder, MethodHolder, String> chunkProvider) {
+        this.chunkProvider = chunkProvider;
+    }
+
+    @Override
+    public void transformClass(ClassHolder cls, ClassHolderTransformerContext context) {
+        for (var method : cls.getMethods()) {
+            var program = method.getProgram();
+            if (program == null || program.basicBlockCount() == 0) {
+                continue;
+            }
+            var chunk = chunkProvider.apply(cls, method);
+            if (chunk == null) {
+                continue;
+            }
+
+            var entryBlock = program.basicBlockAt(0);
+            var location = entryBlock.getFirstInstruction() != null
+                    ? entryBlock.getFirstInstruction().getLocation()
+                    : null;
+
+            var chunkVar = program.createVariable();
+            var constInsn = new StringConstantInstruction();
+            constInsn.setConstant(chunk);
+            constInsn.setReceiver(chunkVar);
+            constInsn.setLocation(location);
+
+            var loadInsn = new InvokeInstruction();
+            loadInsn.setType(InvocationType.SPECIAL);
+            loadInsn.setMethod(LOAD_METHOD);
+            loadInsn.setArguments(chunkVar);
+            loadInsn.setLocation(location);
+
+            entryBlock.addFirst(loadInsn);
+            entryBlock.addFirst(constInsn);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.rendering;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.teavm.callgraph.CallGraph;
+import org.teavm.model.MethodReference;
+
+/**
+ * Assigns methods to chunks given split points. A method goes to the chunk of a split point only when
+ * every call to it in the call graph comes from the split points or other methods of this chunk. Methods that
+ * have no callers in the call graph or that are called externally (by plugins, generators or runtime) can be
+ * called by code that is not part of the call graph, so they stay in the initial chunk, as well as methods
+ * reachable from several chunks and methods that can't be moved. Split points that can't be moved stay
+ * in the initial chunk, while methods they call still go to their chunk.
+ */
+class ChunkPartitioner {
+    private final CallGraph callGraph;
+
+    ChunkPartitioner(CallGraph callGraph) {
+        this.callGraph = callGraph;
+    }
+
+    /**
+     * Computes chunks of methods.
+     *
+     * @param methods all methods that have bodies in generated code.
+     * @param splitPoints chunk names by split point methods.
+     * @param movable tells whether a method can be emitted into a separate chunk.
+     * @param calledExternally tells whether a method can be called by code that is not covered by call graph.
+     * @return chunk names of methods that don't belong to initial chunk.
+     */
+    Map<MethodReference, String> partition(Collection<MethodReference> methods,
+            Map<MethodReference, String> splitPoints, Predicate<MethodReference> movable,
+            Predicate<MethodReference> calledExternally) {
+        var reachableByChunk = new LinkedHashMap<String, Set<MethodReference>>();
+        for (var entry : splitPoints.entrySet()) {
+            var reachable = reachableByChunk.computeIfAbsent(entry.getValue(), k -> new HashSet<>());
+            traverse(entry.getKey(), reachable, splitPoints.keySet());
+        }
+
+        var owners = new HashMap<MethodReference, String>();
+        var shared = new HashSet<MethodReference>();
+        for (var entry : reachableByChunk.entrySet()) {
+            for (var method : entry.getValue()) {
+                var previous = owners.putIfAbsent(method, entry.getKey());
+                if (previous != null && !previous.equals(entry.getKey())) {
+                    shared.add(method);
+                }
+            }
+        }
+
+        var result = new LinkedHashMap<MethodReference, String>();
+        for (var method : methods) {
+            var owner = owners.get(method);
+            if (owner == null || shared.contains(method) || !movable.test(method)) {
+                continue;
+            }
+            if (splitPoints.containsKey(method) || !calledExternally.test(method)) {
+                result.put(method, owner);
+            }
+        }
+
+        // Drop methods called from outside of their chunk, which makes their callees lose callers from the chunk,
+        // until only methods called exclusively from their chunks remain
+        var queue = new ArrayDeque<>(result.keySet());
+        while (!queue.isEmpty()) {
+            var method = queue.remove();
+            var owner = result.get(method);
+            if (owner == null || splitPoints.containsKey(method) || isCalledOnlyFrom(method, owner, result, splitPoints)) {
+                continue;
+            }
+            result.remove(method);
+            var node = callGraph.getNode(method);
+            if (node != null) {
+                for (var callSite : node.getCallSites()) {
+                    for (var callee : callSite.getCalledMethods()) {
+                        if (result.containsKey(callee.getMethod())) {
+                            queue.add(callee.getMethod());
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean isCalledOnlyFrom(MethodReference method, String chunk, Map<MethodReference, String> chunks,
+            Map<MethodReference, String> splitPoints) {
+        var node = callGraph.getNode(method);
+        if (node == null) {
+            return false;
+        }
+        var hasCallers = false;
+        for (var callSite : node.getCallerCallSites()) {
+            for (var caller : callSite.getCallers()) {
+                var callerRef = caller.getMethod();
+                if (!chunk.equals(chunks.get(callerRef)) && !chunk.equals(splitPoints.get(callerRef))) {
+                    return false;
+                }
+                hasCallers = true;
+            }
+        }
+        return hasCallers;
+    }
+
+    private void traverse(MethodReference start, Set<MethodReference> visited, Set<MethodReference> barriers) {
+        if (!visited.add(start)) {
+            return;
+        }
+        var stack = new ArrayDeque<MethodReference>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            var method = stack.pop();
+            var node = callGraph.getNode(method);
+            if (node == null) {
+                continue;
+            }
+            for (var callSite : node.getCallSites()) {
+                for (var callee : callSite.getCalledMethods()) {
+                    var calleeRef = callee.getMethod();
+                    if (!barriers.contains(calleeRef) && visited.add(calleeRef)) {
+                        stack.push(calleeRef);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.rendering;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.teavm.ast.AsyncMethodNode;
+import org.teavm.ast.ConstantExpr;
+import org.teavm.ast.InvocationExpr;
+import org.teavm.ast.InvocationType;
+import org.teavm.ast.MethodNode;
+import org.teavm.ast.RecursiveVisitor;
+import org.teavm.ast.RegularMethodNode;
+import org.teavm.backend.javascript.codegen.NamingStrategy;
+import org.teavm.backend.javascript.codegen.ScopedName;
+import org.teavm.backend.javascript.spi.Injector;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Rendering context that is shared by threads rendering method bodies in parallel.</p>
+ *
+ * <p>String pool indexes and names of virtual methods depend on the order in which they were requested,
+ * so they are resolved in advance on the main thread, by {@link #prepare(MethodReference, MethodNode)},
+ * in the order of classes in the output file. Workers only read resolved values. If a worker needs something
+ * that was not resolved in advance, {@link SerialRenderingRequiredException} is thrown, and the class
+ * is rendered on the main thread. Injectors are invoked one at a time, since they are not required
+ * to be thread-safe.</p>
+ */
+class ConcurrentRenderingContext extends RenderingContext {
+    private final RenderingContext parent;
+    private final Map<MethodDescriptor, String> instanceMethodNames = new HashMap<>();
+    private final Set<MethodReference> forcedFunctions = new HashSet<>();
+    private final NamingStrategy naming = new ResolvedNaming();
+    private final Object injectorLock = new Object();
+
+    ConcurrentRenderingContext(RenderingContext parent) {
+        super(parent.getDebugEmitter(), parent.getInitialClassSource(), parent.getClassSource(),
+                parent.getClassLoader(), parent.getServices(), parent.getProperties(), null,
+                parent.getDependencyInfo(), null, null, null, parent.isStrict());
+        this.parent = parent;
+        setMinifying(parent.isMinifying());
+    }
+
+    void prepare(MethodReference method, MethodNode node) {
+        if (parent.isForcedFunction(method)) {
+            forcedFunctions.add(method);
+        }
+        var visitor = new PreparingVisitor();
+        if (node instanceof RegularMethodNode) {
+            ((RegularMethodNode) node).getBody().acceptVisitor(visitor);
+        } else {
+            for (var part : ((AsyncMethodNode) node).getBody()) {
+                part.getStatement().acceptVisitor(visitor);
+            }
+        }
+    }
+
+    @Override
+    public NamingStrategy getNaming() {
+        return naming;
+    }
+
+    @Override
+    public boolean isVirtual(MethodReference method) {
+        throw new SerialRenderingRequiredException();
+    }
+
+    @Override
+    public boolean isForcedFunction(MethodReference method) {
+        return forcedFunctions.contains(method);
+    }
+
+    @Override
+    public boolean isDynamicInitializer(String className) {
+        return parent.isDynamicInitializer(className);
+    }
+
+    @Override
+    public int lookupString(String string) {
+        var index = parent.findString(string);
+        if (index < 0) {
+            throw new SerialRenderingRequiredException();
+        }
+        return index;
+    }
+
+    @Override
+    public List<String> getStringPool() {
+        throw new SerialRenderingRequiredException();
+    }
+
+    @Override
+    public void addInjector(MethodReference method, Injector injector) {
+        throw new SerialRenderingRequiredException();
+    }
+
+    @Override
+    public Injector getInjector(MethodReference ref) {
+        if (!parent.isInjectorResolved(ref)) {
+            throw new SerialRenderingRequiredException();
+        }
+        var injector = parent.getInjector(ref);
+        if (injector == null) {
+            return null;
+        }
+        return (context, methodRef) -> {
+            synchronized (injectorLock) {
+                injector.generate(context, methodRef);
+            }
+        };
+    }
+
+    @Override
+    public String importModule(String name) {
+        throw new SerialRenderingRequiredException();
+    }
+
+    class PreparingVisitor extends RecursiveVisitor {
+        @Override
+        public void visit(ConstantExpr expr) {
+            if (expr.getValue() instanceof String) {
+                parent.lookupString((String) expr.getValue());
+            }
+        }
+
+        @Override
+        public void visit(InvocationExpr expr) {
+            if (parent.getInjector(expr.getMethod()) != null) {
+                // Injector decides how to render arguments, so don't guess string constants it might need
+                return;
+            }
+            if (expr.getType() != InvocationType.DYNAMIC) {
+                super.visit(expr);
+                return;
+            }
+            var arguments = expr.getArguments();
+            arguments.get(0).acceptVisitor(this);
+            var descriptor = expr.getMethod().getDescriptor();
+            if (!instanceMethodNames.containsKey(descriptor)) {
+                instanceMethodNames.put(descriptor, parent.getNaming().instanceMethodName(descriptor));
+            }
+            for (var i = 1; i < arguments.size(); ++i) {
+                arguments.get(i).acceptVisitor(this);
+            }
+        }
+    }
+
+    class ResolvedNaming implements NamingStrategy {
+        @Override
+        public String instanceMethodName(MethodDescriptor method) {
+            var name = instanceMethodNames.get(method);
+            if (name == null) {
+                throw new SerialRenderingRequiredException();
+            }
+            return name;
+        }
+
+        @Override
+        public ScopedName className(String cls) {
+            throw new SerialRenderingRequiredException();
+        }
+
+        @Override
+        public ScopedName initializerName(MethodReference method) {
+            throw new SerialRenderingRequiredException();
+        }
+
+        @Override
+        public ScopedName methodName(MethodReference method) {
+            throw new SerialRenderingRequiredException();
+        }
+
+        @Override
+        public String instanceFieldName(FieldReference field) {
+            throw new SerialRenderingRequiredException();
+        }
+
+        @Override
+        public ScopedName fieldName(FieldReference method) {
+            throw new SerialRenderingRequiredException();
+        }
+
+        @Override
+        public ScopedName functionName(String name) {
+            throw new SerialRenderingRequiredException();
+        }
+
+        @Override
+        public ScopedName classInitializerName(String className) {
+            throw new SerialRenderingRequiredException();
+        }
+
+        @Override
+        public String additionalScopeName() {
+            throw new SerialRenderingRequiredException();
+        }
+
+        @Override
+        public void reserveName(String name) {
+            throw new SerialRenderingRequiredException();
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.lang.annotation.Retention;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -29,6 +30,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntFunction;
 import org.teavm.ast.AsyncMethodNode;
 import org.teavm.ast.ControlFlowEntry;
@@ -38,6 +45,8 @@ import org.teavm.ast.analysis.LocationGraphBuilder;
 import org.teavm.ast.decompilation.DecompilationException;
 import org.teavm.ast.decompilation.Decompiler;
 import org.teavm.backend.javascript.ExportedDeclaration;
+import org.teavm.backend.javascript.codegen.RememberedSource;
+import org.teavm.backend.javascript.codegen.RememberingSourceWriter;
 import org.teavm.backend.javascript.codegen.SourceWriter;
 import org.teavm.backend.javascript.spi.GeneratedBy;
 import org.teavm.backend.javascript.spi.Generator;
@@ -96,6 +105,16 @@ public class Renderer implements RenderingManager {
     private List<ExportedDeclaration> exports;
     private String entryPoint;
     private VariableNameGenerator variableNameGenerator;
+    private int threadCount = 1;
+    private int parallelRenderedClassCount;
+    private Map<MethodReference, MethodNode> preparedMethods = Collections.emptyMap();
+    private boolean lazyMethodBodies;
+    private final List<MethodReference> lazyMethods = new ArrayList<>();
+    private ListableClassHolderSource lazyClasses;
+    private Set<MethodReference> lazySplitMethods = Collections.emptySet();
+    private Decompiler lazyDecompiler;
+    private Map<MethodReference, String> splitPoints = Collections.emptyMap();
+    private Map<MethodReference, String> chunkMethods = Collections.emptyMap();
 
     public static final MethodDescriptor CLINIT_METHOD = new MethodDescriptor("<clinit>", ValueType.VOID);
 
@@ -121,6 +140,25 @@ public class Renderer implements RenderingManager {
         this.entryPoint = entryPoint;
     }
 
+    private Renderer(Renderer parent, SourceWriter writer, RenderingContext context) {
+        this.writer = writer;
+        this.classSource = parent.classSource;
+        this.originalClassSource = parent.originalClassSource;
+        this.classLoader = parent.classLoader;
+        this.services = parent.services;
+        this.asyncMethods = parent.asyncMethods;
+        this.context = context;
+        variableNameGenerator = new VariableNameGenerator(context.isMinifying());
+        methodBodyRenderer = new MethodBodyRenderer(context, parent.methodBodyRenderer.getDiagnostics(),
+                context.isMinifying(), asyncMethods, writer, variableNameGenerator);
+        generators = parent.generators;
+        cacheStatus = parent.cacheStatus;
+        templateFactory = parent.templateFactory;
+        exports = parent.exports;
+        entryPoint = parent.entryPoint;
+        preparedMethods = parent.preparedMethods;
+    }
+
     @Override
     public SourceWriter getWriter() {
         return writer;
@@ -177,6 +215,63 @@ public class Renderer implements RenderingManager {
         this.progressConsumer = progressConsumer;
     }
 
+    /**
+     * Sets number of threads that render method bodies. When greater than one, and the writer is
+     * {@link RememberingSourceWriter}, methods are decompiled and rendered on a pool of threads, and rendered
+     * classes are written in the same order as in serial mode. Classes that depend on something that can't
+     * be shared between threads (like native method generators) are rendered on the calling thread.
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Returns number of classes whose method bodies were rendered on worker threads. Classes that fell back
+     * to serial rendering are not counted.
+     */
+    public int getParallelRenderedClassCount() {
+        return parallelRenderedClassCount;
+    }
+
+    /**
+     * Makes renderer emit stubs instead of bodies of regular methods. A stub asks
+     * {@code $rt_lazyMethod} runtime function for the actual function, which gets it from
+     * {@code $teavm_lazyMethodBody} global function as a source text and evaluates it. The text
+     * is produced by {@link #renderLazyMethodBody(int)} after the whole program is rendered, so programs
+     * of methods that are never called are neither optimized nor decompiled.
+     */
+    public void setLazyMethodBodies(boolean lazyMethodBodies) {
+        this.lazyMethodBodies = lazyMethodBodies;
+    }
+
+    /**
+     * Makes renderer move bodies of methods that are only reachable through given split points to separate
+     * chunks. Methods of chunks are rendered as stubs, like with {@link #setLazyMethodBodies(boolean)}, but
+     * the stub replaces itself with the function that {@code $rt_chunkMethod} runtime function takes from
+     * the registry filled by {@code $rt_loadChunk}. Bodies are produced by {@link #renderLazyMethodBody(int)}.
+     * Split points themselves stay in the initial chunk, since they load their chunk before running.
+     *
+     * @param splitPoints chunk names by split point methods.
+     */
+    public void setSplitPoints(Map<MethodReference, String> splitPoints) {
+        this.splitPoints = splitPoints;
+    }
+
+    /**
+     * Returns name of the chunk where body of given method is emitted or {@code null}, if method belongs
+     * to initial chunk. Only available after {@link #render(ListableClassHolderSource, boolean)}.
+     */
+    public String getChunk(MethodReference method) {
+        return chunkMethods.get(method);
+    }
+
+    /**
+     * Returns methods rendered as stubs, in order of their indexes.
+     */
+    public List<MethodReference> getLazyMethods() {
+        return lazyMethods;
+    }
+
     public void setProperties(Properties properties) {
         this.properties.clear();
         this.properties.putAll(properties);
@@ -252,8 +347,25 @@ public class Renderer implements RenderingManager {
         asyncMethods.addAll(asyncFinder.getAsyncMethods());
         var splitMethods = new HashSet<>(asyncMethods);
         splitMethods.addAll(asyncFinder.getAsyncFamilyMethods());
+        if (!splitPoints.isEmpty()) {
+            chunkMethods = partitionChunks(classes, splitMethods);
+        }
+
+        if (threadCount > 1 && !lazyMethodBodies && chunkMethods.isEmpty()
+                && writer instanceof RememberingSourceWriter) {
+            if (!renderInParallel(classes, sequence, splitMethods, isFriendlyToDebugger)) {
+                return false;
+            }
+            renderClassMetadata(sequence);
+            return true;
+        }
 
         var decompiler = new Decompiler(classes, splitMethods, isFriendlyToDebugger);
+        if (lazyMethodBodies || !chunkMethods.isEmpty()) {
+            lazyClasses = classes;
+            lazySplitMethods = splitMethods;
+            lazyDecompiler = decompiler;
+        }
 
         int index = 0;
         for (var cls : sequence) {
@@ -269,6 +381,214 @@ public class Renderer implements RenderingManager {
         return true;
     }
 
+    private Map<MethodReference, String> partitionChunks(ListableClassHolderSource classes,
+            Set<MethodReference> splitMethods) {
+        var methods = new ArrayList<MethodReference>();
+        var movable = new HashSet<MethodReference>();
+        for (var className : classes.getClassNames()) {
+            for (var method : classes.get(className).getMethods()) {
+                if (!filterMethod(method)) {
+                    continue;
+                }
+                var ref = method.getReference();
+                methods.add(ref);
+                // Class initializers can be triggered by code of any chunk without a call site in call graph
+                if (!method.hasModifier(ElementModifier.NATIVE) && !splitMethods.contains(ref)
+                        && !context.isForcedFunction(ref) && !method.getName().equals("<clinit>")) {
+                    movable.add(ref);
+                }
+            }
+        }
+        var dependencyInfo = context.getDependencyInfo();
+        var partitioner = new ChunkPartitioner(dependencyInfo.getCallGraph());
+        return partitioner.partition(methods, splitPoints, movable::contains, ref -> {
+            var dep = dependencyInfo.getMethod(ref);
+            return dep != null && dep.isCalled();
+        });
+    }
+
+    private boolean renderInParallel(ListableClassHolderSource classes, List<ClassHolder> sequence,
+            Set<MethodReference> splitMethods, boolean isFriendlyToDebugger) {
+        var threadIndex = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            var thread = new Thread(runnable, "teavm-renderer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return renderInParallel(executor, classes, sequence, splitMethods, isFriendlyToDebugger);
+        } finally {
+            executor.shutdownNow();
+            preparedMethods = Collections.emptyMap();
+        }
+    }
+
+    private boolean renderInParallel(ExecutorService executor, ListableClassHolderSource classes,
+            List<ClassHolder> sequence, Set<MethodReference> splitMethods, boolean isFriendlyToDebugger) {
+        var decompilers = ThreadLocal.withInitial(() -> new Decompiler(classes, splitMethods,
+                isFriendlyToDebugger));
+        var parallelClasses = new ArrayList<ParallelClass>();
+        for (var cls : sequence) {
+            var parallelClass = new ParallelClass(cls);
+            parallelClasses.add(parallelClass);
+            for (var method : cls.getMethods()) {
+                if (!filterMethod(method)) {
+                    continue;
+                }
+                if (method.hasModifier(ElementModifier.NATIVE)) {
+                    parallelClass.serial = true;
+                    continue;
+                }
+                var ref = method.getReference();
+                var node = getCachedMethodNode(method);
+                if (node != null) {
+                    parallelClass.methods.put(ref, CompletableFuture.completedFuture(node));
+                } else if (asyncMethods.contains(ref)) {
+                    parallelClass.methods.put(ref, CompletableFuture.supplyAsync(
+                            () -> new DecompiledMethod(decompilers.get().decompileAsync(method), null, true),
+                            executor));
+                } else {
+                    parallelClass.methods.put(ref, CompletableFuture.supplyAsync(() -> {
+                        var entry = decompileRegularCacheMiss(decompilers.get(), method);
+                        return new DecompiledMethod(entry.method, entry.cfg, true);
+                    }, executor));
+                }
+            }
+        }
+
+        // String pool indexes and virtual method names must be assigned in deterministic order,
+        // so resolve them before rendering
+        var concurrentContext = new ConcurrentRenderingContext(context);
+        var prepared = new HashMap<MethodReference, MethodNode>();
+        for (var parallelClass : parallelClasses) {
+            for (var entry : parallelClass.methods.entrySet()) {
+                var decompiled = join(entry.getValue());
+                if (decompiled == null) {
+                    parallelClass.serial = true;
+                    continue;
+                }
+                if (decompiled.fresh) {
+                    storeMethodNode(decompiled);
+                }
+                prepared.put(entry.getKey(), decompiled.node);
+                if (!parallelClass.serial) {
+                    concurrentContext.prepare(entry.getKey(), decompiled.node);
+                }
+            }
+        }
+        preparedMethods = prepared;
+
+        var renderedClasses = new ArrayList<CompletableFuture<RenderedClass>>();
+        for (var parallelClass : parallelClasses) {
+            if (parallelClass.serial) {
+                renderedClasses.add(CompletableFuture.completedFuture(null));
+                continue;
+            }
+            renderedClasses.add(CompletableFuture.supplyAsync(() -> {
+                var buffer = new RememberingSourceWriter(((RememberingSourceWriter) writer).isDebug());
+                var worker = new Renderer(this, buffer, concurrentContext);
+                worker.renderMethodBodies(parallelClass.cls, null);
+                return new RenderedClass(buffer.save(), worker.threadLibraryUsed);
+            }, executor));
+        }
+
+        // Wait for all workers before writing anything, since the main thread may add entries to the string pool
+        // which workers read
+        CompletableFuture.allOf(renderedClasses.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+
+        Decompiler decompiler = null;
+        for (int i = 0; i < parallelClasses.size(); ++i) {
+            var cls = parallelClasses.get(i).cls;
+            writer.markClassStart(cls.getName());
+            renderDeclaration(cls);
+            var rendered = join(renderedClasses.get(i));
+            if (rendered != null) {
+                rendered.source.write(writer, 0);
+                threadLibraryUsed |= rendered.threadLibraryUsed;
+                ++parallelRenderedClassCount;
+            } else {
+                if (decompiler == null) {
+                    decompiler = new Decompiler(classes, splitMethods, isFriendlyToDebugger);
+                }
+                renderMethodBodies(cls, decompiler);
+            }
+            writer.markClassEnd();
+            if (progressConsumer.apply(1000 * (i + 1) / sequence.size()) == TeaVMProgressFeedback.CANCEL) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            // Failures are reproduced by rendering the class serially, so that they are reported in the same way
+            return null;
+        }
+    }
+
+    private DecompiledMethod getCachedMethodNode(MethodHolder method) {
+        if (astCache == null || cacheStatus.isStaleMethod(method.getReference())) {
+            return null;
+        }
+        if (asyncMethods.contains(method.getReference())) {
+            var node = astCache.getAsync(method.getReference(), cacheStatus);
+            return node != null ? new DecompiledMethod(node, null, false) : null;
+        } else {
+            var entry = astCache.get(method.getReference(), cacheStatus);
+            return entry != null ? new DecompiledMethod(entry.method, entry.cfg, false) : null;
+        }
+    }
+
+    private void storeMethodNode(DecompiledMethod decompiled) {
+        if (astCache == null) {
+            return;
+        }
+        var reference = decompiled.node.getReference();
+        if (decompiled.node instanceof AsyncMethodNode) {
+            var node = (AsyncMethodNode) decompiled.node;
+            astCache.storeAsync(reference, node, () -> dependencyExtractor.extract(node));
+        } else {
+            var node = (RegularMethodNode) decompiled.node;
+            astCache.store(reference, new AstCacheEntry(node, decompiled.cfg),
+                    () -> dependencyExtractor.extract(node));
+        }
+    }
+
+    static class DecompiledMethod {
+        final MethodNode node;
+        final ControlFlowEntry[] cfg;
+        final boolean fresh;
+
+        DecompiledMethod(MethodNode node, ControlFlowEntry[] cfg, boolean fresh) {
+            this.node = node;
+            this.cfg = cfg;
+            this.fresh = fresh;
+        }
+    }
+
+    static class ParallelClass {
+        final ClassHolder cls;
+        final Map<MethodReference, CompletableFuture<DecompiledMethod>> methods = new LinkedHashMap<>();
+        boolean serial;
+
+        ParallelClass(ClassHolder cls) {
+            this.cls = cls;
+        }
+    }
+
+    static class RenderedClass {
+        final RememberedSource source;
+        final boolean threadLibraryUsed;
+
+        RenderedClass(RememberedSource source, boolean threadLibraryUsed) {
+            this.source = source;
+            this.threadLibraryUsed = threadLibraryUsed;
+        }
+    }
+
     private void orderClasses(ClassHolderSource classes, String className, Set<String> visited,
             List<ClassHolder> order) {
         if (!visited.add(className)) {
@@ -387,7 +707,11 @@ public class Renderer implements RenderingManager {
             } else {
                 writer.startVariableDeclaration();
             }
-            renderBody(method, decompiler, isFunction);
+            if (isLazy(method, isFunction)) {
+                renderLazyStub(method);
+            } else {
+                renderBody(method, decompiler, isFunction);
+            }
             writer.endDeclaration();
             if (needsInitializers && !method.hasModifier(ElementModifier.STATIC)
                     && method.getName().equals("<init>")) {
@@ -406,12 +730,64 @@ public class Renderer implements RenderingManager {
                 || context.getInjector(method.getReference()) != null) {
             return false;
         }
-        if (!method.hasModifier(ElementModifier.NATIVE) && method.getProgram() == null) {
+        if (!method.hasModifier(ElementModifier.NATIVE) && !hasProgram(method)) {
             return false;
         }
         return true;
     }
 
+    private static boolean hasProgram(MethodReader method) {
+        // Don't force lazily supplied program, since with lazy method bodies it might never be needed
+        return method instanceof MethodHolder ? ((MethodHolder) method).hasProgram() : method.getProgram() != null;
+    }
+
+    private boolean isLazy(MethodHolder method, boolean isFunction) {
+        // Forced functions can be called by JavaScript code with arbitrary `this`, and async methods
+        // have their own calling convention, so both are rendered eagerly
+        if (isFunction || method.hasModifier(ElementModifier.NATIVE)
+                || lazySplitMethods.contains(method.getReference())) {
+            return false;
+        }
+        return lazyMethodBodies || chunkMethods.containsKey(method.getReference());
+    }
+
+    private void renderLazyStub(MethodHolder method) {
+        var ref = method.getReference();
+        var index = lazyMethods.size();
+        lazyMethods.add(ref);
+        writer.emitMethod(ref.getDescriptor());
+        writer.appendMethod(ref);
+        writer.append("function()").ws().append("{").ws();
+        if (chunkMethods.containsKey(ref)) {
+            writer.append("return (").appendMethod(ref).ws().append("=").ws().appendFunction("$rt_chunkMethod")
+                    .append("(" + index + "))");
+        } else {
+            writer.append("return ").appendFunction("$rt_lazyMethod").append("(" + index + ",").ws()
+                    .append("()").ws().append("=>").ws().appendMethod(ref).ws().append("=").ws()
+                    .append("eval(").appendFunction("$rt_lazyMethodBody").append("(" + index + ")))");
+        }
+        writer.append(".apply(null,").ws().append("arguments);").ws().append("}");
+        writer.emitMethod(null);
+    }
+
+    /**
+     * Renders body of a method previously emitted as a stub with given index. The result is an arrow function
+     * expression, which should be evaluated in the scope of the generated module or printed with naming
+     * strategy that resolves names of the generated module.
+     */
+    public void renderLazyMethodBody(int index) {
+        var ref = lazyMethods.get(index);
+        var method = lazyClasses.get(ref.getClassName()).getMethod(ref.getDescriptor());
+        var node = decompileRegular(lazyDecompiler, method).method;
+
+        methodBodyRenderer.setCurrentMethod(node);
+        writer.append("(");
+        methodBodyRenderer.renderParameters(ref, method.getModifiers(), true);
+        writer.sameLineWs().append("=>").ws().append("{").indent().softNewLine();
+        methodBodyRenderer.render(node, false);
+        writer.outdent().append("})");
+    }
+
     private void renderCallClinit(MethodReader clinit, ClassReader cls) {
         boolean isAsync = asyncMethods.contains(clinit.getReference());
 
@@ -915,13 +1291,15 @@ public class Renderer implements RenderingManager {
 
     private void renderRegularBody(MethodHolder method, Decompiler decompiler, boolean isFunction) {
         MethodReference reference = method.getReference();
-        MethodNode node;
+        MethodNode node = preparedMethods.get(reference);
         var async = asyncMethods.contains(reference);
-        if (async) {
-            node = decompileAsync(decompiler, method);
-        } else {
-            var entry = decompileRegular(decompiler, method);
-            node = entry.method;
+        if (node == null) {
+            if (async) {
+                node = decompileAsync(decompiler, method);
+            } else {
+                var entry = decompileRegular(decompiler, method);
+                node = entry.method;
+            }
         }
 
         methodBodyRenderer.setCurrentMethod(node);
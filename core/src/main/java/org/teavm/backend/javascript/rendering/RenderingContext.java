@@ -141,6 +141,11 @@ public abstract class RenderingContext {
         });
     }
 
+    int findString(String string) {
+        var index = stringPoolMap.get(string);
+        return index != null ? index : -1;
+    }
+
     public List<String> getStringPool() {
         return readonlyStringPool;
     }
@@ -317,6 +322,10 @@ public abstract class RenderingContext {
         return holder.injector;
     }
 
+    boolean isInjectorResolved(MethodReference ref) {
+        return injectorMap.containsKey(ref);
+    }
+
     public boolean isStrict() {
         return strict;
     }
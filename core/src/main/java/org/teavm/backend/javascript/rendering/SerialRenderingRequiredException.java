@@ -0,0 +1,26 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.rendering;
+
+/**
+ * Thrown on a worker thread when a class requires something that can only be done on the main rendering thread,
+ * for example allocating a new string pool entry. The class is then rendered serially.
+ */
+class SerialRenderingRequiredException extends RuntimeException {
+    SerialRenderingRequiredException() {
+        super(null, null, false, false);
+    }
+}
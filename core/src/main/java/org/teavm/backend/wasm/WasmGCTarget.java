@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -56,6 +58,7 @@ import org.teavm.backend.wasm.model.WasmType;
 import org.teavm.backend.wasm.model.expression.WasmGetLocal;
 import org.teavm.backend.wasm.model.expression.WasmStructGet;
 import org.teavm.backend.wasm.model.expression.WasmStructSet;
+import org.teavm.backend.wasm.optimization.WasmModuleSplitter;
 import org.teavm.backend.wasm.optimization.WasmUsageCounter;
 import org.teavm.backend.wasm.render.WasmBinaryRenderer;
 import org.teavm.backend.wasm.render.WasmBinaryStatsCollector;
@@ -71,6 +74,7 @@ import org.teavm.dependency.DependencyInfo;
 import org.teavm.dependency.DependencyListener;
 import org.teavm.interop.Address;
 import org.teavm.interop.Platforms;
+import org.teavm.interop.SplitPoint;
 import org.teavm.model.ClassHolderTransformer;
 import org.teavm.model.ClassReaderSource;
 import org.teavm.model.ListableClassHolderSource;
@@ -79,6 +83,7 @@ import org.teavm.model.MethodReference;
 import org.teavm.model.Program;
 import org.teavm.model.lowlevel.Characteristics;
 import org.teavm.model.lowlevel.LowLevelNullCheckFilter;
+import org.teavm.model.profile.ProfileInstrumentation;
 import org.teavm.model.transformation.BoundCheckInsertion;
 import org.teavm.model.transformation.NullCheckInsertion;
 import org.teavm.model.util.VariableCategoryProvider;
@@ -96,6 +101,7 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
     private boolean obfuscated;
     private boolean debugInfo;
     private boolean compactMode;
+    private int renderingThreads = 1;
     private SourceMapBuilder sourceMapBuilder;
     private String sourceMapLocation;
     private WasmDebugInfoLocation debugLocation = WasmDebugInfoLocation.EXTERNAL;
@@ -110,6 +116,7 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
     private EntryPointTransformation entryPointTransformation = new EntryPointTransformation();
     private List<WasmGCClassConsumer> classConsumers = new ArrayList<>();
     private List<Supplier<Collection<MethodReference>>> additionalMethodsOnCallSites = new ArrayList<>();
+    private List<SplitPointDeclaration> splitPoints = new ArrayList<>();
 
     public void setObfuscated(boolean obfuscated) {
         this.obfuscated = obfuscated;
@@ -151,6 +158,27 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
         this.compactMode = compactMode;
     }
 
+    /**
+     * Sets number of threads used to encode function bodies into binary format.
+     * Produced module does not depend on this number.
+     */
+    public void setRenderingThreads(int renderingThreads) {
+        if (renderingThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + renderingThreads);
+        }
+        this.renderingThreads = renderingThreads;
+    }
+
+    /**
+     * Declares all methods with given name in given class as split points of a chunk, in addition
+     * to methods annotated with {@link SplitPoint}. Functions reachable only through split points of a chunk
+     * are emitted into a secondary module {@code <output>-<chunk>.wasm}, which is instantiated by runtime
+     * on first call to one of them.
+     */
+    public void addSplitPoint(String className, String methodName, String chunk) {
+        splitPoints.add(new SplitPointDeclaration(className, methodName, chunk));
+    }
+
     @Override
     public void addIntrinsicFactory(WasmGCIntrinsicFactory intrinsicFactory) {
         intrinsicFactories.add(intrinsicFactory);
@@ -318,6 +346,11 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
             refQueueSupplyFunction.setExportName("teavm.reportGarbageCollectedValue");
         }
 
+        if (controller.getDependencyInfo().getMethod(ProfileInstrumentation.PRINT) != null) {
+            var printProfileFunction = declarationsGenerator.functions().forStaticMethod(ProfileInstrumentation.PRINT);
+            printProfileFunction.setExportName("teavm.printProfile");
+        }
+
         var buffersHeap = needsBuffersHeap(controller.getDependencyInfo());
         if (buffersHeap) {
             declarationsGenerator.functions().forStaticMethod(new MethodReference(Heap.class, "init",
@@ -328,7 +361,74 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
         generateExceptionExports(declarationsGenerator);
         adjustModuleMemory(module, moduleGenerator, buffersHeap);
 
+        var splitter = createSplitter(classes, module, declarationsGenerator.functionTypes, outputName);
+        var chunks = splitter != null ? splitter.split() : List.<String>of();
         emitWasmFile(module, buildTarget, outputName, debugInfoBuilder);
+        for (var chunk : chunks) {
+            emitChunkFile(splitter.createChunkModule(chunk), buildTarget, chunk);
+        }
+    }
+
+    private WasmModuleSplitter createSplitter(ListableClassHolderSource classes, WasmModule module,
+            WasmFunctionTypes functionTypes, String outputName) {
+        var splitPointsByMethod = collectSplitPoints(classes);
+        if (splitPointsByMethod.isEmpty()) {
+            return null;
+        }
+        var fileNames = getChunkFileNames(new LinkedHashSet<>(splitPointsByMethod.values()), outputName);
+        var splitter = new WasmModuleSplitter(module, functionTypes);
+        for (var function : module.functions) {
+            if (function.getJavaMethod() == null) {
+                continue;
+            }
+            var chunk = splitPointsByMethod.get(function.getJavaMethod());
+            if (chunk != null) {
+                splitter.addSplitPoint(function, fileNames.get(chunk));
+            }
+        }
+        return splitter;
+    }
+
+    private Map<MethodReference, String> collectSplitPoints(ListableClassHolderSource classes) {
+        var result = new LinkedHashMap<MethodReference, String>();
+        for (var className : classes.getClassNames()) {
+            var cls = classes.get(className);
+            for (var method : cls.getMethods()) {
+                var annot = method.getAnnotations().get(SplitPoint.class.getName());
+                if (annot != null) {
+                    result.put(method.getReference(), annot.getValue("value").getString());
+                }
+            }
+        }
+        for (var declaration : splitPoints) {
+            var cls = classes.get(declaration.className);
+            if (cls == null) {
+                continue;
+            }
+            for (var method : cls.getMethods()) {
+                if (method.getName().equals(declaration.methodName)) {
+                    result.put(method.getReference(), declaration.chunk);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, String> getChunkFileNames(Collection<String> chunks, String outputName) {
+        var baseName = outputName.endsWith(".wasm")
+                ? outputName.substring(0, outputName.length() - 5)
+                : outputName;
+        var result = new LinkedHashMap<String, String>();
+        var usedNames = new HashSet<String>();
+        for (var chunk : chunks) {
+            var fileName = baseName + "-" + chunk.replaceAll("[^A-Za-z0-9_.-]", "_");
+            var suffix = 0;
+            while (!usedNames.add(suffix == 0 ? fileName : fileName + "_" + suffix)) {
+                ++suffix;
+            }
+            result.put(chunk, (suffix == 0 ? fileName : fileName + "_" + suffix) + ".wasm");
+        }
+        return result;
     }
 
     private void generateExceptionExports(WasmGCDeclarationsGenerator declarationsGenerator) {
@@ -476,6 +576,7 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
         }
         var binaryRenderer = new WasmBinaryRenderer(binaryWriter, WasmBinaryVersion.V_0x1, obfuscated,
                 null, null, debugLines, null, WasmBinaryStatsCollector.EMPTY);
+        binaryRenderer.setThreadCount(renderingThreads);
         optimizeIndexes(module);
         module.prepareForRendering();
         if (debugLocation == WasmDebugInfoLocation.EMBEDDED && debugInfo) {
@@ -497,6 +598,18 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
         }
     }
 
+    private void emitChunkFile(WasmModule module, BuildTarget buildTarget, String fileName) throws IOException {
+        // Types of chunk module must be exactly the same as in primary module, so indexes are not optimized here
+        var binaryWriter = new WasmBinaryWriter();
+        var binaryRenderer = new WasmBinaryRenderer(binaryWriter, WasmBinaryVersion.V_0x1, obfuscated,
+                null, null, null, null, WasmBinaryStatsCollector.EMPTY);
+        binaryRenderer.setThreadCount(renderingThreads);
+        binaryRenderer.render(module);
+        try (var output = buildTarget.createResource(fileName)) {
+            output.write(binaryWriter.getData());
+        }
+    }
+
     private void optimizeIndexes(WasmModule module) {
         var usageCounter = new WasmUsageCounter();
         usageCounter.applyToModule(module);
@@ -517,4 +630,16 @@ public class WasmGCTarget implements TeaVMTarget, TeaVMWasmGCHost {
         }
         return true;
     }
+
+    private static class SplitPointDeclaration {
+        final String className;
+        final String methodName;
+        final String chunk;
+
+        SplitPointDeclaration(String className, String methodName, String chunk) {
+            this.className = className;
+            this.methodName = methodName;
+            this.chunk = chunk;
+        }
+    }
 }
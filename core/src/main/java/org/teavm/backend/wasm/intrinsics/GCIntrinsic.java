@@ -67,6 +67,7 @@ public class GCIntrinsic implements WasmIntrinsic {
             case "cardTable":
             case "regionMaxCount":
             case "regionSize":
+            case "markStepSize":
             case "outOfMemory":
             case "minAvailableBytes":
             case "maxAvailableBytes":
@@ -110,6 +111,8 @@ public class GCIntrinsic implements WasmIntrinsic {
             }
             case "availableBytes":
                 return intToLong(getStaticField(manager, "heapSize"));
+            case "markStepSize":
+                return new WasmInt32Constant(0);
             case "outOfMemory": {
                 WasmBlock block = new WasmBlock(false);
                 WasmCall call = new WasmCall(manager.getFunctions().forStaticMethod(PRINT_OUT_OF_MEMORY));
@@ -90,7 +90,7 @@ public class WasmCollection<T extends WasmEntity> implements Iterable<T> {
         return entity.index;
     }
 
-    private void ensureIndexes() {
+    void ensureIndexes() {
         if (indexesInvalid) {
             indexesInvalid = false;
             var index = 0;
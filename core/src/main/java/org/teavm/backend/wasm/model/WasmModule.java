@@ -103,6 +103,17 @@ public class WasmModule {
         prepareTypes();
     }
 
+    /**
+     * Computes indexes of all module entities eagerly. Indexes are otherwise computed lazily on first request,
+     * so this should be called before module is read from several threads.
+     */
+    public void ensureIndexes() {
+        functions.ensureIndexes();
+        globals.ensureIndexes();
+        types.ensureIndexes();
+        tags.ensureIndexes();
+    }
+
     private void prepareGlobals() {
         var sorting = new GlobalSorting();
         sorting.sort(globals);
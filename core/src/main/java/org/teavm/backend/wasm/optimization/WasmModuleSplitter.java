@@ -0,0 +1,552 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.teavm.backend.wasm.WasmFunctionTypes;
+import org.teavm.backend.wasm.model.WasmCompositeType;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmFunctionType;
+import org.teavm.backend.wasm.model.WasmGlobal;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmTag;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmCallReference;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmCopy;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmFill;
+import org.teavm.backend.wasm.model.expression.WasmFunctionReference;
+import org.teavm.backend.wasm.model.expression.WasmGetGlobal;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmIndirectCall;
+import org.teavm.backend.wasm.model.expression.WasmIsNull;
+import org.teavm.backend.wasm.model.expression.WasmLoadFloat32;
+import org.teavm.backend.wasm.model.expression.WasmLoadFloat64;
+import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
+import org.teavm.backend.wasm.model.expression.WasmLoadInt64;
+import org.teavm.backend.wasm.model.expression.WasmMemoryGrow;
+import org.teavm.backend.wasm.model.expression.WasmNullConstant;
+import org.teavm.backend.wasm.model.expression.WasmSetGlobal;
+import org.teavm.backend.wasm.model.expression.WasmStoreFloat32;
+import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
+import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
+import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
+
+/**
+ * <p>Moves functions that are only reachable through split points out of a GC module into secondary modules,
+ * one per chunk. A function goes to a chunk only when every path to it goes through split points
+ * of this chunk, the same way as JavaScript chunks are computed.</p>
+ *
+ * <p>Secondary module shares types with the primary module by repeating its type section as is,
+ * so that all types are canonicalized to the same ones by the engine. Everything else that moved code uses
+ * is exported by the primary module and imported by the secondary one. Primary code calls moved functions
+ * through stubs, which invoke {@code teavmSplit.<chunk>} import on first call and then call function reference
+ * stored in a global by start function of the secondary module. JavaScript runtime only fetches secondary
+ * modules when {@code loadChunk} or {@code loadChunks} is called, and the import instantiates a module
+ * that was fetched this way. GC modules can't suspend, so calling a stub before its chunk is fetched fails.</p>
+ *
+ * <p>Functions that access linear memory, use function table or are imported, exported or used as start
+ * function always stay in the primary module.</p>
+ */
+public class WasmModuleSplitter {
+    public static final String LOADER_MODULE = "teavmSplit";
+    public static final String PRIMARY_MODULE = "teavm.primary";
+
+    private WasmModule module;
+    private WasmFunctionTypes functionTypes;
+    private Map<WasmFunction, String> splitPoints = new LinkedHashMap<>();
+    private Map<WasmFunction, Set<WasmFunction>> callees = new HashMap<>();
+    private Map<WasmFunction, Boolean> movable = new HashMap<>();
+    private Map<WasmFunction, String> owners = new HashMap<>();
+    private Map<String, Chunk> chunks = new LinkedHashMap<>();
+    private Map<WasmFunction, Stub> stubs = new HashMap<>();
+    private WasmFunctionType loaderType;
+    private int exportIndex;
+    private List<WasmCompositeType> types;
+    private WasmModule lastModule;
+
+    public WasmModuleSplitter(WasmModule module, WasmFunctionTypes functionTypes) {
+        this.module = module;
+        this.functionTypes = functionTypes;
+    }
+
+    public void addSplitPoint(WasmFunction function, String chunk) {
+        splitPoints.put(function, chunk);
+    }
+
+    /**
+     * Removes functions of chunks from the primary module and adds stubs and exports needed by secondary modules.
+     * Should be called before indexes of the primary module are optimized and before it's rendered.
+     *
+     * @return names of chunks that got at least one function.
+     */
+    public List<String> split() {
+        partition();
+        if (owners.isEmpty()) {
+            return List.of();
+        }
+        loaderType = functionTypes.of(null);
+        for (var function : module.functions) {
+            var owner = owners.get(function);
+            if (owner != null) {
+                chunks.computeIfAbsent(owner, Chunk::new).functions.add(function);
+            }
+        }
+
+        var primaryRewriter = new ReferenceRewriter(null);
+        for (var function : module.functions) {
+            if (!owners.containsKey(function)) {
+                for (var part : function.getBody()) {
+                    part.acceptVisitor(primaryRewriter);
+                }
+            }
+        }
+        for (var global : module.globals) {
+            if (global.getInitialValue() != null) {
+                global.getInitialValue().acceptVisitor(primaryRewriter);
+            }
+        }
+        for (var chunk : chunks.values()) {
+            var rewriter = new ReferenceRewriter(chunk.name);
+            for (var function : chunk.functions) {
+                for (var part : function.getBody()) {
+                    part.acceptVisitor(rewriter);
+                }
+            }
+        }
+
+        module.functions.removeIf(owners::containsKey);
+        for (var chunk : chunks.values()) {
+            var collector = new ImportCollector(chunk);
+            for (var function : chunk.functions) {
+                for (var part : function.getBody()) {
+                    part.acceptVisitor(collector);
+                }
+            }
+            for (var function : chunk.functions) {
+                var stub = stubs.get(function);
+                if (stub != null) {
+                    chunk.importedGlobals.add(stub.reference);
+                }
+            }
+            for (var function : chunk.importedFunctions) {
+                if (function.getImportName() == null && function.getExportName() == null) {
+                    function.setExportName(nextExportName());
+                }
+            }
+            for (var global : chunk.importedGlobals) {
+                if (global.getImportName() == null && global.getExportName() == null) {
+                    global.setExportName(nextExportName());
+                }
+            }
+            for (var tag : chunk.importedTags) {
+                if (tag.getImportName() == null && tag.getExportName() == null) {
+                    tag.setExportName(nextExportName());
+                }
+            }
+        }
+        return new ArrayList<>(chunks.keySet());
+    }
+
+    /**
+     * Creates secondary module of given chunk. Should be called after the primary module was rendered,
+     * since it takes over types and some functions and globals of the primary module. For the same
+     * reason, previously created secondary module should be rendered before creating next one.
+     */
+    public WasmModule createChunkModule(String chunkName) {
+        var chunk = chunks.get(chunkName);
+        if (chunk == null) {
+            throw new IllegalArgumentException("Unknown chunk: " + chunkName);
+        }
+        if (lastModule == null) {
+            lastModule = module;
+            types = new ArrayList<>();
+            for (var type : module.types) {
+                types.add(type);
+            }
+        }
+        lastModule.types.clear();
+        lastModule.functions.clear();
+        lastModule.globals.clear();
+        lastModule.tags.clear();
+
+        var result = new WasmModule();
+        result.memoryExportName = "teavm.chunkMemory";
+        for (var type : types) {
+            result.types.add(type);
+        }
+        for (var function : chunk.importedFunctions) {
+            if (function.getImportName() == null) {
+                function.setImportModule(PRIMARY_MODULE);
+                function.setImportName(function.getExportName());
+                function.setExportName(null);
+            }
+            result.functions.add(function);
+        }
+        for (var global : chunk.importedGlobals) {
+            if (global.getImportName() == null) {
+                global.setImportModule(PRIMARY_MODULE);
+                global.setImportName(global.getExportName());
+                global.setExportName(null);
+            }
+            result.globals.add(global);
+        }
+        for (var tag : chunk.importedTags) {
+            if (tag.getImportName() == null) {
+                tag.setImportModule(PRIMARY_MODULE);
+                tag.setImportName(tag.getExportName());
+                tag.setExportName(null);
+            }
+            result.tags.add(tag);
+        }
+        for (var function : chunk.functions) {
+            result.functions.add(function);
+        }
+
+        var start = new WasmFunction(loaderType);
+        start.setName("teavm.chunkStart");
+        for (var function : chunk.functions) {
+            var stub = stubs.get(function);
+            if (stub != null) {
+                function.setReferenced(true);
+                start.getBody().add(new WasmSetGlobal(stub.reference, new WasmFunctionReference(function)));
+            }
+        }
+        result.functions.add(start);
+        result.setStartFunction(start);
+
+        lastModule = result;
+        return result;
+    }
+
+    private String nextExportName() {
+        return "teavm.split." + exportIndex++;
+    }
+
+    private void partition() {
+        var reachableByChunk = new LinkedHashMap<String, Set<WasmFunction>>();
+        for (var entry : splitPoints.entrySet()) {
+            if (isMovable(entry.getKey())) {
+                var reachable = reachableByChunk.computeIfAbsent(entry.getValue(), k -> new HashSet<>());
+                traverse(entry.getKey(), reachable);
+            }
+        }
+
+        var shared = new HashSet<WasmFunction>();
+        for (var entry : reachableByChunk.entrySet()) {
+            for (var function : entry.getValue()) {
+                var previous = owners.putIfAbsent(function, entry.getKey());
+                if (previous != null && !previous.equals(entry.getKey())) {
+                    shared.add(function);
+                }
+            }
+        }
+
+        var primary = new HashSet<WasmFunction>();
+        for (var function : module.functions) {
+            if (splitPoints.containsKey(function) && isMovable(function)) {
+                continue;
+            }
+            if (!owners.containsKey(function) || shared.contains(function) || !isMovable(function)) {
+                traverse(function, primary);
+            }
+        }
+
+        owners.keySet().removeIf(function -> primary.contains(function) || shared.contains(function)
+                || !isMovable(function));
+    }
+
+    private void traverse(WasmFunction start, Set<WasmFunction> visited) {
+        if (!visited.add(start)) {
+            return;
+        }
+        var stack = new ArrayDeque<WasmFunction>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            var function = stack.pop();
+            for (var callee : getCallees(function)) {
+                if (!splitPoints.containsKey(callee) && visited.add(callee)) {
+                    stack.push(callee);
+                }
+            }
+        }
+    }
+
+    private Set<WasmFunction> getCallees(WasmFunction function) {
+        var result = callees.get(function);
+        if (result == null) {
+            var analysis = new FunctionAnalysis();
+            for (var part : function.getBody()) {
+                part.acceptVisitor(analysis);
+            }
+            result = analysis.callees;
+            callees.put(function, result);
+            movable.put(function, !analysis.usesMemoryOrTable);
+        }
+        return result;
+    }
+
+    private boolean isMovable(WasmFunction function) {
+        if (function.getImportName() != null || function.getExportName() != null
+                || function == module.getStartFunction() || module.getFunctionTable().contains(function)) {
+            return false;
+        }
+        getCallees(function);
+        return movable.get(function);
+    }
+
+    private Stub getStub(WasmFunction function) {
+        return stubs.computeIfAbsent(function, this::createStub);
+    }
+
+    private Stub createStub(WasmFunction function) {
+        var chunk = chunks.get(owners.get(function));
+        var type = function.getType();
+        var stub = new Stub();
+
+        stub.reference = new WasmGlobal(function.getName() != null ? function.getName() + "@ref" : null,
+                type.getReference(), new WasmNullConstant(type.getReference()));
+        stub.reference.setExportName(nextExportName());
+        module.globals.add(stub.reference);
+
+        if (chunk.loader == null) {
+            chunk.loader = new WasmFunction(loaderType);
+            chunk.loader.setName(LOADER_MODULE + "." + chunk.name);
+            chunk.loader.setImportModule(LOADER_MODULE);
+            chunk.loader.setImportName(chunk.name);
+            module.functions.add(chunk.loader);
+        }
+
+        stub.function = new WasmFunction(type);
+        stub.function.setName(function.getName() != null ? function.getName() + "@stub" : null);
+        var call = new WasmCallReference(new WasmGetGlobal(stub.reference), type);
+        for (var parameterType : type.getParameterTypes()) {
+            var parameter = new WasmLocal(parameterType);
+            stub.function.add(parameter);
+            call.getArguments().add(new WasmGetLocal(parameter));
+        }
+        var loadCheck = new WasmConditional(new WasmIsNull(new WasmGetGlobal(stub.reference)));
+        loadCheck.getThenBlock().getBody().add(new WasmCall(chunk.loader));
+        stub.function.getBody().add(loadCheck);
+        stub.function.getBody().add(call);
+        module.functions.add(stub.function);
+        return stub;
+    }
+
+    private static class Chunk {
+        final String name;
+        final List<WasmFunction> functions = new ArrayList<>();
+        final Set<WasmFunction> importedFunctions = new LinkedHashSet<>();
+        final Set<WasmGlobal> importedGlobals = new LinkedHashSet<>();
+        final Set<WasmTag> importedTags = new LinkedHashSet<>();
+        WasmFunction loader;
+
+        Chunk(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class Stub {
+        WasmGlobal reference;
+        WasmFunction function;
+    }
+
+    private static class FunctionAnalysis extends WasmDefaultExpressionVisitor {
+        Set<WasmFunction> callees = new LinkedHashSet<>();
+        boolean usesMemoryOrTable;
+
+        @Override
+        public void visit(WasmCall expression) {
+            super.visit(expression);
+            callees.add(expression.getFunction());
+        }
+
+        @Override
+        public void visit(WasmFunctionReference expression) {
+            super.visit(expression);
+            callees.add(expression.getFunction());
+        }
+
+        @Override
+        public void visit(WasmIndirectCall expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmLoadInt32 expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmLoadInt64 expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmLoadFloat32 expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmLoadFloat64 expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmStoreInt32 expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmStoreInt64 expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmStoreFloat32 expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmStoreFloat64 expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmMemoryGrow expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmFill expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+
+        @Override
+        public void visit(WasmCopy expression) {
+            super.visit(expression);
+            usesMemoryOrTable = true;
+        }
+    }
+
+    private class ReferenceRewriter extends WasmDefaultExpressionVisitor {
+        private final String chunk;
+
+        ReferenceRewriter(String chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public void visit(WasmCall expression) {
+            super.visit(expression);
+            if (needsStub(expression.getFunction())) {
+                expression.setFunction(getStub(expression.getFunction()).function);
+            }
+        }
+
+        @Override
+        public void visit(WasmFunctionReference expression) {
+            super.visit(expression);
+            if (needsStub(expression.getFunction())) {
+                var stub = getStub(expression.getFunction()).function;
+                stub.setReferenced(true);
+                expression.setFunction(stub);
+            }
+        }
+
+        private boolean needsStub(WasmFunction function) {
+            var owner = owners.get(function);
+            return owner != null && !owner.equals(chunk);
+        }
+    }
+
+    private class ImportCollector extends WasmDefaultExpressionVisitor {
+        private final Chunk chunk;
+
+        ImportCollector(Chunk chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public void visit(WasmCall expression) {
+            super.visit(expression);
+            use(expression.getFunction());
+        }
+
+        @Override
+        public void visit(WasmFunctionReference expression) {
+            super.visit(expression);
+            use(expression.getFunction());
+        }
+
+        private void use(WasmFunction function) {
+            if (!chunk.name.equals(owners.get(function))) {
+                chunk.importedFunctions.add(function);
+            }
+        }
+
+        @Override
+        public void visit(WasmGetGlobal expression) {
+            super.visit(expression);
+            chunk.importedGlobals.add(expression.getGlobal());
+        }
+
+        @Override
+        public void visit(WasmSetGlobal expression) {
+            super.visit(expression);
+            chunk.importedGlobals.add(expression.getGlobal());
+        }
+
+        @Override
+        public void visit(WasmThrow expression) {
+            super.visit(expression);
+            chunk.importedTags.add(expression.getTag());
+        }
+
+        @Override
+        public void visit(WasmTry expression) {
+            super.visit(expression);
+            for (var catchClause : expression.getCatches()) {
+                if (catchClause.getTag() != null) {
+                    chunk.importedTags.add(catchClause.getTag());
+                }
+            }
+        }
+    }
+}
@@ -19,6 +19,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.teavm.backend.wasm.debug.DebugLines;
@@ -31,6 +35,7 @@ import org.teavm.backend.wasm.model.WasmGlobal;
 import org.teavm.backend.wasm.model.WasmMemorySegment;
 import org.teavm.backend.wasm.model.WasmModule;
 import org.teavm.backend.wasm.model.WasmStructure;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.backend.wasm.model.WasmType;
 
 public class WasmBinaryRenderer {
@@ -61,6 +66,7 @@ public class WasmBinaryRenderer {
     private DebugLines debugLines;
     private DebugVariables debugVariables;
     private WasmBinaryStatsCollector statsCollector;
+    private int threadCount = 1;
 
     public WasmBinaryRenderer(WasmBinaryWriter output, WasmBinaryVersion version, boolean obfuscated,
             DwarfGenerator dwarfGenerator, DwarfClassGenerator dwarfClassGen, DebugLines debugLines,
@@ -75,6 +81,14 @@ public class WasmBinaryRenderer {
         this.statsCollector = statsCollector;
     }
 
+    /**
+     * Sets number of threads used to encode function bodies. Output does not depend on this number.
+     * Encoding is always performed on a single thread when DWARF info is generated.
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
     public void render(WasmModule module) {
         render(module, Collections::emptyList);
     }
@@ -155,13 +169,21 @@ public class WasmBinaryRenderer {
             globals.add(global);
         }
 
-        if (functions.isEmpty() && globals.isEmpty()) {
+        var tags = new ArrayList<WasmTag>();
+        for (var tag : module.tags) {
+            if (tag.getImportName() == null) {
+                continue;
+            }
+            tags.add(tag);
+        }
+
+        if (functions.isEmpty() && globals.isEmpty() && tags.isEmpty()) {
             return;
         }
 
         WasmBinaryWriter section = new WasmBinaryWriter();
 
-        section.writeLEB(functions.size() + globals.size());
+        section.writeLEB(functions.size() + globals.size() + tags.size());
         for (WasmFunction function : functions) {
             int signatureIndex = module.types.indexOf(function.getType());
             String moduleName = function.getImportModule();
@@ -185,6 +207,17 @@ public class WasmBinaryRenderer {
             section.writeType(global.getType(), module);
             section.writeByte(global.isImmutable() ? 0 : 1);
         }
+        for (var tag : tags) {
+            var moduleName = tag.getImportModule();
+            if (moduleName == null) {
+                moduleName = "";
+            }
+            section.writeAsciiString(moduleName);
+            section.writeAsciiString(tag.getImportName());
+            section.writeByte(EXTERNAL_KIND_TAG);
+            section.writeByte(0);
+            section.writeLEB(module.types.indexOf(tag.getType()));
+        }
 
         writeSection(SECTION_IMPORT, "import", section.getData());
     }
@@ -360,14 +393,12 @@ public class WasmBinaryRenderer {
 
         section.writeLEB(functions.size());
         var sectionOffset = output.getPosition() + 4;
-        for (var function : functions) {
-            var body = renderFunction(module, function, section.getPosition() + 4, sectionOffset);
-            var startPos = section.getPosition();
-            section.writeLEB4(body.length);
-            section.writeBytes(body);
-            var size = section.getPosition() - startPos;
-            if (function.getJavaMethod() != null) {
-                statsCollector.addClassCodeSize(function.getJavaMethod().getClassName(), size);
+        if (threadCount > 1 && dwarfGenerator == null && dwarfClassGen == null) {
+            renderCodeInParallel(module, functions, section, sectionOffset);
+        } else {
+            for (var function : functions) {
+                var body = renderFunction(module, function, section.getPosition() + 4, sectionOffset);
+                writeFunctionBody(section, function, body);
             }
         }
 
@@ -378,16 +409,104 @@ public class WasmBinaryRenderer {
         writeSection(SECTION_CODE, "code", section.getData(), true);
     }
 
-    private byte[] renderFunction(WasmModule module, WasmFunction function, int offset, int sectionOffset) {
-        var code = new WasmBinaryWriter();
+    private void writeFunctionBody(WasmBinaryWriter section, WasmFunction function, byte[] body) {
+        var startPos = section.getPosition();
+        section.writeLEB4(body.length);
+        section.writeBytes(body);
+        var size = section.getPosition() - startPos;
+        if (function.getJavaMethod() != null) {
+            statsCollector.addClassCodeSize(function.getJavaMethod().getClassName(), size);
+        }
+    }
+
+    /*
+     * Function bodies don't depend on each other, so they are encoded into separate byte arrays
+     * on worker threads. Everything that depends on address of a function (debug lines and debug variables)
+     * is applied afterwards on this thread, in the order of functions, so the output is the same
+     * as in the serial case. DWARF generator is not supported here, since it tracks addresses of subprograms
+     * during rendering.
+     */
+    private void renderCodeInParallel(WasmModule module, List<WasmFunction> functions, WasmBinaryWriter section,
+            int sectionOffset) {
+        module.ensureIndexes();
+        var threadIndex = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            var thread = new Thread(runnable, "teavm-wasm-rendering-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            var futures = new ArrayList<Future<EncodedFunction>>();
+            for (var function : functions) {
+                futures.add(executor.submit(() -> encodeFunction(module, function)));
+            }
+            for (var i = 0; i < functions.size(); ++i) {
+                var function = functions.get(i);
+                var encoded = join(futures.get(i));
+                var address = section.getPosition() + 4 + sectionOffset;
+                if (encoded.debugLines != null) {
+                    encoded.debugLines.replay(debugLines, address);
+                }
+                if (debugVariables != null) {
+                    writeDebugVariables(function, address, encoded.body.length);
+                }
+                writeFunctionBody(section, function, encoded.body);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private EncodedFunction encodeFunction(WasmModule module, WasmFunction function) {
+        var recorder = debugLines != null && function.getJavaMethod() != null ? new DebugLinesRecorder() : null;
+        var body = renderFunctionBody(module, function, recorder, 0);
+        return new EncodedFunction(body, recorder);
+    }
 
+    private static EncodedFunction join(Future<EncodedFunction> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            var cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private byte[] renderFunction(WasmModule module, WasmFunction function, int offset, int sectionOffset) {
         var dwarfSubprogram = dwarfClassGen != null ? dwarfClassGen.getSubprogram(function.getName()) : null;
         if (dwarfSubprogram != null) {
             dwarfSubprogram.startOffset = offset - 4;
             dwarfSubprogram.function = function;
         }
-        if (debugLines != null && function.getJavaMethod() != null) {
-            debugLines.advance(offset + sectionOffset);
+
+        var body = renderFunctionBody(module, function, function.getJavaMethod() != null ? debugLines : null,
+                offset + sectionOffset);
+
+        if (dwarfSubprogram != null) {
+            dwarfSubprogram.endOffset = body.length + offset;
+        }
+        if (debugVariables != null) {
+            writeDebugVariables(function, offset + sectionOffset, body.length);
+        }
+
+        return body;
+    }
+
+    private byte[] renderFunctionBody(WasmModule module, WasmFunction function, DebugLines debugLines,
+            int address) {
+        var code = new WasmBinaryWriter();
+
+        if (debugLines != null) {
+            debugLines.advance(address);
             debugLines.start(function.getJavaMethod());
         }
 
@@ -417,8 +536,7 @@ public class WasmBinaryRenderer {
             }
         }
 
-        var visitor = new WasmBinaryRenderingVisitor(code, module, dwarfGenerator,
-                function.getJavaMethod() != null ? debugLines : null, offset + sectionOffset);
+        var visitor = new WasmBinaryRenderingVisitor(code, module, dwarfGenerator, debugLines, address);
         for (var part : function.getBody()) {
             visitor.preprocess(part);
         }
@@ -430,13 +548,6 @@ public class WasmBinaryRenderer {
 
         code.writeByte(0x0B);
 
-        if (dwarfSubprogram != null) {
-            dwarfSubprogram.endOffset = code.getPosition() + offset;
-        }
-        if (debugVariables != null) {
-            writeDebugVariables(function, offset + sectionOffset, code.getPosition());
-        }
-
         return code.getData();
     }
 
@@ -481,13 +592,16 @@ public class WasmBinaryRenderer {
     }
 
     private void renderTags(WasmModule module) {
-        if (module.tags.isEmpty()) {
+        var tags = module.tags.stream()
+                .filter(tag -> tag.getImportName() == null)
+                .collect(Collectors.toList());
+        if (tags.isEmpty()) {
             return;
         }
 
         var section = new WasmBinaryWriter();
-        section.writeLEB(module.tags.size());
-        for (var tag : module.tags) {
+        section.writeLEB(tags.size());
+        for (var tag : tags) {
             section.writeByte(0);
             section.writeLEB(module.types.indexOf(tag.getType()));
         }
@@ -625,6 +739,16 @@ public class WasmBinaryRenderer {
         }
     }
 
+    private static class EncodedFunction {
+        final byte[] body;
+        final DebugLinesRecorder debugLines;
+
+        EncodedFunction(byte[] body, DebugLinesRecorder debugLines) {
+            this.body = body;
+            this.debugLines = debugLines;
+        }
+    }
+
     private void writeSection(int id, String name, byte[] data) {
         writeSection(id, name, data, false);
     }
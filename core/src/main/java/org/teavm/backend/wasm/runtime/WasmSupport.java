@@ -36,6 +36,13 @@ public class WasmSupport {
     @Import(name = "currentTimeMillis", module = "teavm")
     private static native double currentTimeMillisImpl();
 
+    public static long nanoTime() {
+        return (long) (nanoTimeImpl() * 1000000);
+    }
+
+    @Import(name = "nanoTime", module = "teavm")
+    private static native double nanoTimeImpl();
+
     @Import(name = "print", module = "spectest")
     public static native void print(int a);
 
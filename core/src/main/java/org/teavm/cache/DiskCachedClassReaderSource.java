@@ -20,6 +20,7 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -35,7 +36,7 @@ import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
 import org.teavm.parsing.ClassDateProvider;
 
-public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStatus {
+public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStatus, Flushable {
     private File directory;
     private ClassHolderSource innerSource;
     private ClassDateProvider classDateProvider;
@@ -98,6 +99,7 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
         boolean dirty;
     }
 
+    @Override
     public void flush() throws IOException {
         for (String className : newClasses) {
             Item item = cache.get(className);
@@ -24,6 +24,7 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -37,7 +38,7 @@ import org.teavm.model.Program;
 import org.teavm.model.ProgramCache;
 import org.teavm.model.ReferenceCache;
 
-public class DiskProgramCache implements ProgramCache {
+public class DiskProgramCache implements ProgramCache, Flushable {
     private File directory;
     private ProgramIO programIO;
     private Map<MethodReference, Item> cache = new HashMap<>();
@@ -50,7 +51,7 @@ public class DiskProgramCache implements ProgramCache {
     }
 
     @Override
-    public Program get(MethodReference method, CacheStatus cacheStatus) {
+    public synchronized Program get(MethodReference method, CacheStatus cacheStatus) {
         Item item = cache.get(method);
         if (item == null) {
             item = new Item();
@@ -80,7 +81,7 @@ public class DiskProgramCache implements ProgramCache {
     }
 
     @Override
-    public void store(MethodReference method, Program program, Supplier<String[]> dependencies) {
+    public synchronized void store(MethodReference method, Program program, Supplier<String[]> dependencies) {
         Item item = new Item();
         cache.put(method, item);
         item.program = program;
@@ -88,7 +89,8 @@ public class DiskProgramCache implements ProgramCache {
         newMethods.add(method);
     }
 
-    public void flush() throws IOException {
+    @Override
+    public synchronized void flush() throws IOException {
         for (MethodReference method : newMethods) {
             Item item = cache.get(method);
             File file = getMethodFile(method);
@@ -41,7 +41,7 @@ public class InMemoryMethodNodeCache implements MethodNodeCache {
     }
 
     @Override
-    public AstCacheEntry get(MethodReference methodReference, CacheStatus cacheStatus) {
+    public synchronized AstCacheEntry get(MethodReference methodReference, CacheStatus cacheStatus) {
         RegularItem item = cache.get(methodReference);
         if (item == null) {
             return null;
@@ -62,12 +62,13 @@ public class InMemoryMethodNodeCache implements MethodNodeCache {
     }
 
     @Override
-    public void store(MethodReference methodReference, AstCacheEntry entry, Supplier<String[]> dependencies) {
+    public synchronized void store(MethodReference methodReference, AstCacheEntry entry,
+            Supplier<String[]> dependencies) {
         newItems.put(methodReference, new RegularItem(entry, dependencies.get().clone()));
     }
 
     @Override
-    public AsyncMethodNode getAsync(MethodReference methodReference, CacheStatus cacheStatus) {
+    public synchronized AsyncMethodNode getAsync(MethodReference methodReference, CacheStatus cacheStatus) {
         AsyncItem item = asyncCache.get(methodReference);
         if (item == null) {
             return null;
@@ -86,23 +87,24 @@ public class InMemoryMethodNodeCache implements MethodNodeCache {
     }
 
     @Override
-    public void storeAsync(MethodReference methodReference, AsyncMethodNode node, Supplier<String[]> dependencies) {
+    public synchronized void storeAsync(MethodReference methodReference, AsyncMethodNode node,
+            Supplier<String[]> dependencies) {
         newAsyncItems.put(methodReference, new AsyncItem(node, dependencies.get().clone()));
     }
 
-    public void commit() {
+    public synchronized void commit() {
         cache.putAll(newItems);
         asyncCache.putAll(newAsyncItems);
         newItems.clear();
         newAsyncItems.clear();
     }
 
-    public void discard() {
+    public synchronized void discard() {
         newItems.clear();
         newAsyncItems.clear();
     }
 
-    public void invalidate() {
+    public synchronized void invalidate() {
         cache.clear();
         newItems.clear();
         asyncCache.clear();
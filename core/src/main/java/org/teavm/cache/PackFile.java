@@ -0,0 +1,326 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Key-value storage that keeps all entries in a single append-only pack file and reads them
+ * through a memory-mapped buffer. Offsets of entries are kept in a separate index file.
+ *
+ * <p>New entries are buffered in memory until {@link #flush()}, which appends them to the pack and
+ * then replaces the index atomically. The index is the only source of truth, so a crash at any point
+ * leaves either the old or the new state. When most of the pack consists of overwritten entries,
+ * live entries are copied into a pack of the next generation, which is switched to by the same
+ * index replacement.
+ *
+ * <p>This class is not thread-safe.
+ */
+class PackFile {
+    private static final int INDEX_MAGIC = 0x54564958;
+    private static final int INDEX_VERSION = 1;
+    private static final long MIN_COMPACTION_GARBAGE = 1024 * 1024;
+
+    private final File directory;
+    private final String name;
+    private int generation;
+    private MappedByteBuffer buffer;
+    private long packLength;
+    private Map<String, Entry> entries = new LinkedHashMap<>();
+    private Map<String, byte[]> pending = new LinkedHashMap<>();
+
+    PackFile(File directory, String name) {
+        this.directory = directory;
+        this.name = name;
+        try {
+            open();
+        } catch (IOException e) {
+            // Cache is corrupted or can't be read, start from scratch
+            entries.clear();
+            buffer = null;
+            packLength = 0;
+        }
+        deleteUnusedPacks();
+    }
+
+    private void open() throws IOException {
+        var indexFile = getIndexFile();
+        if (!indexFile.exists()) {
+            return;
+        }
+        long indexedLength;
+        try (var input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (input.readInt() != INDEX_MAGIC || input.readInt() != INDEX_VERSION) {
+                throw new IOException("Unsupported index format");
+            }
+            generation = input.readInt();
+            indexedLength = input.readLong();
+            var count = input.readInt();
+            for (var i = 0; i < count; ++i) {
+                var key = input.readUTF();
+                var entry = new Entry(input.readLong(), input.readInt(), input.readLong());
+                if (entry.offset + entry.length > indexedLength) {
+                    throw new IOException("Index entry points outside of pack");
+                }
+                entries.put(key, entry);
+            }
+        }
+        var packFile = getPackFile(generation);
+        if (packFile.length() < indexedLength) {
+            throw new IOException("Pack file is shorter than index expects");
+        }
+        map(packFile);
+    }
+
+    private void map(File packFile) throws IOException {
+        packLength = packFile.length();
+        if (packLength > Integer.MAX_VALUE) {
+            throw new IOException("Pack file is too large to be mapped: " + packFile);
+        }
+        try (var channel = FileChannel.open(packFile.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, packLength);
+        }
+    }
+
+    private void deleteUnusedPacks() {
+        var prefix = name + "-";
+        var files = directory.listFiles((dir, fileName) -> fileName.startsWith(prefix)
+                && fileName.endsWith(".pack"));
+        if (files == null) {
+            return;
+        }
+        var current = getPackFile(generation).getName();
+        for (var file : files) {
+            if (!file.getName().equals(current)) {
+                // May fail on some systems while old pack is still mapped, so it'll be deleted next time
+                file.delete();
+            }
+        }
+    }
+
+    InputStream get(String key) {
+        var data = pending.get(key);
+        if (data != null) {
+            return new ByteBufferInputStream(ByteBuffer.wrap(data));
+        }
+        var entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        return new ByteBufferInputStream(slice(entry));
+    }
+
+    /**
+     * Returns the time when the given entry was written to the pack, or {@code -1} if there's no such entry.
+     */
+    long getTimestamp(String key) {
+        var entry = entries.get(key);
+        return entry != null ? entry.timestamp : -1;
+    }
+
+    void put(String key, byte[] data) {
+        pending.put(key, data);
+    }
+
+    void flush() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        directory.mkdirs();
+
+        long liveLength = 0;
+        for (var e : entries.entrySet()) {
+            if (!pending.containsKey(e.getKey())) {
+                liveLength += e.getValue().length;
+            }
+        }
+        var garbage = packLength - liveLength;
+        if (garbage > MIN_COMPACTION_GARBAGE && garbage > liveLength) {
+            compact();
+        } else {
+            append();
+        }
+        pending.clear();
+    }
+
+    private void append() throws IOException {
+        var packFile = getPackFile(generation);
+        var timestamp = System.currentTimeMillis();
+        var newEntries = new LinkedHashMap<>(entries);
+        long length;
+        try (var channel = FileChannel.open(packFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            // File may contain garbage after last indexed entry if previous flush crashed
+            var offset = channel.size();
+            channel.position(offset);
+            for (var e : pending.entrySet()) {
+                var data = e.getValue();
+                writeFully(channel, ByteBuffer.wrap(data));
+                newEntries.put(e.getKey(), new Entry(offset, data.length, timestamp));
+                offset += data.length;
+            }
+            channel.force(false);
+            length = offset;
+        }
+        writeIndex(generation, length, newEntries);
+        entries = newEntries;
+        map(packFile);
+    }
+
+    private void compact() throws IOException {
+        var newGeneration = generation + 1;
+        var packFile = getPackFile(newGeneration);
+        var timestamp = System.currentTimeMillis();
+        var newEntries = new LinkedHashMap<String, Entry>();
+        long offset = 0;
+        try (var channel = FileChannel.open(packFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (var e : entries.entrySet()) {
+                if (pending.containsKey(e.getKey())) {
+                    continue;
+                }
+                var entry = e.getValue();
+                writeFully(channel, slice(entry));
+                newEntries.put(e.getKey(), new Entry(offset, entry.length, entry.timestamp));
+                offset += entry.length;
+            }
+            for (var e : pending.entrySet()) {
+                var data = e.getValue();
+                writeFully(channel, ByteBuffer.wrap(data));
+                newEntries.put(e.getKey(), new Entry(offset, data.length, timestamp));
+                offset += data.length;
+            }
+            channel.force(false);
+        }
+        writeIndex(newGeneration, offset, newEntries);
+
+        generation = newGeneration;
+        entries = newEntries;
+        buffer = null;
+        map(packFile);
+        deleteUnusedPacks();
+    }
+
+    private void writeIndex(int packGeneration, long length, Map<String, Entry> indexEntries)
+            throws IOException {
+        var indexFile = getIndexFile();
+        var tmpFile = new File(directory, indexFile.getName() + ".tmp");
+        try (var fileOutput = new FileOutputStream(tmpFile)) {
+            var output = new DataOutputStream(new BufferedOutputStream(fileOutput));
+            output.writeInt(INDEX_MAGIC);
+            output.writeInt(INDEX_VERSION);
+            output.writeInt(packGeneration);
+            output.writeLong(length);
+            output.writeInt(indexEntries.size());
+            for (var e : indexEntries.entrySet()) {
+                var entry = e.getValue();
+                output.writeUTF(e.getKey());
+                output.writeLong(entry.offset);
+                output.writeInt(entry.length);
+                output.writeLong(entry.timestamp);
+            }
+            output.flush();
+            fileOutput.getFD().sync();
+        }
+        try {
+            Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private ByteBuffer slice(Entry entry) {
+        var result = buffer.duplicate();
+        result.position((int) entry.offset);
+        result.limit((int) entry.offset + entry.length);
+        return result;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    private File getIndexFile() {
+        return new File(directory, name + ".idx");
+    }
+
+    private File getPackFile(int packGeneration) {
+        return new File(directory, name + "-" + packGeneration + ".pack");
+    }
+
+    private static class Entry {
+        final long offset;
+        final int length;
+        final long timestamp;
+
+        Entry(long offset, int length, long timestamp) {
+            this.offset = offset;
+            this.length = length;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
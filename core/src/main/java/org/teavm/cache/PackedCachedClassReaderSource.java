@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.teavm.model.ClassHolderSource;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.MethodReference;
+import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClassDateProvider;
+
+/**
+ * Same as {@link DiskCachedClassReaderSource}, but keeps all classes in a single {@link PackFile} instead of
+ * a file per class. Time when class was written to the pack is used instead of file modification date.
+ */
+public class PackedCachedClassReaderSource implements ClassReaderSource, CacheStatus, Flushable {
+    private PackFile pack;
+    private ClassHolderSource innerSource;
+    private ClassDateProvider classDateProvider;
+    private Map<String, Item> cache = new LinkedHashMap<>();
+    private Set<String> newClasses = new LinkedHashSet<>();
+    private ClassIO classIO;
+
+    public PackedCachedClassReaderSource(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
+            SymbolTable fileTable, SymbolTable variableTable, ClassHolderSource innerSource,
+            ClassDateProvider classDateProvider) {
+        pack = new PackFile(directory, "classes");
+        this.innerSource = innerSource;
+        this.classDateProvider = classDateProvider;
+        classIO = new ClassIO(referenceCache, symbolTable, fileTable, variableTable);
+    }
+
+    @Override
+    public ClassReader get(String name) {
+        return getItemFromCache(name).cls;
+    }
+
+    @Override
+    public boolean isStaleClass(String className) {
+        return getItemFromCache(className).dirty;
+    }
+
+    @Override
+    public boolean isStaleMethod(MethodReference method) {
+        return isStaleClass(method.getClassName());
+    }
+
+    private Item getItemFromCache(String name) {
+        Item item = cache.get(name);
+        if (item == null) {
+            item = new Item();
+            cache.put(name, item);
+            long timestamp = pack.getTimestamp(name);
+            if (timestamp >= 0) {
+                Date classDate = classDateProvider.getModificationDate(name);
+                if (classDate != null && classDate.before(new Date(timestamp))) {
+                    try (InputStream input = pack.get(name)) {
+                        item.cls = classIO.readClass(input, name);
+                    } catch (IOException e) {
+                        // We could not read cached class, so let's parse class file
+                        item.cls = null;
+                    }
+                }
+            }
+            if (item.cls == null) {
+                item.dirty = true;
+                item.cls = innerSource.get(name);
+                newClasses.add(name);
+            }
+        }
+        return item;
+    }
+
+    private static class Item {
+        ClassReader cls;
+        boolean dirty;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        for (String className : newClasses) {
+            Item item = cache.get(className);
+            if (item.cls != null) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                classIO.writeClass(output, item.cls);
+                pack.put(className, output.toByteArray());
+            }
+        }
+        newClasses.clear();
+        pack.flush();
+    }
+}
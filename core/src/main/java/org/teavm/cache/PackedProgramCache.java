@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.ProgramCache;
+import org.teavm.model.ReferenceCache;
+
+/**
+ * Same as {@link DiskProgramCache}, but keeps all programs in a single {@link PackFile} instead of
+ * a file per method.
+ */
+public class PackedProgramCache implements ProgramCache, Flushable {
+    private PackFile pack;
+    private ProgramIO programIO;
+    private Map<MethodReference, Item> cache = new HashMap<>();
+    private Set<MethodReference> newMethods = new LinkedHashSet<>();
+
+    public PackedProgramCache(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
+            SymbolTable fileTable, SymbolTable variableTable) {
+        pack = new PackFile(directory, "programs");
+        programIO = new ProgramIO(referenceCache, symbolTable, fileTable, variableTable);
+    }
+
+    @Override
+    public synchronized Program get(MethodReference method, CacheStatus cacheStatus) {
+        Item item = cache.get(method);
+        if (item == null) {
+            item = new Item();
+            cache.put(method, item);
+            InputStream stream = pack.get(method.toString());
+            if (stream != null) {
+                try {
+                    DataInput input = new DataInputStream(stream);
+                    int depCount = input.readShort();
+                    boolean dependenciesChanged = false;
+                    for (int i = 0; i < depCount; ++i) {
+                        String depClass = input.readUTF();
+                        if (cacheStatus.isStaleClass(depClass)) {
+                            dependenciesChanged = true;
+                            break;
+                        }
+                    }
+                    if (!dependenciesChanged) {
+                        item.program = programIO.read(stream);
+                    }
+                } catch (IOException e) {
+                    // we could not read program, just leave it empty
+                }
+            }
+        }
+        return item.program;
+    }
+
+    @Override
+    public synchronized void store(MethodReference method, Program program, Supplier<String[]> dependencies) {
+        Item item = new Item();
+        cache.put(method, item);
+        item.program = program;
+        item.dependencies = dependencies.get().clone();
+        newMethods.add(method);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        for (MethodReference method : newMethods) {
+            Item item = cache.get(method);
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            DataOutput output = new DataOutputStream(stream);
+            output.writeShort(item.dependencies.length);
+            for (String dep : item.dependencies) {
+                output.writeUTF(dep);
+            }
+            programIO.write(item.program, stream);
+            pack.put(method.toString(), stream.toByteArray());
+        }
+        newMethods.clear();
+        pack.flush();
+    }
+
+    static class Item {
+        Program program;
+        String[] dependencies;
+    }
+}
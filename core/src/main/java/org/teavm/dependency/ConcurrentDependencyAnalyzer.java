@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.teavm.common.ServiceRepository;
+import org.teavm.diagnostics.Diagnostics;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.Program;
+import org.teavm.model.ReferenceCache;
+
+/**
+ * <p>Dependency analyzer that gives the same results as {@link PreciseDependencyAnalyzer}, but runs
+ * data flow analysis of reached methods on a pool of worker threads.</p>
+ *
+ * <p>Type propagation itself stays on the calling thread, since it invokes dependency plugins and listeners
+ * that are not required to be thread-safe. Instead, when a method is reached, its data flow graph is built
+ * in background, and dependency nodes are created and connected by a deferred task. Deferred tasks are run
+ * in the order they were submitted, so the analysis is deterministic and reaches the same fixpoint as
+ * the serial analyzer.</p>
+ *
+ * <p>Worker threads are started when the first method is reached and stop after they stay idle for a while,
+ * so an analyzer that was abandoned due to an error or cancellation does not keep them alive.</p>
+ */
+public class ConcurrentDependencyAnalyzer extends PreciseDependencyAnalyzer {
+    private final int threadCount;
+    private ExecutorService executor;
+    private boolean finished;
+
+    public ConcurrentDependencyAnalyzer(ClassReaderSource classSource, ClassLoader classLoader,
+            ServiceRepository services, Diagnostics diagnostics, ReferenceCache referenceCache,
+            String[] platformTags, int threadCount) {
+        super(classSource, classLoader, services, diagnostics, referenceCache, platformTags);
+        this.threadCount = threadCount;
+    }
+
+    public static DependencyAnalyzerFactory factory(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threadCount);
+        }
+        return (classSource, classLoader, services, diagnostics, referenceCache, platformTags) ->
+                new ConcurrentDependencyAnalyzer(classSource, classLoader, services, diagnostics, referenceCache,
+                        platformTags, threadCount);
+    }
+
+    @Override
+    protected void processMethod(MethodDependency methodDep) {
+        MethodHolder method = methodDep.method;
+        Program program = method.getProgram();
+        if (program == null || program.basicBlockCount() == 0) {
+            return;
+        }
+        if (finished) {
+            new DependencyGraphBuilder(this).buildGraph(methodDep, program,
+                    DependencyGraphBuilder.buildNodeMapping(method, program));
+            return;
+        }
+
+        Future<int[]> nodeMapping = getExecutor().submit(() -> DependencyGraphBuilder.buildNodeMapping(method, program));
+        defer(() -> new DependencyGraphBuilder(this).buildGraph(methodDep, program, join(nodeMapping)));
+    }
+
+    private ExecutorService getExecutor() {
+        if (executor == null) {
+            var threadIndex = new AtomicInteger();
+            var pool = new ThreadPoolExecutor(threadCount, threadCount, 1, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        var thread = new Thread(runnable, "teavm-dependency-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    private static int[] join(Future<int[]> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            var cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for data flow analysis", e);
+        }
+    }
+
+    @Override
+    public void processDependencies() {
+        try {
+            super.processDependencies();
+        } finally {
+            finished = true;
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
+            }
+        }
+    }
+}
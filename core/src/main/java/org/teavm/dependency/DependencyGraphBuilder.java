@@ -36,6 +36,7 @@ import org.teavm.model.MethodReader;
 import org.teavm.model.MethodReference;
 import org.teavm.model.PhiReader;
 import org.teavm.model.Program;
+import org.teavm.model.ProgramReader;
 import org.teavm.model.TryCatchBlockReader;
 import org.teavm.model.ValueType;
 import org.teavm.model.VariableReader;
@@ -56,25 +57,37 @@ class DependencyGraphBuilder {
     }
 
     public void buildGraph(MethodDependency dep) {
-        caller = dependencyAnalyzer.callGraph.getNode(dep.getReference());
         MethodHolder method = dep.method;
         if (method.getProgram() == null || method.getProgram().basicBlockCount() == 0) {
             return;
         }
-        program = method.getProgram();
-        resultNode = dep.getResult();
+        Program program = method.getProgram();
+        buildGraph(dep, program, buildNodeMapping(method, program));
+    }
 
+    /**
+     * Computes partition of method's variables into classes that can share the same dependency node.
+     * Only reads given program, so can be called from any thread.
+     */
+    static int[] buildNodeMapping(MethodReader method, ProgramReader program) {
         DataFlowGraphBuilder dfgBuilder = new DataFlowGraphBuilder();
-        boolean[] significantParams = new boolean[dep.getParameterCount()];
+        boolean[] significantParams = new boolean[method.parameterCount() + 1];
         significantParams[0] = true;
-        for (int i = 1; i < dep.getParameterCount(); ++i) {
+        for (int i = 1; i < significantParams.length; ++i) {
             ValueType arg = method.parameterType(i - 1);
             if (!(arg instanceof ValueType.Primitive)) {
                 significantParams[i] = true;
             }
         }
-        int[] nodeMapping = dfgBuilder.buildMapping(program, significantParams,
+        return dfgBuilder.buildMapping(program, significantParams,
                 !(method.getResultType() instanceof ValueType.Primitive) && method.getResultType() != ValueType.VOID);
+    }
+
+    void buildGraph(MethodDependency dep, Program program, int[] nodeMapping) {
+        caller = dependencyAnalyzer.callGraph.getNode(dep.getReference());
+        MethodHolder method = dep.method;
+        this.program = program;
+        resultNode = dep.getResult();
 
         if (DependencyAnalyzer.shouldLog) {
             System.out.println("Method reached: " + method.getReference());
@@ -99,7 +112,7 @@ class DependencyGraphBuilder {
                 nodeClasses[i].setTag(dep.getMethod().getReference() + ":" + i);
             }
         }
-        nodes = new DependencyNode[dep.getMethod().getProgram().variableCount()];
+        nodes = new DependencyNode[program.variableCount()];
         for (int i = 0; i < nodes.length; ++i) {
             int mappedNode = nodeMapping[i];
             nodes[i] = mappedNode >= 0 ? nodeClasses[mappedNode] : null;
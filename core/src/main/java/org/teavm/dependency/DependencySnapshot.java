@@ -0,0 +1,393 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.teavm.cache.CacheStatus;
+import org.teavm.model.AnnotationReader;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ElementReader;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Result of dependency analysis that can be stored between builds and used to warm up analysis
+ * of the next build. Warming up means that classes, methods and fields reached by the previous build
+ * are linked in advance, and their parameters, results and values get the types they had at the end
+ * of the previous build. Since all of these facts are part of the fixed point of unchanged program,
+ * propagation converges to the same result, but with much fewer rounds.</p>
+ *
+ * <p>Nodes that belong to classes reported as stale by {@link CacheStatus} are not warmed up,
+ * so their facts are propagated from scratch. Facts which other nodes got from old versions of stale
+ * classes are kept, so the result may be a superset of what full analysis would produce. This is only
+ * safe when stale classes keep their structure, so snapshot is rejected if hierarchy, members or
+ * annotations of any stale class have changed, or if too many builds in a row were warmed up.</p>
+ */
+public class DependencySnapshot {
+    private static final int MAGIC = 0x54564453;
+    private static final int VERSION = 1;
+    private static final int MAX_WARM_BUILDS = 20;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private String configuration;
+    private int warmBuildCount;
+    private Map<String, Long> classes = new HashMap<>();
+    private List<MethodEntry> methods = new ArrayList<>();
+    private List<FieldEntry> fields = new ArrayList<>();
+
+    private DependencySnapshot() {
+    }
+
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Returns how many builds in a row were warmed up by snapshots, including the one which produced
+     * this snapshot.
+     */
+    public int getWarmBuildCount() {
+        return warmBuildCount;
+    }
+
+    /**
+     * Captures result of completed dependency analysis. Should be called before
+     * {@link DependencyAnalyzer#cleanup(ClassSourcePacker)}, since it needs types of method parameters.
+     *
+     * @param configuration string that describes everything that affects analysis except for classes,
+     * like entry point and properties. Snapshot is never applied with different configuration.
+     * @param warm whether the analysis was warmed up with previous snapshot.
+     */
+    public static DependencySnapshot capture(DependencyAnalyzer analyzer, String configuration,
+            DependencySnapshot previous, boolean warm) {
+        var snapshot = new DependencySnapshot();
+        snapshot.configuration = configuration;
+        snapshot.warmBuildCount = warm && previous != null ? previous.warmBuildCount + 1 : 0;
+
+        var classSource = analyzer.getClassSource();
+        for (var className : analyzer.getReachableClasses()) {
+            snapshot.classes.put(className, fingerprint(classSource.get(className)));
+        }
+        for (var methodRef : analyzer.getReachableMethods()) {
+            var method = analyzer.getMethod(methodRef);
+            if (method == null || method.isMissing()) {
+                continue;
+            }
+            var types = new String[method.getParameterCount()][];
+            for (var i = 0; i < types.length; ++i) {
+                types[i] = typesOf(method.getVariable(i));
+            }
+            snapshot.methods.add(new MethodEntry(methodRef, method.isUsed(), types, typesOf(method.getResult()),
+                    typesOf(method.getThrown())));
+        }
+        for (var fieldRef : analyzer.getReachableFields()) {
+            var field = analyzer.getField(fieldRef);
+            if (field == null || field.isMissing()) {
+                continue;
+            }
+            snapshot.fields.add(new FieldEntry(fieldRef, typesOf(field.getValue())));
+        }
+        return snapshot;
+    }
+
+    private static String[] typesOf(DependencyNode node) {
+        return node != null ? node.getTypes() : new String[0];
+    }
+
+    /**
+     * Warms up dependency analyzer with facts of this snapshot. Should be called before
+     * {@link DependencyAnalyzer#processDependencies()}.
+     *
+     * @return {@code true} if snapshot was applied, {@code false} if analysis must run from scratch.
+     */
+    public boolean applyTo(DependencyAnalyzer analyzer, CacheStatus cacheStatus, String configuration) {
+        if (!this.configuration.equals(configuration) || warmBuildCount >= MAX_WARM_BUILDS) {
+            return false;
+        }
+
+        var classSource = analyzer.getClassSource();
+        var staleClasses = new HashSet<String>();
+        for (var entry : classes.entrySet()) {
+            var className = entry.getKey();
+            if (cacheStatus.isStaleClass(className)) {
+                if (fingerprint(classSource.get(className)) != entry.getValue()) {
+                    return false;
+                }
+                staleClasses.add(className);
+            }
+        }
+
+        for (var entry : classes.entrySet()) {
+            // Missing classes are not linked in advance, so that they are reported with proper locations
+            if (entry.getValue() != 0 && !staleClasses.contains(entry.getKey())) {
+                analyzer.linkClass(entry.getKey());
+            }
+        }
+        for (var entry : fields) {
+            if (staleClasses.contains(entry.field.getClassName())) {
+                continue;
+            }
+            var field = analyzer.linkField(entry.field);
+            propagate(analyzer, field.getValue(), entry.types);
+        }
+        for (var entry : methods) {
+            if (staleClasses.contains(entry.method.getClassName())) {
+                continue;
+            }
+            var method = analyzer.linkMethod(entry.method);
+            if (method.isMissing()) {
+                continue;
+            }
+            for (var i = 0; i < entry.parameterTypes.length; ++i) {
+                propagate(analyzer, method.getVariable(i), entry.parameterTypes[i]);
+            }
+            propagate(analyzer, method.getResult(), entry.resultTypes);
+            propagate(analyzer, method.getThrown(), entry.thrownTypes);
+            if (entry.used) {
+                method.use(false);
+            }
+        }
+        return true;
+    }
+
+    private static void propagate(DependencyAnalyzer analyzer, DependencyNode node, String[] typeNames) {
+        if (node == null || typeNames.length == 0) {
+            return;
+        }
+        var types = new DependencyType[typeNames.length];
+        for (var i = 0; i < types.length; ++i) {
+            types[i] = analyzer.getType(typeNames[i]);
+        }
+        node.propagate(types);
+    }
+
+    /*
+     * Covers everything that affects how other classes are analyzed: hierarchy, set of members,
+     * their modifiers and annotations. Method bodies are not included.
+     */
+    static long fingerprint(ClassReader cls) {
+        if (cls == null) {
+            return 0;
+        }
+        var sb = new StringBuilder();
+        appendElement(sb, cls);
+        sb.append(cls.getParent()).append(';').append(cls.getOwnerName()).append(';');
+        sb.append(new TreeSet<>(cls.getInterfaces())).append(';');
+        var fieldList = new ArrayList<>(cls.getFields());
+        fieldList.sort(Comparator.comparing(ElementReader::getName));
+        for (var field : fieldList) {
+            appendElement(sb, field);
+            sb.append(field.getType()).append('=').append(field.getInitialValue()).append(';');
+        }
+        var methodList = new ArrayList<>(cls.getMethods());
+        methodList.sort(Comparator.comparing(method -> method.getDescriptor().toString()));
+        for (var method : methodList) {
+            appendElement(sb, method);
+            sb.append(method.getDescriptor()).append(';');
+        }
+
+        var hash = FNV_OFFSET;
+        for (var i = 0; i < sb.length(); ++i) {
+            hash = (hash ^ sb.charAt(i)) * FNV_PRIME;
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    private static void appendElement(StringBuilder sb, ElementReader element) {
+        sb.append(element.getName()).append(':').append(element.getLevel()).append(element.readModifiers());
+        var annotations = new TreeSet<String>();
+        for (AnnotationReader annotation : element.getAnnotations().all()) {
+            annotations.add(annotation.getType());
+        }
+        sb.append(annotations).append(':');
+    }
+
+    public void write(OutputStream stream) throws IOException {
+        var output = new DataOutputStream(stream);
+        var strings = new StringTable();
+        for (var className : classes.keySet()) {
+            strings.index(className);
+        }
+        for (var entry : methods) {
+            strings.index(entry.method.getClassName());
+            strings.index(entry.method.getDescriptor().toString());
+            for (var types : entry.parameterTypes) {
+                strings.index(types);
+            }
+            strings.index(entry.resultTypes);
+            strings.index(entry.thrownTypes);
+        }
+        for (var entry : fields) {
+            strings.index(entry.field.getClassName());
+            strings.index(entry.field.getFieldName());
+            strings.index(entry.types);
+        }
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeUTF(configuration);
+        output.writeInt(warmBuildCount);
+        output.writeInt(strings.list.size());
+        for (var string : strings.list) {
+            output.writeUTF(string);
+        }
+
+        output.writeInt(classes.size());
+        for (var entry : classes.entrySet()) {
+            output.writeInt(strings.index(entry.getKey()));
+            output.writeLong(entry.getValue());
+        }
+        output.writeInt(methods.size());
+        for (var entry : methods) {
+            output.writeInt(strings.index(entry.method.getClassName()));
+            output.writeInt(strings.index(entry.method.getDescriptor().toString()));
+            output.writeBoolean(entry.used);
+            output.writeInt(entry.parameterTypes.length);
+            for (var types : entry.parameterTypes) {
+                writeTypes(output, strings, types);
+            }
+            writeTypes(output, strings, entry.resultTypes);
+            writeTypes(output, strings, entry.thrownTypes);
+        }
+        output.writeInt(fields.size());
+        for (var entry : fields) {
+            output.writeInt(strings.index(entry.field.getClassName()));
+            output.writeInt(strings.index(entry.field.getFieldName()));
+            writeTypes(output, strings, entry.types);
+        }
+        output.flush();
+    }
+
+    private static void writeTypes(DataOutput output, StringTable strings, String[] types) throws IOException {
+        output.writeInt(types.length);
+        for (var type : types) {
+            output.writeInt(strings.index(type));
+        }
+    }
+
+    /**
+     * Reads snapshot previously written by {@link #write(OutputStream)}.
+     *
+     * @throws IOException if stream can't be read or was written by incompatible version.
+     */
+    public static DependencySnapshot read(InputStream stream) throws IOException {
+        var input = new DataInputStream(stream);
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("Unsupported dependency snapshot format");
+        }
+        var snapshot = new DependencySnapshot();
+        snapshot.configuration = input.readUTF();
+        snapshot.warmBuildCount = input.readInt();
+        var strings = new String[input.readInt()];
+        for (var i = 0; i < strings.length; ++i) {
+            strings[i] = input.readUTF();
+        }
+
+        var classCount = input.readInt();
+        for (var i = 0; i < classCount; ++i) {
+            snapshot.classes.put(strings[input.readInt()], input.readLong());
+        }
+        var methodCount = input.readInt();
+        for (var i = 0; i < methodCount; ++i) {
+            var className = strings[input.readInt()];
+            var descriptor = MethodDescriptor.parse(strings[input.readInt()]);
+            var used = input.readBoolean();
+            var parameterTypes = new String[input.readInt()][];
+            for (var j = 0; j < parameterTypes.length; ++j) {
+                parameterTypes[j] = readTypes(input, strings);
+            }
+            var resultTypes = readTypes(input, strings);
+            var thrownTypes = readTypes(input, strings);
+            snapshot.methods.add(new MethodEntry(new MethodReference(className, descriptor), used, parameterTypes,
+                    resultTypes, thrownTypes));
+        }
+        var fieldCount = input.readInt();
+        for (var i = 0; i < fieldCount; ++i) {
+            var className = strings[input.readInt()];
+            var fieldName = strings[input.readInt()];
+            snapshot.fields.add(new FieldEntry(new FieldReference(className, fieldName), readTypes(input, strings)));
+        }
+        return snapshot;
+    }
+
+    private static String[] readTypes(DataInput input, String[] strings) throws IOException {
+        var types = new String[input.readInt()];
+        for (var i = 0; i < types.length; ++i) {
+            types[i] = strings[input.readInt()];
+        }
+        return types;
+    }
+
+    private static class StringTable {
+        final List<String> list = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        int index(String string) {
+            return indexes.computeIfAbsent(string, s -> {
+                list.add(s);
+                return list.size() - 1;
+            });
+        }
+
+        void index(String[] strings) {
+            for (var string : strings) {
+                index(string);
+            }
+        }
+    }
+
+    private static class MethodEntry {
+        final MethodReference method;
+        final boolean used;
+        final String[][] parameterTypes;
+        final String[] resultTypes;
+        final String[] thrownTypes;
+
+        MethodEntry(MethodReference method, boolean used, String[][] parameterTypes, String[] resultTypes,
+                String[] thrownTypes) {
+            this.method = method;
+            this.used = used;
+            this.parameterTypes = parameterTypes;
+            this.resultTypes = resultTypes;
+            this.thrownTypes = thrownTypes;
+        }
+    }
+
+    private static class FieldEntry {
+        final FieldReference field;
+        final String[] types;
+
+        FieldEntry(FieldReference field, String[] types) {
+            this.field = field;
+            this.types = types;
+        }
+    }
+}
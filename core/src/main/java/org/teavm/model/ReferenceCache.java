@@ -15,18 +15,26 @@
  */
 package org.teavm.model;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Interns names, types and member references, so that equal values produced by different parsers
+ * and deserializers are represented by the same instance.
+ *
+ * <p>This class is thread-safe, so a single instance can be shared between concurrent builds.
+ * When two threads race to intern equal values, both get the instance that was stored first.
+ */
 public class ReferenceCache {
-    private Map<String, Map<MethodDescriptor, MethodReference>> referenceCache = new HashMap<>();
-    private Map<FieldReference, FieldReference> fieldRefenceCache = new HashMap<>();
-    private Map<MethodDescriptor, MethodDescriptor> descriptorCache = new HashMap<>();
-    private Map<ValueType, ValueType> valueTypeCache = new HashMap<>();
-    private Map<GenericValueType, GenericValueType> genericValueTypeCache = new HashMap<>();
-    private Map<String, String> stringCache = new HashMap<>();
-    private Map<String, MethodDescriptor> descriptorParseCache = new HashMap<>();
-    private Map<String, ValueType> valueTypeParseCache = new HashMap<>();
+    private ConcurrentMap<String, ConcurrentMap<MethodDescriptor, MethodReference>> referenceCache =
+            new ConcurrentHashMap<>();
+    private ConcurrentMap<FieldReference, FieldReference> fieldRefenceCache = new ConcurrentHashMap<>();
+    private ConcurrentMap<MethodDescriptor, MethodDescriptor> descriptorCache = new ConcurrentHashMap<>();
+    private ConcurrentMap<ValueType, ValueType> valueTypeCache = new ConcurrentHashMap<>();
+    private ConcurrentMap<GenericValueType, GenericValueType> genericValueTypeCache = new ConcurrentHashMap<>();
+    private ConcurrentMap<String, String> stringCache = new ConcurrentHashMap<>();
+    private ConcurrentMap<String, MethodDescriptor> descriptorParseCache = new ConcurrentHashMap<>();
+    private ConcurrentMap<String, ValueType> valueTypeParseCache = new ConcurrentHashMap<>();
 
     public MethodReference getCached(MethodReference reference) {
         return getCached(reference.getClassName(), reference.getDescriptor());
@@ -34,7 +42,7 @@ public class ReferenceCache {
 
     public MethodReference getCached(String className, MethodDescriptor descriptor) {
         return referenceCache
-                .computeIfAbsent(className, key -> new HashMap<>())
+                .computeIfAbsent(className, key -> new ConcurrentHashMap<>())
                 .computeIfAbsent(getCached(descriptor), key -> new MethodReference(className, key));
     }
 
@@ -58,7 +66,7 @@ public class ReferenceCache {
             if (signatureChanged) {
                 result = new MethodDescriptor(descriptor.getName(), signature);
             }
-            descriptorCache.put(result, result);
+            result = intern(descriptorCache, result);
         }
         return result;
     }
@@ -72,13 +80,13 @@ public class ReferenceCache {
             if (classNameCached != reference.getClassName() || fieldNameCached != reference.getFieldName()) {
                 result = new FieldReference(classNameCached, fieldNameCached);
             }
-            fieldRefenceCache.put(result, result);
+            result = intern(fieldRefenceCache, result);
         }
         return result;
     }
 
     public ValueType getCached(ValueType valueType) {
-        if (valueType instanceof ValueType.Primitive) {
+        if (valueType == null || valueType instanceof ValueType.Primitive) {
             return valueType;
         }
 
@@ -98,13 +106,13 @@ public class ReferenceCache {
                     result = ValueType.arrayOf(cachedItem);
                 }
             }
-            valueTypeCache.put(result, result);
+            result = intern(valueTypeCache, result);
         }
         return result;
     }
 
     public GenericValueType getCached(GenericValueType valueType) {
-        if (valueType instanceof GenericValueType.Primitive
+        if (valueType == null || valueType instanceof GenericValueType.Primitive
                 || valueType instanceof GenericValueType.Variable
                 || valueType instanceof GenericValueType.Void) {
             return valueType;
@@ -158,17 +166,19 @@ public class ReferenceCache {
                     result = new GenericValueType.Array(cachedItem);
                 }
             }
-            genericValueTypeCache.put(result, result);
+            result = intern(genericValueTypeCache, result);
         }
 
         return result;
     }
 
     public String getCached(String s) {
+        if (s == null) {
+            return null;
+        }
         String result = stringCache.get(s);
         if (result == null) {
-            result = s;
-            stringCache.put(result, result);
+            result = intern(stringCache, s);
         }
         return result;
     }
@@ -177,7 +187,7 @@ public class ReferenceCache {
         MethodDescriptor result = descriptorParseCache.get(value);
         if (result == null) {
             result = getCached(MethodDescriptor.parse(value));
-            descriptorParseCache.put(value, result);
+            descriptorParseCache.putIfAbsent(value, result);
         }
         return result;
     }
@@ -186,8 +196,13 @@ public class ReferenceCache {
         ValueType result = valueTypeParseCache.get(value);
         if (result == null) {
             result = getCached(ValueType.parse(value));
-            valueTypeParseCache.put(value, result);
+            valueTypeParseCache.putIfAbsent(value, result);
         }
         return result;
     }
+
+    private static <T> T intern(ConcurrentMap<T, T> cache, T value) {
+        T existing = cache.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
 }
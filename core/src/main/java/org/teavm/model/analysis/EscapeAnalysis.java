@@ -52,6 +52,7 @@ import org.teavm.model.instructions.CloneArrayInstruction;
 import org.teavm.model.instructions.ExitInstruction;
 import org.teavm.model.instructions.GetElementInstruction;
 import org.teavm.model.instructions.GetFieldInstruction;
+import org.teavm.model.instructions.InvocationType;
 import org.teavm.model.instructions.InvokeInstruction;
 import org.teavm.model.instructions.IsInstanceInstruction;
 import org.teavm.model.instructions.MonitorEnterInstruction;
@@ -70,13 +71,31 @@ import org.teavm.model.util.UsageExtractor;
 public class EscapeAnalysis {
     private int[] definitionClasses;
     private boolean[] escapingVars;
+    private boolean[] globallyEscapingVars;
     private FieldReference[][] fields;
     private Map<FieldReference, ValueType> fieldTypes;
+    private EscapeSummaries summaries;
+    private boolean parametersEscaping = true;
+
+    /**
+     * Sets summaries that allow to treat object passed to a direct call as not escaping globally
+     * if the corresponding parameter does not escape the callee. Such object still {@link #escapes(int) escapes},
+     * since callee needs a real object, but {@link #escapesGlobally(int)} returns {@code false} for it.
+     */
+    public void setSummaries(EscapeSummaries summaries) {
+        this.summaries = summaries;
+    }
+
+    public void setParametersEscaping(boolean parametersEscaping) {
+        this.parametersEscaping = parametersEscaping;
+    }
 
     public void analyze(Program program, MethodReference methodReference) {
-        InstructionEscapeVisitor visitor = new InstructionEscapeVisitor(program.variableCount());
-        for (int i = 0; i <= methodReference.parameterCount(); ++i) {
-            visitor.escapingVars[i] = true;
+        InstructionEscapeVisitor visitor = new InstructionEscapeVisitor(program.variableCount(), summaries);
+        if (parametersEscaping) {
+            for (int i = 0; i <= methodReference.parameterCount(); ++i) {
+                visitor.escapingVars[i] = true;
+            }
         }
 
         for (BasicBlock block : program.getBasicBlocks()) {
@@ -90,10 +109,14 @@ public class EscapeAnalysis {
 
         definitionClasses = visitor.definitionClasses.pack(program.variableCount());
         escapingVars = new boolean[program.variableCount()];
+        globallyEscapingVars = new boolean[program.variableCount()];
         fieldTypes = visitor.fieldTypes;
         for (int i = 0; i < program.variableCount(); ++i) {
             if (visitor.escapingVars[i]) {
                 escapingVars[definitionClasses[i]] = true;
+                globallyEscapingVars[definitionClasses[i]] = true;
+            } else if (visitor.passedVars[i]) {
+                escapingVars[definitionClasses[i]] = true;
             }
         }
         analyzePhis(program, methodReference.getDescriptor());
@@ -106,6 +129,15 @@ public class EscapeAnalysis {
         return escapingVars[definitionClasses[var]];
     }
 
+    /**
+     * Tells whether object may become reachable after method exits or from another thread. Unlike
+     * {@link #escapes(int)}, returns {@code false} for objects that are only passed to non-escaping parameters
+     * of direct calls, provided that {@link #setSummaries(EscapeSummaries) summaries} are set.
+     */
+    public boolean escapesGlobally(int var) {
+        return globallyEscapingVars[definitionClasses[var]];
+    }
+
     public ValueType getFieldType(FieldReference field) {
         return fieldTypes.get(field);
     }
@@ -171,12 +203,22 @@ public class EscapeAnalysis {
             }
         }
         Graph graph = graphBuilder.build();
+        propagateThroughPhis(graph, queue, escapingVars);
 
+        for (int i = 0; i < globallyEscapingVars.length; ++i) {
+            if (globallyEscapingVars[i]) {
+                queue.addLast(i);
+            }
+        }
+        propagateThroughPhis(graph, queue, globallyEscapingVars);
+    }
+
+    private void propagateThroughPhis(Graph graph, IntDeque queue, boolean[] target) {
         IntSet visited = new IntHashSet();
         while (!queue.isEmpty()) {
             int var = queue.removeFirst();
             if (visited.add(var)) {
-                escapingVars[var] = true;
+                target[var] = true;
                 for (int successor : graph.outgoingEdges(var)) {
                     queue.addLast(successor);
                 }
@@ -280,16 +322,20 @@ public class EscapeAnalysis {
     static class InstructionEscapeVisitor extends AbstractInstructionVisitor {
         DisjointSet definitionClasses;
         boolean[] escapingVars;
+        boolean[] passedVars;
+        EscapeSummaries summaries;
         List<Set<FieldReference>> fields;
         Map<FieldReference, ValueType> fieldTypes = new HashMap<>();
 
-        InstructionEscapeVisitor(int variableCount) {
+        InstructionEscapeVisitor(int variableCount, EscapeSummaries summaries) {
+            this.summaries = summaries;
             fields = new ArrayList<>(Collections.nCopies(variableCount, null));
             definitionClasses = new DisjointSet();
             for (int i = 0; i < variableCount; ++i) {
                 definitionClasses.create();
             }
             escapingVars = new boolean[variableCount];
+            passedVars = new boolean[variableCount];
         }
 
         @Override
@@ -379,16 +425,26 @@ public class EscapeAnalysis {
         @Override
         public void visit(InvokeInstruction insn) {
             if (insn.getInstance() != null) {
-                escapingVars[insn.getInstance().getIndex()] = true;
+                passArgument(insn, insn.getInstance(), 0);
             }
-            for (Variable arg : insn.getArguments()) {
-                escapingVars[arg.getIndex()] = true;
+            List<? extends Variable> arguments = insn.getArguments();
+            for (int i = 0; i < arguments.size(); ++i) {
+                passArgument(insn, arguments.get(i), i + 1);
             }
             if (insn.getReceiver() != null) {
                 escapingVars[insn.getReceiver().getIndex()] = true;
             }
         }
 
+        private void passArgument(InvokeInstruction insn, Variable argument, int index) {
+            if (summaries != null && insn.getType() == InvocationType.SPECIAL
+                    && !summaries.parameterEscapes(insn.getMethod(), index)) {
+                passedVars[argument.getIndex()] = true;
+            } else {
+                escapingVars[argument.getIndex()] = true;
+            }
+        }
+
         @Override
         public void visit(IsInstanceInstruction insn) {
             escapingVars[insn.getValue().getIndex()] = true;
@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.analysis;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.MethodReader;
+import org.teavm.model.MethodReference;
+import org.teavm.model.util.ProgramUtils;
+
+/**
+ * Computes which parameters of a method may escape it, i.e. get stored to a field or an array, returned, thrown,
+ * used as a monitor or passed to a parameter of another method that may escape. Summaries are computed
+ * on demand and cached per method. Only direct calls are taken into account, since the callee of a virtual
+ * call is not known. Recursive calls are treated as letting all parameters escape.
+ */
+public class EscapeSummaries {
+    private static final int MAX_DEPTH = 10;
+    private ClassReaderSource classes;
+    private Map<MethodReference, boolean[]> summaries = new HashMap<>();
+    private Set<MethodReference> inProgress = new HashSet<>();
+
+    public EscapeSummaries(ClassReaderSource classes) {
+        this.classes = classes;
+    }
+
+    /**
+     * Tells whether given parameter of method may escape.
+     *
+     * @param method method to check.
+     * @param index index of parameter as variable in method's program, i.e. 0 for {@code this}
+     *              and 1 for the first declared parameter.
+     */
+    public boolean parameterEscapes(MethodReference method, int index) {
+        var summary = getSummary(method);
+        return summary == null || index >= summary.length || summary[index];
+    }
+
+    private boolean[] getSummary(MethodReference method) {
+        var summary = summaries.get(method);
+        if (summary == null && !summaries.containsKey(method)) {
+            if (inProgress.size() >= MAX_DEPTH || !inProgress.add(method)) {
+                return null;
+            }
+            try {
+                summary = computeSummary(method);
+            } finally {
+                inProgress.remove(method);
+            }
+            summaries.put(method, summary);
+        }
+        return summary;
+    }
+
+    private boolean[] computeSummary(MethodReference methodRef) {
+        ClassReader cls = classes.get(methodRef.getClassName());
+        if (cls == null) {
+            return null;
+        }
+        MethodReader method = cls.getMethod(methodRef.getDescriptor());
+        if (method == null || method.getProgram() == null || method.hasModifier(ElementModifier.SYNCHRONIZED)) {
+            return null;
+        }
+
+        var program = ProgramUtils.copy(method.getProgram());
+        var analysis = new EscapeAnalysis();
+        analysis.setSummaries(this);
+        analysis.setParametersEscaping(false);
+        analysis.analyze(program, methodRef);
+
+        var summary = new boolean[methodRef.parameterCount() + 1];
+        for (var i = 0; i < summary.length; ++i) {
+            summary[i] = i >= program.variableCount() || analysis.escapesGlobally(i);
+        }
+        return summary;
+    }
+}
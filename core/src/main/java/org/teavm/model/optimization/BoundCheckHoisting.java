@@ -0,0 +1,677 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.optimization;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.IntIntMap;
+import com.carrotsearch.hppc.IntSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.teavm.common.DominatorTree;
+import org.teavm.common.Graph;
+import org.teavm.common.GraphUtils;
+import org.teavm.common.Loop;
+import org.teavm.common.LoopGraph;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.Incoming;
+import org.teavm.model.Instruction;
+import org.teavm.model.Phi;
+import org.teavm.model.Program;
+import org.teavm.model.TryCatchBlock;
+import org.teavm.model.Variable;
+import org.teavm.model.instructions.ArrayLengthInstruction;
+import org.teavm.model.instructions.AssignInstruction;
+import org.teavm.model.instructions.BinaryInstruction;
+import org.teavm.model.instructions.BinaryOperation;
+import org.teavm.model.instructions.BoundCheckInstruction;
+import org.teavm.model.instructions.BranchingCondition;
+import org.teavm.model.instructions.BranchingInstruction;
+import org.teavm.model.instructions.IntegerConstantInstruction;
+import org.teavm.model.instructions.JumpInstruction;
+import org.teavm.model.instructions.NullCheckInstruction;
+import org.teavm.model.instructions.NumericOperandType;
+import org.teavm.model.instructions.UnwrapArrayInstruction;
+import org.teavm.model.util.BasicBlockMapper;
+import org.teavm.model.util.DefinitionExtractor;
+import org.teavm.model.util.PhiUpdater;
+import org.teavm.model.util.ProgramUtils;
+
+/**
+ * Removes bound checks from counted loops of form
+ *
+ * ```
+ * for (int i = start; i < limit; ++i) {
+ *     ... a[i + k] ...
+ * }
+ * ```
+ *
+ * where `limit`, `a` and `k` are loop invariants. Since range of `i` is known to be `[start, limit)`,
+ * all checks of such indexes can be replaced by a single pre-loop check. The loop is versioned:
+ *
+ * ```
+ * if (start >= -k && a != null && limit <= a.length - k) {
+ *     // copy of the loop without bound checks
+ * } else {
+ *     // original loop
+ * }
+ * ```
+ *
+ * so that exceptions are still thrown exactly at the same iteration as before. When the guard can be
+ * proven statically, checks are removed without versioning. Only innermost loops are considered,
+ * since versioning duplicates loop body.
+ */
+public class BoundCheckHoisting implements MethodOptimization {
+    public static final String HOISTED_CHECKS = "hoistedBoundChecks";
+    private static final int MAX_LOOP_SIZE = 100;
+    private static final int MAX_OFFSET = 1 << 16;
+
+    private Program program;
+    private DominatorTree dom;
+    private Instruction[] definitions;
+    private BasicBlock[] definitionPlaces;
+    private IntSet versionedLoops = new IntHashSet();
+    private int hoistedChecks;
+
+    @Override
+    public boolean optimize(MethodOptimizationContext context, Program program) {
+        if (!hasBoundChecks(program)) {
+            return false;
+        }
+
+        this.program = program;
+        versionedLoops.clear();
+        hoistedChecks = 0;
+        boolean affected = false;
+        while (hoistInNextLoop()) {
+            affected = true;
+            new PhiUpdater().updatePhis(program, context.getMethod().parameterCount() + 1);
+        }
+        if (hoistedChecks > 0) {
+            context.reportStatistic(HOISTED_CHECKS, hoistedChecks);
+        }
+
+        this.program = null;
+        dom = null;
+        definitions = null;
+        definitionPlaces = null;
+        return affected;
+    }
+
+    private static boolean hasBoundChecks(Program program) {
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Instruction insn : block) {
+                if (insn instanceof BoundCheckInstruction) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hoistInNextLoop() {
+        Graph cfg = ProgramUtils.buildControlFlowGraph(program);
+        LoopGraph loopGraph = new LoopGraph(cfg);
+        dom = GraphUtils.buildDominatorTree(cfg);
+        definitionPlaces = ProgramUtils.getVariableDefinitionPlaces(program);
+        findDefinitions();
+
+        for (Map.Entry<Loop, IntSet> entry : findInnermostLoops(loopGraph).entrySet()) {
+            int head = entry.getKey().getHead();
+            if (versionedLoops.contains(head)) {
+                continue;
+            }
+            CountedLoop loop = recognize(head, entry.getValue(), cfg);
+            if (loop != null && loop.hoist()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void findDefinitions() {
+        definitions = new Instruction[program.variableCount()];
+        DefinitionExtractor defExtractor = new DefinitionExtractor();
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Instruction insn : block) {
+                insn.acceptVisitor(defExtractor);
+                for (Variable var : defExtractor.getDefinedVariables()) {
+                    definitions[var.getIndex()] = insn;
+                }
+            }
+        }
+    }
+
+    private Map<Loop, IntSet> findInnermostLoops(LoopGraph loopGraph) {
+        Map<Loop, IntSet> loops = new LinkedHashMap<>();
+        Set<Loop> outerLoops = Collections.newSetFromMap(new HashMap<>());
+        for (int node = 0; node < loopGraph.size(); ++node) {
+            Loop loop = loopGraph.loopAt(node);
+            if (loop != null) {
+                loops.computeIfAbsent(loop, k -> new IntHashSet()).add(node);
+                if (loop.getParent() != null) {
+                    outerLoops.add(loop.getParent());
+                }
+            }
+        }
+        loops.keySet().removeAll(outerLoops);
+        return loops;
+    }
+
+    private CountedLoop recognize(int head, IntSet nodes, Graph cfg) {
+        BasicBlock header = program.basicBlockAt(head);
+        if (!(header.getLastInstruction() instanceof BranchingInstruction)) {
+            return null;
+        }
+        BranchingInstruction branch = (BranchingInstruction) header.getLastInstruction();
+        Instruction condition = definitions[branch.getOperand().getIndex()];
+        if (!(condition instanceof BinaryInstruction)) {
+            return null;
+        }
+        BinaryInstruction comparison = (BinaryInstruction) condition;
+        if (comparison.getOperation() != BinaryOperation.COMPARE
+                || comparison.getOperandType() != NumericOperandType.INT) {
+            return null;
+        }
+
+        Phi inductionPhi = findPhi(header, comparison.getFirstOperand());
+        Variable limit;
+        BasicBlock body;
+        if (inductionPhi != null) {
+            limit = comparison.getSecondOperand();
+            switch (branch.getCondition()) {
+                case LESS:
+                    body = branch.getConsequent();
+                    break;
+                case GREATER_OR_EQUAL:
+                    body = branch.getAlternative();
+                    break;
+                default:
+                    return null;
+            }
+        } else {
+            inductionPhi = findPhi(header, comparison.getSecondOperand());
+            if (inductionPhi == null) {
+                return null;
+            }
+            limit = comparison.getFirstOperand();
+            switch (branch.getCondition()) {
+                case GREATER:
+                    body = branch.getConsequent();
+                    break;
+                case LESS_OR_EQUAL:
+                    body = branch.getAlternative();
+                    break;
+                default:
+                    return null;
+            }
+        }
+        BasicBlock exit = body == branch.getConsequent() ? branch.getAlternative() : branch.getConsequent();
+        if (body.getIndex() == head || !nodes.contains(body.getIndex()) || nodes.contains(exit.getIndex())) {
+            return null;
+        }
+        if (!isInvariant(limit, nodes) && constantValue(limit) == null) {
+            return null;
+        }
+
+        int preheader = -1;
+        for (int predecessor : cfg.incomingEdges(head)) {
+            if (!nodes.contains(predecessor)) {
+                if (preheader >= 0 && preheader != predecessor) {
+                    return null;
+                }
+                preheader = predecessor;
+            }
+        }
+        if (preheader < 0) {
+            return null;
+        }
+
+        Variable inductionVar = inductionPhi.getReceiver();
+        Variable start = null;
+        for (Incoming incoming : inductionPhi.getIncomings()) {
+            if (incoming.getSource().getIndex() == preheader) {
+                start = incoming.getValue();
+            } else if (!isIncrement(incoming.getValue(), inductionVar)) {
+                return null;
+            }
+        }
+        if (start == null) {
+            return null;
+        }
+
+        return new CountedLoop(head, nodes, preheader, body.getIndex(), inductionVar, start, limit);
+    }
+
+    private Phi findPhi(BasicBlock block, Variable receiver) {
+        for (Phi phi : block.getPhis()) {
+            if (phi.getReceiver() == receiver) {
+                return phi;
+            }
+        }
+        return null;
+    }
+
+    private boolean isInvariant(Variable var, IntSet nodes) {
+        BasicBlock place = definitionPlaces[var.getIndex()];
+        return place == null || !nodes.contains(place.getIndex());
+    }
+
+    private boolean isIncrement(Variable var, Variable inductionVar) {
+        Instruction definition = definitions[var.getIndex()];
+        if (!(definition instanceof BinaryInstruction)) {
+            return false;
+        }
+        BinaryInstruction binary = (BinaryInstruction) definition;
+        if (binary.getOperation() != BinaryOperation.ADD || binary.getOperandType() != NumericOperandType.INT) {
+            return false;
+        }
+        Variable first = unwrap(binary.getFirstOperand());
+        Variable second = unwrap(binary.getSecondOperand());
+        if (first == inductionVar) {
+            return isConstant(second, 1);
+        } else if (second == inductionVar) {
+            return isConstant(first, 1);
+        }
+        return false;
+    }
+
+    /**
+     * Returns `k` if `var` is computed as `inductionVar + k`, {@code null} otherwise.
+     */
+    private Integer offsetOf(Variable var, Variable inductionVar) {
+        var = unwrap(var);
+        if (var == inductionVar) {
+            return 0;
+        }
+        Instruction definition = definitions[var.getIndex()];
+        if (!(definition instanceof BinaryInstruction)) {
+            return null;
+        }
+        BinaryInstruction binary = (BinaryInstruction) definition;
+        if (binary.getOperandType() != NumericOperandType.INT) {
+            return null;
+        }
+        Variable first = unwrap(binary.getFirstOperand());
+        Variable second = unwrap(binary.getSecondOperand());
+        Integer offset;
+        switch (binary.getOperation()) {
+            case ADD:
+                if (first == inductionVar) {
+                    offset = constantValue(second);
+                } else if (second == inductionVar) {
+                    offset = constantValue(first);
+                } else {
+                    return null;
+                }
+                break;
+            case SUBTRACT:
+                if (first != inductionVar) {
+                    return null;
+                }
+                offset = constantValue(second);
+                if (offset != null) {
+                    offset = -offset;
+                }
+                break;
+            default:
+                return null;
+        }
+        return offset != null && Math.abs(offset) <= MAX_OFFSET ? offset : null;
+    }
+
+    private Variable unwrap(Variable var) {
+        while (true) {
+            Instruction definition = definitions[var.getIndex()];
+            if (definition instanceof AssignInstruction) {
+                var = ((AssignInstruction) definition).getAssignee();
+            } else if (definition instanceof BoundCheckInstruction) {
+                var = ((BoundCheckInstruction) definition).getIndex();
+            } else {
+                return var;
+            }
+        }
+    }
+
+    private Integer constantValue(Variable var) {
+        Instruction definition = definitions[var.getIndex()];
+        return definition instanceof IntegerConstantInstruction
+                ? ((IntegerConstantInstruction) definition).getConstant()
+                : null;
+    }
+
+    private boolean isConstant(Variable var, int value) {
+        Integer constant = constantValue(var);
+        return constant != null && constant == value;
+    }
+
+    /**
+     * Finds array reference that can be used to take length before the loop, i.e. array which is defined
+     * outside of the loop, possibly passed through null check or unwrapping inside the loop.
+     */
+    private Variable arrayRoot(Variable var, IntSet nodes) {
+        while (true) {
+            Instruction definition = definitions[var.getIndex()];
+            if (definition instanceof UnwrapArrayInstruction) {
+                var = ((UnwrapArrayInstruction) definition).getArray();
+            } else if (isInvariant(var, nodes)) {
+                return var;
+            } else if (definition instanceof NullCheckInstruction) {
+                var = ((NullCheckInstruction) definition).getValue();
+            } else if (definition instanceof AssignInstruction) {
+                var = ((AssignInstruction) definition).getAssignee();
+            } else {
+                return null;
+            }
+        }
+    }
+
+    private class CountedLoop {
+        final int head;
+        final IntSet nodes;
+        final int preheader;
+        final int body;
+        final Variable inductionVar;
+        final Variable start;
+        final Variable limit;
+        final List<BoundCheckInstruction> checks = new ArrayList<>();
+        int minOffset;
+        final Map<Variable, Integer> maxOffsets = new LinkedHashMap<>();
+
+        CountedLoop(int head, IntSet nodes, int preheader, int body, Variable inductionVar, Variable start,
+                Variable limit) {
+            this.head = head;
+            this.nodes = nodes;
+            this.preheader = preheader;
+            this.body = body;
+            this.inductionVar = inductionVar;
+            this.start = start;
+            this.limit = limit;
+        }
+
+        boolean hoist() {
+            if (!findChecks()) {
+                return false;
+            }
+
+            Integer startValue = constantValue(start);
+            boolean lowerGuard = true;
+            if (startValue != null) {
+                if ((long) startValue + minOffset < 0) {
+                    return false;
+                }
+                lowerGuard = false;
+            }
+
+            if (!lowerGuard && maxOffsets.isEmpty()) {
+                for (BoundCheckInstruction check : checks) {
+                    removeCheck(check);
+                }
+            } else {
+                if (loopSize() > MAX_LOOP_SIZE) {
+                    return false;
+                }
+                version(lowerGuard);
+                versionedLoops.add(head);
+            }
+            hoistedChecks += checks.size();
+            return true;
+        }
+
+        private boolean findChecks() {
+            minOffset = 0;
+            for (int node : nodes.toArray()) {
+                if (node == head || !dom.dominates(body, node)) {
+                    continue;
+                }
+                for (Instruction insn : program.basicBlockAt(node)) {
+                    if (!(insn instanceof BoundCheckInstruction)) {
+                        continue;
+                    }
+                    BoundCheckInstruction check = (BoundCheckInstruction) insn;
+                    Integer offset = offsetOf(check.getIndex(), inductionVar);
+                    if (offset == null) {
+                        continue;
+                    }
+                    if (check.getArray() == null) {
+                        // Without upper bound check nothing guarantees that `i + k` does not overflow
+                        if (offset > 0) {
+                            continue;
+                        }
+                    } else {
+                        Variable array = arrayRoot(check.getArray(), nodes);
+                        if (array == null) {
+                            continue;
+                        }
+                        maxOffsets.merge(array, offset, Math::max);
+                    }
+                    minOffset = checks.isEmpty() ? offset : Math.min(minOffset, offset);
+                    checks.add(check);
+                }
+            }
+            return !checks.isEmpty();
+        }
+
+        private int loopSize() {
+            int size = 0;
+            for (int node : nodes.toArray()) {
+                size += program.basicBlockAt(node).instructionCount();
+            }
+            return size;
+        }
+
+        private void version(boolean lowerGuard) {
+            IntIntMap copies = copyLoop();
+
+            BasicBlock failure = program.createBasicBlock();
+            BasicBlock guard = program.createBasicBlock();
+            GuardBuilder guardBuilder = new GuardBuilder(guard, failure);
+            Variable limit = isInvariant(this.limit, nodes)
+                    ? this.limit
+                    : guardBuilder.constant(constantValue(this.limit));
+            if (lowerGuard) {
+                Variable bound = guardBuilder.constant(-minOffset);
+                guardBuilder.failIf(BranchingCondition.LESS, guardBuilder.compare(start, bound));
+            }
+            for (Map.Entry<Variable, Integer> entry : maxOffsets.entrySet()) {
+                Variable array = entry.getKey();
+                int offset = entry.getValue();
+                guardBuilder.failIf(BranchingCondition.NULL, array);
+                Variable length = guardBuilder.length(array);
+                Variable comparison;
+                if (offset >= 0) {
+                    Variable bound = guardBuilder.subtract(length, guardBuilder.constant(offset));
+                    comparison = guardBuilder.compare(limit, bound);
+                } else {
+                    Variable last = guardBuilder.add(limit, guardBuilder.constant(offset));
+                    comparison = guardBuilder.compare(last, length);
+                }
+                guardBuilder.failIf(BranchingCondition.GREATER, comparison);
+            }
+            BasicBlock success = guardBuilder.current;
+
+            jump(failure, program.basicBlockAt(head));
+            jump(success, program.basicBlockAt(copies.get(head)));
+
+            program.basicBlockAt(preheader).getLastInstruction().acceptVisitor(new BasicBlockMapper(
+                    (int block) -> block == head ? guard.getIndex() : block));
+            for (Phi phi : program.basicBlockAt(head).getPhis()) {
+                for (Incoming incoming : phi.getIncomings()) {
+                    if (incoming.getSource().getIndex() == preheader) {
+                        incoming.setSource(failure);
+                    }
+                }
+            }
+            for (Phi phi : program.basicBlockAt(copies.get(head)).getPhis()) {
+                for (Incoming incoming : phi.getIncomings()) {
+                    if (incoming.getSource().getIndex() == preheader) {
+                        incoming.setSource(success);
+                    }
+                }
+            }
+        }
+
+        private IntIntMap copyLoop() {
+            int[] nodes = this.nodes.toArray();
+            Arrays.sort(nodes);
+            int originalBlockCount = program.basicBlockCount();
+            IntIntMap copies = new IntIntHashMap();
+            for (int node : nodes) {
+                copies.put(node, program.createBasicBlock().getIndex());
+            }
+
+            Set<Instruction> checksToRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+            checksToRemove.addAll(checks);
+            BasicBlockMapper blockMapper = new BasicBlockMapper((int block) -> copies.getOrDefault(block, block));
+            for (int node : nodes) {
+                BasicBlock sourceBlock = program.basicBlockAt(node);
+                BasicBlock targetBlock = program.basicBlockAt(copies.get(node));
+                targetBlock.setExceptionVariable(sourceBlock.getExceptionVariable());
+
+                List<Instruction> instructionCopies = ProgramUtils.copyInstructions(sourceBlock.getFirstInstruction(),
+                        null, program);
+                Instruction sourceInsn = sourceBlock.getFirstInstruction();
+                for (Instruction insn : instructionCopies) {
+                    insn.acceptVisitor(blockMapper);
+                    targetBlock.add(insn);
+                    if (checksToRemove.contains(sourceInsn)) {
+                        removeCheck((BoundCheckInstruction) insn);
+                    }
+                    sourceInsn = sourceInsn.getNext();
+                }
+
+                for (Phi phi : sourceBlock.getPhis()) {
+                    Phi phiCopy = new Phi();
+                    phiCopy.setReceiver(phi.getReceiver());
+                    for (Incoming incoming : phi.getIncomings()) {
+                        Incoming incomingCopy = new Incoming();
+                        int source = incoming.getSource().getIndex();
+                        incomingCopy.setSource(program.basicBlockAt(copies.getOrDefault(source, source)));
+                        incomingCopy.setValue(incoming.getValue());
+                        phiCopy.getIncomings().add(incomingCopy);
+                    }
+                    targetBlock.getPhis().add(phiCopy);
+                }
+
+                for (TryCatchBlock tryCatch : sourceBlock.getTryCatchBlocks()) {
+                    TryCatchBlock tryCatchCopy = new TryCatchBlock();
+                    int handler = tryCatch.getHandler().getIndex();
+                    tryCatchCopy.setExceptionType(tryCatch.getExceptionType());
+                    tryCatchCopy.setHandler(program.basicBlockAt(copies.getOrDefault(handler, handler)));
+                    targetBlock.getTryCatchBlocks().add(tryCatchCopy);
+                }
+            }
+
+            for (int i = 0; i < originalBlockCount; ++i) {
+                if (copies.containsKey(i)) {
+                    continue;
+                }
+                BasicBlock block = program.basicBlockAt(i);
+                for (Phi phi : block.getPhis()) {
+                    for (Incoming incoming : phi.getIncomings().toArray(new Incoming[0])) {
+                        int source = incoming.getSource().getIndex();
+                        if (copies.containsKey(source)) {
+                            Incoming incomingCopy = new Incoming();
+                            incomingCopy.setValue(incoming.getValue());
+                            incomingCopy.setSource(program.basicBlockAt(copies.get(source)));
+                            phi.getIncomings().add(incomingCopy);
+                        }
+                    }
+                }
+            }
+
+            return copies;
+        }
+
+        private void jump(BasicBlock from, BasicBlock to) {
+            JumpInstruction jump = new JumpInstruction();
+            jump.setTarget(to);
+            from.add(jump);
+        }
+    }
+
+    private void removeCheck(BoundCheckInstruction check) {
+        AssignInstruction assign = new AssignInstruction();
+        assign.setAssignee(check.getIndex());
+        assign.setReceiver(check.getReceiver());
+        assign.setLocation(check.getLocation());
+        check.replace(assign);
+    }
+
+    private class GuardBuilder {
+        BasicBlock current;
+        final BasicBlock failure;
+
+        GuardBuilder(BasicBlock current, BasicBlock failure) {
+            this.current = current;
+            this.failure = failure;
+        }
+
+        Variable constant(int value) {
+            IntegerConstantInstruction insn = new IntegerConstantInstruction();
+            insn.setConstant(value);
+            insn.setReceiver(program.createVariable());
+            current.add(insn);
+            return insn.getReceiver();
+        }
+
+        Variable length(Variable array) {
+            ArrayLengthInstruction insn = new ArrayLengthInstruction();
+            insn.setArray(array);
+            insn.setReceiver(program.createVariable());
+            current.add(insn);
+            return insn.getReceiver();
+        }
+
+        Variable compare(Variable first, Variable second) {
+            return binary(BinaryOperation.COMPARE, first, second);
+        }
+
+        Variable add(Variable first, Variable second) {
+            return binary(BinaryOperation.ADD, first, second);
+        }
+
+        Variable subtract(Variable first, Variable second) {
+            return binary(BinaryOperation.SUBTRACT, first, second);
+        }
+
+        private Variable binary(BinaryOperation operation, Variable first, Variable second) {
+            BinaryInstruction insn = new BinaryInstruction(operation, NumericOperandType.INT);
+            insn.setFirstOperand(first);
+            insn.setSecondOperand(second);
+            insn.setReceiver(program.createVariable());
+            current.add(insn);
+            return insn.getReceiver();
+        }
+
+        void failIf(BranchingCondition condition, Variable operand) {
+            BasicBlock next = program.createBasicBlock();
+            BranchingInstruction insn = new BranchingInstruction(condition);
+            insn.setOperand(operand);
+            insn.setConsequent(failure);
+            insn.setAlternative(next);
+            current.add(insn);
+            current = next;
+        }
+    }
+}
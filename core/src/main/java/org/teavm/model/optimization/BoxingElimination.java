@@ -0,0 +1,372 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.optimization;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.common.DisjointSet;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.FieldReference;
+import org.teavm.model.Incoming;
+import org.teavm.model.Instruction;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Phi;
+import org.teavm.model.Program;
+import org.teavm.model.Variable;
+import org.teavm.model.instructions.AssignInstruction;
+import org.teavm.model.instructions.GetFieldInstruction;
+import org.teavm.model.instructions.InvocationType;
+import org.teavm.model.instructions.InvokeInstruction;
+import org.teavm.model.instructions.NullCheckInstruction;
+import org.teavm.model.util.UsageExtractor;
+
+/**
+ * Removes allocations of boxed numbers that are only unboxed in the same method. Box is produced
+ * by {@code valueOf} and may flow through phis, assignments and null checks. If every use of a box
+ * (and of all values it is joined with) is an unboxing, i.e. call of {@code intValue()}-like method
+ * or a read of {@code value} field, the box never escapes, so {@code valueOf} call is removed and unboxings
+ * are replaced by the original primitive value.
+ */
+public class BoxingElimination implements MethodOptimization {
+    public static final String ELIMINATED_ALLOCATIONS = "eliminatedBoxAllocations";
+    private static final BoxType[] BOX_TYPES = {
+            new BoxType(Integer.class, int.class, "intValue"),
+            new BoxType(Long.class, long.class, "longValue"),
+            new BoxType(Double.class, double.class, "doubleValue")
+    };
+
+    private Program program;
+    private BoxType[] boxTypes;
+    private boolean[] candidates;
+    private Variable[] sources;
+    private Variable[] primitives;
+
+    /**
+     * Tells whether method allocates a box that this optimization is able to remove. Inlining such method
+     * hides the allocation from this optimization.
+     */
+    public static boolean isBoxingMethod(MethodReference method) {
+        return getBoxType(method) != null;
+    }
+
+    @Override
+    public boolean optimize(MethodOptimizationContext context, Program program) {
+        this.program = program;
+        int count = program.variableCount();
+        boxTypes = new BoxType[count];
+        candidates = new boolean[count];
+        sources = new Variable[count];
+        primitives = new Variable[count];
+        try {
+            if (!findCandidates() || !propagateTypes() || !checkUsages()) {
+                return false;
+            }
+            int eliminated = replace();
+            context.reportStatistic(ELIMINATED_ALLOCATIONS, eliminated);
+            return eliminated > 0;
+        } finally {
+            this.program = null;
+            boxTypes = null;
+            candidates = null;
+            sources = null;
+            primitives = null;
+        }
+    }
+
+    private boolean findCandidates() {
+        boolean hasBoxes = false;
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Phi phi : block.getPhis()) {
+                candidates[phi.getReceiver().getIndex()] = true;
+            }
+            for (Instruction insn : block) {
+                if (insn instanceof InvokeInstruction) {
+                    InvokeInstruction invoke = (InvokeInstruction) insn;
+                    BoxType type = getBox(invoke);
+                    if (type != null) {
+                        int receiver = invoke.getReceiver().getIndex();
+                        candidates[receiver] = true;
+                        boxTypes[receiver] = type;
+                        primitives[receiver] = invoke.getArguments().get(0);
+                        hasBoxes = true;
+                    }
+                } else if (insn instanceof AssignInstruction) {
+                    AssignInstruction assign = (AssignInstruction) insn;
+                    candidates[assign.getReceiver().getIndex()] = true;
+                    sources[assign.getReceiver().getIndex()] = assign.getAssignee();
+                } else if (insn instanceof NullCheckInstruction) {
+                    NullCheckInstruction nullCheck = (NullCheckInstruction) insn;
+                    candidates[nullCheck.getReceiver().getIndex()] = true;
+                    sources[nullCheck.getReceiver().getIndex()] = nullCheck.getValue();
+                }
+            }
+        }
+        return hasBoxes;
+    }
+
+    private boolean propagateTypes() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (BasicBlock block : program.getBasicBlocks()) {
+                for (Phi phi : block.getPhis()) {
+                    int receiver = phi.getReceiver().getIndex();
+                    if (!candidates[receiver]) {
+                        continue;
+                    }
+                    for (Incoming incoming : phi.getIncomings()) {
+                        if (!join(receiver, incoming.getValue().getIndex())) {
+                            changed = true;
+                            break;
+                        }
+                        if (boxTypes[receiver] == null && boxTypes[incoming.getValue().getIndex()] != null) {
+                            boxTypes[receiver] = boxTypes[incoming.getValue().getIndex()];
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < sources.length; ++i) {
+                if (sources[i] == null || !candidates[i]) {
+                    continue;
+                }
+                if (!join(i, sources[i].getIndex())) {
+                    changed = true;
+                } else if (boxTypes[i] == null && boxTypes[sources[i].getIndex()] != null) {
+                    boxTypes[i] = boxTypes[sources[i].getIndex()];
+                    changed = true;
+                }
+            }
+        }
+
+        boolean hasCandidates = false;
+        for (int i = 0; i < candidates.length; ++i) {
+            if (boxTypes[i] == null) {
+                // Either not joined with any box, or joined with boxes only through a cycle
+                candidates[i] = false;
+            } else if (candidates[i]) {
+                hasCandidates = true;
+            }
+        }
+        return hasCandidates;
+    }
+
+    private boolean join(int receiver, int value) {
+        if (!candidates[value] || boxTypes[value] != null && boxTypes[receiver] != null
+                && boxTypes[value] != boxTypes[receiver]) {
+            candidates[receiver] = false;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean checkUsages() {
+        DisjointSet classes = new DisjointSet();
+        for (int i = 0; i < candidates.length; ++i) {
+            classes.create();
+        }
+        boolean[] escaping = new boolean[candidates.length];
+
+        UsageExtractor usageExtractor = new UsageExtractor();
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Phi phi : block.getPhis()) {
+                int receiver = phi.getReceiver().getIndex();
+                for (Incoming incoming : phi.getIncomings()) {
+                    int value = incoming.getValue().getIndex();
+                    if (candidates[receiver]) {
+                        classes.union(receiver, value);
+                    } else if (candidates[value]) {
+                        escaping[value] = true;
+                    }
+                }
+            }
+            for (Instruction insn : block) {
+                if (isUnboxing(insn)) {
+                    continue;
+                }
+                if (isCopy(insn)) {
+                    int receiver = getReceiverIndex(insn);
+                    if (candidates[receiver]) {
+                        classes.union(receiver, sources[receiver].getIndex());
+                        continue;
+                    }
+                }
+                insn.acceptVisitor(usageExtractor);
+                for (Variable used : usageExtractor.getUsedVariables()) {
+                    if (candidates[used.getIndex()]) {
+                        escaping[used.getIndex()] = true;
+                    }
+                }
+            }
+        }
+
+        boolean[] escapingClasses = new boolean[candidates.length];
+        for (int i = 0; i < candidates.length; ++i) {
+            if (escaping[i]) {
+                escapingClasses[classes.find(i)] = true;
+            }
+        }
+        boolean hasCandidates = false;
+        for (int i = 0; i < candidates.length; ++i) {
+            if (candidates[i]) {
+                if (escapingClasses[classes.find(i)]) {
+                    candidates[i] = false;
+                } else {
+                    hasCandidates = true;
+                }
+            }
+        }
+        return hasCandidates;
+    }
+
+    private static boolean isCopy(Instruction insn) {
+        return insn instanceof AssignInstruction || insn instanceof NullCheckInstruction;
+    }
+
+    private static int getReceiverIndex(Instruction insn) {
+        return insn instanceof AssignInstruction
+                ? ((AssignInstruction) insn).getReceiver().getIndex()
+                : ((NullCheckInstruction) insn).getReceiver().getIndex();
+    }
+
+    private boolean isUnboxing(Instruction insn) {
+        if (insn instanceof InvokeInstruction) {
+            InvokeInstruction invoke = (InvokeInstruction) insn;
+            if (invoke.getInstance() == null || !invoke.getArguments().isEmpty()
+                    || !candidates[invoke.getInstance().getIndex()]) {
+                return false;
+            }
+            BoxType type = boxTypes[invoke.getInstance().getIndex()];
+            return invoke.getMethod().equals(type.unboxMethod);
+        } else if (insn instanceof GetFieldInstruction) {
+            GetFieldInstruction getField = (GetFieldInstruction) insn;
+            if (getField.getInstance() == null || !candidates[getField.getInstance().getIndex()]) {
+                return false;
+            }
+            BoxType type = boxTypes[getField.getInstance().getIndex()];
+            return getField.getField().equals(type.valueField);
+        }
+        return false;
+    }
+
+    private int replace() {
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Phi phi : block.getPhis()) {
+                Variable receiver = phi.getReceiver();
+                if (candidates[receiver.getIndex()]) {
+                    Variable primitive = program.createVariable();
+                    primitive.setDebugName(receiver.getDebugName());
+                    if (receiver.getLabel() != null) {
+                        primitive.setLabel(receiver.getLabel() + "$value");
+                    }
+                    primitives[receiver.getIndex()] = primitive;
+                }
+            }
+        }
+
+        int eliminated = 0;
+        for (BasicBlock block : program.getBasicBlocks()) {
+            List<Phi> primitivePhis = new ArrayList<>();
+            for (int i = 0; i < block.getPhis().size(); ++i) {
+                Phi phi = block.getPhis().get(i);
+                if (!candidates[phi.getReceiver().getIndex()]) {
+                    continue;
+                }
+                Phi primitivePhi = new Phi();
+                primitivePhi.setReceiver(primitives[phi.getReceiver().getIndex()]);
+                for (Incoming incoming : phi.getIncomings()) {
+                    Incoming primitiveIncoming = new Incoming();
+                    primitiveIncoming.setSource(incoming.getSource());
+                    primitiveIncoming.setValue(getPrimitive(incoming.getValue()));
+                    primitivePhi.getIncomings().add(primitiveIncoming);
+                }
+                primitivePhis.add(primitivePhi);
+                block.getPhis().remove(i--);
+            }
+            block.getPhis().addAll(primitivePhis);
+
+            for (Instruction insn : block) {
+                if (isUnboxing(insn)) {
+                    Variable instance = insn instanceof InvokeInstruction
+                            ? ((InvokeInstruction) insn).getInstance()
+                            : ((GetFieldInstruction) insn).getInstance();
+                    Variable receiver = insn instanceof InvokeInstruction
+                            ? ((InvokeInstruction) insn).getReceiver()
+                            : ((GetFieldInstruction) insn).getReceiver();
+                    if (receiver == null) {
+                        insn.delete();
+                    } else {
+                        AssignInstruction assign = new AssignInstruction();
+                        assign.setReceiver(receiver);
+                        assign.setAssignee(getPrimitive(instance));
+                        assign.setLocation(insn.getLocation());
+                        insn.replace(assign);
+                    }
+                } else if (insn instanceof InvokeInstruction) {
+                    InvokeInstruction invoke = (InvokeInstruction) insn;
+                    if (invoke.getReceiver() != null && candidates[invoke.getReceiver().getIndex()]
+                            && getBox(invoke) != null) {
+                        insn.delete();
+                        eliminated++;
+                    }
+                } else if (isCopy(insn)) {
+                    if (candidates[getReceiverIndex(insn)]) {
+                        insn.delete();
+                    }
+                }
+            }
+        }
+        return eliminated;
+    }
+
+    private Variable getPrimitive(Variable box) {
+        Variable primitive = primitives[box.getIndex()];
+        if (primitive == null) {
+            primitive = getPrimitive(sources[box.getIndex()]);
+            primitives[box.getIndex()] = primitive;
+        }
+        return primitive;
+    }
+
+    private static BoxType getBox(InvokeInstruction invoke) {
+        if (invoke.getType() != InvocationType.SPECIAL || invoke.getInstance() != null
+                || invoke.getReceiver() == null) {
+            return null;
+        }
+        return getBoxType(invoke.getMethod());
+    }
+
+    private static BoxType getBoxType(MethodReference method) {
+        for (BoxType type : BOX_TYPES) {
+            if (type.boxMethod.equals(method)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    static class BoxType {
+        final MethodReference boxMethod;
+        final MethodReference unboxMethod;
+        final FieldReference valueField;
+
+        BoxType(Class<?> wrapper, Class<?> primitive, String unboxMethodName) {
+            boxMethod = new MethodReference(wrapper, "valueOf", primitive, wrapper);
+            unboxMethod = new MethodReference(wrapper, unboxMethodName, primitive);
+            valueField = new FieldReference(wrapper.getName(), "value");
+        }
+    }
+}
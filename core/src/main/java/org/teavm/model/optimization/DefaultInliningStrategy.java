@@ -27,12 +27,16 @@ import org.teavm.model.instructions.BinaryBranchingCondition;
 import org.teavm.model.instructions.BranchingCondition;
 import org.teavm.model.instructions.InvocationType;
 import org.teavm.model.instructions.SwitchTableEntryReader;
+import org.teavm.model.profile.ExecutionProfile;
 
 public class DefaultInliningStrategy implements InliningStrategy {
+    private static final int HOT_COMPLEXITY_FACTOR = 4;
+    private static final int HOT_TOTAL_COMPLEXITY_FACTOR = 2;
     private final int complexityThreshold;
     private final int depthThreshold;
     private final int totalComplexityThreshold;
     private final boolean onceUsedOnly;
+    private ExecutionProfile profile;
     private int getComplexityDepth;
     private Map<MethodReference, Complexity> complexityCache = new HashMap<>();
 
@@ -44,6 +48,14 @@ public class DefaultInliningStrategy implements InliningStrategy {
         this.onceUsedOnly = onceUsedOnly;
     }
 
+    /**
+     * Sets profile which makes strategy inline larger methods if they are hot and never inline
+     * non-trivial methods that were not called at all.
+     */
+    public void setProfile(ExecutionProfile profile) {
+        this.profile = profile;
+    }
+
     @Override
     public InliningStep start(MethodReference method, ProgramReader program) {
         Complexity complexity = getComplexity(program, null);
@@ -97,16 +109,28 @@ public class DefaultInliningStrategy implements InliningStrategy {
             if (context.getDepth() > depthThreshold) {
                 return null;
             }
+            if (BoxingElimination.isBoxingMethod(method)) {
+                // Keep boxing recognizable, so that BoxingElimination can remove boxes that do not escape
+                return null;
+            }
 
             Complexity complexity = getComplexity(method, context);
-            if (onceUsedOnly && !context.isUsedOnce(method)) {
+            if (profile != null && profile.isCold(method) && complexity.score > 1) {
+                return null;
+            }
+            // Inlining a call that receives a local allocation lets scalar replacement remove the allocation
+            var boosted = profile != null && profile.isHot(method) || context.passesNonEscapingAllocation();
+            if (onceUsedOnly && !boosted && !context.isUsedOnce(method)) {
                 if (complexity.callsToUsedOnceMethods || complexity.score > 1) {
                     return null;
                 }
             }
 
-            if (complexity.score > complexityThreshold
-                    || complexityHolder.complexity + complexity.score > totalComplexityThreshold) {
+            var methodLimit = boosted ? complexityThreshold * HOT_COMPLEXITY_FACTOR : complexityThreshold;
+            var totalLimit = boosted
+                    ? totalComplexityThreshold * HOT_TOTAL_COMPLEXITY_FACTOR
+                    : totalComplexityThreshold;
+            if (complexity.score > methodLimit || complexityHolder.complexity + complexity.score > totalLimit) {
                 return null;
             }
 
@@ -15,10 +15,12 @@
  */
 package org.teavm.model.optimization;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -29,6 +31,7 @@ import org.teavm.dependency.ValueDependencyInfo;
 import org.teavm.model.BasicBlock;
 import org.teavm.model.ClassHierarchy;
 import org.teavm.model.ClassReader;
+import org.teavm.model.ElementModifier;
 import org.teavm.model.Instruction;
 import org.teavm.model.MethodHolder;
 import org.teavm.model.MethodReference;
@@ -37,9 +40,11 @@ import org.teavm.model.ValueType;
 import org.teavm.model.instructions.CastInstruction;
 import org.teavm.model.instructions.InvocationType;
 import org.teavm.model.instructions.InvokeInstruction;
+import org.teavm.model.profile.ExecutionProfile;
 
 public class Devirtualization {
     static final boolean shouldLog = System.getProperty("org.teavm.logDevirtualization", "false").equals("true");
+    private static final int MAX_GUARDED_TARGETS = 4;
     private DependencyInfo dependency;
     private ClassHierarchy hierarchy;
     private Set<MethodReference> virtualMethods = new HashSet<>();
@@ -47,8 +52,14 @@ public class Devirtualization {
     private Map<ValueDependencyInfo, Map<MethodReference, Set<MethodReference>>> implementationCache =
             new HashMap<>();
     private Map<ValueDependencyInfo, Map<ValueType, Optional<String>>> castCache = new HashMap<>();
+    private ExecutionProfile profile;
+    private boolean polymorphicCallsGuarded;
+    private List<InvokeInstruction> guardedInvocations = new ArrayList<>();
+    private List<List<String>> guardedClasses = new ArrayList<>();
+    private List<List<MethodReference>> guardedImplementations = new ArrayList<>();
     private int virtualCallSites;
     private int directCallSites;
+    private int guardedCallSites;
     private int remainingCasts;
     private int eliminatedCasts;
 
@@ -65,6 +76,27 @@ public class Devirtualization {
         return directCallSites;
     }
 
+    public int getGuardedCallSites() {
+        return guardedCallSites;
+    }
+
+    /**
+     * Sets profile that allows to turn hot virtual calls that have a dominant receiver class into
+     * direct calls guarded by a type check.
+     */
+    public void setProfile(ExecutionProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Makes virtual calls with 2 to 4 possible implementations check receiver type against each implementing
+     * class and call corresponding implementation directly, so that it can be inlined. Original virtual call
+     * remains as a fallback for other receivers, including {@code null}.
+     */
+    public void setPolymorphicCallsGuarded(boolean polymorphicCallsGuarded) {
+        this.polymorphicCallsGuarded = polymorphicCallsGuarded;
+    }
+
     public int getRemainingCasts() {
         return remainingCasts;
     }
@@ -84,23 +116,37 @@ public class Devirtualization {
             System.out.println("DEVIRTUALIZATION running at " + method.getReference());
         }
 
+        // Call sites are numbered the same way as ProfileInstrumentation does
+        int callSiteIndex = 0;
         for (int i = 0; i < program.basicBlockCount(); ++i) {
             BasicBlock block = program.basicBlockAt(i);
             for (Instruction insn : block) {
                 if (insn instanceof InvokeInstruction) {
-                    applyToInvoke(methodDep, program, (InvokeInstruction) insn);
+                    applyToInvoke(methodDep, program, (InvokeInstruction) insn, callSiteIndex++);
                 } else if (insn instanceof CastInstruction) {
                     applyToCast(methodDep, (CastInstruction) insn);
                 }
             }
         }
 
+        if (!guardedInvocations.isEmpty()) {
+            var guard = new GuardedInvocation(program);
+            for (var j = 0; j < guardedInvocations.size(); ++j) {
+                guard.apply(guardedInvocations.get(j), guardedClasses.get(j), guardedImplementations.get(j));
+            }
+            guard.complete();
+            guardedInvocations.clear();
+            guardedClasses.clear();
+            guardedImplementations.clear();
+        }
+
         if (shouldLog) {
             System.out.println("DEVIRTUALIZATION complete for " + method.getReference());
         }
     }
 
-    private void applyToInvoke(MethodDependencyInfo methodDep, Program program, InvokeInstruction invoke) {
+    private void applyToInvoke(MethodDependencyInfo methodDep, Program program, InvokeInstruction invoke,
+            int callSiteIndex) {
         if (invoke.getType() != InvocationType.VIRTUAL) {
             return;
         }
@@ -132,6 +178,24 @@ public class Devirtualization {
             directCallSites++;
         } else {
             virtualMethods.addAll(implementations);
+            if (profile != null) {
+                var implementation = getProfiledImplementation(methodDep, var, invoke, callSiteIndex,
+                        implementations);
+                if (implementation != null) {
+                    addGuardedInvocation(invoke, List.of(implementation.getClassName()),
+                            List.of(implementation));
+                    return;
+                }
+            }
+            if (polymorphicCallsGuarded && implementations.size() > 1
+                    && implementations.size() <= MAX_GUARDED_TARGETS
+                    && GuardedInvocation.canApply(invoke)) {
+                var guards = getPolymorphicGuards(var, invoke.getMethod(), implementations);
+                if (guards != null) {
+                    addGuardedInvocation(invoke, guards, implementations(guards, invoke.getMethod()));
+                    return;
+                }
+            }
             if (shouldLog) {
                 System.out.print("VIRTUAL CALL " + invoke.getMethod() + " resolved to [");
                 boolean first = true;
@@ -153,6 +217,111 @@ public class Devirtualization {
         }
     }
 
+    private void addGuardedInvocation(InvokeInstruction invoke, List<String> classNames,
+            List<MethodReference> implementations) {
+        if (shouldLog) {
+            System.out.print("GUARDED CALL " + invoke.getMethod() + " resolved to " + classNames);
+            if (invoke.getLocation() != null) {
+                System.out.print(" at " + invoke.getLocation().getFileName() + ":"
+                        + invoke.getLocation().getLine());
+            }
+            System.out.println();
+        }
+        guardedInvocations.add(invoke);
+        guardedClasses.add(classNames);
+        guardedImplementations.add(implementations);
+        guardedCallSites++;
+    }
+
+    /**
+     * Computes classes to check receiver against, one per implementation. A class declaring implementation
+     * is checked before its superclasses, so that overriding implementations are picked first. Returns
+     * {@code null} when some possible receiver type passing a check would actually call another implementation.
+     */
+    private List<String> getPolymorphicGuards(ValueDependencyInfo var, MethodReference method,
+            Set<MethodReference> implementations) {
+        var guards = new ArrayList<String>();
+        for (var implementation : implementations) {
+            var className = implementation.getClassName();
+            var cls = hierarchy.getClassSource().get(className);
+            if (cls == null || cls.hasModifier(ElementModifier.INTERFACE)) {
+                // Type checks against interfaces are expensive, default methods are not worth it
+                return null;
+            }
+            var index = 0;
+            while (index < guards.size() && !hierarchy.isSuperType(guards.get(index), className, false)) {
+                ++index;
+            }
+            guards.add(index, className);
+        }
+
+        for (var type : var.getTypes()) {
+            var className = type.startsWith("[") ? "java.lang.Object" : type;
+            for (var guard : guards) {
+                if (hierarchy.isSuperType(guard, className, false)) {
+                    var typeImplementation = dependency.getMethodImplementation(new MethodReference(className,
+                            method.getDescriptor()));
+                    if (typeImplementation == null
+                            || !typeImplementation.getReference().getClassName().equals(guard)) {
+                        return null;
+                    }
+                    break;
+                }
+            }
+        }
+        return guards;
+    }
+
+    private static List<MethodReference> implementations(List<String> classNames, MethodReference method) {
+        var result = new ArrayList<MethodReference>();
+        for (var className : classNames) {
+            result.add(new MethodReference(className, method.getDescriptor()));
+        }
+        return result;
+    }
+
+    private MethodReference getProfiledImplementation(MethodDependencyInfo methodDep, ValueDependencyInfo var,
+            InvokeInstruction invoke, int callSiteIndex, Set<MethodReference> implementations) {
+        var caller = methodDep.getReference();
+        if (!GuardedInvocation.canApply(invoke) || !profile.isHotCallSite(caller, callSiteIndex)) {
+            return null;
+        }
+
+        var receivers = profile.getReceiverTypes(caller, callSiteIndex);
+        String dominantClass = null;
+        long dominantCount = 0;
+        long total = 0;
+        for (var entry : receivers.entrySet()) {
+            total += entry.getValue();
+            if (entry.getValue() > dominantCount) {
+                dominantCount = entry.getValue();
+                dominantClass = entry.getKey();
+            }
+        }
+        if (dominantClass == null || dominantClass.startsWith("[") || dominantCount < total * 0.9) {
+            return null;
+        }
+
+        var implementation = dependency.getMethodImplementation(new MethodReference(dominantClass,
+                invoke.getMethod().getDescriptor()));
+        if (implementation == null || !implementations.contains(implementation.getReference())) {
+            return null;
+        }
+
+        // Type check also passes for subclasses, so they must share implementation
+        for (var type : var.getTypes()) {
+            if (!type.startsWith("[") && hierarchy.isSuperType(dominantClass, type, false)) {
+                var typeImplementation = dependency.getMethodImplementation(new MethodReference(type,
+                        invoke.getMethod().getDescriptor()));
+                if (typeImplementation != null
+                        && !typeImplementation.getReference().equals(implementation.getReference())) {
+                    return null;
+                }
+            }
+        }
+        return implementation.getReference();
+    }
+
     private void applyToCast(MethodDependencyInfo methodDep, CastInstruction cast) {
         ValueDependencyInfo var = methodDep.getVariable(cast.getValue().getIndex());
         if (var == null) {
@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.optimization;
+
+import java.util.List;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.Incoming;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Phi;
+import org.teavm.model.Program;
+import org.teavm.model.ValueType;
+import org.teavm.model.Variable;
+import org.teavm.model.instructions.BranchingCondition;
+import org.teavm.model.instructions.BranchingInstruction;
+import org.teavm.model.instructions.CastInstruction;
+import org.teavm.model.instructions.InvocationType;
+import org.teavm.model.instructions.InvokeInstruction;
+import org.teavm.model.instructions.IsInstanceInstruction;
+import org.teavm.model.instructions.JumpInstruction;
+import org.teavm.model.util.BasicBlockSplitter;
+
+/**
+ * Replaces virtual invocation with a chain of type checks, each followed by a direct call of the implementation
+ * for this type, and falls back to the original virtual invocation when no check succeeds. Direct calls
+ * can then be inlined. Invocations should be guarded in order they appear in the program.
+ */
+class GuardedInvocation {
+    private Program program;
+    private BasicBlockSplitter splitter;
+
+    GuardedInvocation(Program program) {
+        this.program = program;
+        splitter = new BasicBlockSplitter(program);
+    }
+
+    static boolean canApply(InvokeInstruction invoke) {
+        // Otherwise we would have to fix incomings of exception handlers from the new blocks
+        return invoke.getType() == InvocationType.VIRTUAL && invoke.getInstance() != null
+                && invoke.getBasicBlock().getTryCatchBlocks().isEmpty();
+    }
+
+    /**
+     * Guards invocation.
+     *
+     * @param invoke virtual invocation.
+     * @param classNames classes to check receiver against, in order of checks.
+     * @param implementations implementations to call directly for corresponding classes. Implementation
+     *                        must be the same for all subclasses of the class that receiver may have.
+     */
+    void apply(InvokeInstruction invoke, List<String> classNames, List<MethodReference> implementations) {
+        var block = invoke.getBasicBlock();
+        var continueBlock = splitter.split(block, invoke);
+        var location = invoke.getLocation();
+        invoke.delete();
+
+        Phi phi = null;
+        if (invoke.getReceiver() != null) {
+            phi = new Phi();
+            phi.setReceiver(invoke.getReceiver());
+            continueBlock.getPhis().add(phi);
+        }
+
+        var guardBlock = block;
+        for (var i = 0; i < classNames.size(); ++i) {
+            var className = classNames.get(i);
+            var implementation = implementations.get(i);
+            var directBlock = program.createBasicBlock();
+            var nextBlock = program.createBasicBlock();
+
+            var isInstance = new IsInstanceInstruction();
+            isInstance.setValue(invoke.getInstance());
+            isInstance.setType(ValueType.object(className));
+            isInstance.setReceiver(program.createVariable());
+            isInstance.setLocation(location);
+            guardBlock.add(isInstance);
+
+            var branching = new BranchingInstruction(BranchingCondition.NOT_EQUAL);
+            branching.setOperand(isInstance.getReceiver());
+            branching.setConsequent(directBlock);
+            branching.setAlternative(nextBlock);
+            branching.setLocation(location);
+            guardBlock.add(branching);
+
+            var instance = invoke.getInstance();
+            if (!implementation.getClassName().equals(invoke.getMethod().getClassName())) {
+                var cast = new CastInstruction();
+                cast.setValue(instance);
+                cast.setTargetType(ValueType.object(implementation.getClassName()));
+                cast.setWeak(true);
+                cast.setReceiver(program.createVariable());
+                cast.setLocation(location);
+                directBlock.add(cast);
+                instance = cast.getReceiver();
+            }
+
+            var directInvoke = new InvokeInstruction();
+            directInvoke.setType(InvocationType.SPECIAL);
+            directInvoke.setMethod(implementation);
+            directInvoke.setInstance(instance);
+            directInvoke.setArguments(invoke.getArguments().toArray(new Variable[0]));
+            directInvoke.setLocation(location);
+            if (phi != null) {
+                directInvoke.setReceiver(program.createVariable());
+                addIncoming(phi, directBlock, directInvoke.getReceiver());
+            }
+            directBlock.add(directInvoke);
+            jump(directBlock, continueBlock);
+
+            guardBlock = nextBlock;
+        }
+
+        if (phi != null) {
+            invoke.setReceiver(program.createVariable());
+            addIncoming(phi, guardBlock, invoke.getReceiver());
+        }
+        guardBlock.add(invoke);
+        jump(guardBlock, continueBlock);
+    }
+
+    void complete() {
+        splitter.fixProgram();
+    }
+
+    private static void addIncoming(Phi phi, BasicBlock source, Variable value) {
+        var incoming = new Incoming();
+        incoming.setSource(source);
+        incoming.setValue(value);
+        phi.getIncomings().add(incoming);
+    }
+
+    private static void jump(BasicBlock source, BasicBlock target) {
+        var jump = new JumpInstruction();
+        jump.setTarget(target);
+        source.add(jump);
+    }
+}
@@ -31,6 +31,7 @@ import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.teavm.dependency.DependencyInfo;
+import org.teavm.interop.SplitPoint;
 import org.teavm.model.BasicBlock;
 import org.teavm.model.BasicBlockReader;
 import org.teavm.model.ClassHierarchy;
@@ -50,9 +51,12 @@ import org.teavm.model.TryCatchBlock;
 import org.teavm.model.ValueType;
 import org.teavm.model.VariableReader;
 import org.teavm.model.analysis.ClassInference;
+import org.teavm.model.analysis.EscapeAnalysis;
+import org.teavm.model.analysis.EscapeSummaries;
 import org.teavm.model.instructions.AbstractInstructionReader;
 import org.teavm.model.instructions.AssignInstruction;
 import org.teavm.model.instructions.CastInstruction;
+import org.teavm.model.instructions.ConstructInstruction;
 import org.teavm.model.instructions.ExitInstruction;
 import org.teavm.model.instructions.InvocationType;
 import org.teavm.model.instructions.InvokeInstruction;
@@ -75,6 +79,7 @@ public class Inlining {
     private boolean devirtualization;
     private ClassInference classInference;
     private InliningFilterFactory filterFactory;
+    private EscapeSummaries escapeSummaries;
 
     public Inlining(ClassHierarchy hierarchy, DependencyInfo dependencyInfo, InliningStrategy strategy,
             ListableClassReaderSource classes, Predicate<MethodReference> externalMethods,
@@ -107,6 +112,15 @@ public class Inlining {
         }
     }
 
+    /**
+     * Sets summaries that allow to find calls receiving objects allocated by the caller. Such calls are
+     * reported to the strategy via {@link InliningContext#passesNonEscapingAllocation()}, since after inlining
+     * the allocation can be removed by {@link ScalarReplacement}.
+     */
+    public void setEscapeSummaries(EscapeSummaries escapeSummaries) {
+        this.escapeSummaries = escapeSummaries;
+    }
+
     public List<MethodReference> getOrder() {
         List<MethodReference> order = new ArrayList<>();
         Set<MethodReference> visited = new HashSet<>();
@@ -348,6 +362,7 @@ public class Inlining {
         InliningFilter filter = filterFactory.createFilter(method);
 
         ContextImpl context = new ContextImpl();
+        Set<Instruction> allocationPassingCalls = findAllocationPassingCalls(program, method);
         for (BasicBlock block : program.getBasicBlocks()) {
             if (!block.getTryCatchBlocks().isEmpty()) {
                 continue;
@@ -381,12 +396,14 @@ public class Inlining {
                 MethodReader invokedMethod = getMethod(invoke.getMethod());
                 if (invokedMethod == null || invokedMethod.getProgram() == null
                         || invokedMethod.getProgram().basicBlockCount() == 0
-                        || invokedMethod.hasModifier(ElementModifier.SYNCHRONIZED)) {
+                        || invokedMethod.hasModifier(ElementModifier.SYNCHRONIZED)
+                        || invokedMethod.getAnnotations().get(SplitPoint.class.getName()) != null) {
                     instructionsToSkip.add(insn);
                     continue;
                 }
 
                 context.depth = depth;
+                context.allocationPassed = allocationPassingCalls.contains(insn);
                 InliningStep innerStep = step.tryInline(invokedMethod.getReference(), invokedMethod.getProgram(),
                         context);
                 if (innerStep == null) {
@@ -419,6 +436,58 @@ public class Inlining {
         return plan;
     }
 
+    private Set<Instruction> findAllocationPassingCalls(Program program, MethodReference method) {
+        if (escapeSummaries == null) {
+            return Collections.emptySet();
+        }
+        boolean[] allocated = new boolean[program.variableCount()];
+        boolean hasAllocations = false;
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Instruction insn : block) {
+                if (insn instanceof ConstructInstruction) {
+                    allocated[((ConstructInstruction) insn).getReceiver().getIndex()] = true;
+                    hasAllocations = true;
+                }
+            }
+        }
+        if (!hasAllocations) {
+            return Collections.emptySet();
+        }
+
+        EscapeAnalysis escapeAnalysis = new EscapeAnalysis();
+        escapeAnalysis.setSummaries(escapeSummaries);
+        escapeAnalysis.analyze(program, method);
+
+        Set<Instruction> result = new HashSet<>();
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Instruction insn : block) {
+                if (!(insn instanceof InvokeInstruction)) {
+                    continue;
+                }
+                InvokeInstruction invoke = (InvokeInstruction) insn;
+                if (invoke.getType() != InvocationType.SPECIAL) {
+                    continue;
+                }
+                if (invoke.getInstance() != null && isNonEscapingAllocation(invoke.getInstance().getIndex(),
+                        allocated, escapeAnalysis)) {
+                    result.add(invoke);
+                    continue;
+                }
+                for (var argument : invoke.getArguments()) {
+                    if (isNonEscapingAllocation(argument.getIndex(), allocated, escapeAnalysis)) {
+                        result.add(invoke);
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isNonEscapingAllocation(int var, boolean[] allocated, EscapeAnalysis escapeAnalysis) {
+        return allocated[var] && !escapeAnalysis.escapesGlobally(var);
+    }
+
     private MethodReader getMethod(MethodReference methodRef) {
         ClassReader cls = classes.get(methodRef.getClassName());
         return cls != null ? cls.getMethod(methodRef.getDescriptor()) : null;
@@ -509,6 +578,7 @@ public class Inlining {
 
     class ContextImpl implements InliningContext {
         int depth;
+        boolean allocationPassed;
 
         @Override
         public boolean isUsedOnce(MethodReference method) {
@@ -529,5 +599,10 @@ public class Inlining {
         public int getDepth() {
             return depth;
         }
+
+        @Override
+        public boolean passesNonEscapingAllocation() {
+            return allocationPassed;
+        }
     }
 }
@@ -24,4 +24,12 @@ public interface InliningContext {
     ProgramReader getProgram(MethodReference method);
 
     int getDepth();
+
+    /**
+     * Tells whether current call site passes an object, allocated by the caller and not escaping otherwise,
+     * to a parameter that does not escape the callee. Inlining such call allows to eliminate the allocation.
+     */
+    default boolean passesNonEscapingAllocation() {
+        return false;
+    }
 }
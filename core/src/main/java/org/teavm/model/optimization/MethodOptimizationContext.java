@@ -28,4 +28,11 @@ public interface MethodOptimizationContext {
     ClassReaderSource getClassSource();
 
     ClassHierarchy getHierarchy();
+
+    /**
+     * Reports a statistic of an optimization, like number of eliminated allocations. Values reported
+     * under the same name are summed up and written to build metrics, when they are collected.
+     */
+    default void reportStatistic(String name, int value) {
+    }
 }
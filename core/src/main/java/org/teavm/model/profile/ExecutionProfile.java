@@ -0,0 +1,222 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.profile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Execution counts recorded by a build with {@link ProfileInstrumentation}. Contains number of times
+ * each method was entered, number of times each call site was executed and classes of receivers observed
+ * at virtual call sites.</p>
+ *
+ * <p>Call sites are identified by the calling method and the ordinal number of the invocation in the program
+ * of this method, as produced by {@link ProfileInstrumentation#getCallSites}.</p>
+ *
+ * <p>Profile is stored as a text file where each line is one of</p>
+ *
+ * <pre>
+ * m &lt;method&gt; &lt;count&gt;
+ * c &lt;caller&gt; &lt;index&gt; &lt;count&gt;
+ * r &lt;caller&gt; &lt;index&gt; &lt;receiver class&gt; &lt;count&gt;
+ * </pre>
+ *
+ * <p>Lines starting with {@code #} are ignored. Reading several files into one profile sums their counts.</p>
+ */
+public class ExecutionProfile {
+    private static final double HOT_FRACTION = 0.9;
+    private Map<MethodReference, MethodProfile> methods = new LinkedHashMap<>();
+    private long hotThreshold = -1;
+
+    public boolean isEmpty() {
+        return methods.isEmpty();
+    }
+
+    public long getMethodCount(MethodReference method) {
+        var profile = methods.get(method);
+        return profile != null ? profile.count : 0;
+    }
+
+    /**
+     * Tells whether method belongs to the smallest set of most frequently entered methods that together
+     * account for 90% of all method entries.
+     */
+    public boolean isHot(MethodReference method) {
+        var count = getMethodCount(method);
+        return count > 0 && count >= getHotThreshold();
+    }
+
+    /**
+     * Tells whether method was never entered while profile was recorded.
+     */
+    public boolean isCold(MethodReference method) {
+        return !isEmpty() && getMethodCount(method) == 0;
+    }
+
+    public long getCallSiteCount(MethodReference caller, int index) {
+        var callSite = getCallSite(caller, index);
+        return callSite != null ? callSite.count : 0;
+    }
+
+    /**
+     * Tells whether call site was executed as many times as a hot method was entered.
+     */
+    public boolean isHotCallSite(MethodReference caller, int index) {
+        var count = getCallSiteCount(caller, index);
+        return count > 0 && count >= getHotThreshold();
+    }
+
+    /**
+     * Returns number of calls by class of receiver for a virtual call site.
+     */
+    public Map<String, Long> getReceiverTypes(MethodReference caller, int index) {
+        var callSite = getCallSite(caller, index);
+        return callSite != null ? Collections.unmodifiableMap(callSite.receivers) : Collections.emptyMap();
+    }
+
+    public void addMethodCount(MethodReference method, long count) {
+        methods.computeIfAbsent(method, m -> new MethodProfile()).count += count;
+        hotThreshold = -1;
+    }
+
+    public void addCallSiteCount(MethodReference caller, int index, long count) {
+        getOrCreateCallSite(caller, index).count += count;
+    }
+
+    public void addReceiverCount(MethodReference caller, int index, String className, long count) {
+        getOrCreateCallSite(caller, index).receivers.merge(className, count, Long::sum);
+    }
+
+    private CallSiteProfile getCallSite(MethodReference caller, int index) {
+        var method = methods.get(caller);
+        return method != null ? method.callSites.get(index) : null;
+    }
+
+    private CallSiteProfile getOrCreateCallSite(MethodReference caller, int index) {
+        return methods.computeIfAbsent(caller, m -> new MethodProfile()).callSites
+                .computeIfAbsent(index, i -> new CallSiteProfile());
+    }
+
+    private long getHotThreshold() {
+        if (hotThreshold < 0) {
+            var counts = new ArrayList<Long>();
+            var total = 0L;
+            for (var method : methods.values()) {
+                if (method.count > 0) {
+                    counts.add(method.count);
+                    total += method.count;
+                }
+            }
+            counts.sort(Collections.reverseOrder());
+            hotThreshold = Long.MAX_VALUE;
+            var accumulated = 0L;
+            for (var count : counts) {
+                hotThreshold = count;
+                accumulated += count;
+                if (accumulated >= total * HOT_FRACTION) {
+                    break;
+                }
+            }
+        }
+        return hotThreshold;
+    }
+
+    public void read(Reader reader) throws IOException {
+        var lineReader = new BufferedReader(reader);
+        var lineNumber = 0;
+        while (true) {
+            var line = lineReader.readLine();
+            if (line == null) {
+                break;
+            }
+            ++lineNumber;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            var parts = line.split(" ");
+            try {
+                switch (parts[0]) {
+                    case "m":
+                        checkLength(parts, 3);
+                        addMethodCount(MethodReference.parse(parts[1]), Long.parseLong(parts[2]));
+                        break;
+                    case "c":
+                        checkLength(parts, 4);
+                        addCallSiteCount(MethodReference.parse(parts[1]), Integer.parseInt(parts[2]),
+                                Long.parseLong(parts[3]));
+                        break;
+                    case "r":
+                        checkLength(parts, 5);
+                        addReceiverCount(MethodReference.parse(parts[1]), Integer.parseInt(parts[2]), parts[3],
+                                Long.parseLong(parts[4]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown record kind: " + parts[0]);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed execution profile at line " + lineNumber + ": " + line, e);
+            }
+        }
+    }
+
+    private static void checkLength(String[] parts, int expected) {
+        if (parts.length != expected) {
+            throw new IllegalArgumentException("Wrong number of fields");
+        }
+    }
+
+    public void write(Writer writer) throws IOException {
+        writer.write("# TeaVM execution profile\n");
+        for (var entry : methods.entrySet()) {
+            var method = entry.getValue();
+            if (method.count > 0) {
+                writer.write("m " + entry.getKey() + " " + method.count + "\n");
+            }
+            List<Integer> indexes = new ArrayList<>(method.callSites.keySet());
+            Collections.sort(indexes);
+            for (var index : indexes) {
+                var callSite = method.callSites.get(index);
+                var prefix = entry.getKey() + " " + index;
+                if (callSite.count > 0) {
+                    writer.write("c " + prefix + " " + callSite.count + "\n");
+                }
+                for (var receiver : callSite.receivers.entrySet()) {
+                    writer.write("r " + prefix + " " + receiver.getKey() + " " + receiver.getValue() + "\n");
+                }
+            }
+        }
+    }
+
+    static class MethodProfile {
+        long count;
+        Map<Integer, CallSiteProfile> callSites = new HashMap<>();
+    }
+
+    static class CallSiteProfile {
+        long count;
+        Map<String, Long> receivers = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.profile;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.dependency.DependencyAnalyzer;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.Instruction;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.TextLocation;
+import org.teavm.model.Variable;
+import org.teavm.model.instructions.InvocationType;
+import org.teavm.model.instructions.InvokeInstruction;
+import org.teavm.model.instructions.StringConstantInstruction;
+import org.teavm.runtime.ExecutionProfileRecorder;
+
+/**
+ * Inserts counters of method entries, call sites and receiver classes into programs. Counters are
+ * collected by {@link ExecutionProfileRecorder}, which produces input for {@link ExecutionProfile}.
+ * Should be applied before devirtualization, since call sites are numbered the same way as devirtualization
+ * sees them in the following profile-guided build.
+ */
+public class ProfileInstrumentation {
+    public static final MethodReference COUNT = new MethodReference(ExecutionProfileRecorder.class,
+            "count", String.class, void.class);
+    public static final MethodReference COUNT_RECEIVER = new MethodReference(ExecutionProfileRecorder.class,
+            "countReceiver", String.class, Object.class, void.class);
+    public static final MethodReference DUMP = new MethodReference(ExecutionProfileRecorder.class,
+            "dump", String.class);
+    public static final MethodReference PRINT = new MethodReference(ExecutionProfileRecorder.class,
+            "print", void.class);
+
+    public static void contributeDependencies(DependencyAnalyzer dependencyAnalyzer) {
+        var stringType = dependencyAnalyzer.getType("java.lang.String");
+
+        var count = dependencyAnalyzer.linkMethod(COUNT);
+        count.getVariable(1).propagate(stringType);
+        count.use();
+
+        var countReceiver = dependencyAnalyzer.linkMethod(COUNT_RECEIVER);
+        countReceiver.getVariable(1).propagate(stringType);
+        countReceiver.getVariable(2).propagate(dependencyAnalyzer.getType("java.lang.Object"));
+        countReceiver.use();
+
+        dependencyAnalyzer.linkMethod(DUMP).use();
+        dependencyAnalyzer.linkMethod(PRINT).use();
+    }
+
+    /**
+     * Returns invocations of a program in order they are numbered in profile.
+     */
+    public static List<InvokeInstruction> getCallSites(Program program) {
+        var result = new ArrayList<InvokeInstruction>();
+        for (var block : program.getBasicBlocks()) {
+            for (var instruction : block) {
+                if (instruction instanceof InvokeInstruction) {
+                    result.add((InvokeInstruction) instruction);
+                }
+            }
+        }
+        return result;
+    }
+
+    public void apply(MethodReference method, Program program) {
+        if (program.basicBlockCount() == 0
+                || method.getClassName().equals(ExecutionProfileRecorder.class.getName())) {
+            return;
+        }
+
+        var callSites = getCallSites(program);
+        for (var i = 0; i < callSites.size(); ++i) {
+            var invoke = callSites.get(i);
+            var key = "c " + method + " " + i;
+            if (invoke.getType() == InvocationType.VIRTUAL && invoke.getInstance() != null) {
+                insertCounter(program, invoke, COUNT_RECEIVER, key, invoke.getInstance());
+            } else {
+                insertCounter(program, invoke, COUNT, key, null);
+            }
+        }
+
+        BasicBlock entry = program.basicBlockAt(0);
+        if (entry.getFirstInstruction() != null) {
+            insertCounter(program, entry.getFirstInstruction(), COUNT, "m " + method, null);
+        }
+    }
+
+    private void insertCounter(Program program, Instruction before, MethodReference counter, String key,
+            Variable receiver) {
+        TextLocation location = before.getLocation();
+
+        var keyConstant = new StringConstantInstruction();
+        keyConstant.setConstant(key);
+        keyConstant.setReceiver(program.createVariable());
+        keyConstant.setLocation(location);
+        before.insertPrevious(keyConstant);
+
+        var invoke = new InvokeInstruction();
+        invoke.setType(InvocationType.SPECIAL);
+        invoke.setMethod(counter);
+        if (receiver != null) {
+            invoke.setArguments(keyConstant.getReceiver(), receiver);
+        } else {
+            invoke.setArguments(keyConstant.getReceiver());
+        }
+        invoke.setLocation(location);
+        before.insertPrevious(invoke);
+    }
+}
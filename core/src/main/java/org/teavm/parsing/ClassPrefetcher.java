@@ -0,0 +1,210 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.parsing;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.teavm.model.BasicBlockReader;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.FieldHolder;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.TryCatchBlockReader;
+import org.teavm.model.ValueType;
+import org.teavm.model.VariableReader;
+import org.teavm.model.instructions.AbstractInstructionReader;
+import org.teavm.model.instructions.InvocationType;
+
+/**
+ * Speculatively parses classes referenced by already loaded classes on a pool of background threads.
+ * Parsers are not thread-safe, so each worker thread gets its own parser created by the given factory.
+ * All bookkeeping happens on the thread that requests classes, workers only run the parser.
+ */
+class ClassPrefetcher {
+    private static final long KEEP_ALIVE_SECONDS = 1;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Function<String, ClassHolder>> workerParser;
+    private final Map<String, Future<ClassHolder>> pending = new HashMap<>();
+    private final Set<String> requested = new HashSet<>();
+
+    ClassPrefetcher(int threadCount, Supplier<Function<String, ClassHolder>> parserFactory) {
+        var threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    var thread = new Thread(runnable, "teavm-class-prefetch-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Let idle workers die, so that class source that is no longer used does not keep threads alive
+        executor.allowCoreThreadTimeOut(true);
+        workerParser = ThreadLocal.withInitial(parserFactory);
+    }
+
+    /**
+     * Returns class, either prefetched by a worker or parsed by given parser on the calling thread,
+     * and schedules prefetching of classes it refers to.
+     */
+    ClassHolder get(String name, Function<String, ClassHolder> parser) {
+        requested.add(name);
+        ClassHolder cls = null;
+        var future = pending.remove(name);
+        if (future != null) {
+            cls = join(future);
+        }
+        if (cls == null) {
+            // Either class was not prefetched, or worker failed. In the latter case parse class again
+            // on this thread to report error (or missing class) the same way as without prefetching.
+            cls = parser.apply(name);
+        }
+        if (cls != null) {
+            prefetchReferences(cls);
+        }
+        return cls;
+    }
+
+    private static ClassHolder join(Future<ClassHolder> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void prefetchReferences(ClassHolder cls) {
+        var collector = new ReferenceCollector();
+        if (cls.getParent() != null) {
+            collector.add(cls.getParent());
+        }
+        for (var itf : cls.getInterfaces()) {
+            collector.add(itf);
+        }
+        if (cls.getOwnerName() != null) {
+            collector.add(cls.getOwnerName());
+        }
+        for (FieldHolder field : cls.getFields()) {
+            collector.add(field.getType());
+        }
+        for (MethodHolder method : cls.getMethods()) {
+            for (var type : method.getSignature()) {
+                collector.add(type);
+            }
+            Program program = method.getProgram();
+            if (program != null) {
+                for (int i = 0; i < program.basicBlockCount(); ++i) {
+                    BasicBlockReader block = program.basicBlockAt(i);
+                    block.readAllInstructions(collector);
+                    for (TryCatchBlockReader tryCatch : block.readTryCatchBlocks()) {
+                        if (tryCatch.getExceptionType() != null) {
+                            collector.add(tryCatch.getExceptionType());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void schedule(String name) {
+        if (!requested.add(name)) {
+            return;
+        }
+        pending.put(name, executor.submit(() -> workerParser.get().apply(name)));
+    }
+
+    class ReferenceCollector extends AbstractInstructionReader {
+        void add(String className) {
+            schedule(className);
+        }
+
+        void add(ValueType type) {
+            while (type instanceof ValueType.Array) {
+                type = ((ValueType.Array) type).getItemType();
+            }
+            if (type instanceof ValueType.Object) {
+                schedule(((ValueType.Object) type).getClassName());
+            }
+        }
+
+        @Override
+        public void classConstant(VariableReader receiver, ValueType cst) {
+            add(cst);
+        }
+
+        @Override
+        public void cast(VariableReader receiver, VariableReader value, ValueType targetType, boolean weak) {
+            add(targetType);
+        }
+
+        @Override
+        public void createArray(VariableReader receiver, ValueType itemType, VariableReader size) {
+            add(itemType);
+        }
+
+        @Override
+        public void createArray(VariableReader receiver, ValueType itemType,
+                List<? extends VariableReader> dimensions) {
+            add(itemType);
+        }
+
+        @Override
+        public void create(VariableReader receiver, String type) {
+            add(type);
+        }
+
+        @Override
+        public void getField(VariableReader receiver, VariableReader instance, FieldReference field,
+                ValueType fieldType) {
+            add(field.getClassName());
+        }
+
+        @Override
+        public void putField(VariableReader instance, FieldReference field, VariableReader value,
+                ValueType fieldType) {
+            add(field.getClassName());
+        }
+
+        @Override
+        public void invoke(VariableReader receiver, VariableReader instance, MethodReference method,
+                List<? extends VariableReader> arguments, InvocationType type) {
+            add(method.getClassName());
+        }
+
+        @Override
+        public void isInstance(VariableReader receiver, VariableReader value, ValueType type) {
+            add(type);
+        }
+
+        @Override
+        public void initClass(String className) {
+            add(className);
+        }
+    }
+}
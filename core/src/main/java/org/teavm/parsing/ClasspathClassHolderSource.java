@@ -28,10 +28,31 @@ public class ClasspathClassHolderSource implements ClassHolderSource, ClassDateP
     private ClasspathResourceMapper classPathMapper;
 
     public ClasspathClassHolderSource(ClassLoader classLoader, ReferenceCache referenceCache) {
+        this(classLoader, referenceCache, 0);
+    }
+
+    /**
+     * Creates class source that parses classes referenced by already requested classes ahead of time,
+     * on the given number of background threads. Zero means that classes are parsed only on demand.
+     */
+    public ClasspathClassHolderSource(ClassLoader classLoader, ReferenceCache referenceCache, int prefetchThreads) {
+        if (prefetchThreads < 0) {
+            throw new IllegalArgumentException("Number of threads must be non-negative: " + prefetchThreads);
+        }
+        classPathMapper = createMapper(classLoader, referenceCache);
+        if (prefetchThreads > 0) {
+            var prefetcher = new ClassPrefetcher(prefetchThreads,
+                    () -> createMapper(classLoader, referenceCache));
+            innerClassSource = new MapperClassHolderSource(name -> prefetcher.get(name, classPathMapper));
+        } else {
+            innerClassSource = new MapperClassHolderSource(classPathMapper);
+        }
+    }
+
+    static ClasspathResourceMapper createMapper(ClassLoader classLoader, ReferenceCache referenceCache) {
         ClasspathResourceReader reader = new ClasspathResourceReader(classLoader);
         ResourceClassHolderMapper rawMapper = new ResourceClassHolderMapper(reader, referenceCache);
-        classPathMapper = new ClasspathResourceMapper(classLoader, referenceCache, rawMapper);
-        innerClassSource = new MapperClassHolderSource(classPathMapper);
+        return new ClasspathResourceMapper(classLoader, referenceCache, rawMapper);
     }
 
     public ClasspathClassHolderSource(ReferenceCache referenceCache) {
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.parsing;
+
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ClassHolderSource;
+import org.teavm.model.PreOptimizingClassHolderSource;
+import org.teavm.model.ReferenceCache;
+
+/**
+ * Pool of parsed and pre-optimized classes that is shared by all builds in the JVM that load classes
+ * from the same class loader, so that classes of the class library are parsed only once per process.
+ *
+ * <p>This class source is thread-safe. Classes are parsed on the thread that requests them first,
+ * each thread with its own parser, and references are interned in a {@link ReferenceCache} of the pool.
+ * Since the pool only contains classes of one class loader, which don't change, this cache does not grow
+ * beyond references of these classes and is released together with the pool.
+ * Returned classes are shared between concurrent builds and must not be modified. TeaVM itself
+ * copies classes before transforming them, so the pool can be passed to
+ * {@link org.teavm.vm.TeaVMBuilder#setClassSource(ClassHolderSource)} directly.
+ *
+ * <p>Pool only keeps soft references, so that classes are released when the JVM runs low on memory.
+ * Note that parsers of a pool entry refer to its class loader, so a class loader that is no longer used
+ * stays reachable, together with parsed classes, until the JVM runs low on memory and clears the entry.
+ */
+public final class SharedClassHolderSource implements ClassHolderSource {
+    private static final Map<ClassLoader, SoftReference<SharedClassHolderSource>> pool = new WeakHashMap<>();
+    private final ThreadLocal<Function<String, ClassHolder>> parser;
+    private final ConcurrentMap<String, Optional<ClassHolder>> classes = new ConcurrentHashMap<>();
+    private final ReferenceCache referenceCache = new ReferenceCache();
+
+    private SharedClassHolderSource(ClassLoader classLoader) {
+        parser = ThreadLocal.withInitial(() -> {
+            var mapper = ClasspathClassHolderSource.createMapper(classLoader, referenceCache);
+            return name -> PreOptimizingClassHolderSource.optimize(mapper, name);
+        });
+    }
+
+    public static SharedClassHolderSource forClassLoader(ClassLoader classLoader) {
+        synchronized (pool) {
+            var ref = pool.get(classLoader);
+            var result = ref != null ? ref.get() : null;
+            if (result == null) {
+                result = new SharedClassHolderSource(classLoader);
+                pool.put(classLoader, new SoftReference<>(result));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns cache where references of classes of this pool are interned.
+     */
+    public ReferenceCache getReferenceCache() {
+        return referenceCache;
+    }
+
+    @Override
+    public ClassHolder get(String name) {
+        var cls = classes.get(name);
+        if (cls == null) {
+            // Two threads may parse the same class at once, which is cheaper than blocking on each other.
+            // Only the first result gets published, so all builds see the same instance.
+            cls = Optional.ofNullable(parser.get().apply(name));
+            var existing = classes.putIfAbsent(name, cls);
+            if (existing != null) {
+                cls = existing;
+            }
+        }
+        return cls.orElse(null);
+    }
+}
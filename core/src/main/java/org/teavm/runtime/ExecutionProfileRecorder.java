@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects counters inserted by {@link org.teavm.model.profile.ProfileInstrumentation}. Counting is suspended
+ * while recorder itself runs, since it relies on instrumented class library.
+ */
+public final class ExecutionProfileRecorder {
+    private static Map<String, long[]> counters;
+    private static Map<String, Map<Class<?>, long[]>> receivers;
+    private static boolean recording;
+
+    private ExecutionProfileRecorder() {
+    }
+
+    public static void count(String key) {
+        if (recording) {
+            return;
+        }
+        recording = true;
+        increment(key);
+        recording = false;
+    }
+
+    public static void countReceiver(String callSiteKey, Object receiver) {
+        if (recording) {
+            return;
+        }
+        recording = true;
+        increment(callSiteKey);
+        if (receiver != null) {
+            // Keys of receivers are only built in dump, virtual calls are too frequent to concatenate strings here
+            if (receivers == null) {
+                receivers = new HashMap<>();
+            }
+            var byClass = receivers.get(callSiteKey);
+            if (byClass == null) {
+                byClass = new HashMap<>();
+                receivers.put(callSiteKey, byClass);
+            }
+            increment(byClass, receiver.getClass());
+        }
+        recording = false;
+    }
+
+    private static void increment(String key) {
+        if (counters == null) {
+            counters = new HashMap<>();
+        }
+        increment(counters, key);
+    }
+
+    private static <T> void increment(Map<T, long[]> counters, T key) {
+        var counter = counters.get(key);
+        if (counter == null) {
+            counter = new long[1];
+            counters.put(key, counter);
+        }
+        counter[0]++;
+    }
+
+    /**
+     * Returns recorded counters in format of {@link org.teavm.model.profile.ExecutionProfile}.
+     */
+    public static String dump() {
+        var wasRecording = recording;
+        recording = true;
+        var values = new HashMap<String, Long>();
+        if (counters != null) {
+            for (var entry : counters.entrySet()) {
+                values.put(entry.getKey(), entry.getValue()[0]);
+            }
+        }
+        if (receivers != null) {
+            for (var callSite : receivers.entrySet()) {
+                var prefix = "r" + callSite.getKey().substring(1) + " ";
+                for (var entry : callSite.getValue().entrySet()) {
+                    values.put(prefix + entry.getKey().getName(), entry.getValue()[0]);
+                }
+            }
+        }
+        var sb = new StringBuilder("# TeaVM execution profile\n");
+        var keys = new ArrayList<>(values.keySet());
+        Collections.sort(keys);
+        for (var key : keys) {
+            sb.append(key).append(' ').append(values.get(key)).append('\n');
+        }
+        recording = wasRecording;
+        return sb.toString();
+    }
+
+    public static void print() {
+        var text = dump();
+        var wasRecording = recording;
+        recording = true;
+        System.out.print(text);
+        recording = wasRecording;
+    }
+}
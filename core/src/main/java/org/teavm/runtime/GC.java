@@ -15,7 +15,9 @@
  */
 package org.teavm.runtime;
 
+import org.teavm.backend.c.intrinsic.RuntimeInclude;
 import org.teavm.backend.c.runtime.Memory;
+import org.teavm.backend.wasm.runtime.WasmSupport;
 import org.teavm.classlib.PlatformDetector;
 import org.teavm.interop.Address;
 import org.teavm.interop.Export;
@@ -35,6 +37,10 @@ public final class GC {
     private static final byte CARD_GAP = 4;
     private static final byte CARD_RELOCATABLE = 8;
     private static final int MIN_CHUNK_SIZE = 8;
+    private static final int MARK_STEP_BYTES = 64 * 1024;
+    private static final int MIN_MARK_QUEUE_FRACTION = 4;
+    private static final int SMALL_SIZE_CLASS_COUNT = 32;
+    private static final int FREE_LIST_COUNT = SMALL_SIZE_CLASS_COUNT + 1;
 
     static Address currentChunkLimit;
     static FreeChunk currentChunk;
@@ -43,12 +49,31 @@ public final class GC {
     static int totalChunks;
     static int freeMemory = (int) availableBytes();
     static RuntimeReference firstWeakReference;
+    private static RuntimeReference lastWeakReference;
     static FreeChunk lastChunk;
 
     static RelocationBlock lastRelocationBlock;
     static boolean isFullGC = true;
     private static int youngGCCount;
     private static RuntimeBuffer firstDirectBuffer;
+    private static boolean markingInProgress;
+    private static boolean allocatingFromFreeList;
+    private static int markStepThreshold = Integer.MIN_VALUE;
+
+    private static int youngCollectionCount;
+    private static int fullCollectionCount;
+    private static long youngPauseTime;
+    private static long fullPauseTime;
+    private static long lastPauseTime;
+    private static long maxPauseTime;
+    private static long totalReclaimedBytes;
+    private static int lastReclaimedBytes;
+    private static long totalAllocatedBytes;
+    private static long totalPromotedBytes;
+    private static int lastPromotedBytes;
+    private static int liveBytes;
+    private static int occupiedRegionCount;
+    private static int heapRegionCount;
 
     static native Address gcStorageAddress();
 
@@ -74,21 +99,112 @@ public final class GC {
 
     private static native int regionSize();
 
+    private static native int markStepSize();
+
     public static native void writeBarrier(RuntimeObject object);
 
     @Import(name = "teavm_outOfMemory")
     public static native void outOfMemory();
 
+    @Import(name = "teavm_currentTimeNano")
+    @RuntimeInclude("time.h")
+    private static native long nanoTimeC();
+
     public static int getFreeMemory() {
         return freeMemory;
     }
 
+    public static int getYoungCollectionCount() {
+        return youngCollectionCount;
+    }
+
+    public static int getFullCollectionCount() {
+        return fullCollectionCount;
+    }
+
+    /**
+     * Total time, in nanoseconds, the mutator was stopped by collections. Incremental marking steps are not
+     * included, only the final pause that completes a cycle.
+     */
+    public static long getTotalPauseTime() {
+        return youngPauseTime + fullPauseTime;
+    }
+
+    /**
+     * Time spent in pauses that performed only young collections.
+     */
+    public static long getYoungPauseTime() {
+        return youngPauseTime;
+    }
+
+    /**
+     * Time spent in pauses that performed full collection, including the young collection that may have
+     * preceded it in the same pause.
+     */
+    public static long getFullPauseTime() {
+        return fullPauseTime;
+    }
+
+    public static long getLastPauseTime() {
+        return lastPauseTime;
+    }
+
+    public static long getMaxPauseTime() {
+        return maxPauseTime;
+    }
+
+    public static long getTotalReclaimedBytes() {
+        return totalReclaimedBytes;
+    }
+
+    public static int getLastReclaimedBytes() {
+        return lastReclaimedBytes;
+    }
+
+    /**
+     * Bytes allocated between collections, as observed at the start of each collection. Together with
+     * {@link #getTotalPromotedBytes()} gives promotion rate.
+     */
+    public static long getTotalAllocatedBytes() {
+        return totalAllocatedBytes;
+    }
+
+    /**
+     * Bytes that survived young collections and were moved to old generation.
+     */
+    public static long getTotalPromotedBytes() {
+        return totalPromotedBytes;
+    }
+
+    public static int getLastPromotedBytes() {
+        return lastPromotedBytes;
+    }
+
+    /**
+     * Number of heap regions that are not entirely covered by free chunks after the last collection.
+     */
+    public static int getOccupiedRegionCount() {
+        return occupiedRegionCount;
+    }
+
+    public static int getHeapRegionCount() {
+        return heapRegionCount;
+    }
+
+    private static long nanoTime() {
+        if (PlatformDetector.isWebAssembly()) {
+            return WasmSupport.nanoTime();
+        } else {
+            return nanoTimeC();
+        }
+    }
+
     static {
         currentChunk = heapAddress().toStructure();
         currentChunk.classReference = 0;
         currentChunk.size = (int) availableBytes();
         currentChunkLimit = currentChunk.toAddress().add(currentChunk.size);
-        currentChunkPointer = gcStorageAddress().toStructure();
+        currentChunkPointer = firstChunkHolder();
         currentChunkPointer.value = currentChunk;
         freeChunks = 1;
         totalChunks = 1;
@@ -96,6 +212,8 @@ public final class GC {
 
         int regionCount = getRegionCount();
         Address.fill(cardTable(), CARD_VALID, regionCount);
+        clearFreeLists();
+        scheduleIncrementalMark();
     }
 
     private static int getRegionCount() {
@@ -108,6 +226,10 @@ public final class GC {
     }
 
     public static RuntimeObject alloc(int size) {
+        // markStepSize() is a constant, so without incremental marking C compiler drops this check
+        if (markStepSize() > 0 && freeMemory < markStepThreshold) {
+            incrementalMarkStep();
+        }
         FreeChunk current = currentChunk;
         Address next = current.toAddress().add(size);
         if (!next.add(Structure.sizeOf(FreeChunk.class)).isLessThan(currentChunkLimit)) {
@@ -122,7 +244,7 @@ public final class GC {
     }
 
     private static void getNextChunk(int size) {
-        if (getNextChunkIfPossible(size)) {
+        if (getNextChunkIfPossible(size) || getChunkFromFreeList(size)) {
             return;
         }
         collectGarbageImpl(size);
@@ -138,29 +260,104 @@ public final class GC {
     private static boolean hasAvailableMemory(int size) {
         return currentChunk.size == size
                 || currentChunk.size > size + MIN_CHUNK_SIZE
-                || getNextChunkIfPossible(size);
+                || getNextChunkIfPossible(size)
+                || getChunkFromFreeList(size);
     }
 
     private static boolean getNextChunkIfPossible(int size) {
+        int searchLength = 0;
         while (true) {
             if (currentChunk.toAddress().isLessThan(currentChunkLimit)) {
                 currentChunk.classReference = 0;
                 currentChunk.size = (int) (currentChunkLimit.toLong() - currentChunk.toAddress().toLong());
+                addToFreeList(currentChunk);
+                currentChunkLimit = currentChunk.toAddress();
             }
-            if (--freeChunks == 0) {
+            if (freeChunks == 0 || --freeChunks == 0) {
+                MemoryTrace.reportChunkSearch(searchLength);
                 return false;
             }
             currentChunkPointer = Structure.add(FreeChunkHolder.class, currentChunkPointer, 1);
             currentChunk = currentChunkPointer.value;
+            searchLength++;
             if (currentChunk.size >= size + MIN_CHUNK_SIZE || currentChunk.size == size) {
                 currentChunkLimit = currentChunk.toAddress().add(currentChunk.size);
                 break;
             }
-            freeMemory -= currentChunk.size;
+            if (!addToFreeList(currentChunk)) {
+                freeMemory -= currentChunk.size;
+            }
+        }
+        MemoryTrace.reportChunkSearch(searchLength);
+        return true;
+    }
+
+    // Chunks skipped by getNextChunkIfPossible, as well as unused tails of allocation chunks, are kept
+    // in segregated lists until next GC, so that small objects can still be allocated from them
+    // when chunk holders are exhausted.
+    private static boolean addToFreeList(FreeChunk chunk) {
+        if (chunk.size < Structure.sizeOf(FreeListEntry.class)) {
+            return false;
         }
+        FreeListEntry entry = chunk.toAddress().toStructure();
+        Address head = freeLists().add(sizeClass(chunk.size) * Address.sizeOf());
+        entry.next = head.getAddress().toStructure();
+        head.putAddress(entry.toAddress());
         return true;
     }
 
+    private static boolean getChunkFromFreeList(int size) {
+        int searchLength = 0;
+        for (int sizeClass = sizeClass(size); sizeClass < FREE_LIST_COUNT; ++sizeClass) {
+            Address head = freeLists().add(sizeClass * Address.sizeOf());
+            FreeListEntry previous = null;
+            FreeListEntry entry = head.getAddress().toStructure();
+            while (entry != null) {
+                searchLength++;
+                if (entry.size >= size + MIN_CHUNK_SIZE || entry.size == size) {
+                    if (previous == null) {
+                        head.putAddress(entry.next.toAddress());
+                    } else {
+                        previous.next = entry.next;
+                    }
+                    currentChunk = entry;
+                    currentChunkLimit = entry.toAddress().add(entry.size);
+                    allocatingFromFreeList = true;
+                    MemoryTrace.reportChunkSearch(searchLength);
+                    return true;
+                }
+                previous = entry;
+                entry = entry.next;
+            }
+        }
+        MemoryTrace.reportChunkSearch(searchLength);
+        return false;
+    }
+
+    private static int sizeClass(int size) {
+        int sizeClass = size >>> 3;
+        return sizeClass < SMALL_SIZE_CLASS_COUNT ? sizeClass : SMALL_SIZE_CLASS_COUNT;
+    }
+
+    // Heads of free lists occupy the beginning of GC storage. Chunk holders, relocation blocks and mark queue
+    // are placed after them, so that neither GC nor allocator overwrites the heads while lists are in use
+    static int freeListsSize() {
+        return FREE_LIST_COUNT * Address.sizeOf();
+    }
+
+    private static Address freeLists() {
+        return gcStorageAddress();
+    }
+
+    private static FreeChunkHolder firstChunkHolder() {
+        return gcStorageAddress().add(freeListsSize()).toStructure();
+    }
+
+    private static void clearFreeLists() {
+        Address.fill(freeLists(), (byte) 0, freeListsSize());
+        allocatingFromFreeList = false;
+    }
+
     @Export(name = "teavm_gc_collect")
     public static void collectGarbage() {
         fixHeap();
@@ -179,6 +376,10 @@ public final class GC {
     }
 
     private static void triggerFullGC() {
+        if (markingInProgress) {
+            // Card table and regions already track the current marking cycle, which is a full one
+            return;
+        }
         isFullGC = true;
         int regionsCount = getRegionCount();
         Address.fill(cardTable(), (byte) 0, getRegionCount());
@@ -186,6 +387,10 @@ public final class GC {
     }
 
     private static void collectGarbageImpl(int size) {
+        long startTime = nanoTime();
+        boolean full = isFullGC;
+        lastReclaimedBytes = 0;
+        lastPromotedBytes = 0;
         doCollectGarbage();
 
         long minRequestedSize = 0;
@@ -198,6 +403,7 @@ public final class GC {
             if (++youngGCCount >= youngGCLimit && isAboutToExpand(minRequestedSize)) {
                 triggerFullGC();
                 doCollectGarbage();
+                full = true;
                 youngGCCount = 0;
             }
         } else {
@@ -205,14 +411,40 @@ public final class GC {
         }
         isFullGC = false;
 
+        long heapSizeBeforeResize = availableBytes();
         resizeHeapIfNecessary(minRequestedSize);
+        // Resizing only grows or trims the last free chunk, keep free memory in sync with it
+        freeMemory += (int) (availableBytes() - heapSizeBeforeResize);
         currentChunk = currentChunkPointer.value;
         currentChunkLimit = currentChunk.toAddress().add(currentChunk.size);
 
         Address.fill(cardTable(), CARD_VALID, getRegionCount());
+        clearFreeLists();
+        scheduleIncrementalMark();
+
+        long pauseTime = nanoTime() - startTime;
+        lastPauseTime = pauseTime;
+        if (full) {
+            fullPauseTime += pauseTime;
+        } else {
+            youngPauseTime += pauseTime;
+        }
+        if (pauseTime > maxPauseTime) {
+            maxPauseTime = pauseTime;
+        }
+        MemoryTrace.reportCollection(full, pauseTime, lastReclaimedBytes, lastPromotedBytes, occupiedRegionCount,
+                heapRegionCount);
+    }
+
+    private static void scheduleIncrementalMark() {
+        markStepThreshold = markStepSize() > 0 ? freeMemory / 2 : Integer.MIN_VALUE;
     }
 
     private static void doCollectGarbage() {
+        int occupiedBefore = (int) (availableBytes() - freeMemory);
+        if (occupiedBefore > liveBytes) {
+            totalAllocatedBytes += occupiedBefore - liveBytes;
+        }
         MemoryTrace.gcStarted(isFullGC);
         if (!isFullGC) {
             storeGapsInCardTable();
@@ -225,6 +457,29 @@ public final class GC {
         updateFreeMemory();
         MemoryTrace.gcCompleted();
         totalChunks = freeChunks;
+        updateCollectionStats(occupiedBefore);
+    }
+
+    private static void updateCollectionStats(int occupiedBefore) {
+        int occupiedAfter = (int) (availableBytes() - freeMemory);
+        if (occupiedBefore > occupiedAfter) {
+            int reclaimed = occupiedBefore - occupiedAfter;
+            lastReclaimedBytes += reclaimed;
+            totalReclaimedBytes += reclaimed;
+        }
+        if (isFullGC) {
+            fullCollectionCount++;
+        } else {
+            youngCollectionCount++;
+            // Young collection never frees old objects and promotes every survivor,
+            // so whatever grew since the previous collection was promoted
+            if (occupiedAfter > liveBytes) {
+                int promoted = occupiedAfter - liveBytes;
+                lastPromotedBytes += promoted;
+                totalPromotedBytes += promoted;
+            }
+        }
+        liveBytes = occupiedAfter;
     }
 
     private static boolean hasAvailableChunk(int size) {
@@ -250,7 +505,7 @@ public final class GC {
 
     @Export(name = "teavm_gc_fixHeap")
     public static void fixHeap() {
-        if (freeChunks > 0) {
+        if ((freeChunks > 0 || allocatingFromFreeList) && currentChunk.toAddress().isLessThan(currentChunkLimit)) {
             currentChunk.classReference = 0;
             currentChunk.size = (int) (currentChunkLimit.toLong() - currentChunk.toAddress().toLong());
         }
@@ -266,8 +521,13 @@ public final class GC {
     }
 
     private static void mark() {
+        if (markingInProgress) {
+            finishIncrementalMark();
+            return;
+        }
         MemoryTrace.markStarted();
         firstWeakReference = null;
+        lastWeakReference = null;
 
         markFromStaticFields();
         markFromClasses();
@@ -279,6 +539,149 @@ public final class GC {
         MemoryTrace.markCompleted();
     }
 
+    private static void incrementalMarkStep() {
+        if (!markingInProgress) {
+            if (!startIncrementalMark()) {
+                markStepThreshold = Integer.MIN_VALUE;
+                return;
+            }
+        } else if (processMarkQueueIncrementally(markStepSize())) {
+            fixHeap();
+            collectGarbageImpl(0);
+            return;
+        }
+        markStepThreshold = freeMemory - MARK_STEP_BYTES;
+    }
+
+    private static boolean startIncrementalMark() {
+        // Allocator still reads chunk holders and free lists, so put mark queue after them
+        Address queueStart = Structure.add(FreeChunkHolder.class, currentChunkPointer, freeChunks).toAddress();
+        int queueOffset = (int) (queueStart.toLong() - gcStorageAddress().toLong());
+        if (gcStorageSize() - queueOffset < gcStorageSize() / MIN_MARK_QUEUE_FRACTION) {
+            // Holders of a fragmented heap left too little room for mark queue. Nearly every object would
+            // overflow it and have to be rescanned in the final pause, so leave this cycle to stop-the-world GC
+            return false;
+        }
+
+        // Incremental marking is always full. Objects allocated while marking is in progress stay unmarked
+        // until they are reached from roots or from marked objects. Writes into marked objects clear CARD_VALID
+        // via write barrier, so the final pause only rescans roots and marked objects in invalid regions.
+        isFullGC = true;
+        markingInProgress = true;
+        int regionsCount = getRegionCount();
+        Address.fill(cardTable(), CARD_VALID, regionsCount);
+        Address.fill(regionsAddress().toAddress(), (byte) 0, regionsCount * Structure.sizeOf(Region.class));
+        MarkQueue.init(queueOffset, gcStorageSize());
+
+        MemoryTrace.markStarted();
+        firstWeakReference = null;
+        lastWeakReference = null;
+        markFromStaticFields();
+        markFromClasses();
+        markFromStack();
+        return true;
+    }
+
+    private static boolean processMarkQueueIncrementally(int budget) {
+        while (!MarkQueue.isEmpty()) {
+            if (budget-- == 0) {
+                return false;
+            }
+            RuntimeObject object = MarkQueue.dequeue();
+            if (isWeakReference(RuntimeClass.getClass(object))) {
+                // Linking references into firstWeakReference list is visible to mutator,
+                // leave them to final pause
+                makeInvalid(object);
+            } else {
+                markObjectData(object);
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWeakReference(RuntimeClass cls) {
+        while (cls != null) {
+            int type = (cls.flags >> RuntimeClass.VM_TYPE_SHIFT) & RuntimeClass.VM_TYPE_MASK;
+            if (type == RuntimeClass.VM_TYPE_WEAKREFERENCE) {
+                return true;
+            }
+            cls = cls.parent;
+        }
+        return false;
+    }
+
+    private static void finishIncrementalMark() {
+        markFromInvalidRegions();
+        markFromStaticFields();
+        markFromClasses();
+        markFromStack();
+        doProcessMarkQueue();
+        while (markFromInvalidRegions()) {
+            doProcessMarkQueue();
+        }
+        markingInProgress = false;
+        MemoryTrace.markCompleted();
+    }
+
+    private static boolean markFromInvalidRegions() {
+        int validMask = CARD_VALID | (CARD_VALID << 8) | (CARD_VALID << 16) | (CARD_VALID << 24);
+        int regionsCount = getRegionCount();
+        boolean found = false;
+
+        Address cardPtr = cardTable();
+        int regionIndex;
+        for (regionIndex = 0; regionIndex < regionsCount - 3; regionIndex += 4) {
+            int n = cardPtr.getInt();
+            if ((n & validMask) != validMask) {
+                for (int i = 0; i < 4; ++i) {
+                    n = cardPtr.add(i).getByte();
+                    if ((n & CARD_VALID) == 0) {
+                        remarkRegion(regionIndex + i);
+                        found = true;
+                    }
+                }
+            }
+            cardPtr = cardPtr.add(4);
+        }
+
+        for (; regionIndex < regionsCount; regionIndex++) {
+            if ((cardPtr.getByte() & CARD_VALID) == 0) {
+                remarkRegion(regionIndex);
+                found = true;
+            }
+            cardPtr = cardPtr.add(1);
+        }
+
+        return found;
+    }
+
+    private static void remarkRegion(int regionIndex) {
+        Address card = cardTable().add(regionIndex);
+        card.putByte((byte) (card.getByte() | CARD_VALID));
+        int regionOffset = Structure.add(Region.class, regionsAddress(), regionIndex).start;
+        if (regionOffset == 0) {
+            return;
+        }
+        regionOffset--;
+
+        int regionSize = regionSize();
+        Address regionStart = heapAddress().add(regionIndex * regionSize);
+        MemoryTrace.reportDirtyRegion(regionStart);
+        Address regionEnd = regionStart.add(regionSize);
+        FreeChunk object = regionStart.add(regionOffset).toStructure();
+        Address heapLimit = heapAddress().add(availableBytes());
+        if (heapLimit.isLessThan(regionEnd)) {
+            regionEnd = heapLimit;
+        }
+
+        while (object.toAddress().isLessThan(regionEnd)) {
+            if ((object.classReference & RuntimeObject.GC_MARKED) != 0) {
+                markObjectData(object.toAddress().toStructure());
+            }
+            object = object.toAddress().add(objectSize(object)).toStructure();
+        }
+    }
+
     private static void markFromStaticFields() {
         Address staticRoots = Mutator.getStaticGCRoots();
         int staticCount = staticRoots.getInt();
@@ -392,6 +795,10 @@ public final class GC {
         if (object == null || isMarked(object)) {
             return;
         }
+        if (markingInProgress) {
+            doEnqueueMark(object);
+            return;
+        }
         MarkQueue.init();
         enqueueMark(object);
         doProcessMarkQueue();
@@ -406,19 +813,7 @@ public final class GC {
 
     private static void doProcessMarkQueue() {
         while (!MarkQueue.isEmpty()) {
-            RuntimeObject object = MarkQueue.dequeue();
-            MemoryTrace.mark(object.toAddress());
-
-            long offset = object.toAddress().toLong() - heapAddress().toLong();
-            Region region = Structure.add(Region.class, regionsAddress(), (int) (offset /  regionSize()));
-            short relativeOffset = (short) (offset % regionSize() + 1);
-            if (region.start == 0 || region.start > relativeOffset) {
-                region.start = relativeOffset;
-            }
-            Address cardTableItem = cardTable().add(offset / regionSize());
-            cardTableItem.putByte((byte) (cardTableItem.getByte() | CARD_YOUNG_GEN));
-
-            markObjectData(object);
+            markObjectData(MarkQueue.dequeue());
         }
     }
 
@@ -463,7 +858,10 @@ public final class GC {
         }
         if (object.next != null) {
             hasObjectsFromYoungGen |= enqueueMark(object.next);
-        } else if (object.object != null) {
+        } else if (object.object != null && object != lastWeakReference) {
+            if (firstWeakReference == null) {
+                lastWeakReference = object;
+            }
             object.next = firstWeakReference;
             firstWeakReference = object;
         }
@@ -527,7 +925,23 @@ public final class GC {
         } else {
             object.classReference |= RuntimeObject.GC_MARKED;
         }
-        MarkQueue.enqueue(object);
+        MemoryTrace.mark(object.toAddress());
+
+        long offset = object.toAddress().toLong() - heapAddress().toLong();
+        Region region = Structure.add(Region.class, regionsAddress(), (int) (offset /  regionSize()));
+        short relativeOffset = (short) (offset % regionSize() + 1);
+        if (region.start == 0 || region.start > relativeOffset) {
+            region.start = relativeOffset;
+        }
+        Address cardTableItem = cardTable().add(offset / regionSize());
+        cardTableItem.putByte((byte) (cardTableItem.getByte() | CARD_YOUNG_GEN));
+
+        if (markingInProgress && MarkQueue.isFull()) {
+            // Object is already marked, remarkRegion will scan it during final pause
+            makeInvalid(object);
+        } else {
+            MarkQueue.enqueue(object);
+        }
     }
 
     private static void processReferences() {
@@ -603,7 +1017,7 @@ public final class GC {
     private static void sweep() {
         MemoryTrace.sweepStarted();
 
-        currentChunkPointer = gcStorageAddress().toStructure();
+        currentChunkPointer = firstChunkHolder();
         freeChunks = 0;
         totalChunks = 0;
 
@@ -703,14 +1117,14 @@ public final class GC {
             freeMemory(lastFreeSpace, object);
         }
 
-        currentChunkPointer = gcStorageAddress().toStructure();
+        currentChunkPointer = firstChunkHolder();
         MemoryTrace.sweepCompleted();
     }
 
     private static void storeGapsInCardTable() {
         for (int i = 0; i < totalChunks; ++i) {
             FreeChunk freeChunkStart = FreeChunkHolder.add(FreeChunkHolder.class,
-                    gcStorageAddress().toStructure(), i).value;
+                    firstChunkHolder(), i).value;
             long freeChunkOffset = freeChunkStart.toAddress().toLong() - heapAddress().toLong();
             long freeChunkEndOffset = freeChunkOffset + freeChunkStart.size;
             int startRegion = (int) (freeChunkOffset / regionSize());
@@ -1420,11 +1834,34 @@ public final class GC {
 
     private static void updateFreeMemory() {
         freeMemory = 0;
+        int largestChunk = 0;
+        long heapStart = heapAddress().toLong();
+        long heapSize = availableBytes();
+        int regionSize = regionSize();
+        int regionCount = (int) ((heapSize + regionSize - 1) / regionSize);
+        int freeRegions = 0;
         FreeChunkHolder freeChunkPtr = currentChunkPointer;
         for (int i = 0; i < freeChunks; ++i) {
-            freeMemory += freeChunkPtr.value.size;
+            FreeChunk chunk = freeChunkPtr.value;
+            int size = chunk.size;
+            freeMemory += size;
+            if (size > largestChunk) {
+                largestChunk = size;
+            }
+
+            long chunkStart = chunk.toAddress().toLong() - heapStart;
+            long chunkEnd = chunkStart + size;
+            int firstFreeRegion = (int) ((chunkStart + regionSize - 1) / regionSize);
+            int lastFreeRegion = chunkEnd == heapSize ? regionCount : (int) (chunkEnd / regionSize);
+            if (lastFreeRegion > firstFreeRegion) {
+                freeRegions += lastFreeRegion - firstFreeRegion;
+            }
+
             freeChunkPtr = Structure.add(FreeChunkHolder.class, freeChunkPtr, 1);
         }
+        heapRegionCount = regionCount;
+        occupiedRegionCount = regionCount - freeRegions;
+        MemoryTrace.reportFreeMemory(freeMemory, freeChunks, largestChunk);
     }
 
     private static void resizeHeapConsistent(long newSize) {
@@ -1435,7 +1872,7 @@ public final class GC {
         if (newSize > oldSize) {
             int previousRegionCount = getRegionCount();
             resizeHeap(newSize);
-            currentChunkPointer = gcStorageAddress().toStructure();
+            currentChunkPointer = firstChunkHolder();
             int newRegionCount = getRegionCount();
             for (int i = previousRegionCount; i < newRegionCount; ++i) {
                 Structure.add(Region.class, regionsAddress(), i).start = 0;
@@ -1471,7 +1908,7 @@ public final class GC {
             }
             resizeHeap(newSize);
 
-            currentChunkPointer = gcStorageAddress().toStructure();
+            currentChunkPointer = firstChunkHolder();
         }
     }
 
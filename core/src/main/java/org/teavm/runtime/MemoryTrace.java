@@ -43,6 +43,12 @@ public class MemoryTrace {
     @Import(name = "reportDirtyRegion", module = "teavmHeapTrace")
     public static native void reportDirtyRegion(Address address);
 
+    @Import(name = "reportChunkSearch", module = "teavmHeapTrace")
+    public static native void reportChunkSearch(int length);
+
+    @Import(name = "reportFreeMemory", module = "teavmHeapTrace")
+    public static native void reportFreeMemory(int freeBytes, int chunkCount, int largestChunk);
+
     @Import(name = "markCompleted", module = "teavmHeapTrace")
     public static native void markCompleted();
 
@@ -69,4 +75,8 @@ public class MemoryTrace {
 
     @Import(name = "gcCompleted", module = "teavmHeapTrace")
     public static native void gcCompleted();
+
+    @Import(name = "reportCollection", module = "teavmHeapTrace")
+    public static native void reportCollection(boolean full, long pauseTime, int reclaimedBytes, int promotedBytes,
+            int occupiedRegions, int regionCount);
 }
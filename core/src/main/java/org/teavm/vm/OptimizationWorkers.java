@@ -0,0 +1,223 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.teavm.callgraph.CallGraph;
+import org.teavm.dependency.ClassDependencyInfo;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.dependency.FieldDependencyInfo;
+import org.teavm.dependency.MethodDependencyInfo;
+import org.teavm.model.ClassHierarchy;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReader;
+import org.teavm.model.MethodReference;
+import org.teavm.model.optimization.MethodOptimizationContext;
+
+/**
+ * Pool of threads that run per-method optimizations. Class source, class hierarchy and dependency information
+ * are shared between all methods and lazily fill internal caches, so workers see them through views
+ * that serialize access on a single lock. Each worker gets its own {@link ClassHierarchy}, since hierarchy
+ * caches are hot and not thread-safe.
+ */
+class OptimizationWorkers implements AutoCloseable {
+    private final ExecutorService executor;
+    private final Object lock = new Object();
+    private final ClassReaderSource classSource;
+    private final DependencyInfo dependencyInfo;
+    private final ThreadLocal<ClassHierarchy> hierarchy;
+
+    OptimizationWorkers(int threadCount, DependencyInfo dependencyInfo, ClassHierarchy hierarchy) {
+        var threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            var thread = new Thread(runnable, "teavm-optimizer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        classSource = new SynchronizedClassSource(dependencyInfo.getClassSource());
+        this.dependencyInfo = new SynchronizedDependencyInfo(dependencyInfo);
+        var hierarchyClassSource = new SynchronizedClassSource(hierarchy.getClassSource());
+        this.hierarchy = ThreadLocal.withInitial(() -> new ClassHierarchy(hierarchyClassSource));
+    }
+
+    MethodOptimizationContext createContext(MethodReader method) {
+        return new MethodOptimizationContext() {
+            @Override
+            public MethodReader getMethod() {
+                return method;
+            }
+
+            @Override
+            public DependencyInfo getDependencyInfo() {
+                return dependencyInfo;
+            }
+
+            @Override
+            public ClassReaderSource getClassSource() {
+                return classSource;
+            }
+
+            @Override
+            public ClassHierarchy getHierarchy() {
+                return hierarchy.get();
+            }
+        };
+    }
+
+    /**
+     * Runs action for each of items and waits until all of them complete. Items are processed in arbitrary order,
+     * so action should only touch state that belongs to the item.
+     *
+     * @throws RuntimeException if any action has failed. The failure of the first failed item (in the order
+     * of the list) is reported, so that error reporting does not depend on scheduling.
+     */
+    <T> void forEach(List<T> items, Consumer<T> action) {
+        var futures = new ArrayList<Future<?>>(items.size());
+        for (var item : items) {
+            futures.add(executor.submit(() -> action.accept(item)));
+        }
+
+        RuntimeException error = null;
+        for (var future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    var cause = e.getCause();
+                    error = cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (var remaining : futures) {
+                    remaining.cancel(true);
+                }
+                throw new RuntimeException("Interrupted while waiting for optimization workers", e);
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    class SynchronizedClassSource implements ClassReaderSource {
+        private final ClassReaderSource underlying;
+
+        SynchronizedClassSource(ClassReaderSource underlying) {
+            this.underlying = underlying;
+        }
+
+        @Override
+        public ClassReader get(String name) {
+            synchronized (lock) {
+                return underlying.get(name);
+            }
+        }
+    }
+
+    class SynchronizedDependencyInfo implements DependencyInfo {
+        private final DependencyInfo underlying;
+
+        SynchronizedDependencyInfo(DependencyInfo underlying) {
+            this.underlying = underlying;
+        }
+
+        @Override
+        public ClassReaderSource getClassSource() {
+            return classSource;
+        }
+
+        @Override
+        public ClassLoader getClassLoader() {
+            return underlying.getClassLoader();
+        }
+
+        @Override
+        public Collection<MethodReference> getReachableMethods() {
+            synchronized (lock) {
+                return underlying.getReachableMethods();
+            }
+        }
+
+        @Override
+        public Collection<FieldReference> getReachableFields() {
+            synchronized (lock) {
+                return underlying.getReachableFields();
+            }
+        }
+
+        @Override
+        public Collection<String> getReachableClasses() {
+            synchronized (lock) {
+                return underlying.getReachableClasses();
+            }
+        }
+
+        @Override
+        public FieldDependencyInfo getField(FieldReference fieldRef) {
+            synchronized (lock) {
+                return underlying.getField(fieldRef);
+            }
+        }
+
+        @Override
+        public MethodDependencyInfo getMethod(MethodReference methodRef) {
+            synchronized (lock) {
+                return underlying.getMethod(methodRef);
+            }
+        }
+
+        @Override
+        public MethodDependencyInfo getMethodImplementation(MethodReference methodRef) {
+            synchronized (lock) {
+                return underlying.getMethodImplementation(methodRef);
+            }
+        }
+
+        @Override
+        public ClassDependencyInfo getClass(String className) {
+            synchronized (lock) {
+                return underlying.getClass(className);
+            }
+        }
+
+        @Override
+        public CallGraph getCallGraph() {
+            synchronized (lock) {
+                return underlying.getCallGraph();
+            }
+        }
+
+        @Override
+        public boolean isPrecise() {
+            return underlying.isPrecise();
+        }
+    }
+}
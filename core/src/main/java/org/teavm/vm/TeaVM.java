@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -29,6 +30,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -44,6 +46,7 @@ import org.teavm.dependency.DependencyAnalyzer;
 import org.teavm.dependency.DependencyInfo;
 import org.teavm.dependency.DependencyListener;
 import org.teavm.dependency.DependencyPlugin;
+import org.teavm.dependency.DependencySnapshot;
 import org.teavm.dependency.Linker;
 import org.teavm.dependency.MethodDependencyInfo;
 import org.teavm.diagnostics.AccumulationDiagnostics;
@@ -72,17 +75,19 @@ import org.teavm.model.ProgramCache;
 import org.teavm.model.ValueType;
 import org.teavm.model.analysis.ClassInitializerAnalysis;
 import org.teavm.model.analysis.ClassInitializerInfo;
+import org.teavm.model.analysis.EscapeSummaries;
 import org.teavm.model.instructions.ExitInstruction;
 import org.teavm.model.instructions.InitClassInstruction;
 import org.teavm.model.instructions.InvokeInstruction;
 import org.teavm.model.optimization.ArrayUnwrapMotion;
+import org.teavm.model.optimization.BoundCheckHoisting;
+import org.teavm.model.optimization.BoxingElimination;
 import org.teavm.model.optimization.ClassInitElimination;
 import org.teavm.model.optimization.ConstantConditionElimination;
 import org.teavm.model.optimization.DefaultInliningStrategy;
 import org.teavm.model.optimization.Devirtualization;
 import org.teavm.model.optimization.GlobalValueNumbering;
 import org.teavm.model.optimization.Inlining;
-import org.teavm.model.optimization.InliningStrategy;
 import org.teavm.model.optimization.LoopInvariantMotion;
 import org.teavm.model.optimization.MethodOptimization;
 import org.teavm.model.optimization.MethodOptimizationContext;
@@ -94,11 +99,14 @@ import org.teavm.model.optimization.ScalarReplacement;
 import org.teavm.model.optimization.SystemArrayCopyOptimization;
 import org.teavm.model.optimization.UnreachableBasicBlockElimination;
 import org.teavm.model.optimization.UnusedVariableElimination;
+import org.teavm.model.profile.ExecutionProfile;
+import org.teavm.model.profile.ProfileInstrumentation;
 import org.teavm.model.text.ListingBuilder;
 import org.teavm.model.transformation.ClassInitializerInsertionTransformer;
 import org.teavm.model.util.ModelUtils;
 import org.teavm.model.util.ProgramUtils;
 import org.teavm.model.util.RegisterAllocator;
+import org.teavm.model.util.VariableCategoryProvider;
 import org.teavm.vm.spi.TeaVMHost;
 import org.teavm.vm.spi.TeaVMHostExtension;
 import org.teavm.vm.spi.TeaVMPlugin;
@@ -136,6 +144,7 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     private static final MethodDescriptor MAIN_METHOD_DESC = new MethodDescriptor("main",
             ValueType.arrayOf(ValueType.object("java.lang.String")), ValueType.VOID);
     private static final MethodDescriptor CLINIT_DESC = new MethodDescriptor("<clinit>", ValueType.VOID);
+    private static final int PARALLEL_OPTIMIZATION_BATCH_SIZE = 2000;
 
     private final DependencyAnalyzer dependencyAnalyzer;
     private final AccumulationDiagnostics diagnostics = new AccumulationDiagnostics();
@@ -148,8 +157,13 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     private final Properties properties = new Properties();
     private ProgramCache programCache = EmptyProgramCache.INSTANCE;
     private CacheStatus rawCacheStatus = AlwaysStaleCacheStatus.INSTANCE;
+    private boolean dependencySnapshotEnabled;
+    private DependencySnapshot dependencySnapshot;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.SIMPLE;
+    private ProfileInstrumentation profileInstrumentation;
+    private ExecutionProfile executionProfile;
     private TeaVMProgressListener progressListener;
+    private TeaVMMetrics metrics;
     private boolean cancelled;
     private ListableClassHolderSource writtenClasses;
     private TeaVMTarget target;
@@ -165,11 +179,13 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     private int compileProgressValue;
     private ClassSourcePacker classSourcePacker;
     private ClassInitializerInfo classInitializerInfo;
+    private final int optimizationThreads;
 
     TeaVM(TeaVMBuilder builder) {
         target = builder.target;
         classLoader = builder.classLoader;
         classSourcePacker = builder.classSourcePacker;
+        optimizationThreads = builder.optimizationThreads;
         dependencyAnalyzer = builder.dependencyAnalyzerFactory.create(builder.classSource, classLoader,
                 this, diagnostics, builder.referenceCache, target.getPlatformTags());
         dependencyAnalyzer.setObfuscated(builder.obfuscated);
@@ -258,6 +274,30 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         rawCacheStatus = cacheStatus;
     }
 
+    /**
+     * Makes {@link #build(BuildTarget, String)} capture snapshot of dependency analysis, which is then
+     * available via {@link #getDependencySnapshot()} and can be used to warm up analysis of the next build.
+     */
+    public void setDependencySnapshotEnabled(boolean dependencySnapshotEnabled) {
+        this.dependencySnapshotEnabled = dependencySnapshotEnabled;
+    }
+
+    /**
+     * Returns snapshot captured by the last build, or snapshot set by {@link #setDependencySnapshot}
+     * if no build happened yet or last build failed.
+     */
+    public DependencySnapshot getDependencySnapshot() {
+        return dependencySnapshot;
+    }
+
+    /**
+     * Sets snapshot of dependency analysis of previous build. Classes that changed since that build are
+     * detected with cache status, see {@link #setCacheStatus(CacheStatus)}.
+     */
+    public void setDependencySnapshot(DependencySnapshot dependencySnapshot) {
+        this.dependencySnapshot = dependencySnapshot;
+    }
+
     public TeaVMOptimizationLevel getOptimizationLevel() {
         return optimizationLevel;
     }
@@ -266,6 +306,34 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         this.optimizationLevel = optimizationLevel;
     }
 
+    /**
+     * Makes generated code count method entries, call sites and receiver classes. Counters can be obtained
+     * from {@link org.teavm.runtime.ExecutionProfileRecorder} and passed to a following build
+     * via {@link #setExecutionProfile(ExecutionProfile)}. Disables program cache, since instrumented
+     * programs must not be reused by regular builds, and ignores cached ASTs.
+     */
+    public void setProfileInstrumentation(boolean profileInstrumentation) {
+        this.profileInstrumentation = profileInstrumentation ? new ProfileInstrumentation() : null;
+    }
+
+    public ExecutionProfile getExecutionProfile() {
+        return executionProfile;
+    }
+
+    /**
+     * Sets profile recorded by an instrumented build. It guides inlining, devirtualization and order
+     * of methods. Only affects optimization levels other than {@link TeaVMOptimizationLevel#SIMPLE}, where it
+     * disables program cache and ignores cached ASTs, since cache entries are not keyed by profile.
+     */
+    public void setExecutionProfile(ExecutionProfile executionProfile) {
+        this.executionProfile = executionProfile;
+    }
+
+    private boolean isProfileDependent() {
+        return profileInstrumentation != null
+                || (executionProfile != null && optimizationLevel != TeaVMOptimizationLevel.SIMPLE);
+    }
+
     public TeaVMProgressListener getProgressListener() {
         return progressListener;
     }
@@ -274,6 +342,19 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         this.progressListener = progressListener;
     }
 
+    public TeaVMMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Enables collection of build metrics. Given object is filled by {@link #build(BuildTarget, String)} and
+     * then passed to {@link TeaVMProgressListener#metricsReported(TeaVMMetrics)}. Collection is disabled
+     * by default, since it introduces some overhead.
+     */
+    public void setMetrics(TeaVMMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     public boolean wasCancelled() {
         return cancelled;
     }
@@ -333,6 +414,19 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         });
     }
 
+    private String dependencySnapshotConfiguration() {
+        var sb = new StringBuilder();
+        sb.append(target.getClass().getName()).append(':').append(entryPoint).append(':').append(entryPointName);
+        sb.append(':').append(new TreeSet<>(preservedClasses));
+        if (profileInstrumentation != null) {
+            sb.append(":profile");
+        }
+        for (var name : new TreeSet<>(properties.stringPropertyNames())) {
+            sb.append(':').append(name).append('=').append(properties.getProperty(name));
+        }
+        return sb.toString();
+    }
+
     public void preserveType(String className) {
         dependencyAnalyzer.defer(() -> {
             dependencyAnalyzer.linkClass(className).initClass(null);
@@ -376,7 +470,22 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
      * @param outputName name of output file within buildTarget. Should not be null.
      */
     public void build(BuildTarget buildTarget, String outputName) {
+        if (metrics == null) {
+            doBuild(buildTarget, outputName);
+            return;
+        }
+        metrics.buildStarted();
+        try {
+            doBuild(buildTarget, outputName);
+        } finally {
+            metrics.buildFinished();
+        }
+        progressListener.metricsReported(metrics);
+    }
+
+    private void doBuild(BuildTarget buildTarget, String outputName) {
         // Check dependencies
+        var phaseStart = System.nanoTime();
         reportPhase(TeaVMPhase.DEPENDENCY_ANALYSIS, lastKnownClasses);
         if (wasCancelled()) {
             return;
@@ -390,20 +499,37 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             return !cancelled;
         });
         target.contributeDependencies(dependencyAnalyzer);
+        if (profileInstrumentation != null) {
+            ProfileInstrumentation.contributeDependencies(dependencyAnalyzer);
+        }
         dependencyAnalyzer.initDependencies();
         processEntryPoint();
         if (target.needsSystemArrayCopyOptimization()) {
             dependencyAnalyzer.addDependencyListener(new StdlibDependencyListener());
         }
+        var snapshotConfiguration = dependencySnapshotConfiguration();
+        var warmAnalysis = dependencySnapshot != null
+                && dependencySnapshot.applyTo(dependencyAnalyzer, rawCacheStatus, snapshotConfiguration);
         dependencyAnalyzer.processDependencies();
+        recordPhase("dependencyAnalysis", phaseStart);
         if (wasCancelled() || !diagnostics.getSevereProblems().isEmpty()) {
             return;
         }
+        if (dependencySnapshotEnabled) {
+            dependencySnapshot = DependencySnapshot.capture(dependencyAnalyzer, snapshotConfiguration,
+                    dependencySnapshot, warmAnalysis);
+        }
 
         dependencyAnalyzer.setInterruptor(null);
         dependencyAnalyzer.cleanup(classSourcePacker);
-        cacheStatus = new AnnotationAwareCacheStatus(rawCacheStatus, dependencyAnalyzer.getIncrementalDependencies(),
-                dependencyAnalyzer.getClassSource());
+        var programCacheStatus = rawCacheStatus;
+        if (isProfileDependent()) {
+            // Cached programs and ASTs don't tell which profile they were built with
+            programCache = EmptyProgramCache.INSTANCE;
+            programCacheStatus = AlwaysStaleCacheStatus.INSTANCE;
+        }
+        cacheStatus = new AnnotationAwareCacheStatus(programCacheStatus,
+                dependencyAnalyzer.getIncrementalDependencies(), dependencyAnalyzer.getClassSource());
         cacheStatus.addSynthesizedClasses(dependencyAnalyzer::isSynthesizedClass);
 
         if (wasCancelled()) {
@@ -433,6 +559,7 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
 
         // Render
+        phaseStart = System.nanoTime();
         try {
             if (!isLazy) {
                 compileProgressReportStart = 0;
@@ -442,6 +569,13 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         } catch (IOException e) {
             throw new RuntimeException("Error generating output files", e);
         }
+        recordPhase("rendering", phaseStart);
+    }
+
+    private void recordPhase(String name, long startTime) {
+        if (metrics != null) {
+            metrics.recordPhase(name, startTime);
+        }
     }
 
     private void initCompileProgress(int limit) {
@@ -459,14 +593,22 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             compileProgressLimit *= 2;
         }
 
+        var phaseStart = System.nanoTime();
         var classSet = link(dependencyAnalyzer);
         writtenClasses = classSet;
+        recordPhase("linking", phaseStart);
         if (wasCancelled()) {
             return null;
         }
 
+        if (profileInstrumentation != null) {
+            instrument(classSet);
+        }
+
         if (optimizationLevel != TeaVMOptimizationLevel.SIMPLE) {
+            phaseStart = System.nanoTime();
             devirtualize(classSet);
+            recordPhase("devirtualization", phaseStart);
             if (wasCancelled()) {
                 return null;
             }
@@ -494,7 +636,9 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
                 }
             }
         }
+        phaseStart = System.nanoTime();
         inline(classSet);
+        recordPhase("inlining", phaseStart);
         if (wasCancelled()) {
             return null;
         }
@@ -504,14 +648,46 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
                 new LinkedHashSet<>(dependencyAnalyzer.getReachableClasses())));
 
         // Optimize and allocate registers
+        phaseStart = System.nanoTime();
         optimize(classSet);
+        recordPhase("optimization", phaseStart);
         if (wasCancelled()) {
             return null;
         }
 
+        if (executionProfile != null && optimizationLevel != TeaVMOptimizationLevel.SIMPLE) {
+            orderMethods(classSet);
+        }
+
         return classSet;
     }
 
+    private void instrument(ListableClassHolderSource classes) {
+        for (String className : classes.getClassNames()) {
+            ClassHolder cls = classes.get(className);
+            for (MethodHolder method : cls.getMethods()) {
+                if (method.getProgram() != null) {
+                    profileInstrumentation.apply(method.getReference(), method.getProgram());
+                }
+            }
+        }
+    }
+
+    private void orderMethods(ListableClassHolderSource classes) {
+        // Put frequently called methods first, so that hot code gets emitted close together
+        for (String className : classes.getClassNames()) {
+            ClassHolder cls = classes.get(className);
+            var methods = new ArrayList<>(cls.getMethods());
+            methods.sort(Comparator.comparingLong(m -> -executionProfile.getMethodCount(m.getReference())));
+            for (MethodHolder method : methods) {
+                cls.removeMethod(method);
+            }
+            for (MethodHolder method : methods) {
+                cls.addMethod(method);
+            }
+        }
+    }
+
     private ListableClassHolderSource lazyPipeline() {
         var result = new PostProcessingClassHolderSource();
         writtenClasses = result;
@@ -640,6 +816,8 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
 
         var devirtualization = new Devirtualization(dependencyAnalyzer, dependencyAnalyzer.getClassHierarchy());
+        devirtualization.setProfile(executionProfile);
+        devirtualization.setPolymorphicCallsGuarded(optimizationLevel == TeaVMOptimizationLevel.FULL);
         for (String className : classes.getClassNames()) {
             ClassHolder cls = classes.get(className);
             for (MethodHolder method : cls.getMethods()) {
@@ -658,6 +836,7 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             System.out.println("Devirtualization complete");
             System.out.println("Virtual calls: " + devirtualization.getVirtualCallSites());
             System.out.println("Direct calls: " + devirtualization.getDirectCallSites());
+            System.out.println("Guarded calls: " + devirtualization.getGuardedCallSites());
         }
     }
 
@@ -666,16 +845,18 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             return;
         }
 
-        InliningStrategy inliningStrategy;
+        DefaultInliningStrategy inliningStrategy;
         if (optimizationLevel == TeaVMOptimizationLevel.FULL) {
             inliningStrategy = new DefaultInliningStrategy(20, 7, 3000, false);
         } else {
             inliningStrategy = new DefaultInliningStrategy(100, 7, 300, true);
         }
+        inliningStrategy.setProfile(executionProfile);
 
         Inlining inlining = new Inlining(new ClassHierarchy(classes), dependencyAnalyzer, inliningStrategy,
                 classes, this::isExternal, optimizationLevel == TeaVMOptimizationLevel.FULL,
                 target.getInliningFilter());
+        inlining.setEscapeSummaries(new EscapeSummaries(classes));
         var methodReferences = inlining.getOrder();
         int classCount = classes.getClassNames().size();
         int initialValue = compileProgressValue;
@@ -714,6 +895,13 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     }
 
     private void optimize(ListableClassHolderSource classSource) {
+        if (optimizationThreads > 1) {
+            try (var workers = new OptimizationWorkers(optimizationThreads, dependencyAnalyzer,
+                    dependencyAnalyzer.getClassHierarchy())) {
+                optimizeInParallel(classSource, workers);
+            }
+            return;
+        }
         for (String className : classSource.getClassNames()) {
             ClassHolder cls = classSource.get(className);
             for (MethodHolder method : cls.getMethods()) {
@@ -726,14 +914,89 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
     }
 
+    /*
+     * Target hooks and program cache are not required to be thread-safe and may depend on the order
+     * in which methods are processed, so they are called from this thread in exactly the same order
+     * as in serial mode. Only optimization passes and register allocation, which work on private
+     * copy of program, are run by workers.
+     */
+    private void optimizeInParallel(ListableClassHolderSource classSource, OptimizationWorkers workers) {
+        var batch = new ArrayList<PendingOptimization>();
+        int batchClasses = 0;
+        for (String className : classSource.getClassNames()) {
+            ClassHolder cls = classSource.get(className);
+            for (MethodHolder method : cls.getMethods()) {
+                if (method.getProgram() == null) {
+                    continue;
+                }
+                Program cachedProgram = getCachedProgram(method);
+                if (cachedProgram != null) {
+                    method.setProgram(cachedProgram);
+                } else {
+                    var program = ProgramUtils.copy(method.getProgram());
+                    target.beforeOptimizations(program, method);
+                    batch.add(new PendingOptimization(method, program));
+                }
+            }
+            ++batchClasses;
+            if (batch.size() >= PARALLEL_OPTIMIZATION_BATCH_SIZE) {
+                completeOptimizations(batch, workers);
+                batch.clear();
+                compileProgressValue += batchClasses;
+                batchClasses = 0;
+                reportCompileProgress(compileProgressValue);
+                if (wasCancelled()) {
+                    return;
+                }
+            }
+        }
+        completeOptimizations(batch, workers);
+        compileProgressValue += batchClasses;
+        reportCompileProgress(compileProgressValue);
+    }
+
+    private void completeOptimizations(List<PendingOptimization> batch, OptimizationWorkers workers) {
+        var nonEmpty = batch.stream()
+                .filter(pending -> pending.program.basicBlockCount() > 0)
+                .collect(Collectors.toList());
+        workers.forEach(nonEmpty, pending -> runOptimizations(pending.method, pending.program,
+                workers.createContext(pending.method)));
+
+        for (var pending : nonEmpty) {
+            target.afterOptimizations(pending.program, pending.method);
+            pending.categoryProvider = target.variableCategoryProvider();
+        }
+        workers.forEach(nonEmpty, pending -> {
+            if (pending.categoryProvider != null) {
+                allocateRegisters(pending.method, pending.program, pending.categoryProvider);
+            }
+        });
+
+        for (var pending : batch) {
+            var finalProgram = pending.program;
+            programCache.store(pending.method.getReference(), finalProgram,
+                    () -> programDependencyExtractor.extractDependencies(finalProgram));
+            pending.method.setProgram(finalProgram);
+        }
+    }
+
+    static class PendingOptimization {
+        final MethodHolder method;
+        final Program program;
+        VariableCategoryProvider categoryProvider;
+
+        PendingOptimization(MethodHolder method, Program program) {
+            this.method = method;
+            this.program = program;
+        }
+    }
+
     private void optimizeMethod(MethodHolder method) {
         if (method.getProgram() == null) {
             return;
         }
 
-        Program optimizedProgram = !cacheStatus.isStaleMethod(method.getReference())
-                ? programCache.get(method.getReference(), cacheStatus)
-                : null;
+        Program optimizedProgram = getCachedProgram(method);
         if (optimizedProgram == null) {
             optimizedProgram = optimizeMethodCacheMiss(method, ProgramUtils.copy(method.getProgram()));
             Program finalProgram = optimizedProgram;
@@ -743,44 +1006,91 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         method.setProgram(optimizedProgram);
     }
 
+    private Program getCachedProgram(MethodHolder method) {
+        Program program = !cacheStatus.isStaleMethod(method.getReference())
+                ? programCache.get(method.getReference(), cacheStatus)
+                : null;
+        if (metrics != null) {
+            metrics.recordProgramCacheLookup(program != null);
+        }
+        return program;
+    }
+
     private Program optimizeMethodCacheMiss(MethodHolder method, Program optimizedProgram) {
         target.beforeOptimizations(optimizedProgram, method);
 
         if (optimizedProgram.basicBlockCount() > 0) {
-            var context = new MethodOptimizationContextImpl(method);
-            boolean changed;
-            do {
-                changed = false;
-                for (MethodOptimization optimization : getOptimizations()) {
-                    try {
-                        changed |= optimization.optimize(context, optimizedProgram);
-                    } catch (Exception | AssertionError e) {
-                        ListingBuilder listingBuilder = new ListingBuilder();
-                        try {
-                            String listing = listingBuilder.buildListing(optimizedProgram, "");
-                            System.err.println("Error optimizing program for method " + method.getReference()
-                                    + ":\n" + listing);
-                        } catch (RuntimeException e2) {
-                            System.err.println("Error optimizing program for method " + method.getReference());
-                            // do nothing
-                        }
-                        throw new RuntimeException(e);
-                    }
-                }
-            } while (changed);
-
+            runOptimizations(method, optimizedProgram, new MethodOptimizationContextImpl(method));
             target.afterOptimizations(optimizedProgram, method);
             var categoryProvider = target.variableCategoryProvider();
             if (categoryProvider != null) {
-                var allocator = new RegisterAllocator(categoryProvider);
-                allocator.allocateRegisters(method.getReference(), optimizedProgram,
-                        optimizationLevel == TeaVMOptimizationLevel.SIMPLE);
+                allocateRegisters(method, optimizedProgram, categoryProvider);
             }
         }
 
         return optimizedProgram;
     }
 
+    private void runOptimizations(MethodHolder method, Program optimizedProgram, MethodOptimizationContext context) {
+        var methodStart = metrics != null ? System.nanoTime() : 0;
+        if (metrics != null) {
+            context = new StatisticsReportingContext(context);
+        }
+        runOptimizationLoop(method, optimizedProgram, context);
+
+        // Loop versioning duplicates code, so it runs once on already simplified program rather than
+        // participating in the fixpoint loop, which would version the remaining (checked) copy again
+        if (optimizationLevel.ordinal() >= TeaVMOptimizationLevel.ADVANCED.ordinal()
+                && runOptimization(method, optimizedProgram, context, new BoundCheckHoisting())) {
+            runOptimizationLoop(method, optimizedProgram, context);
+        }
+        if (metrics != null) {
+            metrics.recordMethod(method.getReference(), methodStart);
+        }
+    }
+
+    private void runOptimizationLoop(MethodHolder method, Program optimizedProgram,
+            MethodOptimizationContext context) {
+        boolean changed;
+        do {
+            changed = false;
+            for (MethodOptimization optimization : getOptimizations()) {
+                changed |= runOptimization(method, optimizedProgram, context, optimization);
+            }
+        } while (changed);
+    }
+
+    private boolean runOptimization(MethodHolder method, Program optimizedProgram, MethodOptimizationContext context,
+            MethodOptimization optimization) {
+        try {
+            if (metrics != null) {
+                var passStart = System.nanoTime();
+                var passChanged = optimization.optimize(context, optimizedProgram);
+                metrics.recordPass(optimization.getClass().getSimpleName(), passStart, passChanged);
+                return passChanged;
+            } else {
+                return optimization.optimize(context, optimizedProgram);
+            }
+        } catch (Exception | AssertionError e) {
+            ListingBuilder listingBuilder = new ListingBuilder();
+            try {
+                String listing = listingBuilder.buildListing(optimizedProgram, "");
+                System.err.println("Error optimizing program for method " + method.getReference()
+                        + ":\n" + listing);
+            } catch (RuntimeException e2) {
+                System.err.println("Error optimizing program for method " + method.getReference());
+                // do nothing
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void allocateRegisters(MethodHolder method, Program program, VariableCategoryProvider categoryProvider) {
+        var allocator = new RegisterAllocator(categoryProvider);
+        allocator.allocateRegisters(method.getReference(), program,
+                optimizationLevel == TeaVMOptimizationLevel.SIMPLE);
+    }
+
     class MethodOptimizationContextImpl implements MethodOptimizationContext {
         private MethodReader method;
 
@@ -809,12 +1119,46 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
     }
 
+    class StatisticsReportingContext implements MethodOptimizationContext {
+        private MethodOptimizationContext underlying;
+
+        StatisticsReportingContext(MethodOptimizationContext underlying) {
+            this.underlying = underlying;
+        }
+
+        @Override
+        public MethodReader getMethod() {
+            return underlying.getMethod();
+        }
+
+        @Override
+        public DependencyInfo getDependencyInfo() {
+            return underlying.getDependencyInfo();
+        }
+
+        @Override
+        public ClassReaderSource getClassSource() {
+            return underlying.getClassSource();
+        }
+
+        @Override
+        public ClassHierarchy getHierarchy() {
+            return underlying.getHierarchy();
+        }
+
+        @Override
+        public void reportStatistic(String name, int value) {
+            metrics.recordStatistic(name, value);
+        }
+    }
+
     private List<MethodOptimization> getOptimizations() {
         List<MethodOptimization> optimizations = new ArrayList<>();
         optimizations.add(new RedundantJumpElimination());
         optimizations.add(new ArrayUnwrapMotion());
         if (optimizationLevel.ordinal() >= TeaVMOptimizationLevel.ADVANCED.ordinal()) {
             optimizations.add(new ScalarReplacement());
+            optimizations.add(new BoxingElimination());
             //optimizations.add(new LoopInversion());
             optimizations.add(new LoopInvariantMotion());
         }
@@ -1014,11 +1358,12 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
                 }
 
                 Function<MethodHolder, Program> programSupplier = method -> {
-                    Program program = !cacheStatus.isStaleMethod(method.getReference())
-                            ? programCache.get(method.getReference(), cacheStatus)
-                            : null;
+                    Program program = getCachedProgram(method);
                     if (program == null) {
                         program = ProgramUtils.copy(classReader.getMethod(method.getDescriptor()).getProgram());
+                        if (profileInstrumentation != null) {
+                            profileInstrumentation.apply(method.getReference(), program);
+                        }
                         clinitInsertion.apply(method, program);
                         target.beforeInlining(program, method);
                         program = optimizeMethodCacheMiss(method, program);
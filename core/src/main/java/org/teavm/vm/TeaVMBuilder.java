@@ -32,6 +32,7 @@ public class TeaVMBuilder {
     ClassSourcePacker classSourcePacker = (src, names) -> src;
     boolean obfuscated;
     boolean strict;
+    int optimizationThreads = 1;
 
     public TeaVMBuilder(TeaVMTarget target) {
         this.target = target;
@@ -86,6 +87,23 @@ public class TeaVMBuilder {
         return this;
     }
 
+    public int getOptimizationThreads() {
+        return optimizationThreads;
+    }
+
+    /**
+     * Sets number of threads that optimize method bodies. With a single thread (default) methods are optimized
+     * on the calling thread. Output does not depend on this value.
+     */
+    public TeaVMBuilder setOptimizationThreads(int optimizationThreads) {
+        if (optimizationThreads < 1) {
+            throw new IllegalArgumentException("Number of optimization threads must be positive: "
+                    + optimizationThreads);
+        }
+        this.optimizationThreads = optimizationThreads;
+        return this;
+    }
+
     public TeaVM build() {
         return new TeaVM(this);
     }
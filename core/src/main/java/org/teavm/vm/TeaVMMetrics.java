@@ -0,0 +1,380 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.teavm.ast.AsyncMethodNode;
+import org.teavm.cache.AstCacheEntry;
+import org.teavm.cache.CacheStatus;
+import org.teavm.cache.MethodNodeCache;
+import org.teavm.common.JsonUtil;
+import org.teavm.model.MethodReference;
+
+/**
+ * Collects timings and counters of a single {@link TeaVM#build(BuildTarget, String)} run. Optimizations
+ * may run on several threads, so all recording methods are thread-safe. Times are measured in nanoseconds.
+ */
+public class TeaVMMetrics {
+    public static final int DEFAULT_SLOWEST_METHOD_COUNT = 20;
+
+    private final int slowestMethodCount;
+    private final Map<String, Long> phaseTimes = new LinkedHashMap<>();
+    private final Map<String, PassMetrics> passes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> statistics = new ConcurrentHashMap<>();
+    private final PriorityQueue<MethodMetrics> slowestMethods = new PriorityQueue<>(
+            Comparator.comparingLong(MethodMetrics::getTime));
+    private final CacheMetrics programCache = new CacheMetrics();
+    private final CacheMetrics astCache = new CacheMetrics();
+    private long gcCountAtStart;
+    private long gcTimeAtStart;
+    private long gcCount;
+    private long gcTime;
+    private long peakHeapUsed;
+
+    public TeaVMMetrics() {
+        this(DEFAULT_SLOWEST_METHOD_COUNT);
+    }
+
+    public TeaVMMetrics(int slowestMethodCount) {
+        this.slowestMethodCount = slowestMethodCount;
+    }
+
+    void buildStarted() {
+        gcCountAtStart = totalGcCount();
+        gcTimeAtStart = totalGcTime();
+        sampleHeap();
+    }
+
+    void buildFinished() {
+        gcCount = totalGcCount() - gcCountAtStart;
+        gcTime = totalGcTime() - gcTimeAtStart;
+        sampleHeap();
+    }
+
+    void recordPhase(String name, long startTime) {
+        var time = System.nanoTime() - startTime;
+        synchronized (phaseTimes) {
+            phaseTimes.merge(name, time, Long::sum);
+        }
+        sampleHeap();
+    }
+
+    void recordPass(String name, long startTime, boolean changed) {
+        var time = System.nanoTime() - startTime;
+        var pass = passes.computeIfAbsent(name, PassMetrics::new);
+        pass.invocations.increment();
+        pass.time.add(time);
+        if (changed) {
+            pass.changes.increment();
+        }
+    }
+
+    void recordStatistic(String name, int value) {
+        statistics.computeIfAbsent(name, n -> new LongAdder()).add(value);
+    }
+
+    void recordMethod(MethodReference method, long startTime) {
+        var time = System.nanoTime() - startTime;
+        synchronized (slowestMethods) {
+            if (slowestMethods.size() < slowestMethodCount) {
+                slowestMethods.add(new MethodMetrics(method, time));
+            } else if (slowestMethodCount > 0 && slowestMethods.peek().time < time) {
+                slowestMethods.poll();
+                slowestMethods.add(new MethodMetrics(method, time));
+            }
+        }
+    }
+
+    void recordProgramCacheLookup(boolean hit) {
+        programCache.record(hit);
+    }
+
+    /**
+     * Wraps cache of method ASTs, so that its hits and misses are reported by {@link #getAstCache()}.
+     */
+    public MethodNodeCache countHits(MethodNodeCache cache) {
+        return new MethodNodeCache() {
+            @Override
+            public AstCacheEntry get(MethodReference methodReference, CacheStatus cacheStatus) {
+                var result = cache.get(methodReference, cacheStatus);
+                astCache.record(result != null);
+                return result;
+            }
+
+            @Override
+            public void store(MethodReference methodReference, AstCacheEntry entry,
+                    Supplier<String[]> dependencies) {
+                cache.store(methodReference, entry, dependencies);
+            }
+
+            @Override
+            public AsyncMethodNode getAsync(MethodReference methodReference, CacheStatus cacheStatus) {
+                var result = cache.getAsync(methodReference, cacheStatus);
+                astCache.record(result != null);
+                return result;
+            }
+
+            @Override
+            public void storeAsync(MethodReference methodReference, AsyncMethodNode node,
+                    Supplier<String[]> dependencies) {
+                cache.storeAsync(methodReference, node, dependencies);
+            }
+        };
+    }
+
+    /**
+     * Returns wall time of build phases in order they were first entered. Some phases, like optimization
+     * in {@link TeaVMOptimizationLevel#SIMPLE} mode, run interleaved with rendering and are not reported
+     * separately.
+     */
+    public Map<String, Long> getPhaseTimes() {
+        synchronized (phaseTimes) {
+            return new LinkedHashMap<>(phaseTimes);
+        }
+    }
+
+    /**
+     * Returns statistics of optimization passes, sorted by total time, slowest first. Passes of the same
+     * class are reported together.
+     */
+    public List<PassMetrics> getOptimizationPasses() {
+        var result = new ArrayList<>(passes.values());
+        result.sort(Comparator.comparingLong(PassMetrics::getTime).reversed());
+        return result;
+    }
+
+    /**
+     * Returns methods that took most time to optimize, slowest first.
+     */
+    public List<MethodMetrics> getSlowestMethods() {
+        List<MethodMetrics> result;
+        synchronized (slowestMethods) {
+            result = new ArrayList<>(slowestMethods);
+        }
+        result.sort(Comparator.comparingLong(MethodMetrics::getTime).reversed());
+        return result;
+    }
+
+    /**
+     * Returns statistics reported by optimizations, like number of eliminated allocations, sorted by name.
+     */
+    public Map<String, Long> getStatistics() {
+        var result = new TreeMap<String, Long>();
+        for (var entry : statistics.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    public CacheMetrics getProgramCache() {
+        return programCache;
+    }
+
+    public CacheMetrics getAstCache() {
+        return astCache;
+    }
+
+    /**
+     * Returns number of garbage collections that happened during build in the whole JVM.
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Returns approximate time in milliseconds spent by JVM on garbage collection during build.
+     */
+    public long getGcTime() {
+        return gcTime;
+    }
+
+    /**
+     * Returns maximum heap usage observed at phase boundaries, in bytes.
+     */
+    public long getPeakHeapUsed() {
+        return peakHeapUsed;
+    }
+
+    public void writeJson(Writer output) throws IOException {
+        output.write("{\n  \"phases\": {");
+        var first = true;
+        for (var entry : getPhaseTimes().entrySet()) {
+            output.write(first ? "\n    " : ",\n    ");
+            first = false;
+            writeString(output, entry.getKey());
+            output.write(": " + toMillis(entry.getValue()));
+        }
+        output.write("\n  },\n  \"optimizations\": [");
+        first = true;
+        for (var pass : getOptimizationPasses()) {
+            output.write(first ? "\n    " : ",\n    ");
+            first = false;
+            output.write("{\"name\": ");
+            writeString(output, pass.getName());
+            output.write(", \"time\": " + toMillis(pass.getTime()) + ", \"invocations\": " + pass.getInvocations()
+                    + ", \"changes\": " + pass.getChanges() + "}");
+        }
+        output.write("\n  ],\n  \"statistics\": {");
+        first = true;
+        for (var entry : getStatistics().entrySet()) {
+            output.write(first ? "\n    " : ",\n    ");
+            first = false;
+            writeString(output, entry.getKey());
+            output.write(": " + entry.getValue());
+        }
+        output.write("\n  },\n  \"slowestMethods\": [");
+        first = true;
+        for (var method : getSlowestMethods()) {
+            output.write(first ? "\n    " : ",\n    ");
+            first = false;
+            output.write("{\"method\": ");
+            writeString(output, method.getMethod().toString());
+            output.write(", \"time\": " + toMillis(method.getTime()) + "}");
+        }
+        output.write("\n  ],\n  \"caches\": {\n    \"program\": ");
+        writeCache(output, programCache);
+        output.write(",\n    \"ast\": ");
+        writeCache(output, astCache);
+        output.write("\n  },\n  \"memory\": {\"gcCount\": " + gcCount + ", \"gcTime\": " + gcTime
+                + ", \"peakHeapUsed\": " + peakHeapUsed + "}\n}\n");
+    }
+
+    private static void writeCache(Writer output, CacheMetrics cache) throws IOException {
+        output.write("{\"hits\": " + cache.getHits() + ", \"misses\": " + cache.getMisses()
+                + ", \"hitRatio\": " + String.format(Locale.ROOT, "%.3f", cache.getHitRatio()) + "}");
+    }
+
+    private static void writeString(Writer output, String value) throws IOException {
+        output.write('"');
+        JsonUtil.writeEscapedString(output, value);
+        output.write('"');
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private void sampleHeap() {
+        var used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        synchronized (this) {
+            peakHeapUsed = Math.max(peakHeapUsed, used);
+        }
+    }
+
+    private static long totalGcCount() {
+        long result = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            result += Math.max(0, bean.getCollectionCount());
+        }
+        return result;
+    }
+
+    private static long totalGcTime() {
+        long result = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            result += Math.max(0, bean.getCollectionTime());
+        }
+        return result;
+    }
+
+    public static class PassMetrics {
+        private final String name;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder changes = new LongAdder();
+        private final LongAdder time = new LongAdder();
+
+        PassMetrics(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        /**
+         * Returns how many invocations of the pass reported that they changed program.
+         */
+        public long getChanges() {
+            return changes.sum();
+        }
+
+        public long getTime() {
+            return time.sum();
+        }
+    }
+
+    public static class MethodMetrics {
+        private final MethodReference method;
+        private final long time;
+
+        MethodMetrics(MethodReference method, long time) {
+            this.method = method;
+            this.time = time;
+        }
+
+        public MethodReference getMethod() {
+            return method;
+        }
+
+        public long getTime() {
+            return time;
+        }
+    }
+
+    public static class CacheMetrics {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        void record(boolean hit) {
+            if (hit) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        public double getHitRatio() {
+            var total = getHits() + getMisses();
+            return total > 0 ? (double) getHits() / total : 0;
+        }
+    }
+}
@@ -19,4 +19,10 @@ public interface TeaVMProgressListener {
     TeaVMProgressFeedback phaseStarted(TeaVMPhase phase, int count);
 
     TeaVMProgressFeedback progressReached(int progress);
+
+    /**
+     * Called when build completes, if collection of metrics was enabled by {@link TeaVM#setMetrics(TeaVMMetrics)}.
+     */
+    default void metricsReported(TeaVMMetrics metrics) {
+    }
 }
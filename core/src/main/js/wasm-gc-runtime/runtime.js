@@ -662,6 +662,68 @@ async function wrapImports(wasmModule, imports) {
     await Promise.all(promises);
 }
 
+function chunkImports(path, wasmModule, imports) {
+    let chunkNames = [];
+    for (let { module, name } of WebAssembly.Module.imports(wasmModule)) {
+        if (module === "teavmSplit") {
+            chunkNames.push(name);
+        }
+    }
+    let basePath = path.substring(0, path.lastIndexOf("/") + 1);
+    let context = {
+        primaryExports: null,
+        modules: new Map(),
+        pending: new Map(),
+        instantiated: new Set()
+    };
+    if (chunkNames.length > 0) {
+        let loaders = {};
+        for (let name of chunkNames) {
+            loaders[name] = () => {
+                if (context.instantiated.has(name)) {
+                    return;
+                }
+                let chunkModule = context.modules.get(name);
+                if (typeof chunkModule === "undefined") {
+                    throw new Error("WebAssembly chunk " + name + " is not loaded yet, "
+                        + "await 'loadChunk(\"" + name + "\")' before calling code that depends on it");
+                }
+                new WebAssembly.Instance(chunkModule, { ...imports, "teavm.primary": context.primaryExports });
+                context.instantiated.add(name);
+            };
+        }
+        imports.teavmSplit = loaders;
+    }
+    function compile(name) {
+        let result = context.pending.get(name);
+        if (typeof result === "undefined") {
+            result = WebAssembly.compileStreaming(fetch(basePath + name), { builtins: ["js-string"] })
+                .then(chunkModule => {
+                    context.modules.set(name, chunkModule);
+                });
+            // Let next request fetch the chunk again
+            result.catch(() => context.pending.delete(name));
+            context.pending.set(name, result);
+        }
+        return result;
+    }
+    return {
+        names: chunkNames,
+        supplyExports(exports) {
+            context.primaryExports = exports;
+        },
+        loadChunk(name) {
+            if (!chunkNames.includes(name)) {
+                return Promise.reject(new Error("Unknown WebAssembly chunk " + name));
+            }
+            return compile(name);
+        },
+        loadChunks() {
+            return Promise.all(chunkNames.map(compile)).then(() => {});
+        }
+    }
+}
+
 async function load(path, options) {
     if (!options) {
         options = {};
@@ -684,9 +746,11 @@ async function load(path, options) {
     if (!options.noAutoImports) {
         await wrapImports(module, importObj);
     }
+    let chunks = chunkImports(path, module, importObj);
     let instance = await WebAssembly.instantiate(module, importObj);
 
     defaultsResult.supplyExports(instance.exports);
+    chunks.supplyExports(instance.exports);
     if (deobfuscatorFactory) {
         let moduleToPass = debugInfoLocation === "auto" || debugInfoLocation === "embedded" ? module : null;
         let deobfuscator = createDeobfuscator(moduleToPass, debugInfo, deobfuscatorFactory);
@@ -697,8 +761,15 @@ async function load(path, options) {
     let teavm = {
         exports: userExports,
         instance: instance,
-        module: instance.module
+        module: instance.module,
+        chunks: chunks.names,
+        loadChunk: chunks.loadChunk,
+        loadChunks: chunks.loadChunks
     };
+    let printProfile = instance.exports["teavm.printProfile"];
+    if (typeof printProfile === "function") {
+        teavm.printProfile = printProfile;
+    }
     for (let key in instance.exports) {
         let exportObj = instance.exports[key];
         if (exportObj instanceof WebAssembly.Global) {
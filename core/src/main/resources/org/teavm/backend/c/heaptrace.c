@@ -39,6 +39,12 @@ static wchar_t* teavm_gc_dumpDirectory = NULL;
 
 #ifdef TEAVM_GC_STATS
     static int32_t teavm_gc_allocationCount = 0;
+    static int64_t teavm_gc_allocationByteCount = 0;
+    static int32_t teavm_gc_chunkSearchCount = 0;
+    static int64_t teavm_gc_chunkSearchLength = 0;
+    static int32_t teavm_gc_freeMemory = 0;
+    static int32_t teavm_gc_freeChunkCount = 0;
+    static int32_t teavm_gc_largestFreeChunk = 0;
     static int32_t teavm_gc_freeCount = 0;
     static int32_t teavm_gc_freeByteCount = 0;
     static int32_t teavm_gc_markCount = 0;
@@ -49,6 +55,7 @@ static wchar_t* teavm_gc_dumpDirectory = NULL;
     static int64_t teavm_gc_startTimeMillis;
     static int64_t teavm_gc_startTime;
     static int64_t teavm_gc_endTime;
+    static int64_t teavm_gc_previousEndTime = 0;
     static int64_t teavm_gc_markStartTime;
     static int64_t teavm_gc_markEndTime;
     static int64_t teavm_gc_sweepStartTime;
@@ -97,6 +104,7 @@ void teavm_gc_allocate(void* address, int32_t size) {
 
     #if TEAVM_GC_STATS
         teavm_gc_allocationCount++;
+        teavm_gc_allocationByteCount += size;
     #endif
 }
 
@@ -462,6 +470,20 @@ void teavm_gc_defragCompleted() {
                 teavm_gc_allocationCount);
         teavm_gc_print(buffer);
 
+        if (teavm_gc_previousEndTime != 0 && teavm_gc_startTime > teavm_gc_previousEndTime) {
+            swprintf(buffer, TEAVM_GC_LOG_BUFFER_SIZE, L"[GC]     Allocated %" PRId64 " bytes, %" PRId64
+                    " bytes per ms since previous GC\n", teavm_gc_allocationByteCount,
+                    teavm_gc_allocationByteCount * 1000000 / (teavm_gc_startTime - teavm_gc_previousEndTime));
+            teavm_gc_print(buffer);
+        }
+
+        if (teavm_gc_chunkSearchCount > 0) {
+            swprintf(buffer, TEAVM_GC_LOG_BUFFER_SIZE, L"[GC]     Free chunk searches: %" PRId32 ", %.2f chunks "
+                    "visited on average\n", teavm_gc_chunkSearchCount,
+                    (double) teavm_gc_chunkSearchLength / teavm_gc_chunkSearchCount);
+            teavm_gc_print(buffer);
+        }
+
         swprintf(buffer, TEAVM_GC_LOG_BUFFER_SIZE, L"[GC]   Mark phase took %" PRIu64 " ns, %" PRIu32
                 " objects reached\n", teavm_gc_markEndTime - teavm_gc_markStartTime, teavm_gc_markCount);
         teavm_gc_print(buffer);
@@ -484,10 +506,22 @@ void teavm_gc_defragCompleted() {
         swprintf(buffer, TEAVM_GC_LOG_BUFFER_SIZE, L"[GC]     Blocks relocated %" PRId32 " of total %" PRId32 " bytes\n",
             teavm_gc_relocatedBlocks, teavm_gc_relocatedBytes);
         teavm_gc_print(buffer);
+
+        if (teavm_gc_freeMemory > 0) {
+            swprintf(buffer, TEAVM_GC_LOG_BUFFER_SIZE, L"[GC]   Free memory: %" PRId32 " bytes in %" PRId32
+                    " chunks, largest chunk %" PRId32 " bytes, fragmentation %.1f%%\n", teavm_gc_freeMemory,
+                    teavm_gc_freeChunkCount, teavm_gc_largestFreeChunk,
+                    100.0 * (teavm_gc_freeMemory - teavm_gc_largestFreeChunk) / teavm_gc_freeMemory);
+            teavm_gc_print(buffer);
+        }
     }
 
     static void teavm_gc_resetStats() {
         teavm_gc_allocationCount = 0;
+        teavm_gc_allocationByteCount = 0;
+        teavm_gc_chunkSearchCount = 0;
+        teavm_gc_chunkSearchLength = 0;
+        teavm_gc_previousEndTime = teavm_gc_endTime;
         teavm_gc_markCount = 0;
         teavm_gc_dirtyRegionCount = 0;
         teavm_gc_freeCount = 0;
@@ -520,6 +554,47 @@ void teavm_gc_reportDirtyRegion(void* address) {
     #endif
 }
 
+void teavm_gc_reportChunkSearch(int32_t length) {
+    #if TEAVM_GC_STATS
+        teavm_gc_chunkSearchCount++;
+        teavm_gc_chunkSearchLength += length;
+    #endif
+}
+
+void teavm_gc_reportFreeMemory(int32_t freeBytes, int32_t chunkCount, int32_t largestChunk) {
+    #if TEAVM_GC_STATS
+        teavm_gc_freeMemory = freeBytes;
+        teavm_gc_freeChunkCount = chunkCount;
+        teavm_gc_largestFreeChunk = largestChunk;
+    #endif
+}
+
+static bool teavm_gc_telemetryInitialized = false;
+static FILE* teavm_gc_telemetryFile = NULL;
+
+void teavm_gc_reportCollection(int32_t full, int64_t pauseTime, int32_t reclaimedBytes, int32_t promotedBytes,
+        int32_t occupiedRegions, int32_t regionCount) {
+    if (!teavm_gc_telemetryInitialized) {
+        teavm_gc_telemetryInitialized = true;
+        char* path = getenv("TEAVM_GC_TELEMETRY_FILE");
+        if (path != NULL && *path != 0) {
+            teavm_gc_telemetryFile = fopen(path, "w");
+            if (teavm_gc_telemetryFile != NULL) {
+                fprintf(teavm_gc_telemetryFile, "time,kind,pauseNanos,reclaimedBytes,promotedBytes,"
+                        "occupiedRegions,regions\n");
+            }
+        }
+    }
+    if (teavm_gc_telemetryFile == NULL) {
+        return;
+    }
+
+    fprintf(teavm_gc_telemetryFile, "%" PRId64 ",%s,%" PRId64 ",%" PRId32 ",%" PRId32 ",%" PRId32 ",%" PRId32 "\n",
+            teavm_currentTimeMillis(), full ? "full" : "young", pauseTime, reclaimedBytes, promotedBytes,
+            occupiedRegions, regionCount);
+    fflush(teavm_gc_telemetryFile);
+}
+
 void teavm_gc_setDumpDirectory(const wchar_t* path) {
     if (teavm_gc_dumpDirectory != NULL) {
         free(teavm_gc_dumpDirectory);
@@ -24,6 +24,10 @@ extern void teavm_gc_defragCompleted();
 extern void teavm_gc_gcCompleted();
 extern void teavm_gc_heapResized(int64_t newSize);
 extern void teavm_gc_reportDirtyRegion(void* address);
+extern void teavm_gc_reportChunkSearch(int32_t length);
+extern void teavm_gc_reportFreeMemory(int32_t freeBytes, int32_t chunkCount, int32_t largestChunk);
+extern void teavm_gc_reportCollection(int32_t full, int64_t pauseTime, int32_t reclaimedBytes, int32_t promotedBytes,
+        int32_t occupiedRegions, int32_t regionCount);
 extern void teavm_gc_setDumpDirectory(const wchar_t* path);
 extern void teavm_gc_fixHeap();
 extern void teavm_gc_writeHeapDump();
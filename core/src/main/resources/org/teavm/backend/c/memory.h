@@ -1,5 +1,10 @@
 #pragma once
 #include <stdint.h>
+#include "definitions.h"
+
+#ifndef TEAVM_GC_MARK_STEP
+    #define TEAVM_GC_MARK_STEP 0
+#endif
 
 extern void* teavm_gc_heapAddress;
 extern void* teavm_gc_gcStorageAddress;
@@ -7,6 +12,7 @@ extern int32_t teavm_gc_gcStorageSize;
 extern void* teavm_gc_regionsAddress;
 extern void* teavm_gc_cardTable;
 #define teavm_gc_regionSize INT32_C(2048)
+#define teavm_gc_markStepSize INT32_C(TEAVM_GC_MARK_STEP)
 extern int32_t teavm_gc_regionMaxCount;
 extern int64_t teavm_gc_availableBytes;
 extern int64_t teavm_gc_minAvailableBytes;
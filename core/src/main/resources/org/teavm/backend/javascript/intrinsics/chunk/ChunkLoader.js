@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+function load(chunk) {
+    let thread = $rt_nativeThread();
+    if (thread !== null && thread.isResuming()) {
+        thread.status = 0;
+        let error = thread.attribute;
+        thread.attribute = null;
+        if (error !== null) {
+            throw error;
+        }
+        return;
+    }
+
+    let name = $rt_ustr(chunk);
+    if ($rt_chunkLoaded(name)) {
+        return;
+    }
+    thread = $rt_requireNativeThread();
+    let javaThread = $rt_getThread();
+    thread.suspend(() => {
+        $rt_loadChunk(name).then(() => {
+            thread.attribute = null;
+            $rt_setThread(javaThread);
+            thread.resume();
+        }, e => {
+            thread.attribute = e;
+            $rt_setThread(javaThread);
+            thread.resume();
+        });
+    });
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+"use strict";
+
+let $rt_lazyMethods = [];
+let $rt_lazyMethod = (index, compile) => {
+    let method = $rt_lazyMethods[index];
+    if (typeof method === "undefined") {
+        method = compile();
+        $rt_lazyMethods[index] = method;
+    }
+    return method;
+}
+let $rt_lazyMethodBody = index => {
+    let loader = teavm_globals.$teavm_lazyMethodBody;
+    if (typeof loader !== "function") {
+        throw new teavm_globals.Error("Body of method #" + index + " was not loaded");
+    }
+    return loader(index);
+}
+let $rt_lazyStrings = (start, strings) => {
+    if (typeof $rt_stringPool_instance === "undefined") {
+        $rt_stringClassInit();
+        $rt_stringPool_instance = [];
+    }
+    for (let i = 0; i < strings.length; ++i) {
+        if (typeof $rt_stringPool_instance[start + i] === "undefined") {
+            $rt_stringPool_instance[start + i] = $rt_intern($rt_str(strings[i]));
+        }
+    }
+}
+let $rt_chunkMethods = [];
+let $rt_loadedChunks = {};
+let $rt_readyChunks = {};
+let $rt_chunkMethod = index => {
+    let method = $rt_chunkMethods[index];
+    if (typeof method === "undefined") {
+        throw new teavm_globals.Error("Method #" + index + " belongs to a chunk that was not loaded yet");
+    }
+    return method;
+}
+let $rt_chunkLoaded = name => $rt_readyChunks[name] === true;
+let $rt_loadChunk = name => {
+    let result = $rt_loadedChunks[name];
+    if (typeof result === "undefined") {
+        let loader = $rt_chunkLoaders[name];
+        if (typeof loader === "undefined") {
+            return teavm_globals.Promise.reject(new teavm_globals.Error("Unknown chunk: " + name));
+        }
+        result = loader().then(module => {
+            let methods = module.default($rt_chunkScope);
+            for (let i = 0; i < methods.length; i += 2) {
+                $rt_chunkMethods[methods[i]] = methods[i + 1];
+            }
+            $rt_readyChunks[name] = true;
+        }, e => {
+            delete $rt_loadedChunks[name];
+            throw e;
+        });
+        $rt_loadedChunks[name] = result;
+    }
+    return result;
+}
@@ -7,6 +7,7 @@
 
 #if TEAVM_GC_STATS
     static int32_t teavm_gc_allocationCount = 0;
+    static int64_t teavm_gc_allocationByteCount = 0;
     static int32_t teavm_gc_freeCount = 0;
     static int32_t teavm_gc_freeByteCount = 0;
     static int32_t teavm_gc_markCount = 0;
@@ -17,6 +18,7 @@
     static int64_t teavm_gc_startTimeMillis;
     static int64_t teavm_gc_startTime;
     static int64_t teavm_gc_endTime;
+    static int64_t teavm_gc_previousEndTime = 0;
     static int64_t teavm_gc_markStartTime;
     static int64_t teavm_gc_markEndTime;
     static int64_t teavm_gc_sweepStartTime;
@@ -76,6 +78,7 @@ void teavmHeapTrace_allocate(int32_t address, int32_t size) {
 
     #if TEAVM_GC_STATS
         teavm_gc_allocationCount++;
+        teavm_gc_allocationByteCount += size;
     #endif
 }
 
@@ -398,6 +401,12 @@ void teavmHeapTrace_defragCompleted() {
 
         fprintf(stderr, "[GC]   Allocations performed before GC: %" PRIu32 "\n", teavm_gc_allocationCount);
 
+        if (teavm_gc_previousEndTime != 0 && teavm_gc_startTime > teavm_gc_previousEndTime) {
+            fprintf(stderr, "[GC]     Allocated %" PRId64 " bytes, %" PRId64 " bytes per ms since previous GC\n",
+                    teavm_gc_allocationByteCount,
+                    teavm_gc_allocationByteCount * 1000000 / (teavm_gc_startTime - teavm_gc_previousEndTime));
+        }
+
         fprintf(stderr, "[GC]   Mark phase took %" PRIu64 " ns, %" PRIu32 " objects reached\n",
                 teavm_gc_markEndTime - teavm_gc_markStartTime, teavm_gc_markCount);
 
@@ -418,6 +427,8 @@ void teavmHeapTrace_defragCompleted() {
 
     static void teavmHeapTrace_resetStats() {
         teavm_gc_allocationCount = 0;
+        teavm_gc_allocationByteCount = 0;
+        teavm_gc_previousEndTime = teavm_gc_endTime;
         teavm_gc_markCount = 0;
         teavm_gc_dirtyRegionCount = 0;
         teavm_gc_freeCount = 0;
@@ -446,3 +457,7 @@ void teavmHeapTrace_reportDirtyRegion(int32_t address) {
         teavm_gc_dirtyRegionCount++;
     #endif
 }
+
+void teavmHeapTrace_reportCollection(int32_t full, int64_t pauseTime, int32_t reclaimedBytes,
+        int32_t promotedBytes, int32_t occupiedRegions, int32_t regionCount) {
+}
@@ -129,6 +129,8 @@ TeaVM.wasm = function() {
             defragStarted: function() {},
             defragCompleted: function() {},
             gcCompleted: function() {},
+            reportCollection: function(full, pauseTime, reclaimedBytes, promotedBytes, occupiedRegions,
+                    regionCount) {},
             init: function(maxHeap) {}
         };
 
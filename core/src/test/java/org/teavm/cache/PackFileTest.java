@@ -0,0 +1,135 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PackFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsEntriesAfterReopen() throws IOException {
+        var dir = folder.getRoot();
+        var pack = new PackFile(dir, "test");
+        pack.put("a", bytes("first"));
+        pack.put("b", bytes("second"));
+        assertArrayEquals(bytes("first"), pack.get("a").readAllBytes());
+        pack.flush();
+
+        pack = new PackFile(dir, "test");
+        assertArrayEquals(bytes("first"), pack.get("a").readAllBytes());
+        assertArrayEquals(bytes("second"), pack.get("b").readAllBytes());
+        assertTrue(pack.getTimestamp("a") > 0);
+        assertNull(pack.get("c"));
+        assertEquals(-1, pack.getTimestamp("c"));
+    }
+
+    @Test
+    public void overwritesEntries() throws IOException {
+        var dir = folder.getRoot();
+        var pack = new PackFile(dir, "test");
+        pack.put("a", bytes("first"));
+        pack.flush();
+        pack.put("a", bytes("second"));
+        pack.flush();
+        assertArrayEquals(bytes("second"), pack.get("a").readAllBytes());
+
+        pack = new PackFile(dir, "test");
+        assertArrayEquals(bytes("second"), pack.get("a").readAllBytes());
+    }
+
+    @Test
+    public void compactsGarbage() throws IOException {
+        var dir = folder.getRoot();
+        var pack = new PackFile(dir, "test");
+        pack.put("small", bytes("small"));
+        for (var i = 0; i < 4; ++i) {
+            var data = new byte[512 * 1024];
+            Arrays.fill(data, (byte) i);
+            pack.put("large", data);
+            pack.flush();
+        }
+
+        pack = new PackFile(dir, "test");
+        assertArrayEquals(bytes("small"), pack.get("small").readAllBytes());
+        var large = pack.get("large").readAllBytes();
+        assertEquals(512 * 1024, large.length);
+        assertEquals(3, large[0]);
+
+        var packs = dir.listFiles((d, name) -> name.endsWith(".pack"));
+        assertEquals(1, packs.length);
+        assertTrue(packs[0].length() < 2 * 512 * 1024);
+    }
+
+    @Test
+    public void ignoresDataNotCoveredByIndex() throws IOException {
+        var dir = folder.getRoot();
+        var pack = new PackFile(dir, "test");
+        pack.put("a", bytes("first"));
+        pack.flush();
+
+        // Simulate a crash after data was appended to the pack, but before index was replaced
+        var packFile = dir.listFiles((d, name) -> name.endsWith(".pack"))[0];
+        try (var output = new FileOutputStream(packFile, true)) {
+            output.write(bytes("garbage"));
+        }
+
+        pack = new PackFile(dir, "test");
+        assertArrayEquals(bytes("first"), pack.get("a").readAllBytes());
+        pack.put("b", bytes("second"));
+        pack.flush();
+
+        pack = new PackFile(dir, "test");
+        assertArrayEquals(bytes("first"), pack.get("a").readAllBytes());
+        assertArrayEquals(bytes("second"), pack.get("b").readAllBytes());
+    }
+
+    @Test
+    public void discardsCorruptedIndex() throws IOException {
+        var dir = folder.getRoot();
+        var pack = new PackFile(dir, "test");
+        pack.put("a", bytes("first"));
+        pack.flush();
+
+        try (var output = new FileOutputStream(new File(dir, "test.idx"))) {
+            output.write(bytes("broken"));
+        }
+
+        pack = new PackFile(dir, "test");
+        assertNull(pack.get("a"));
+        pack.put("a", bytes("second"));
+        pack.flush();
+
+        pack = new PackFile(dir, "test");
+        assertArrayEquals(bytes("second"), pack.get("a").readAllBytes());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.analysis.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.ListingParseUtils;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReference;
+import org.teavm.model.MutableClassHolderSource;
+import org.teavm.model.ValueType;
+import org.teavm.model.analysis.EscapeSummaries;
+
+public class EscapeSummariesTest {
+    private static final String PREFIX = "model/analysis/escape-summaries/";
+    private static final ValueType BAR = ValueType.object("Bar");
+    private EscapeSummaries summaries;
+
+    @Before
+    public void setUp() {
+        var cls = new ClassHolder("Foo");
+        addMethod(cls, "read", BAR, ValueType.INTEGER);
+        addMethod(cls, "leak", BAR, BAR);
+        addMethod(cls, "store", BAR, BAR, ValueType.VOID);
+        addMethod(cls, "delegateToRead", BAR, ValueType.INTEGER);
+        addMethod(cls, "delegateToLeak", BAR, ValueType.VOID);
+        addMethod(cls, "recursive", BAR, ValueType.VOID);
+        var classes = new MutableClassHolderSource();
+        classes.putClassHolder(cls);
+        summaries = new EscapeSummaries(classes);
+    }
+
+    @Test
+    public void fieldReadDoesNotEscape() {
+        assertFalse(summaries.parameterEscapes(method("read", BAR, ValueType.INTEGER), 1));
+    }
+
+    @Test
+    public void returnedValueEscapes() {
+        assertTrue(summaries.parameterEscapes(method("leak", BAR, BAR), 1));
+    }
+
+    @Test
+    public void storedValueEscapes() {
+        var method = method("store", BAR, BAR, ValueType.VOID);
+        assertTrue(summaries.parameterEscapes(method, 1));
+        assertFalse(summaries.parameterEscapes(method, 2));
+    }
+
+    @Test
+    public void summaryOfCalleeUsed() {
+        assertFalse(summaries.parameterEscapes(method("delegateToRead", BAR, ValueType.INTEGER), 1));
+        assertTrue(summaries.parameterEscapes(method("delegateToLeak", BAR, ValueType.VOID), 1));
+    }
+
+    @Test
+    public void recursiveCallEscapes() {
+        assertTrue(summaries.parameterEscapes(method("recursive", BAR, ValueType.VOID), 1));
+    }
+
+    @Test
+    public void unknownMethodEscapes() {
+        assertTrue(summaries.parameterEscapes(method("unknown", BAR, ValueType.VOID), 1));
+    }
+
+    private static void addMethod(ClassHolder cls, String name, ValueType... signature) {
+        var method = new MethodHolder(name, signature);
+        method.getModifiers().add(ElementModifier.STATIC);
+        method.setProgram(ListingParseUtils.parseFromResource(PREFIX + name + ".txt"));
+        cls.addMethod(method);
+    }
+
+    private static MethodReference method(String name, ValueType... signature) {
+        return new MethodReference("Foo", name, signature);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.optimization.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.teavm.common.LoopGraph;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.ClassHierarchy;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.Instruction;
+import org.teavm.model.ListingParseUtils;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReader;
+import org.teavm.model.Program;
+import org.teavm.model.ValueType;
+import org.teavm.model.instructions.BoundCheckInstruction;
+import org.teavm.model.optimization.BoundCheckHoisting;
+import org.teavm.model.optimization.MethodOptimizationContext;
+import org.teavm.model.text.ListingBuilder;
+import org.teavm.model.util.ProgramUtils;
+
+public class BoundCheckHoistingTest {
+    private static final String PREFIX = "model/optimization/bound-check-hoisting/";
+    @Rule
+    public TestName name = new TestName();
+    private Map<String, Integer> statistics = new HashMap<>();
+
+    @Test
+    public void counted() {
+        Program program = parse();
+        assertTrue(hoist(program));
+        assertEquals(1, (int) statistics.get(BoundCheckHoisting.HOISTED_CHECKS));
+        assertEquals(2, loopCount(program));
+        assertEquals(1, boundCheckCount(program));
+    }
+
+    @Test
+    public void offset() {
+        Program program = parse();
+        assertTrue(hoist(program));
+        assertEquals(2, (int) statistics.get(BoundCheckHoisting.HOISTED_CHECKS));
+        assertEquals(2, loopCount(program));
+        assertEquals(2, boundCheckCount(program));
+    }
+
+    @Test
+    public void lowerOnly() {
+        Program program = parse();
+        int blockCount = program.basicBlockCount();
+        assertTrue(hoist(program));
+        assertEquals(1, (int) statistics.get(BoundCheckHoisting.HOISTED_CHECKS));
+        assertEquals(blockCount, program.basicBlockCount());
+        assertEquals(0, boundCheckCount(program));
+    }
+
+    @Test
+    public void variantArray() {
+        assertUnchanged();
+    }
+
+    @Test
+    public void nonUnitStep() {
+        assertUnchanged();
+    }
+
+    private void assertUnchanged() {
+        Program program = parse();
+        String listing = new ListingBuilder().buildListing(program, "");
+        assertFalse(hoist(program));
+        assertEquals(listing, new ListingBuilder().buildListing(program, ""));
+    }
+
+    private Program parse() {
+        return ListingParseUtils.parseFromResource(PREFIX + name.getMethodName() + ".txt");
+    }
+
+    private int loopCount(Program program) {
+        LoopGraph loopGraph = new LoopGraph(ProgramUtils.buildControlFlowGraph(program));
+        int count = 0;
+        for (int i = 0; i < loopGraph.size(); ++i) {
+            if (loopGraph.loopAt(i) != null && loopGraph.loopAt(i).getHead() == i) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private int boundCheckCount(Program program) {
+        int count = 0;
+        for (BasicBlock block : program.getBasicBlocks()) {
+            for (Instruction insn : block) {
+                if (insn instanceof BoundCheckInstruction) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean hoist(Program program) {
+        MethodHolder testMethod = new MethodHolder("testMethod", ValueType.VOID);
+
+        MethodOptimizationContext context = new MethodOptimizationContext() {
+            @Override
+            public MethodReader getMethod() {
+                return testMethod;
+            }
+
+            @Override
+            public DependencyInfo getDependencyInfo() {
+                return null;
+            }
+
+            @Override
+            public ClassReaderSource getClassSource() {
+                return null;
+            }
+
+            @Override
+            public ClassHierarchy getHierarchy() {
+                return null;
+            }
+
+            @Override
+            public void reportStatistic(String name, int value) {
+                statistics.merge(name, value, Integer::sum);
+            }
+        };
+
+        return new BoundCheckHoisting().optimize(context, program);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.optimization.test;
+
+import static org.junit.Assert.assertEquals;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.model.ClassHierarchy;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.ListingParseUtils;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReader;
+import org.teavm.model.Program;
+import org.teavm.model.ValueType;
+import org.teavm.model.optimization.BoxingElimination;
+import org.teavm.model.optimization.MethodOptimizationContext;
+import org.teavm.model.text.ListingBuilder;
+
+public class BoxingEliminationTest {
+    private static final String PREFIX = "model/optimization/boxing-elimination/";
+    @Rule
+    public TestName name = new TestName();
+    private Map<String, Integer> statistics = new HashMap<>();
+
+    @Test
+    public void simple() {
+        doTest();
+        assertEquals(1, (int) statistics.get(BoxingElimination.ELIMINATED_ALLOCATIONS));
+    }
+
+    @Test
+    public void phi() {
+        doTest();
+        assertEquals(2, (int) statistics.get(BoxingElimination.ELIMINATED_ALLOCATIONS));
+    }
+
+    @Test
+    public void escaping() {
+        doTest();
+    }
+
+    @Test
+    public void escapingThroughPhi() {
+        doTest();
+    }
+
+    private void doTest() {
+        String originalPath = PREFIX + name.getMethodName() + ".original.txt";
+        String expectedPath = PREFIX + name.getMethodName() + ".expected.txt";
+        Program original = ListingParseUtils.parseFromResource(originalPath);
+        Program expected = ListingParseUtils.parseFromResource(expectedPath);
+
+        performBoxingElimination(original);
+
+        String originalText = new ListingBuilder().buildListing(original, "");
+        String expectedText = new ListingBuilder().buildListing(expected, "");
+        assertEquals(expectedText, originalText);
+    }
+
+    private void performBoxingElimination(Program program) {
+        MethodHolder testMethod = new MethodHolder("testMethod", ValueType.VOID);
+
+        MethodOptimizationContext context = new MethodOptimizationContext() {
+            @Override
+            public MethodReader getMethod() {
+                return testMethod;
+            }
+
+            @Override
+            public DependencyInfo getDependencyInfo() {
+                return null;
+            }
+
+            @Override
+            public ClassReaderSource getClassSource() {
+                return null;
+            }
+
+            @Override
+            public ClassHierarchy getHierarchy() {
+                return null;
+            }
+
+            @Override
+            public void reportStatistic(String name, int value) {
+                statistics.merge(name, value, Integer::sum);
+            }
+        };
+
+        new BoxingElimination().optimize(context, program);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.profile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.teavm.model.MethodReference;
+import org.teavm.runtime.ExecutionProfileRecorder;
+
+public class ExecutionProfileTest {
+    private static final MethodReference HOT = MethodReference.parse("foo.A.hot(I)V");
+    private static final MethodReference WARM = MethodReference.parse("foo.A.warm(Ljava/lang/String;)I");
+    private static final MethodReference COLD = MethodReference.parse("foo.B.cold()V");
+
+    @Test
+    public void readsRecordedCounters() throws IOException {
+        var profile = read(""
+                + "# comment\n"
+                + "m foo.A.hot(I)V 950\n"
+                + "m foo.A.warm(Ljava/lang/String;)I 50\n"
+                + "c foo.A.hot(I)V 0 950\n"
+                + "r foo.A.hot(I)V 0 foo.C 900\n"
+                + "r foo.A.hot(I)V 0 foo.D 50\n");
+
+        assertEquals(950, profile.getMethodCount(HOT));
+        assertEquals(950, profile.getCallSiteCount(HOT, 0));
+        assertEquals(0, profile.getCallSiteCount(HOT, 1));
+        assertEquals(900L, (long) profile.getReceiverTypes(HOT, 0).get("foo.C"));
+        assertTrue(profile.isHot(HOT));
+        assertTrue(profile.isHotCallSite(HOT, 0));
+        assertFalse(profile.isHot(WARM));
+        assertFalse(profile.isCold(WARM));
+        assertTrue(profile.isCold(COLD));
+    }
+
+    @Test
+    public void sumsCountersOfSeveralRuns() throws IOException {
+        var profile = read("m foo.A.hot(I)V 10\nm foo.A.hot(I)V 15\n");
+        assertEquals(25, profile.getMethodCount(HOT));
+    }
+
+    @Test
+    public void writtenProfileCanBeReadBack() throws IOException {
+        var profile = new ExecutionProfile();
+        profile.addMethodCount(HOT, 7);
+        profile.addCallSiteCount(HOT, 2, 5);
+        profile.addReceiverCount(HOT, 2, "foo.C", 5);
+
+        var writer = new StringWriter();
+        profile.write(writer);
+        var copy = read(writer.toString());
+
+        assertEquals(7, copy.getMethodCount(HOT));
+        assertEquals(5, copy.getCallSiteCount(HOT, 2));
+        assertEquals(5L, (long) copy.getReceiverTypes(HOT, 2).get("foo.C"));
+    }
+
+    @Test
+    public void recorderDumpCanBeRead() throws IOException {
+        var key = "c " + WARM + " 3";
+        ExecutionProfileRecorder.count("m " + WARM);
+        ExecutionProfileRecorder.countReceiver(key, "foo");
+        ExecutionProfileRecorder.countReceiver(key, "bar");
+        ExecutionProfileRecorder.countReceiver(key, 1);
+        ExecutionProfileRecorder.countReceiver(key, null);
+
+        var profile = read(ExecutionProfileRecorder.dump());
+        assertTrue(profile.getMethodCount(WARM) >= 1);
+        assertTrue(profile.getCallSiteCount(WARM, 3) >= 4);
+        var receivers = profile.getReceiverTypes(WARM, 3);
+        assertTrue(receivers.get(String.class.getName()) >= 2);
+        assertTrue(receivers.get(Integer.class.getName()) >= 1);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMalformedLine() throws IOException {
+        read("m foo.A.hot(I)V\n");
+    }
+
+    private static ExecutionProfile read(String text) throws IOException {
+        var profile = new ExecutionProfile();
+        profile.read(new StringReader(text));
+        return profile;
+    }
+}
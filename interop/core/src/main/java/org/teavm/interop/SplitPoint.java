@@ -0,0 +1,40 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.interop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Marks a method as an entry into a separately loaded part of the program. When code splitting is enabled
+ * in JavaScript backend, bodies of all methods that can only be reached through split points of the same chunk
+ * are emitted into a separate ES2015 module, which is loaded with dynamic {@code import()}.</p>
+ *
+ * <p>Split point loads its chunk on the first call, suspending the calling thread until the chunk is loaded,
+ * so split points and their callers are asynchronous methods. Chunk can also be loaded in advance by calling
+ * {@code loadChunk(name)} exported by the main module, which is required when split point is called by
+ * JavaScript code outside of a Java thread.</p>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ ElementType.CONSTRUCTOR, ElementType.METHOD })
+public @interface SplitPoint {
+    /**
+     * Name of the chunk. Several split points may share the same chunk.
+     */
+    String value();
+}
@@ -51,6 +51,7 @@ include("tools:maven:plugin")
 include("tools:maven:webapp")
 include("tools:maven:webapp-wasm-gc")
 include("tools:classlib-comparison-gen")
+include("tools:compiler-benchmark")
 include("tools:wasm-disassembly")
 include("tests")
 include("extras-slf4j")
@@ -41,6 +41,7 @@ dependencies {
     testImplementation(project(":tools:core"))
     testImplementation(project(":tools:junit"))
     testImplementation(project(":tools:browser-runner"))
+    testImplementation(project(":tools:devserver"))
     testImplementation(libs.hppc)
     testImplementation(libs.rhino)
     testImplementation(libs.junit)
@@ -95,6 +96,8 @@ tasks.test {
             .map { it.asFile.absolutePath }
             .joinToString(File.pathSeparator))
 
+    systemProperty("teavm.junit.threads", providers.gradleProperty("teavm.tests.threads").orElse("1").get())
+
     maxParallelForks = (Runtime.getRuntime().availableProcessors() * 2 / 3).coerceAtLeast(1)
     maxHeapSize = "800m"
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.teavm.backend.javascript.codegen.SourceWriter;
+import org.teavm.backend.javascript.spi.GeneratedBy;
+import org.teavm.backend.javascript.spi.Generator;
+import org.teavm.backend.javascript.spi.GeneratorContext;
+import org.teavm.debugging.information.DebugInformationBuilder;
+import org.teavm.dependency.DependencyAgent;
+import org.teavm.dependency.DependencyPlugin;
+import org.teavm.dependency.MethodDependency;
+import org.teavm.dependency.PluggableDependency;
+import org.teavm.interop.SplitPoint;
+import org.teavm.model.MethodReference;
+import org.teavm.model.ReferenceCache;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMBuilder;
+
+public class CodeSplittingTest {
+    private static final MethodReference PLUGIN_SHARED = new MethodReference(EntryPoint.class, "pluginShared",
+            String.class);
+    private static final String RUNNER = ""
+            + "import { main, loadChunk } from \"./classes.js\";\n"
+            + "let run = args => new Promise(resolve => main(args, resolve));\n"
+            + "let error = await run([]);\n"
+            + "console.log(\"initial: \" + (error ? error.message : \"ok\"));\n"
+            + "error = await run([\"edit\"]);\n"
+            + "console.log(\"loaded by split point: \" + (error ? error.message : \"ok\"));\n"
+            + "await loadChunk(\"editor\");\n"
+            + "error = await run([\"edit\"]);\n"
+            + "console.log(\"already loaded: \" + (error ? error.message : \"ok\"));\n"
+            + "try {\n"
+            + "    await loadChunk(\"unknown\");\n"
+            + "} catch (e) {\n"
+            + "    console.log(e.message);\n"
+            + "}\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void movesCodeReachableOnlyThroughSplitPoint() {
+        var buildTarget = build(JSModuleType.ES2015);
+        assertEquals(Set.of("classes.js", "classes-editor.js"), buildTarget.getNames());
+
+        var main = content(buildTarget, "classes.js");
+        var chunk = content(buildTarget, "classes-editor.js");
+        assertTrue(main.contains("loadChunk"));
+        assertTrue(main.contains("\"./classes-editor.js\""));
+        assertTrue(main.contains("$rt_chunkMethod"));
+        assertTrue(main.contains("$rt_chunkScope"));
+        assertFalse(main.contains("eval("));
+        assertTrue(chunk, chunk.matches("(?s)export default \\S+ => \\[\n\\s*\\d+, \\(.*\\}\\),\n];\n"));
+        assertFalse(chunk.contains("eval("));
+    }
+
+    @Test
+    public void emitsDebugInformationForChunks() {
+        var target = new JavaScriptTarget();
+        target.setDebugEmitter(new DebugInformationBuilder(new ReferenceCache()));
+        build(target, JSModuleType.ES2015);
+
+        var debugInfo = target.getChunkDebugInformation();
+        assertEquals(Set.of("classes-editor.js"), debugInfo.keySet());
+        assertTrue(Arrays.asList(debugInfo.get("classes-editor.js").getFilesNames())
+                .contains("org/teavm/backend/javascript/CodeSplittingTest.java"));
+    }
+
+    @Test
+    public void runsChunkAfterLoading() throws IOException, InterruptedException {
+        var buildTarget = build(JSModuleType.ES2015);
+        var dir = temporaryFolder.newFolder();
+        for (var name : buildTarget.getNames()) {
+            Files.write(new File(dir, name).toPath(), buildTarget.getContent(name));
+        }
+        Files.writeString(new File(dir, "package.json").toPath(), "{ \"type\": \"module\" }");
+        Files.writeString(new File(dir, "run.js").toPath(), RUNNER);
+
+        var output = runNode(dir, "run.js").split("\n");
+        assertEquals(12, output.length);
+
+        // Method called by plugin-generated code of initial chunk runs before editor chunk is loaded,
+        // although in call graph it's only reachable through split point
+        assertEquals("shared string", output[0]);
+        assertEquals("plugin string", output[1]);
+        assertEquals("initial: ok", output[2]);
+
+        // Split point suspends until its chunk is loaded, so it can be called without loading chunk in advance
+        assertEquals("shared string", output[3]);
+        assertEquals("plugin string", output[4]);
+        assertEquals("editor-only string, shared string, plugin string", output[5]);
+        assertEquals("loaded by split point: ok", output[6]);
+
+        assertEquals("shared string", output[7]);
+        assertEquals("plugin string", output[8]);
+        assertEquals("editor-only string, shared string, plugin string", output[9]);
+        assertEquals("already loaded: ok", output[10]);
+        assertEquals("Unknown chunk: unknown", output[11]);
+    }
+
+    @Test
+    public void ignoresSplitPointsForOtherModuleTypes() {
+        var buildTarget = build(JSModuleType.UMD);
+        assertEquals(Set.of("classes.js"), buildTarget.getNames());
+        assertFalse(content(buildTarget, "classes.js").contains("$rt_chunkMethod"));
+    }
+
+    private MemoryBuildTarget build(JSModuleType moduleType) {
+        return build(new JavaScriptTarget(), moduleType);
+    }
+
+    private MemoryBuildTarget build(JavaScriptTarget target, JSModuleType moduleType) {
+        target.setModuleType(moduleType);
+        target.setObfuscated(false);
+        var vm = new TeaVMBuilder(target)
+                .setClassLoader(getClass().getClassLoader())
+                .build();
+        vm.installPlugins();
+        vm.setEntryPoint(EntryPoint.class.getName());
+        var buildTarget = new MemoryBuildTarget();
+        vm.build(buildTarget, "classes.js");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        return buildTarget;
+    }
+
+    private static String content(MemoryBuildTarget buildTarget, String name) {
+        var content = buildTarget.getContent(name);
+        assertNotNull(content);
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+    private static String runNode(File dir, String script) throws IOException, InterruptedException {
+        Process process;
+        try {
+            process = new ProcessBuilder("node", script)
+                    .directory(dir)
+                    .redirectErrorStream(true)
+                    .start();
+        } catch (IOException e) {
+            Assume.assumeNoException("Node.js is not available", e);
+            throw e;
+        }
+        var output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue("Node.js did not exit", process.waitFor(1, TimeUnit.MINUTES));
+        assertEquals(output, 0, process.exitValue());
+        return output;
+    }
+
+    public static class EntryPoint {
+        public static void main(String[] args) {
+            System.out.println(shared());
+            System.out.println(fromPlugin());
+            if (args.length > 0) {
+                openEditor();
+            }
+        }
+
+        @SplitPoint("editor")
+        static void openEditor() {
+            System.out.println(editorOnly() + ", " + shared() + ", " + pluginShared());
+        }
+
+        @GeneratedBy(PluginGenerator.class)
+        @PluggableDependency(PluginGenerator.class)
+        static native String fromPlugin();
+
+        static String pluginShared() {
+            return "plugin string";
+        }
+
+        static String editorOnly() {
+            return "editor-only string";
+        }
+
+        static String shared() {
+            return "shared string";
+        }
+    }
+
+    public static class PluginGenerator implements Generator, DependencyPlugin {
+        @Override
+        public void methodReached(DependencyAgent agent, MethodDependency method) {
+            agent.linkMethod(PLUGIN_SHARED).use();
+        }
+
+        @Override
+        public void generate(GeneratorContext context, SourceWriter writer, MethodReference methodRef) {
+            writer.append("return ").appendMethod(PLUGIN_SHARED).append("();").softNewLine();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.teavm.backend.wasm.parser.AddressListener;
+import org.teavm.backend.wasm.parser.ModuleParser;
+import org.teavm.backend.wasm.parser.NameMapListener;
+import org.teavm.backend.wasm.parser.NameSectionListener;
+import org.teavm.backend.wasm.parser.NameSectionParser;
+import org.teavm.browserrunner.BrowserRunDescriptor;
+import org.teavm.browserrunner.BrowserRunner;
+import org.teavm.common.ByteArrayAsyncInputStream;
+import org.teavm.interop.SplitPoint;
+import org.teavm.jso.JSExport;
+import org.teavm.tooling.ConsoleTeaVMToolLog;
+import org.teavm.tooling.TeaVMProblemRenderer;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+public class WasmModuleSplitterTest {
+    private static File targetFile = new File(new File(System.getProperty("teavm.junit.target")), "wasm-split");
+    private static boolean wasmGCNeeded = Boolean.parseBoolean(System.getProperty("teavm.junit.wasm-gc", "true"));
+    private static BrowserRunner runner = new BrowserRunner(
+            targetFile,
+            "JAVASCRIPT",
+            BrowserRunner.pickBrowser(System.getProperty("teavm.junit.wasm-gc.runner")),
+            false
+    );
+
+    @BeforeClass
+    public static void start() {
+        if (wasmGCNeeded) {
+            runner.start();
+        }
+    }
+
+    @AfterClass
+    public static void stop() {
+        if (wasmGCNeeded) {
+            runner.stop();
+        }
+    }
+
+    @Test
+    public void movesFunctionsToSecondaryModule() throws IOException {
+        Assume.assumeTrue(wasmGCNeeded);
+        var name = "split";
+        var outputDir = new File(targetFile, name);
+        build(outputDir);
+
+        var primaryNames = functionNames(Files.readAllBytes(new File(outputDir, "test.wasm").toPath()));
+        var chunkFile = new File(outputDir, "test-editor.wasm");
+        assertTrue("Secondary module was not emitted", chunkFile.exists());
+        var chunkNames = functionNames(Files.readAllBytes(chunkFile.toPath()));
+
+        assertTrue(containsMethod(primaryNames, "primary"));
+        assertTrue(containsMethod(primaryNames, "openEditor@stub"));
+        assertFalse(containsMethod(primaryNames, "openEditor"));
+        assertFalse(containsMethod(primaryNames, "renderEditor"));
+        assertTrue(containsMethod(chunkNames, "openEditor"));
+        assertTrue(containsMethod(chunkNames, "renderEditor"));
+        assertFalse(containsMethod(chunkNames, "primary"));
+
+        // Secondary module is not fetched until requested, then it is instantiated and called through runtime
+        var testRunnerFile = new File(outputDir, "runner.js");
+        try (var writer = new OutputStreamWriter(new FileOutputStream(testRunnerFile), StandardCharsets.UTF_8)) {
+            writer.write("import { test } from '/resources/org/teavm/backend/wasm/" + name + ".js';\n");
+            writer.write("export function main(args, callback) {\n");
+            writer.write("  test().then(() => callback()).catch(e => callback(e));\n");
+            writer.write("}\n");
+        }
+        var testProviderFile = new File(outputDir, "provider.js");
+        try (var writer = new OutputStreamWriter(new FileOutputStream(testProviderFile), StandardCharsets.UTF_8)) {
+            writer.write("import { load } from '/resources/org/teavm/backend/wasm/wasm-gc-module-runtime.js';\n");
+            writer.write("export default load('/tests/" + name + "/test.wasm');\n");
+        }
+
+        var descriptor = new BrowserRunDescriptor(name, "tests/" + name + "/runner.js", true,
+                List.of("resources/org/teavm/jso/export/assert.js"), null, false);
+        runner.runTest(descriptor);
+    }
+
+    private static void build(File outputDir) {
+        var wasmGCTarget = new WasmGCTarget();
+        wasmGCTarget.setObfuscated(false);
+        var teavm = new TeaVMBuilder(wasmGCTarget).build();
+        teavm.installPlugins();
+        teavm.setEntryPoint(SplitModule.class.getName());
+        teavm.setOptimizationLevel(TeaVMOptimizationLevel.SIMPLE);
+        outputDir.mkdirs();
+        teavm.build(outputDir, "test.wasm");
+        if (!teavm.getProblemProvider().getSevereProblems().isEmpty()) {
+            var log = new ConsoleTeaVMToolLog(false);
+            TeaVMProblemRenderer.describeProblems(teavm, log);
+            throw new RuntimeException("TeaVM compilation error");
+        }
+    }
+
+    private static boolean containsMethod(Set<String> functionNames, String methodName) {
+        return functionNames.stream().anyMatch(name -> name.endsWith("SplitModule::" + methodName));
+    }
+
+    private static Set<String> functionNames(byte[] data) {
+        var names = new HashSet<String>();
+        var listener = new NameSectionListener() {
+            @Override
+            public NameMapListener functions() {
+                return (index, name) -> names.add(name);
+            }
+        };
+        var input = new ByteArrayAsyncInputStream(data);
+        var parser = new ModuleParser(input) {
+            @Override
+            protected Consumer<byte[]> getSectionConsumer(int code, int pos, String name) {
+                if (code == 0 && name.equals("name")) {
+                    return bytes -> new NameSectionParser(listener).parse(AddressListener.EMPTY, bytes);
+                }
+                return null;
+            }
+        };
+        input.readFully(parser::parse);
+        return names;
+    }
+
+    public static final class SplitModule {
+        private SplitModule() {
+        }
+
+        @JSExport
+        public static int primary() {
+            return 23;
+        }
+
+        @JSExport
+        public static String editor(int count) {
+            return openEditor(count);
+        }
+
+        @SplitPoint("editor")
+        static String openEditor(int count) {
+            return "editor: " + renderEditor(count);
+        }
+
+        static String renderEditor(int count) {
+            var sb = new StringBuilder();
+            for (var i = 0; i < count; ++i) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(i);
+            }
+            return sb.toString();
+        }
+    }
+}
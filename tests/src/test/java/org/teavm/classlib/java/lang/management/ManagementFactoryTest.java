@@ -0,0 +1,156 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.management;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+@RunWith(TeaVMTestRunner.class)
+@SkipJVM
+public class ManagementFactoryTest {
+    @Test
+    public void beanNames() {
+        var names = new ArrayList<String>();
+        for (var bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            assertTrue(bean.isValid());
+            names.add(bean.getName());
+        }
+        assertEquals(List.of("Young Collection", "Full Collection"), names);
+
+        names.clear();
+        for (var bean : ManagementFactory.getMemoryManagerMXBeans()) {
+            names.add(bean.getName());
+        }
+        assertEquals(List.of("Young Collection", "Full Collection"), names);
+
+        assertSame(ManagementFactory.getMemoryMXBean(), ManagementFactory.getMemoryMXBean());
+        assertSame(ManagementFactory.getGarbageCollectorMXBeans(), ManagementFactory.getGarbageCollectorMXBeans());
+    }
+
+    @Test
+    public void collectionStatsAreMonotonic() {
+        var beans = ManagementFactory.getGarbageCollectorMXBeans();
+        var young = beans.get(0);
+        var full = beans.get(1);
+        if (!PlatformDetector.isLowLevel()) {
+            for (var bean : beans) {
+                assertEquals(-1, bean.getCollectionCount());
+                assertEquals(-1, bean.getCollectionTime());
+            }
+            return;
+        }
+
+        var previousCounts = counts(beans);
+        var previousTimes = times(beans);
+        for (var i = 0; i < 5; ++i) {
+            System.gc();
+            var counts = counts(beans);
+            var times = times(beans);
+            assertTrue(counts[0] >= previousCounts[0]);
+            assertTrue(counts[1] > previousCounts[1]);
+            assertTrue(times[0] >= previousTimes[0]);
+            assertTrue(times[1] >= previousTimes[1]);
+            previousCounts = counts;
+            previousTimes = times;
+        }
+        assertTrue(young.getCollectionCount() >= 0);
+        assertTrue(full.getCollectionCount() >= 5);
+    }
+
+    @Test
+    @OnlyPlatform(TestPlatform.WASI)
+    public void collectsGarbageOnWasi() {
+        // Pause timing of WASI binaries uses clock_time_get, since there is no JavaScript runtime to import from
+        var beans = ManagementFactory.getGarbageCollectorMXBeans();
+        var counts = counts(beans);
+        var retained = new int[64][];
+        for (var i = 0; i < 200_000; ++i) {
+            var array = new int[i % 100 + 1];
+            array[0] = i;
+            retained[i % retained.length] = array;
+        }
+        System.gc();
+
+        var newCounts = counts(beans);
+        assertTrue(newCounts[1] > counts[1]);
+        for (var bean : beans) {
+            assertTrue(bean.getCollectionTime() >= 0);
+        }
+        for (var i = 0; i < retained.length; ++i) {
+            assertEquals(200_000 - retained.length + i, retained[i][0]);
+        }
+    }
+
+    @Test
+    public void heapUsage() {
+        var bean = ManagementFactory.getMemoryMXBean();
+        if (!PlatformDetector.isLowLevel()) {
+            var usage = bean.getHeapMemoryUsage();
+            assertEquals(-1, usage.getInit());
+            assertEquals(0, usage.getUsed());
+            assertEquals(0, usage.getCommitted());
+            assertEquals(-1, usage.getMax());
+            return;
+        }
+
+        System.gc();
+        var runtime = Runtime.getRuntime();
+        var total = runtime.totalMemory();
+        var free = runtime.freeMemory();
+        var usage = bean.getHeapMemoryUsage();
+        checkConsistent(usage);
+        assertEquals(total, usage.getCommitted());
+        // Only the usage object itself was allocated since free memory was read
+        assertTrue(usage.getUsed() >= total - free);
+        assertTrue(usage.getUsed() - (total - free) < 1024);
+
+        var retained = new int[256 * 1024];
+        retained[0] = 1;
+        var grown = bean.getHeapMemoryUsage();
+        checkConsistent(grown);
+        assertTrue(grown.getUsed() > usage.getUsed());
+        assertEquals(1, retained[0]);
+    }
+
+    private static void checkConsistent(MemoryUsage usage) {
+        assertTrue(usage.getInit() > 0);
+        assertTrue(usage.getUsed() > 0);
+        assertTrue(usage.getUsed() <= usage.getCommitted());
+        assertTrue(usage.getCommitted() <= usage.getMax());
+        assertTrue(usage.getInit() <= usage.getMax());
+    }
+
+    private static long[] counts(List<GarbageCollectorMXBean> beans) {
+        return new long[] { beans.get(0).getCollectionCount(), beans.get(1).getCollectionCount() };
+    }
+
+    private static long[] times(List<GarbageCollectorMXBean> beans) {
+        return new long[] { beans.get(0).getCollectionTime(), beans.get(1).getCollectionTime() };
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.ref;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.lang.ref.WeakReference;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.TeaVMProperties;
+import org.teavm.junit.TeaVMProperty;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+/**
+ * Runs GC in incremental marking mode, where marking is interleaved with allocations and mutations
+ * of the object graph.
+ */
+@RunWith(TeaVMTestRunner.class)
+@OnlyPlatform(TestPlatform.C)
+@TeaVMProperties(@TeaVMProperty(key = "teavm.c.gcMarkStep", value = "16"))
+@EachTestCompiledSeparately
+public class IncrementalMarkingTest {
+    private static final int SLOTS = 512;
+    private static final int MAX_CHAIN = 8;
+
+    @Test
+    public void graphMutatedDuringMarkingSurvives() {
+        var random = new Random(1);
+        var slots = new Node[SLOTS];
+        for (var round = 0; round < 300_000; ++round) {
+            var a = random.nextInt(SLOTS);
+            var b = random.nextInt(SLOTS);
+            if (round % 3 == 0 && slots[a] != null && slots[b] != null && a != b) {
+                // Make an already scanned node the only holder of a tail that was not scanned yet
+                var moved = slots[a].next;
+                slots[a].next = null;
+                slots[b].next = moved;
+            } else {
+                var node = new Node(round);
+                node.next = slots[a];
+                slots[a] = node;
+                truncate(node);
+            }
+            allocateGarbage(random);
+        }
+
+        var count = 0;
+        for (var head : slots) {
+            for (var node = head; node != null; node = node.next) {
+                node.check();
+                ++count;
+            }
+        }
+        assertTrue(count > SLOTS);
+    }
+
+    @Test
+    public void weakReferencesSurviveIncrementalMarking() {
+        var random = new Random(2);
+        var refs = new WeakReference<?>[SLOTS];
+        var strong = new Node[SLOTS];
+        var moved = new Node[SLOTS];
+        for (var i = 0; i < SLOTS; ++i) {
+            var node = new Node(i);
+            refs[i] = new WeakReference<>(node);
+            if (i % 2 == 0) {
+                strong[i] = node;
+            }
+        }
+
+        for (var round = 0; round < 300_000; ++round) {
+            // Referent obtained through weak reference becomes the only strong reference to it
+            var index = random.nextInt(SLOTS / 2) * 2;
+            if (strong[index] != null) {
+                moved[index] = (Node) refs[index].get();
+                strong[index] = null;
+            }
+            allocateGarbage(random);
+        }
+
+        System.gc();
+        for (var i = 0; i < SLOTS; ++i) {
+            if (i % 2 == 0) {
+                var node = strong[i] != null ? strong[i] : moved[i];
+                assertNotNull(node);
+                assertSame(node, refs[i].get());
+                node.check();
+            } else {
+                assertNull(refs[i].get());
+            }
+        }
+    }
+
+    @Test
+    public void wideGraphOverflowingMarkQueueSurvives() {
+        var random = new Random(3);
+
+        // Leave many small free chunks, so that holders of free chunks take a large part of GC storage
+        // and mark queue gets a smaller part of it
+        var fragments = new Node[(int) (Runtime.getRuntime().totalMemory() / 256)];
+        for (var i = 0; i < fragments.length; ++i) {
+            fragments[i] = new Node(i);
+            new Node(-i);
+        }
+        System.gc();
+
+        // Large enough to overflow queue of incremental marking, but not queue of stop-the-world marking,
+        // which takes whole GC storage
+        var wide = new Node[(int) (Runtime.getRuntime().totalMemory() / 64 * 3 / 4)];
+        for (var i = 0; i < wide.length; ++i) {
+            wide[i] = new Node(i);
+        }
+        for (var round = 0; round < 200_000; ++round) {
+            var index = random.nextInt(wide.length);
+            wide[index] = new Node(index);
+            allocateGarbage(random);
+        }
+
+        for (var i = 0; i < wide.length; ++i) {
+            assertEquals(i, wide[i].value);
+            wide[i].check();
+        }
+        for (var i = 0; i < fragments.length; ++i) {
+            assertEquals(i, fragments[i].value);
+        }
+    }
+
+    private static void truncate(Node node) {
+        for (var i = 0; node != null; ++i) {
+            if (i == MAX_CHAIN) {
+                node.next = null;
+                break;
+            }
+            node = node.next;
+        }
+    }
+
+    private static void allocateGarbage(Random random) {
+        var garbage = new int[random.nextInt(64)];
+        if (garbage.length > 0) {
+            garbage[0] = 1;
+        }
+    }
+
+    static class Node {
+        final int value;
+        final int[] payload;
+        Node next;
+
+        Node(int value) {
+            this.value = value;
+            payload = new int[value & 7];
+            for (var i = 0; i < payload.length; ++i) {
+                payload[i] = value + i;
+            }
+        }
+
+        void check() {
+            assertEquals(value & 7, payload.length);
+            for (var i = 0; i < payload.length; ++i) {
+                assertEquals(value + i, payload[i]);
+            }
+        }
+    }
+}
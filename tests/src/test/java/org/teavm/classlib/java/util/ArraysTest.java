@@ -15,13 +15,17 @@
  */
 package org.teavm.classlib.java.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -73,6 +77,223 @@ public class ArraysTest {
                 Arrays.equals(fSpecials2, fSorted));
     }
 
+    @Test
+    public void primitiveArraysSorted() {
+        var random = new Random(23);
+        for (int size : new int[] { 0, 1, 10, 100, 1000, 2000, 20000 }) {
+            var inputs = sortInputs(random, size);
+            for (int i = 0; i < inputs.size(); ++i) {
+                checkPrimitiveSort("input " + i + " of size " + size, inputs.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void floatingPointSortOrder() {
+        var random = new Random(29);
+        double[] specials = { Double.NaN, -0d, 0d, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.MIN_VALUE, -Double.MIN_VALUE };
+        for (int size : new int[] { 10, 100, 2000 }) {
+            var doubles = new double[size];
+            var floats = new float[size];
+            for (int i = 0; i < size; ++i) {
+                doubles[i] = random.nextInt(3) == 0 ? random.nextGaussian() : specials[random.nextInt(specials.length)];
+                floats[i] = (float) doubles[i];
+            }
+            var expectedDoubles = boxed(size, i -> doubles[i]);
+            var expectedFloats = boxed(size, i -> floats[i]);
+            Arrays.sort(doubles);
+            Arrays.sort(floats);
+            assertSorted("double", expectedDoubles, boxed(size, i -> doubles[i]));
+            assertSorted("float", expectedFloats, boxed(size, i -> floats[i]));
+
+            assertTrue(Double.isNaN(doubles[size - 1]));
+            assertTrue(Float.isNaN(floats[size - 1]));
+            for (int i = 1; i < size; ++i) {
+                if (Double.doubleToRawLongBits(doubles[i]) == Double.doubleToRawLongBits(-0d)) {
+                    assertFalse(Double.doubleToRawLongBits(doubles[i - 1]) == Double.doubleToRawLongBits(0d));
+                }
+                if (Float.floatToRawIntBits(floats[i]) == Float.floatToRawIntBits(-0f)) {
+                    assertFalse(Float.floatToRawIntBits(floats[i - 1]) == Float.floatToRawIntBits(0f));
+                }
+                if (Double.isNaN(doubles[i - 1])) {
+                    assertTrue(Double.isNaN(doubles[i]));
+                }
+                if (Float.isNaN(floats[i - 1])) {
+                    assertTrue(Float.isNaN(floats[i]));
+                }
+            }
+        }
+    }
+
+    private static List<long[]> sortInputs(Random random, int size) {
+        var inputs = new ArrayList<long[]>();
+        var randomValues = new long[size];
+        var sorted = new long[size];
+        var reversed = new long[size];
+        var equal = new long[size];
+        var fewDistinct = new long[size];
+        var middleDigit = new long[size];
+        var highDigits = new long[size];
+        for (int i = 0; i < size; ++i) {
+            randomValues[i] = random.nextLong();
+            sorted[i] = i * 3L - size;
+            reversed[i] = size - i * 3L;
+            equal[i] = 42;
+            fewDistinct[i] = random.nextInt(4) - 1;
+            // Radix sort skips digits that are same in all elements. Int values here differ in one digit,
+            // so the result of the only pass is copied back from the buffer; long values differ in one or two
+            middleDigit[i] = 0x1234_0000_0056_0000L | ((long) random.nextInt(256) << 8);
+            highDigits[i] = ((long) random.nextInt(256) << 56) | ((long) random.nextInt(256) << 24) | 7;
+        }
+        inputs.add(randomValues);
+        inputs.add(sorted);
+        inputs.add(reversed);
+        inputs.add(equal);
+        inputs.add(fewDistinct);
+        inputs.add(quicksortKiller(size));
+        inputs.add(middleDigit);
+        inputs.add(highDigits);
+        return inputs;
+    }
+
+    // Pivots of every partitioning step are two smallest elements of the range, so that each step
+    // splits off only these two elements, and quicksort runs out of depth and falls back to heap sort
+    private static long[] quicksortKiller(int size) {
+        var slots = new int[size];
+        for (int i = 0; i < size; ++i) {
+            slots[i] = i;
+        }
+        var values = new long[size];
+        var next = 0;
+        var low = 0;
+        while (size - low > 24) {
+            var third = (size - low) / 3;
+            var m1 = low + third;
+            var m2 = size - 1 - third;
+            var pivot1 = slots[m1];
+            var pivot2 = slots[m2];
+            values[pivot1] = next++;
+            values[pivot2] = next++;
+
+            // Repeat moves that partitioning makes when the rest of elements are greater than both pivots
+            slots[m1] = slots[low];
+            slots[m2] = slots[size - 1];
+            slots[size - 1] = slots[low + 1];
+            slots[low] = pivot1;
+            slots[low + 1] = pivot2;
+            low += 2;
+        }
+        for (int i = low; i < size; ++i) {
+            values[slots[i]] = next++;
+        }
+        return values;
+    }
+
+    private static void checkPrimitiveSort(String message, long[] values) {
+        int size = values.length;
+        var ints = new int[size];
+        var longs = values.clone();
+        var shorts = new short[size];
+        var chars = new char[size];
+        var bytes = new byte[size];
+        var floats = new float[size];
+        var doubles = new double[size];
+        for (int i = 0; i < size; ++i) {
+            ints[i] = (int) values[i];
+            shorts[i] = (short) values[i];
+            chars[i] = (char) values[i];
+            bytes[i] = (byte) values[i];
+            doubles[i] = values[i] / 4.0;
+            floats[i] = (float) doubles[i];
+        }
+
+        var expectedInts = boxed(size, i -> ints[i]);
+        var expectedLongs = boxed(size, i -> longs[i]);
+        var expectedShorts = boxed(size, i -> shorts[i]);
+        var expectedChars = boxed(size, i -> chars[i]);
+        var expectedBytes = boxed(size, i -> bytes[i]);
+        var expectedFloats = boxed(size, i -> floats[i]);
+        var expectedDoubles = boxed(size, i -> doubles[i]);
+        Arrays.sort(ints);
+        Arrays.sort(longs);
+        Arrays.sort(shorts);
+        Arrays.sort(chars);
+        Arrays.sort(bytes);
+        Arrays.sort(floats);
+        Arrays.sort(doubles);
+        assertSorted("int, " + message, expectedInts, boxed(size, i -> ints[i]));
+        assertSorted("long, " + message, expectedLongs, boxed(size, i -> longs[i]));
+        assertSorted("short, " + message, expectedShorts, boxed(size, i -> shorts[i]));
+        assertSorted("char, " + message, expectedChars, boxed(size, i -> chars[i]));
+        assertSorted("byte, " + message, expectedBytes, boxed(size, i -> bytes[i]));
+        assertSorted("float, " + message, expectedFloats, boxed(size, i -> floats[i]));
+        assertSorted("double, " + message, expectedDoubles, boxed(size, i -> doubles[i]));
+    }
+
+    private static <T> List<T> boxed(int size, IntFunction<T> element) {
+        var result = new ArrayList<T>(size);
+        for (int i = 0; i < size; ++i) {
+            result.add(element.apply(i));
+        }
+        return result;
+    }
+
+    // Boxed values are sorted by object sort, which doesn't share code with sort of primitive arrays
+    private static <T extends Comparable<T>> void assertSorted(String message, List<T> original, List<T> actual) {
+        var expected = new ArrayList<>(original);
+        expected.sort(null);
+        assertEquals(message, expected, actual);
+    }
+
+    @Test
+    public void primitiveRangeSorted() {
+        int[] ints = { 9, 8, 7, 6, 5, 4, 3, 2, 1 };
+        Arrays.sort(ints, 2, 6);
+        assertArrayEquals(new int[] { 9, 8, 4, 5, 6, 7, 3, 2, 1 }, ints);
+
+        double[] doubles = { 3, Double.NaN, 0d, -0d, -1, 0d, -0d, 5 };
+        Arrays.sort(doubles, 1, 7);
+        assertArrayEquals(new double[] { 3, -1, -0d, -0d, 0d, 0d, Double.NaN, 5 }, doubles, 0);
+        assertEquals(Double.doubleToRawLongBits(-0d), Double.doubleToRawLongBits(doubles[2]));
+        assertEquals(Double.doubleToRawLongBits(0d), Double.doubleToRawLongBits(doubles[4]));
+
+        try {
+            Arrays.sort(ints, 3, 2);
+            fail("IAE expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            Arrays.sort(ints, 0, 10);
+            fail("AIOOBE expected");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void parallelOperations() {
+        int[] ints = { 5, 3, 1, 4, 2 };
+        Arrays.parallelSort(ints);
+        assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, ints);
+
+        String[] strings = { "c", "a", "b" };
+        Arrays.parallelSort(strings);
+        assertArrayEquals(new String[] { "a", "b", "c" }, strings);
+
+        Arrays.parallelPrefix(ints, Integer::sum);
+        assertArrayEquals(new int[] { 1, 3, 6, 10, 15 }, ints);
+        Arrays.parallelPrefix(ints, 1, 3, (a, b) -> b - a);
+        assertArrayEquals(new int[] { 1, 3, 3, 10, 15 }, ints);
+
+        long[] longs = new long[4];
+        Arrays.parallelSetAll(longs, i -> i * 10L);
+        assertArrayEquals(new long[] { 0, 10, 20, 30 }, longs);
+
+        assertEquals(6, List.of(1, 2, 3).parallelStream().mapToInt(Integer::intValue).sum());
+    }
+
     @Test
     public void binarySearchWorks() {
         Integer[] array = { 2, 4, 6, 8, 10, 12, 14, 16 };
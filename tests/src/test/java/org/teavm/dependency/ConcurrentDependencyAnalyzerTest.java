@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.model.MethodReference;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMBuilder;
+
+public class ConcurrentDependencyAnalyzerTest {
+    @Test
+    public void reachesSameClassesAndMethods() {
+        var serial = analyze(PreciseDependencyAnalyzer::new);
+        var concurrent = analyze(ConcurrentDependencyAnalyzer.factory(4));
+
+        assertEquals(new HashSet<>(serial.getReachableClasses()), new HashSet<>(concurrent.getReachableClasses()));
+        assertEquals(usedMethods(serial), usedMethods(concurrent));
+    }
+
+    @Test
+    public void deterministic() {
+        var first = analyze(ConcurrentDependencyAnalyzer.factory(4));
+        var second = analyze(ConcurrentDependencyAnalyzer.factory(4));
+        assertEquals(new ArrayList<>(first.getReachableMethods()), new ArrayList<>(second.getReachableMethods()));
+    }
+
+    static Set<MethodReference> usedMethods(DependencyInfo info) {
+        return info.getReachableMethods().stream()
+                .filter(method -> {
+                    var dep = info.getMethod(method);
+                    return dep != null && dep.isUsed();
+                })
+                .collect(Collectors.toSet());
+    }
+
+    private static DependencyInfo analyze(DependencyAnalyzerFactory factory) {
+        TeaVM vm = new TeaVMBuilder(new JavaScriptTarget())
+                .setDependencyAnalyzerFactory(factory)
+                .build();
+        vm.installPlugins();
+        vm.setEntryPoint(EntryPoint.class.getName());
+        vm.build(name -> new ByteArrayOutputStream(), "tmp");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        return vm.getDependencyInfo();
+    }
+
+    public static class EntryPoint {
+        public static void main(String[] args) {
+            List<String> words = new ArrayList<>(List.of(args));
+            Map<Integer, List<String>> byLength = new TreeMap<>();
+            for (var word : words) {
+                byLength.computeIfAbsent(word.length(), k -> new ArrayList<>()).add(word.toUpperCase());
+            }
+            var text = byLength.entrySet().stream()
+                    .map(entry -> String.format("%d: %s", entry.getKey(), String.join(",", entry.getValue())))
+                    .collect(Collectors.joining("\n"));
+            System.out.println(text.replaceAll("[aeiou]+", "*"));
+        }
+    }
+}
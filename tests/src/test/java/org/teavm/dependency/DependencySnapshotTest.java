@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.cache.CacheStatus;
+import org.teavm.model.MethodReference;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+public class DependencySnapshotTest {
+    @Test
+    public void warmAnalysisReachesSameMethods() throws IOException {
+        var cold = build(null, className -> true);
+        var snapshot = cold.getDependencySnapshot();
+        assertNotNull(snapshot);
+        assertEquals(0, snapshot.getWarmBuildCount());
+
+        var output = new ByteArrayOutputStream();
+        snapshot.write(output);
+        var restored = DependencySnapshot.read(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(snapshot.getConfiguration(), restored.getConfiguration());
+
+        var warm = build(restored, className -> false);
+        assertEquals(1, warm.getDependencySnapshot().getWarmBuildCount());
+        assertEquals(reachableMethods(cold), reachableMethods(warm));
+    }
+
+    @Test
+    public void warmAnalysisReanalyzesStaleClass() {
+        var cold = build(null, className -> true);
+        var stale = EntryPoint.class.getName();
+        var warm = build(cold.getDependencySnapshot(), stale::equals);
+        assertEquals(1, warm.getDependencySnapshot().getWarmBuildCount());
+        assertEquals(reachableMethods(cold), reachableMethods(warm));
+    }
+
+    private TeaVM build(DependencySnapshot snapshot, StaleClasses staleClasses) {
+        var vm = new TeaVMBuilder(new JavaScriptTarget()).build();
+        vm.setOptimizationLevel(TeaVMOptimizationLevel.SIMPLE);
+        vm.setCacheStatus(staleClasses);
+        vm.addVirtualMethods(m -> true);
+        vm.installPlugins();
+        vm.setDependencySnapshotEnabled(true);
+        vm.setDependencySnapshot(snapshot);
+        vm.setEntryPoint(EntryPoint.class.getName());
+        vm.build(new MemoryBuildTarget(), "classes.js");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        return vm;
+    }
+
+    private static Set<MethodReference> reachableMethods(TeaVM vm) {
+        return new HashSet<>(vm.getDependencyInfo().getReachableMethods());
+    }
+
+    interface StaleClasses extends CacheStatus {
+        @Override
+        default boolean isStaleMethod(MethodReference method) {
+            return isStaleClass(method.getClassName());
+        }
+    }
+
+    public static class EntryPoint {
+        public static void main(String[] args) {
+            var index = new TreeMap<Integer, List<String>>();
+            for (var arg : args) {
+                index.computeIfAbsent(arg.length(), k -> new ArrayList<>()).add(arg.trim());
+            }
+            System.out.println(index);
+        }
+    }
+}
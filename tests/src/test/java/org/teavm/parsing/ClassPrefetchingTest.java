@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.parsing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.model.PreOptimizingClassHolderSource;
+import org.teavm.model.ReferenceCache;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMBuilder;
+
+public class ClassPrefetchingTest {
+    @Test
+    public void producesSameOutputAsOnDemandParsing() {
+        var onDemand = build(0);
+        var prefetching = build(4);
+        assertArrayEquals(onDemand, prefetching);
+    }
+
+    @Test
+    public void reportsMissingClasses() {
+        var classSource = new ClasspathClassHolderSource(getClass().getClassLoader(), new ReferenceCache(), 2);
+        assertNotNull(classSource.get(EntryPoint.class.getName()));
+        assertNull(classSource.get("org.teavm.parsing.ClassPrefetchingTest$Missing"));
+        assertNotNull(classSource.get(ArrayList.class.getName()));
+    }
+
+    private byte[] build(int prefetchThreads) {
+        var classLoader = ClassPrefetchingTest.class.getClassLoader();
+        var referenceCache = new ReferenceCache();
+        var classSource = new PreOptimizingClassHolderSource(new ClasspathClassHolderSource(classLoader,
+                referenceCache, prefetchThreads));
+        var vm = new TeaVMBuilder(new JavaScriptTarget())
+                .setClassLoader(classLoader)
+                .setReferenceCache(referenceCache)
+                .setClassSource(classSource)
+                .build();
+        vm.installPlugins();
+        vm.setEntryPoint(EntryPoint.class.getName());
+        var buildTarget = new MemoryBuildTarget();
+        vm.build(buildTarget, "classes.js");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        var content = buildTarget.getContent("classes.js");
+        assertNotNull(content);
+        return content;
+    }
+
+    public static class EntryPoint {
+        public static void main(String[] args) {
+            List<String> items = new ArrayList<>();
+            for (var arg : args) {
+                items.add(arg.trim().toLowerCase());
+            }
+            System.out.println(items.stream().sorted().collect(Collectors.joining(", ", "[", "]")));
+        }
+    }
+}
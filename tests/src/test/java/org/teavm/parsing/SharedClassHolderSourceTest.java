@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.parsing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.model.ClassHolderSource;
+import org.teavm.model.PreOptimizingClassHolderSource;
+import org.teavm.model.ReferenceCache;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMBuilder;
+
+public class SharedClassHolderSourceTest {
+    @Test
+    public void sharedBetweenBuilds() {
+        var classLoader = getClass().getClassLoader();
+        assertSame(SharedClassHolderSource.forClassLoader(classLoader),
+                SharedClassHolderSource.forClassLoader(classLoader));
+    }
+
+    @Test
+    public void referencesInternedPerClassLoader() throws IOException {
+        var classLoader = getClass().getClassLoader();
+        var pool = SharedClassHolderSource.forClassLoader(classLoader);
+        assertSame(pool.getReferenceCache(), SharedClassHolderSource.forClassLoader(classLoader).getReferenceCache());
+        try (var otherClassLoader = new URLClassLoader(new URL[0], classLoader)) {
+            var otherPool = SharedClassHolderSource.forClassLoader(otherClassLoader);
+            assertNotSame(pool.getReferenceCache(), otherPool.getReferenceCache());
+        }
+    }
+
+    @Test
+    public void concurrentRequestsGetSameClass() throws InterruptedException, ExecutionException {
+        var classSource = SharedClassHolderSource.forClassLoader(getClass().getClassLoader());
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var tasks = new ArrayList<Callable<Object>>();
+            for (var i = 0; i < 16; ++i) {
+                tasks.add(() -> classSource.get(HashMap.class.getName()));
+            }
+            var first = classSource.get(HashMap.class.getName());
+            assertNotNull(first);
+            for (var future : executor.invokeAll(tasks)) {
+                assertSame(first, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertNull(classSource.get("org.teavm.parsing.SharedClassHolderSourceTest$Missing"));
+    }
+
+    @Test
+    public void producesSameOutputAsPrivateClassSource() throws InterruptedException, ExecutionException {
+        var classLoader = getClass().getClassLoader();
+        var expected = build(new PreOptimizingClassHolderSource(new ClasspathClassHolderSource(classLoader,
+                new ReferenceCache())), new ReferenceCache());
+
+        var executor = Executors.newFixedThreadPool(3);
+        try {
+            var tasks = new ArrayList<Callable<byte[]>>();
+            for (var i = 0; i < 3; ++i) {
+                tasks.add(() -> build(SharedClassHolderSource.forClassLoader(classLoader), new ReferenceCache()));
+            }
+            for (var future : executor.invokeAll(tasks)) {
+                assertArrayEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private byte[] build(ClassHolderSource classSource, ReferenceCache referenceCache) {
+        var vm = new TeaVMBuilder(new JavaScriptTarget())
+                .setClassLoader(getClass().getClassLoader())
+                .setReferenceCache(referenceCache)
+                .setClassSource(classSource)
+                .build();
+        vm.installPlugins();
+        vm.setEntryPoint(EntryPoint.class.getName());
+        var buildTarget = new MemoryBuildTarget();
+        vm.build(buildTarget, "classes.js");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        var content = buildTarget.getContent("classes.js");
+        assertNotNull(content);
+        return content;
+    }
+
+    public static class EntryPoint {
+        public static void main(String[] args) {
+            List<String> items = new ArrayList<>();
+            for (var arg : args) {
+                items.add(arg.trim().toUpperCase());
+            }
+            System.out.println(items.stream().sorted().collect(Collectors.joining(", ", "[", "]")));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime;
+
+import static org.junit.Assert.assertEquals;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.EachTestCompiledSeparately;
+import org.teavm.junit.OnlyPlatform;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.junit.TestPlatform;
+
+/**
+ * Allocates objects of mixed sizes in a heap fragmented into many small chunks, so that allocator
+ * takes memory both from chunk holders and from free lists, and checks that no live object gets overwritten.
+ */
+@RunWith(TeaVMTestRunner.class)
+@OnlyPlatform({TestPlatform.C, TestPlatform.WEBASSEMBLY})
+@EachTestCompiledSeparately
+public class FragmentedHeapAllocationTest {
+    private static final int MAX_ARRAY_SIZE = 96;
+
+    @Test
+    public void mixedSizesInFragmentedHeap() {
+        var random = new Random(1);
+        var live = fragmentHeap(random);
+
+        for (var round = 0; round < 500_000; ++round) {
+            // Replace a live array by an array of another size. Requests that don't fit the next chunk
+            // leave it to free lists, later requests of a smaller size take chunks from there
+            var index = random.nextInt(live.length);
+            live[index] = createArray(round, random.nextInt(MAX_ARRAY_SIZE));
+            if (round % 50_000 == 0) {
+                check(live);
+            }
+        }
+
+        System.gc();
+        check(live);
+    }
+
+    @Test
+    public void freeListsSurviveCollections() {
+        var random = new Random(2);
+        var live = fragmentHeap(random);
+
+        for (var cycle = 0; cycle < 20; ++cycle) {
+            // Every collection rebuilds chunk holders and resets free lists
+            for (var i = cycle % 2; i < live.length; i += 2) {
+                live[i] = null;
+            }
+            System.gc();
+            for (var i = cycle % 2; i < live.length; i += 2) {
+                live[i] = createArray(cycle * live.length + i, random.nextInt(MAX_ARRAY_SIZE));
+            }
+            check(live);
+        }
+    }
+
+    private static int[][] fragmentHeap(Random random) {
+        // Keep every other array, so that free space consists of many small chunks and their holders
+        // take a large part of GC storage
+        var live = new int[(int) (Runtime.getRuntime().totalMemory() / 512)][];
+        for (var i = 0; i < live.length; ++i) {
+            live[i] = createArray(i, random.nextInt(MAX_ARRAY_SIZE));
+            var garbage = new int[1 + random.nextInt(MAX_ARRAY_SIZE)];
+            garbage[0] = i;
+        }
+        System.gc();
+        check(live);
+        return live;
+    }
+
+    private static int[] createArray(int seed, int size) {
+        var result = new int[size + 1];
+        result[0] = seed;
+        for (var i = 1; i < result.length; ++i) {
+            result[i] = seed * 31 + i;
+        }
+        return result;
+    }
+
+    private static void check(int[][] live) {
+        for (var array : live) {
+            if (array == null) {
+                continue;
+            }
+            var seed = array[0];
+            for (var i = 1; i < array.length; ++i) {
+                assertEquals(seed * 31 + i, array[i]);
+            }
+        }
+    }
+}
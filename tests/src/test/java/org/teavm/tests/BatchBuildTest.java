@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.teavm.dependency.DependencySnapshot;
+import org.teavm.tooling.TeaVMEntryPoint;
+import org.teavm.tooling.TeaVMTool;
+import org.teavm.tooling.TeaVMToolException;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+public class BatchBuildTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void buildsAllEntryPointsWithSharedCaches() throws IOException, TeaVMToolException {
+        var targetDir = temporaryFolder.newFolder();
+        var tool = new TeaVMTool();
+        tool.setClassLoader(getClass().getClassLoader());
+        tool.setTargetDirectory(targetDir);
+        tool.setObfuscated(false);
+        tool.setOptimizationLevel(TeaVMOptimizationLevel.SIMPLE);
+        tool.setMetricsFile(new File(targetDir, "metrics.json"));
+
+        tool.generateBatch(List.of(
+                new TeaVMEntryPoint(FirstEntryPoint.class.getName(), "first.js"),
+                new TeaVMEntryPoint(SecondEntryPoint.class.getName(), "second.js")));
+        assertTrue(tool.getProblemProvider().getSevereProblems().isEmpty());
+
+        var first = new File(targetDir, "first.js");
+        var second = new File(targetDir, "second.js");
+        assertTrue(tool.getGeneratedFiles().containsAll(Set.of(first, second)));
+        assertEquals("first: [A, B]\n", RhinoRunner.runMain(Files.readAllBytes(first.toPath()), "a", "b"));
+        assertEquals("second: b,a\n", RhinoRunner.runMain(Files.readAllBytes(second.toPath()), "a", "b"));
+
+        // Metrics are of the last build, methods common with the first entry point come from batch caches
+        var metrics = tool.getMetrics();
+        assertTrue(metrics.getProgramCache().getHits() > 0);
+        assertTrue(metrics.getAstCache().getHits() > 0);
+    }
+
+    @Test
+    public void keepsDependencySnapshotOfEachEntryPoint() throws IOException, TeaVMToolException {
+        var targetDir = temporaryFolder.newFolder();
+        var cacheDir = temporaryFolder.newFolder();
+        var entryPoints = List.of(
+                new TeaVMEntryPoint(FirstEntryPoint.class.getName(), "first.js"),
+                new TeaVMEntryPoint(SecondEntryPoint.class.getName(), "second.js"));
+
+        for (var i = 0; i < 2; ++i) {
+            var tool = new TeaVMTool();
+            tool.setClassLoader(getClass().getClassLoader());
+            tool.setTargetDirectory(targetDir);
+            tool.setCacheDirectory(cacheDir);
+            tool.setObfuscated(false);
+            tool.setIncremental(true);
+            tool.setIncrementalDependencyAnalysis(true);
+            tool.generateBatch(entryPoints);
+            assertTrue(tool.getProblemProvider().getSevereProblems().isEmpty());
+
+            // Each entry point of the second batch warms up from its own snapshot of the first batch
+            var snapshots = readDependencySnapshots(cacheDir);
+            assertEquals(2, snapshots.size());
+            for (var snapshot : snapshots) {
+                assertEquals(i, snapshot.getWarmBuildCount());
+            }
+        }
+
+        var first = Files.readAllBytes(new File(targetDir, "first.js").toPath());
+        var second = Files.readAllBytes(new File(targetDir, "second.js").toPath());
+        assertEquals("first: [A, B]\n", RhinoRunner.runMain(first, "a", "b"));
+        assertEquals("second: b,a\n", RhinoRunner.runMain(second, "a", "b"));
+    }
+
+    private static List<DependencySnapshot> readDependencySnapshots(File cacheDir) throws IOException {
+        var files = cacheDir.listFiles((dir, name) -> name.startsWith("dependencies") && name.endsWith(".bin"));
+        assertNotNull(files);
+        var result = new ArrayList<DependencySnapshot>();
+        for (var file : files) {
+            try (var input = new FileInputStream(file)) {
+                result.add(DependencySnapshot.read(input));
+            }
+        }
+        return result;
+    }
+
+    public static class FirstEntryPoint {
+        public static void main(String[] args) {
+            System.out.println("first: " + Common.normalize(args));
+        }
+    }
+
+    public static class SecondEntryPoint {
+        public static void main(String[] args) {
+            var items = Common.normalize(args);
+            var reversed = new ArrayList<String>();
+            for (var i = items.size() - 1; i >= 0; --i) {
+                reversed.add(items.get(i).toLowerCase());
+            }
+            System.out.println("second: " + String.join(",", reversed));
+        }
+    }
+
+    static class Common {
+        static List<String> normalize(String[] args) {
+            var result = new ArrayList<String>();
+            for (var arg : args) {
+                result.add(arg.trim().toUpperCase());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMMetrics;
+import org.teavm.vm.TeaVMOptimizationLevel;
+import org.teavm.vm.TeaVMPhase;
+import org.teavm.vm.TeaVMProgressFeedback;
+import org.teavm.vm.TeaVMProgressListener;
+
+public class BuildMetricsTest {
+    @Test
+    public void collectsMetrics() throws IOException {
+        var vm = new TeaVMBuilder(new JavaScriptTarget()).setOptimizationThreads(2).build();
+        vm.installPlugins();
+        vm.setOptimizationLevel(TeaVMOptimizationLevel.ADVANCED);
+        vm.setEntryPoint(ParallelRenderingTest.EntryPoint.class.getName());
+        var metrics = new TeaVMMetrics(5);
+        vm.setMetrics(metrics);
+        var listener = new MetricsListener();
+        vm.setProgressListener(listener);
+        vm.build(new MemoryBuildTarget(), "classes.js");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+
+        assertSame(metrics, listener.reported);
+        var phases = metrics.getPhaseTimes();
+        for (var phase : new String[] { "dependencyAnalysis", "linking", "inlining", "optimization",
+                "rendering" }) {
+            assertTrue("Missing phase " + phase, phases.containsKey(phase));
+        }
+        assertFalse(metrics.getOptimizationPasses().isEmpty());
+        for (var pass : metrics.getOptimizationPasses()) {
+            assertTrue(pass.getChanges() <= pass.getInvocations());
+        }
+        assertEquals(5, metrics.getSlowestMethods().size());
+        var slowest = metrics.getSlowestMethods();
+        for (var i = 1; i < slowest.size(); ++i) {
+            assertTrue(slowest.get(i - 1).getTime() >= slowest.get(i).getTime());
+        }
+        assertEquals(0, metrics.getProgramCache().getHits());
+        assertTrue(metrics.getProgramCache().getMisses() > 0);
+
+        var json = new StringWriter();
+        metrics.writeJson(json);
+        assertTrue(json.toString().contains("\"optimizations\""));
+        assertTrue(json.toString().contains("\"slowestMethods\""));
+    }
+
+    static class MetricsListener implements TeaVMProgressListener {
+        TeaVMMetrics reported;
+
+        @Override
+        public TeaVMProgressFeedback phaseStarted(TeaVMPhase phase, int count) {
+            return TeaVMProgressFeedback.CONTINUE;
+        }
+
+        @Override
+        public TeaVMProgressFeedback progressReached(int progress) {
+            return TeaVMProgressFeedback.CONTINUE;
+        }
+
+        @Override
+        public void metricsReported(TeaVMMetrics metrics) {
+            reported = metrics;
+        }
+    }
+}
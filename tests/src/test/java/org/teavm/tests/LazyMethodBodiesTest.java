@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.devserver.LazyMethodBodies;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+public class LazyMethodBodiesTest {
+    private static final String[] ARGS = { "foo", "bar" };
+    private static final String EXPECTED_OUTPUT = "<foo>, <bar>\n2 words\n";
+
+    @Test
+    public void rendersStubsAndBodiesOnDemand() {
+        var target = new JavaScriptTarget();
+        var text = new String(build(target), StandardCharsets.UTF_8);
+        assertTrue(text.contains("$rt_lazyMethod("));
+
+        var methods = target.getLazyMethods();
+        assertFalse(methods.isEmpty());
+        for (var i = 0; i < methods.size(); ++i) {
+            var body = target.renderLazyMethodBody(i);
+            assertTrue("Unexpected body of " + methods.get(i) + ": " + body, body.contains("=>"));
+        }
+    }
+
+    @Test
+    public void runsLazilyCompiledMethods() {
+        var target = new JavaScriptTarget();
+        var code = build(target);
+        var requested = new ArrayList<String>();
+        var output = RhinoRunner.runMain(code, index -> {
+            var body = target.renderLazyMethodBody(index);
+            requested.add(body);
+            return body;
+        }, ARGS);
+
+        assertEquals(EXPECTED_OUTPUT, output);
+        assertFalse(requested.isEmpty());
+        assertTrue("Strings of lazily compiled methods must be added to string pool",
+                requested.stream().anyMatch(body -> body.startsWith("$rt_lazyStrings(")));
+    }
+
+    @Test
+    public void servesBodiesOfCurrentBuildOnly() {
+        var target = new JavaScriptTarget();
+        var code = build(target);
+        var compiledCount = new AtomicInteger();
+        var bodies = new LazyMethodBodies(compiledCount::incrementAndGet);
+        bodies.complete(target);
+        var build = bodies.getBuildNumber();
+
+        assertEquals(EXPECTED_OUTPUT, RhinoRunner.runMain(code, index -> request(bodies, build, index), ARGS));
+        var count = compiledCount.get();
+        assertTrue(count > 0);
+
+        // Bodies are compiled once per build
+        assertEquals(EXPECTED_OUTPUT, RhinoRunner.runMain(code, index -> request(bodies, build, index), ARGS));
+        assertEquals(count, compiledCount.get());
+
+        assertEquals(400, bodies.get("foo").getStatus());
+        assertEquals(404, bodies.get(build + "/" + target.getLazyMethods().size()).getStatus());
+
+        bodies.discard();
+        assertEquals(410, bodies.get(build + "/0").getStatus());
+        try {
+            RhinoRunner.runMain(code, index -> request(bodies, build, index), ARGS);
+            fail("Page of previous build must not get method bodies");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("410"));
+        }
+    }
+
+    private static String request(LazyMethodBodies bodies, int build, int index) {
+        var result = bodies.get(build + "/" + index);
+        if (result.getStatus() != 200) {
+            throw new IllegalStateException("Could not load method #" + index + ": " + result.getStatus());
+        }
+        return result.getText();
+    }
+
+    private static byte[] build(JavaScriptTarget target) {
+        target.setObfuscated(false);
+        target.setLazyMethodBodies(true);
+        var vm = new TeaVMBuilder(target).build();
+        vm.setOptimizationLevel(TeaVMOptimizationLevel.SIMPLE);
+        vm.installPlugins();
+        vm.setEntryPoint(EntryPoint.class.getName());
+        var buildTarget = new MemoryBuildTarget();
+        vm.build(buildTarget, "classes.js");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        var content = buildTarget.getContent("classes.js");
+        assertNotNull(content);
+        return content;
+    }
+
+    public static class EntryPoint {
+        public static void main(String[] args) {
+            List<String> words = new ArrayList<>();
+            for (var arg : args) {
+                words.add(decorate(arg));
+            }
+            System.out.println(String.join(", ", words));
+            System.out.println(describe(words.size()));
+        }
+
+        static String decorate(String word) {
+            return "<" + word + ">";
+        }
+
+        static String describe(int count) {
+            return count == 1 ? "one word" : count + " words";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+public class ParallelOptimizationTest {
+    @Test
+    public void producesSameOutputAsSerialMode() {
+        for (var level : List.of(TeaVMOptimizationLevel.ADVANCED, TeaVMOptimizationLevel.FULL)) {
+            var serial = build(1, level);
+            var parallel = build(4, level);
+            assertArrayEquals("Output differs for " + level, serial, parallel);
+        }
+    }
+
+    private byte[] build(int threads, TeaVMOptimizationLevel level) {
+        var target = new JavaScriptTarget();
+        var vm = new TeaVMBuilder(target).setOptimizationThreads(threads).build();
+        vm.setOptimizationLevel(level);
+        vm.installPlugins();
+        vm.setEntryPoint(EntryPoint.class.getName());
+        var buildTarget = new MemoryBuildTarget();
+        vm.build(buildTarget, "classes.js");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        var content = buildTarget.getContent("classes.js");
+        assertNotNull(content);
+        return content;
+    }
+
+    public static class EntryPoint {
+        public static void main(String[] args) {
+            var words = new ArrayList<String>();
+            for (var i = 0; i < 20; ++i) {
+                words.add("item" + (i % 7));
+            }
+            var counts = new HashMap<String, Integer>();
+            for (var word : words) {
+                counts.merge(word, 1, Integer::sum);
+            }
+            var sb = new StringBuilder();
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                sb.append(entry.getKey()).append('=').append(entry.getValue()).append(';');
+            }
+            System.out.println(sb);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.backend.javascript.rendering.Renderer;
+import org.teavm.backend.javascript.rendering.RenderingManager;
+import org.teavm.debugging.information.DebugInformationBuilder;
+import org.teavm.model.ReferenceCache;
+import org.teavm.vm.BuildTarget;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.spi.RendererListener;
+
+public class ParallelRenderingTest {
+    private static final String[] ARGS = { "apple", "avocado", "banana", "", "cherry" };
+
+    @Test
+    public void outputDoesNotDependOnThreadCount() throws IOException {
+        for (var obfuscated : List.of(false, true)) {
+            var twoThreads = build(2, obfuscated);
+            var fourThreads = build(4, obfuscated);
+            assertArrayEquals("Output differs, obfuscated = " + obfuscated, twoThreads.code, fourThreads.code);
+            assertEquals("Source maps differ, obfuscated = " + obfuscated, twoThreads.sourceMap,
+                    fourThreads.sourceMap);
+        }
+    }
+
+    @Test
+    public void rendersClassesOnWorkers() throws IOException {
+        for (var obfuscated : List.of(false, true)) {
+            var serial = build(1, obfuscated);
+            assertEquals(0, serial.parallelRenderedClasses);
+
+            var parallel = build(4, obfuscated);
+            assertTrue("No classes rendered on workers, obfuscated = " + obfuscated,
+                    parallel.parallelRenderedClasses > 0);
+
+            var expected = RhinoRunner.runMain(serial.code, ARGS);
+            assertEquals("groups: a -> apple|avocado\nb -> banana\nc -> cherry\n\n", expected);
+            assertEquals("Behavior differs, obfuscated = " + obfuscated, expected,
+                    RhinoRunner.runMain(parallel.code, ARGS));
+        }
+    }
+
+    private BuildResult build(int threads, boolean obfuscated) throws IOException {
+        var target = new JavaScriptTarget();
+        target.setObfuscated(obfuscated);
+        target.setRenderingThreads(threads);
+        var debugInformation = new DebugInformationBuilder(new ReferenceCache());
+        target.setDebugEmitter(debugInformation);
+        var parallelRenderedClasses = new int[1];
+        target.add(new RendererListener() {
+            private Renderer renderer;
+
+            @Override
+            public void begin(RenderingManager context, BuildTarget buildTarget) {
+                renderer = (Renderer) context;
+            }
+
+            @Override
+            public void complete() {
+                parallelRenderedClasses[0] = renderer.getParallelRenderedClassCount();
+            }
+        });
+        var vm = new TeaVMBuilder(target).build();
+        vm.installPlugins();
+        vm.setEntryPoint(EntryPoint.class.getName());
+        var buildTarget = new MemoryBuildTarget();
+        vm.build(buildTarget, "classes.js");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        var content = buildTarget.getContent("classes.js");
+        assertNotNull(content);
+
+        var sourceMap = new StringWriter();
+        debugInformation.getDebugInformation().writeAsSourceMaps(sourceMap, "src", "classes.js");
+        return new BuildResult(content, sourceMap.toString(), parallelRenderedClasses[0]);
+    }
+
+    static class BuildResult {
+        final byte[] code;
+        final String sourceMap;
+        final int parallelRenderedClasses;
+
+        BuildResult(byte[] code, String sourceMap, int parallelRenderedClasses) {
+            this.code = code;
+            this.sourceMap = sourceMap;
+            this.parallelRenderedClasses = parallelRenderedClasses;
+        }
+    }
+
+    public static class EntryPoint {
+        public static void main(String[] args) {
+            var groups = new TreeMap<Character, List<String>>();
+            for (var arg : args) {
+                if (!arg.isEmpty()) {
+                    groups.computeIfAbsent(arg.charAt(0), k -> new ArrayList<>()).add(arg);
+                }
+            }
+            var sb = new StringBuilder("groups: ");
+            for (var entry : groups.entrySet()) {
+                sb.append(entry.getKey()).append(" -> ").append(String.join("|", entry.getValue())).append('\n');
+            }
+            System.out.println(sb);
+        }
+    }
+}
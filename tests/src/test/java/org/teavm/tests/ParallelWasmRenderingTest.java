@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.util.List;
+import org.junit.Test;
+import org.teavm.backend.wasm.WasmDebugInfoLocation;
+import org.teavm.backend.wasm.WasmGCTarget;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMBuilder;
+
+public class ParallelWasmRenderingTest {
+    @Test
+    public void outputDoesNotDependOnThreadCount() {
+        for (var debugInfo : List.of(false, true)) {
+            var singleThread = build(1, debugInfo);
+            var fourThreads = build(4, debugInfo);
+            assertArrayEquals("Output differs, debugInfo = " + debugInfo, singleThread, fourThreads);
+        }
+    }
+
+    private byte[] build(int threads, boolean debugInfo) {
+        var target = new WasmGCTarget();
+        target.setObfuscated(false);
+        target.setDebugInfo(debugInfo);
+        target.setDebugInfoLocation(WasmDebugInfoLocation.EMBEDDED);
+        target.setRenderingThreads(threads);
+        var vm = new TeaVMBuilder(target).build();
+        vm.installPlugins();
+        vm.setEntryPoint(ParallelRenderingTest.EntryPoint.class.getName());
+        var buildTarget = new MemoryBuildTarget();
+        vm.build(buildTarget, "classes.wasm");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        var content = buildTarget.getContent("classes.wasm");
+        assertNotNull(content);
+        return content;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tests;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.ScriptRuntime;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.Undefined;
+
+/**
+ * Runs JavaScript produced by TeaVM in UMD module format with Rhino and captures what it writes to
+ * {@code System.out}. Timers are emulated by a queue that is drained after {@code main} returns.
+ */
+public final class RhinoRunner {
+    private static final String PRELUDE = ""
+            + "var $rt_stdout = '';\n"
+            + "var $rt_putStdoutCustom = function(msg) { $rt_stdout += msg; };\n"
+            + "var $rt_tasks = [];\n"
+            + "var setTimeout = function(f) { $rt_tasks.push(f); return $rt_tasks.length; };\n"
+            + "var clearTimeout = function() {};\n"
+            + "var $rt_mainResult;\n"
+            + "var $rt_mainCallback = function(result) { $rt_mainResult = result; };\n";
+    private static final String LAZY_METHOD_BODY = ""
+            + "var $teavm_lazyMethodBody = function(index) { return String($rt_javaLazyMethodBody.apply(index)); };";
+    private static final String DRAIN = "while ($rt_tasks.length > 0) { $rt_tasks.shift()(); }";
+
+    private RhinoRunner() {
+    }
+
+    /**
+     * Evaluates script, calls exported {@code main} function with given arguments and returns text written to
+     * standard output.
+     *
+     * @throws AssertionError if {@code main} completed with an exception.
+     */
+    public static String runMain(byte[] script, String... args) {
+        return runMain(script, null, args);
+    }
+
+    /**
+     * Same as {@link #runMain(byte[], String...)}, but also provides {@code $teavm_lazyMethodBody} function
+     * that scripts built with lazy method bodies use to get source text of a method by its index.
+     */
+    public static String runMain(byte[] script, IntFunction<String> lazyMethodBody, String... args) {
+        var context = Context.enter();
+        try {
+            context.setOptimizationLevel(-1);
+            context.setLanguageVersion(Context.VERSION_ES6);
+            Scriptable scope = context.initStandardObjects();
+            context.evaluateString(scope, PRELUDE, "prelude.js", 1, null);
+            if (lazyMethodBody != null) {
+                ScriptableObject.putProperty(scope, "$rt_javaLazyMethodBody", Context.javaToJS(lazyMethodBody, scope));
+                context.evaluateString(scope, LAZY_METHOD_BODY, "lazy.js", 1, null);
+            }
+            context.evaluateString(scope, new String(script, StandardCharsets.UTF_8), "classes.js", 1, null);
+
+            var main = (Function) scope.get("main", scope);
+            var jsArgs = context.newArray(scope, args.clone());
+            ScriptRuntime.doTopCall(main, context, scope, scope,
+                    new Object[] { jsArgs, scope.get("$rt_mainCallback", scope) });
+            context.evaluateString(scope, DRAIN, "drain.js", 1, null);
+
+            var result = scope.get("$rt_mainResult", scope);
+            if (result != null && result != Undefined.instance && result != Scriptable.NOT_FOUND) {
+                throw new AssertionError("main completed with exception: " + Context.toString(result));
+            }
+            return Context.toString(scope.get("$rt_stdout", scope));
+        } finally {
+            Context.exit();
+        }
+    }
+}
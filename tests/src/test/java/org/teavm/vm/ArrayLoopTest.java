@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class ArrayLoopTest {
+    @Test
+    public void loopWithLimit() {
+        int[] array = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+        assertEquals(15, sum(array, 0, 5));
+        assertEquals(55, sum(array, 0, array.length));
+        assertEquals(0, sum(array, 5, 5));
+    }
+
+    @Test
+    public void loopWithOffset() {
+        int[] array = { 1, 3, 6, 10, 15 };
+        int[] differences = new int[4];
+        differences(array, differences, 4);
+        assertArrayEquals(new int[] { 2, 3, 4, 5 }, differences);
+    }
+
+    @Test
+    public void exceptionThrownAtSameIteration() {
+        int[] array = new int[3];
+        int count = 0;
+        try {
+            count = fill(array, 5);
+            fail("AIOOBE expected");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+        assertEquals(0, count);
+        assertArrayEquals(new int[] { 1, 2, 3 }, array);
+    }
+
+    @Test
+    public void negativeStartFails() {
+        int[] array = { 1, 2, 3 };
+        try {
+            sum(array, -1, 2);
+            fail("AIOOBE expected");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void nullArray() {
+        assertEquals(0, sum(null, 0, 0));
+        try {
+            sum(null, 0, 1);
+            fail("NPE expected");
+        } catch (NullPointerException e) {
+            // expected
+        }
+    }
+
+    private static int sum(int[] array, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; ++i) {
+            result += array[i];
+        }
+        return result;
+    }
+
+    private static void differences(int[] array, int[] result, int count) {
+        for (int i = 0; i < count; ++i) {
+            result[i] = array[i + 1] - array[i];
+        }
+    }
+
+    private static int fill(int[] array, int count) {
+        int filled = 0;
+        for (int i = 0; i < count; ++i) {
+            array[i] = i + 1;
+            filled++;
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class PolymorphicCallTest {
+    @Test
+    public void bimorphicCall() {
+        Shape[] shapes = { new Square(2), new Circle(1), new Square(3) };
+        var sb = new StringBuilder();
+        for (var shape : shapes) {
+            sb.append(shape.name()).append(shape.area()).append(";");
+        }
+        assertEquals("square4;circle3;square9;", sb.toString());
+    }
+
+    @Test
+    public void overridingSubclassChecked() {
+        Shape[] shapes = { new Square(2), new Cube(2), new Circle(2) };
+        var sb = new StringBuilder();
+        for (var shape : shapes) {
+            sb.append(shape.area()).append(";");
+        }
+        assertEquals("4;24;12;", sb.toString());
+    }
+
+    @Test
+    public void inheritedImplementation() {
+        Shape[] shapes = { new Square(1), new Circle(1), new Cube(1) };
+        var sb = new StringBuilder();
+        for (var shape : shapes) {
+            sb.append(shape.name()).append(";");
+        }
+        assertEquals("square;circle;square;", sb.toString());
+    }
+
+    @Test
+    public void nullReceiverFails() {
+        Shape[] shapes = { new Square(1), new Circle(1), null };
+        var count = 0;
+        try {
+            for (var shape : shapes) {
+                count += shape.area();
+            }
+            fail("NPE expected");
+        } catch (NullPointerException e) {
+            // expected
+        }
+        assertEquals(4, count);
+    }
+
+    @Test
+    public void interfaceCall() {
+        Visitor[] visitors = { new CountingVisitor(), new DoublingVisitor() };
+        var sb = new StringBuilder();
+        for (var visitor : visitors) {
+            sb.append(visitor.visit(5)).append(";");
+        }
+        assertEquals("1;10;", sb.toString());
+    }
+
+    abstract static class Shape {
+        abstract int area();
+
+        abstract String name();
+    }
+
+    static class Square extends Shape {
+        final int side;
+
+        Square(int side) {
+            this.side = side;
+        }
+
+        @Override
+        int area() {
+            return side * side;
+        }
+
+        @Override
+        String name() {
+            return "square";
+        }
+    }
+
+    static class Cube extends Square {
+        Cube(int side) {
+            super(side);
+        }
+
+        @Override
+        int area() {
+            return 6 * side * side;
+        }
+    }
+
+    static class Circle extends Shape {
+        final int radius;
+
+        Circle(int radius) {
+            this.radius = radius;
+        }
+
+        @Override
+        int area() {
+            return 3 * radius * radius;
+        }
+
+        @Override
+        String name() {
+            return "circle";
+        }
+    }
+
+    interface Visitor {
+        int visit(int value);
+    }
+
+    static class CountingVisitor implements Visitor {
+        @Override
+        public int visit(int value) {
+            return 1;
+        }
+    }
+
+    static class DoublingVisitor implements Visitor {
+        @Override
+        public int visit(int value) {
+            return value * 2;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+const teavm = await (await import('/tests/split/provider.js')).default;
+
+export async function test() {
+    // Secondary module is only fetched on request
+    assertEquals(false, performance.getEntriesByType("resource").some(e => e.name.endsWith("/test-editor.wasm")));
+    assertEquals(["test-editor.wasm"], teavm.chunks);
+    assertEquals(23, teavm.exports.primary());
+    let error = null;
+    try {
+        teavm.exports.editor(3);
+    } catch (e) {
+        error = e;
+    }
+    assertEquals(true, error !== null && error.message.includes("test-editor.wasm is not loaded yet"));
+
+    let options = { builtins: ["js-string"] };
+    let bytes = await (await fetch('/tests/split/test-editor.wasm')).arrayBuffer();
+    assertEquals(true, WebAssembly.validate(bytes, options));
+    let imports = WebAssembly.Module.imports(new WebAssembly.Module(bytes, options));
+    assertEquals(true, imports.some(({ module }) => module === "teavm.primary"));
+
+    await teavm.loadChunk("test-editor.wasm");
+    assertEquals("editor: 0,1,2", teavm.exports.editor(3));
+    await teavm.loadChunks();
+    assertEquals("editor: 0", teavm.exports.editor(1));
+
+    error = null;
+    try {
+        await teavm.loadChunk("unknown.wasm");
+    } catch (e) {
+        error = e;
+    }
+    assertEquals(true, error !== null && error.message.includes("Unknown WebAssembly chunk"));
+}
@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -58,19 +59,36 @@ public class BrowserRunner {
     private final File baseDir;
     private final String type;
     private final Function<String, Process> browserRunner;
-    private Process browserProcess;
+    private final int workers;
+    private List<Process> browserProcesses = new ArrayList<>();
     private Server server;
     private int port;
     private AtomicInteger idGenerator = new AtomicInteger(0);
     private BlockingQueue<Session> wsSessionQueue = new LinkedBlockingQueue<>();
+    // Busy sessions are not in the queue, so all sessions are tracked separately
+    private Set<Session> wsSessions = ConcurrentHashMap.newKeySet();
+    private Set<Session> sessionsPendingCleanup = ConcurrentHashMap.newKeySet();
     private ConcurrentMap<Integer, CallbackWrapper> awaitingRuns = new ConcurrentHashMap<>();
     private ObjectMapper objectMapper = new ObjectMapper();
 
     public BrowserRunner(File baseDir, String type, Function<String, Process> browserRunner, boolean decodeStack) {
+        this(baseDir, type, browserRunner, decodeStack, 1);
+    }
+
+    /**
+     * Creates runner that starts given number of browser instances, so that up to {@code workers} tests
+     * can be run concurrently by calling {@link #runTest(BrowserRunDescriptor)} from different threads.
+     */
+    public BrowserRunner(File baseDir, String type, Function<String, Process> browserRunner, boolean decodeStack,
+            int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be positive: " + workers);
+        }
         this.baseDir = baseDir;
         this.type = type;
         this.browserRunner = browserRunner;
         this.decodeStack = decodeStack;
+        this.workers = workers;
     }
 
     public static Function<String, Process> pickBrowser(String name) {
@@ -90,17 +108,26 @@ public class BrowserRunner {
 
     public void start() {
         runServer();
-        browserProcess = browserRunner.apply("http://localhost:" + port + "/index.html");
+        for (var i = 0; i < workers; ++i) {
+            var process = browserRunner.apply("http://localhost:" + port + "/index.html");
+            if (process != null) {
+                browserProcesses.add(process);
+            }
+        }
     }
 
     public void stop() {
+        for (var ws : wsSessions) {
+            ws.close();
+        }
+        wsSessions.clear();
         try {
             server.stop();
         } catch (Exception e) {
             e.printStackTrace();
         }
-        if (browserProcess != null) {
-            browserProcess.destroy();
+        for (var process : browserProcesses) {
+            process.destroy();
         }
     }
 
@@ -130,11 +157,13 @@ public class BrowserRunner {
 
     static class CallbackWrapper  {
         private final CountDownLatch latch;
+        final Session session;
         volatile Throwable error;
         volatile boolean shouldRepeat;
 
-        CallbackWrapper(CountDownLatch latch) {
+        CallbackWrapper(CountDownLatch latch, Session session) {
             this.latch = latch;
+            this.session = session;
         }
 
         void complete() {
@@ -172,7 +201,7 @@ public class BrowserRunner {
         int id = idGenerator.incrementAndGet();
         var latch = new CountDownLatch(1);
 
-        var callbackWrapper = new CallbackWrapper(latch);
+        var callbackWrapper = new CallbackWrapper(latch, ws);
         awaitingRuns.put(id, callbackWrapper);
 
         var nf = objectMapper.getNodeFactory();
@@ -220,6 +249,9 @@ public class BrowserRunner {
         }
 
         if (ws.isOpen()) {
+            if (sessionsPendingCleanup.remove(ws)) {
+                ws.getRemote().sendStringByFuture(cleanupMessage());
+            }
             wsSessionQueue.offer(ws);
         }
 
@@ -235,17 +267,25 @@ public class BrowserRunner {
         return !callbackWrapper.shouldRepeat;
     }
 
+    /**
+     * Sends cleanup command to every session. Idle sessions get it immediately, sessions that are running
+     * a test get it as soon as the test completes, so that frames of the running test are not removed.
+     */
     public void cleanup() {
-        var ws = wsSessionQueue.peek();
-        if (ws == null) {
-            return;
+        sessionsPendingCleanup.addAll(wsSessions);
+        var message = cleanupMessage();
+        for (var ws : wsSessionQueue) {
+            if (sessionsPendingCleanup.remove(ws) && ws.isOpen()) {
+                ws.getRemote().sendStringByFuture(message);
+            }
         }
+    }
+
+    private String cleanupMessage() {
         var nf = objectMapper.getNodeFactory();
         var node = nf.objectNode();
         node.set("command", nf.textNode("cleanup"));
-
-        var message = node.toString();
-        ws.getRemote().sendStringByFuture(message);
+        return node.toString();
     }
 
     class TestCodeServlet extends HttpServlet {
@@ -369,15 +409,24 @@ public class BrowserRunner {
     }
 
     class TestCodeSocket extends WebSocketAdapter {
+        private Session session;
+
         @Override
         public void onWebSocketConnect(Session sess) {
+            session = sess;
+            wsSessions.add(sess);
             wsSessionQueue.offer(sess);
         }
 
         @Override
         public void onWebSocketClose(int statusCode, String reason) {
+            wsSessions.remove(session);
+            sessionsPendingCleanup.remove(session);
+            // Other sessions may be running tests at the same time, only repeat runs sent to this one
             for (CallbackWrapper run : awaitingRuns.values()) {
-                run.repeat();
+                if (run.session == session) {
+                    run.repeat();
+                }
             }
         }
 
@@ -434,7 +483,7 @@ public class BrowserRunner {
             params.addAll(Arrays.asList(
                     "--headless",
                     "--disable-gpu",
-                    "--remote-debugging-port=9222",
+                    "--remote-debugging-port=0",
                     "--no-first-run",
                     "--js-flags=--expose-gc",
                     "--user-data-dir=" + profile
@@ -20,7 +20,9 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -31,6 +33,7 @@ import org.apache.commons.cli.ParseException;
 import org.teavm.backend.javascript.JSModuleType;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
 import org.teavm.tooling.ConsoleTeaVMToolLog;
+import org.teavm.tooling.TeaVMEntryPoint;
 import org.teavm.tooling.TeaVMProblemRenderer;
 import org.teavm.tooling.TeaVMTargetType;
 import org.teavm.tooling.TeaVMTool;
@@ -50,6 +53,7 @@ public final class TeaVMRunner {
     private long phaseStartTime;
     private String[] classPath;
     private boolean interactive;
+    private List<TeaVMEntryPoint> batchEntryPoints = new ArrayList<>();
 
     static {
         setupOptions();
@@ -87,6 +91,30 @@ public final class TeaVMRunner {
                 .hasArg()
                 .argName("number")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("optimization-threads")
+                .desc("number of threads that optimize methods (1 by default)")
+                .hasArg()
+                .argName("number")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("dependency-analysis-threads")
+                .desc("number of threads that analyze reached methods during dependency analysis (1 by default)")
+                .hasArg()
+                .argName("number")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("class-prefetch-threads")
+                .desc("number of threads that parse classes ahead of time (0 by default)")
+                .hasArg()
+                .argName("number")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("rendering-threads")
+                .desc("number of threads that render JavaScript method or WebAssembly function bodies (1 by default)")
+                .hasArg()
+                .argName("number")
+                .build());
         options.addOption(Option.builder("g")
                 .desc("Generate debug information")
                 .longOpt("debug")
@@ -105,6 +133,31 @@ public final class TeaVMRunner {
                 .desc("Incremental build cache directory")
                 .longOpt("cachedir")
                 .build());
+        options.addOption(Option.builder()
+                .desc("Store incremental build cache in pack files instead of a file per class and method")
+                .longOpt("packed-cache")
+                .build());
+        options.addOption(Option.builder()
+                .desc("Reuse dependency analysis results of unchanged classes from incremental build cache")
+                .longOpt("incremental-dependency-analysis")
+                .build());
+        options.addOption(Option.builder()
+                .argName("file")
+                .hasArg()
+                .desc("Write timings of compilation phases, cache statistics and memory usage to JSON file")
+                .longOpt("metrics-file")
+                .build());
+        options.addOption(Option.builder()
+                .desc("Instrument generated code to record method and call site counts for profile-guided "
+                        + "optimization")
+                .longOpt("profile-instrumentation")
+                .build());
+        options.addOption(Option.builder()
+                .argName("file")
+                .hasArg()
+                .desc("Use execution profile recorded by instrumented build to guide optimizations")
+                .longOpt("profile")
+                .build());
         options.addOption(Option.builder("w")
                 .desc("Wait for command after compilation, in order to enable hot recompilation")
                 .longOpt("wait")
@@ -155,6 +208,20 @@ public final class TeaVMRunner {
                 .hasArg()
                 .desc("JavaScript module type (umd, common-js, none, es2015).")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("split-point")
+                .argName("chunk=class.method")
+                .hasArgs()
+                .desc("Emit code only reachable through given method to a separate chunk "
+                        + "(es2015 modules and wasm-gc only)")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("batch-entry")
+                .argName("file=class")
+                .hasArgs()
+                .desc("Build main class to given file instead of the single main class; can be repeated "
+                        + "to build several entry points that share parsed classes and, with -O1, compiled methods")
+                .build());
     }
 
     private TeaVMRunner(CommandLine commandLine) {
@@ -187,6 +254,7 @@ public final class TeaVMRunner {
         parseOutputOptions();
         parseDebugOptions();
         parsePreserveClassOptions();
+        parseSplitPointOptions();
         parseOptimizationOption();
         parseIncrementalOptions();
         parseGenerationOptions();
@@ -199,9 +267,10 @@ public final class TeaVMRunner {
         }
 
         interactive = commandLine.hasOption('w');
+        parseBatchOptions();
 
         String[] args = commandLine.getArgs();
-        if (args.length > 1) {
+        if (args.length > 1 || (args.length == 1 && !batchEntryPoints.isEmpty())) {
             System.err.println("Unexpected arguments");
             printUsage();
         } else if (args.length == 1) {
@@ -209,6 +278,23 @@ public final class TeaVMRunner {
         }
     }
 
+    private void parseBatchOptions() {
+        if (!commandLine.hasOption("batch-entry")) {
+            return;
+        }
+        var entryPointName = commandLine.getOptionValue("e", "main");
+        for (var value : commandLine.getOptionValues("batch-entry")) {
+            int index = value.indexOf('=');
+            if (index <= 0 || index == value.length() - 1) {
+                System.err.println("Wrong batch entry: " + value);
+                printUsage();
+                return;
+            }
+            batchEntryPoints.add(new TeaVMEntryPoint(value.substring(index + 1), entryPointName,
+                    value.substring(0, index)));
+        }
+    }
+
     private void parseTargetOption() {
         if (commandLine.hasOption("t")) {
             switch (commandLine.getOptionValue('t').toLowerCase()) {
@@ -239,11 +325,18 @@ public final class TeaVMRunner {
         if (commandLine.hasOption("f")) {
             tool.setTargetFileName(commandLine.getOptionValue("f"));
         }
+        if (commandLine.hasOption("metrics-file")) {
+            tool.setMetricsFile(new File(commandLine.getOptionValue("metrics-file")));
+        }
     }
 
     private void parseGenerationOptions() {
         tool.setObfuscated(commandLine.hasOption("m"));
         tool.setStrict(commandLine.hasOption("strict"));
+        tool.setProfileInstrumentation(commandLine.hasOption("profile-instrumentation"));
+        if (commandLine.hasOption("profile")) {
+            tool.setProfileFile(new File(commandLine.getOptionValue("profile")));
+        }
         parseJsModuleOption();
 
         if (commandLine.hasOption("max-toplevel-names")) {
@@ -254,6 +347,20 @@ public final class TeaVMRunner {
                 printUsage();
             }
         }
+        if (commandLine.hasOption("rendering-threads")) {
+            int threads;
+            try {
+                threads = Integer.parseInt(commandLine.getOptionValue("rendering-threads"));
+            } catch (NumberFormatException e) {
+                threads = 0;
+            }
+            if (threads < 1) {
+                System.err.print("Wrong number of rendering threads");
+                printUsage();
+                return;
+            }
+            tool.setRenderingThreads(threads);
+        }
     }
 
     private void parseJsModuleOption() {
@@ -294,6 +401,12 @@ public final class TeaVMRunner {
         }
     }
 
+    private void parseSplitPointOptions() {
+        if (commandLine.hasOption("split-point")) {
+            tool.getSplitPoints().addAll(Arrays.asList(commandLine.getOptionValues("split-point")));
+        }
+    }
+
     private void parseOptimizationOption() {
         if (commandLine.hasOption("O")) {
             int level;
@@ -319,12 +432,60 @@ public final class TeaVMRunner {
                     printUsage();
             }
         }
+        if (commandLine.hasOption("optimization-threads")) {
+            int threads;
+            try {
+                threads = Integer.parseInt(commandLine.getOptionValue("optimization-threads"));
+            } catch (NumberFormatException e) {
+                threads = 0;
+            }
+            if (threads < 1) {
+                System.err.print("Wrong number of optimization threads");
+                printUsage();
+                return;
+            }
+            tool.setOptimizationThreads(threads);
+        }
+        if (commandLine.hasOption("dependency-analysis-threads")) {
+            int threads;
+            try {
+                threads = Integer.parseInt(commandLine.getOptionValue("dependency-analysis-threads"));
+            } catch (NumberFormatException e) {
+                threads = 0;
+            }
+            if (threads < 1) {
+                System.err.print("Wrong number of dependency analysis threads");
+                printUsage();
+                return;
+            }
+            tool.setDependencyAnalysisThreads(threads);
+        }
+        if (commandLine.hasOption("class-prefetch-threads")) {
+            int threads;
+            try {
+                threads = Integer.parseInt(commandLine.getOptionValue("class-prefetch-threads"));
+            } catch (NumberFormatException e) {
+                threads = -1;
+            }
+            if (threads < 0) {
+                System.err.print("Wrong number of class prefetch threads");
+                printUsage();
+                return;
+            }
+            tool.setClassPrefetchThreads(threads);
+        }
     }
 
     private void parseIncrementalOptions() {
         if (commandLine.hasOption('i')) {
             tool.setIncremental(true);
         }
+        if (commandLine.hasOption("packed-cache")) {
+            tool.setPackedCache(true);
+        }
+        if (commandLine.hasOption("incremental-dependency-analysis")) {
+            tool.setIncrementalDependencyAnalysis(true);
+        }
         if (commandLine.hasOption('c')) {
             tool.setCacheDirectory(new File(commandLine.getOptionValue('c')));
         } else {
@@ -453,7 +614,11 @@ public final class TeaVMRunner {
         resetClassLoader();
         startTime = System.currentTimeMillis();
         phaseStartTime = System.currentTimeMillis();
-        tool.generate();
+        if (batchEntryPoints.isEmpty()) {
+            tool.generate();
+        } else {
+            tool.generateBatch(batchEntryPoints);
+        }
         reportPhaseComplete();
         TeaVMProblemRenderer.describeProblems(tool.getDependencyInfo().getCallGraph(), tool.getProblemProvider(), log);
         log.flush();
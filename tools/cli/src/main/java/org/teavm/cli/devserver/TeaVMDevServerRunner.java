@@ -125,6 +125,10 @@ public final class TeaVMDevServerRunner {
                 .desc("don't watch file system changes")
                 .longOpt("no-watch")
                 .build());
+        options.addOption(Option.builder()
+                .desc("compile bodies of methods when they are called for the first time")
+                .longOpt("lazy-compilation")
+                .build());
         options.addOption(Option.builder()
                 .desc("JSON interface over stdout")
                 .longOpt("json-interface")
@@ -172,6 +176,7 @@ public final class TeaVMDevServerRunner {
         devServer.setIndicator(commandLine.hasOption("indicator"));
         devServer.setDeobfuscateStack(commandLine.hasOption("deobfuscate-stack"));
         devServer.setReloadedAutomatically(commandLine.hasOption("auto-reload"));
+        devServer.setLazyCompilation(commandLine.hasOption("lazy-compilation"));
         if (commandLine.hasOption("port")) {
             try {
                 devServer.setPort(Integer.parseInt(commandLine.getOptionValue("port")));
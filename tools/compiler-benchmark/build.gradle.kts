@@ -0,0 +1,43 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+plugins {
+    java
+}
+
+description = "JMH benchmarks of TeaVM compiler phases"
+
+dependencies {
+    implementation(project(":core"))
+    implementation(project(":classlib"))
+    implementation(project(":jso:apis"))
+    implementation(libs.jmh.core)
+    annotationProcessor(libs.jmh.annprocess)
+}
+
+val resultsFile = layout.buildDirectory.file("jmh/results.json")
+val benchmark by tasks.register<JavaExec>("benchmark") {
+    dependsOn(tasks["relocateJar"])
+    outputs.file(resultsFile)
+    outputs.upToDateWhen { false }
+    classpath = configurations.runtimeClasspath.get() + tasks["relocateJar"].outputs.files
+    mainClass = "org.openjdk.jmh.Main"
+    args("-rf", "json", "-rff", resultsFile.get().asFile.absolutePath)
+    args(providers.gradleProperty("teavm.benchmark.include").orElse(".*").get())
+    doFirst {
+        resultsFile.get().asFile.parentFile.mkdirs()
+    }
+}
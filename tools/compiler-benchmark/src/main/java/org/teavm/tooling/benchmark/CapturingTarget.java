@@ -0,0 +1,161 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import org.teavm.dependency.DependencyAnalyzer;
+import org.teavm.dependency.DependencyListener;
+import org.teavm.model.ClassHolderTransformer;
+import org.teavm.model.ListableClassHolderSource;
+import org.teavm.model.ListableClassReaderSource;
+import org.teavm.model.MethodReader;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.optimization.InliningFilterFactory;
+import org.teavm.model.util.ProgramUtils;
+import org.teavm.model.util.VariableCategoryProvider;
+import org.teavm.vm.BuildTarget;
+import org.teavm.vm.TeaVMTarget;
+import org.teavm.vm.TeaVMTargetController;
+import org.teavm.vm.spi.TeaVMHostExtension;
+
+/**
+ * Delegates to the real target, but remembers inputs of inlining, optimizations and rendering instead
+ * of emitting code, so that each of these steps can later be measured in isolation.
+ */
+class CapturingTarget implements TeaVMTarget {
+    final TeaVMTarget delegate;
+    TeaVMTargetController controller;
+    Supplier<ListableClassReaderSource> linkedClasses;
+    ListableClassHolderSource classesBeforeInlining;
+    final List<CapturedProgram> programsBeforeOptimizations = new ArrayList<>();
+    ListableClassHolderSource emittedClasses;
+
+    CapturingTarget(TeaVMTarget delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<ClassHolderTransformer> getTransformers() {
+        return delegate.getTransformers();
+    }
+
+    @Override
+    public List<DependencyListener> getDependencyListeners() {
+        return delegate.getDependencyListeners();
+    }
+
+    @Override
+    public void setEntryPoint(String entryPoint, String name) {
+        delegate.setEntryPoint(entryPoint, name);
+    }
+
+    @Override
+    public void setController(TeaVMTargetController controller) {
+        this.controller = controller;
+        delegate.setController(controller);
+    }
+
+    @Override
+    public List<TeaVMHostExtension> getHostExtensions() {
+        return delegate.getHostExtensions();
+    }
+
+    @Override
+    public VariableCategoryProvider variableCategoryProvider() {
+        return delegate.variableCategoryProvider();
+    }
+
+    @Override
+    public void contributeDependencies(DependencyAnalyzer dependencyAnalyzer) {
+        delegate.contributeDependencies(dependencyAnalyzer);
+    }
+
+    @Override
+    public void beforeInlining(Program program, MethodReader method) {
+        if (classesBeforeInlining == null) {
+            // Hook is called for all methods right before inlining, so copy all classes on the first call.
+            // Delegate is expected to do nothing here (which is true for non-strict JavaScript target),
+            // otherwise inlining would be measured on slightly different input.
+            classesBeforeInlining = CompiledCorpus.copy(linkedClasses.get());
+        }
+        delegate.beforeInlining(program, method);
+    }
+
+    @Override
+    public void analyzeBeforeOptimizations(ListableClassReaderSource classSource) {
+        delegate.analyzeBeforeOptimizations(classSource);
+    }
+
+    @Override
+    public void beforeOptimizations(Program program, MethodReader method) {
+        delegate.beforeOptimizations(program, method);
+        programsBeforeOptimizations.add(new CapturedProgram(method, ProgramUtils.copy(program)));
+    }
+
+    @Override
+    public void afterOptimizations(Program program, MethodReader method) {
+        delegate.afterOptimizations(program, method);
+    }
+
+    @Override
+    public void emit(ListableClassHolderSource classes, BuildTarget buildTarget, String outputName) {
+        emittedClasses = classes;
+    }
+
+    @Override
+    public String[] getPlatformTags() {
+        return delegate.getPlatformTags();
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return delegate.isAsyncSupported();
+    }
+
+    @Override
+    public InliningFilterFactory getInliningFilter() {
+        return delegate.getInliningFilter();
+    }
+
+    @Override
+    public Collection<? extends MethodReference> getInitializerMethods() {
+        return delegate.getInitializerMethods();
+    }
+
+    @Override
+    public boolean needsSystemArrayCopyOptimization() {
+        return delegate.needsSystemArrayCopyOptimization();
+    }
+
+    @Override
+    public boolean filterClassInitializer(String initializer) {
+        return delegate.filterClassInitializer(initializer);
+    }
+
+    static class CapturedProgram {
+        final MethodReader method;
+        final Program program;
+
+        CapturedProgram(MethodReader method, Program program) {
+            this.method = method;
+            this.program = program;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.model.ListableClassHolderSource;
+import org.teavm.model.ListableClassReaderSource;
+import org.teavm.model.MethodReference;
+import org.teavm.model.MutableClassHolderSource;
+import org.teavm.model.Program;
+import org.teavm.model.ProgramReader;
+import org.teavm.model.util.ModelUtils;
+import org.teavm.tooling.benchmark.corpus.CollectionsCorpus;
+import org.teavm.tooling.benchmark.corpus.TextCorpus;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+/**
+ * Fixed program compiled by the optimizing pipeline, together with intermediate representations captured
+ * on the way. Compilation takes a while, so it happens once per corpus in each benchmark fork. Benchmarks
+ * that modify captured data must work on copies.
+ */
+final class CompiledCorpus {
+    static final String OUTPUT_NAME = "classes.js";
+    private static final Map<String, CompiledCorpus> cache = new ConcurrentHashMap<>();
+
+    final String entryPoint;
+    final JavaScriptTarget javaScriptTarget;
+    private final CapturingTarget target;
+    private final TeaVM vm;
+
+    private CompiledCorpus(String entryPoint) {
+        this.entryPoint = entryPoint;
+        javaScriptTarget = new JavaScriptTarget();
+        target = new CapturingTarget(javaScriptTarget);
+        vm = new TeaVMBuilder(target).build();
+        target.linkedClasses = vm::getWrittenClasses;
+        vm.installPlugins();
+        vm.setOptimizationLevel(TeaVMOptimizationLevel.ADVANCED);
+        vm.setEntryPoint(entryPoint);
+        vm.build(new MemoryBuildTarget(), OUTPUT_NAME);
+        if (!vm.getProblemProvider().getSevereProblems().isEmpty() || target.emittedClasses == null) {
+            throw new IllegalStateException("Could not compile corpus " + entryPoint);
+        }
+    }
+
+    static CompiledCorpus get(String corpus) {
+        return cache.computeIfAbsent(corpus, c -> new CompiledCorpus(entryPoint(c)));
+    }
+
+    static String entryPoint(String corpus) {
+        switch (corpus) {
+            case "collections":
+                return CollectionsCorpus.class.getName();
+            case "text":
+                return TextCorpus.class.getName();
+            default:
+                throw new IllegalArgumentException("Unknown corpus: " + corpus);
+        }
+    }
+
+    DependencyInfo getDependencyInfo() {
+        return vm.getDependencyInfo();
+    }
+
+    /**
+     * Same as predicate that TeaVM passes to inlining.
+     */
+    boolean isExternal(MethodReference method) {
+        var dep = vm.getDependencyInfo().getMethod(method);
+        if (dep != null && dep.isCalled()) {
+            return true;
+        }
+        return target.controller.isVirtual(method);
+    }
+
+    ListableClassHolderSource copyClassesBeforeInlining() {
+        return copy(target.classesBeforeInlining);
+    }
+
+    List<CapturingTarget.CapturedProgram> getProgramsBeforeOptimizations() {
+        return target.programsBeforeOptimizations;
+    }
+
+    ListableClassHolderSource copyOptimizedClasses() {
+        return copy(target.emittedClasses);
+    }
+
+    static MutableClassHolderSource copy(ListableClassReaderSource classes) {
+        var result = new MutableClassHolderSource();
+        for (var className : classes.getClassNames()) {
+            var original = classes.get(className);
+            var copy = ModelUtils.copyClass(original);
+            for (var method : copy.getMethods()) {
+                if (method.getProgram() != null) {
+                    copyRegisters(original.getMethod(method.getDescriptor()).getProgram(), method.getProgram());
+                }
+            }
+            result.putClassHolder(copy);
+        }
+        return result;
+    }
+
+    // Decompiler relies on registers allocated by optimizer, but they are not copied along with program
+    private static void copyRegisters(ProgramReader from, Program to) {
+        for (var i = 0; i < from.variableCount(); ++i) {
+            to.variableAt(i).setRegister(from.variableAt(i).getRegister());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.teavm.ast.decompilation.Decompiler;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.ListableClassHolderSource;
+
+/**
+ * Measures decompilation of optimized methods of corpus into AST, including AST optimizer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DecompilerBenchmark {
+    @Param({ "collections", "text" })
+    public String corpus;
+
+    private CompiledCorpus compiledCorpus;
+    private ListableClassHolderSource classes;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        compiledCorpus = CompiledCorpus.get(corpus);
+    }
+
+    @Setup(Level.Invocation)
+    public void copyClasses() {
+        classes = compiledCorpus.copyOptimizedClasses();
+    }
+
+    @Benchmark
+    public void decompile(Blackhole blackhole) {
+        var decompiler = new Decompiler(classes, Set.of(), false);
+        for (var className : classes.getClassNames()) {
+            for (var method : classes.get(className).getMethods()) {
+                if (method.getProgram() != null && !method.hasModifier(ElementModifier.NATIVE)) {
+                    blackhole.consume(decompiler.decompileRegular(method));
+                }
+            }
+        }
+    }
+}
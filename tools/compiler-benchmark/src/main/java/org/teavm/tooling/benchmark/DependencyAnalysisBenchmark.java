@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.dependency.ConcurrentDependencyAnalyzer;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.dependency.PreciseDependencyAnalyzer;
+import org.teavm.model.ClassHolderSource;
+import org.teavm.model.PreOptimizingClassHolderSource;
+import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClasspathClassHolderSource;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMPhase;
+import org.teavm.vm.TeaVMProgressFeedback;
+import org.teavm.vm.TeaVMProgressListener;
+
+/**
+ * Measures dependency analysis of corpus. Classes are parsed once per trial, so that only analysis itself
+ * and transformation of classes by plugins is measured. Zero threads stands for
+ * {@link PreciseDependencyAnalyzer}, any other value for {@link ConcurrentDependencyAnalyzer}
+ * with given number of threads.
+ * Classpath of the {@code tests} module is not measured, since it is not a single program: test runner
+ * generates separate entry point for every test class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DependencyAnalysisBenchmark {
+    @Param({ "collections", "text" })
+    public String corpus;
+
+    @Param({ "0", "4" })
+    public int threads;
+
+    private ClassHolderSource classSource;
+    private TeaVM vm;
+
+    @Setup(Level.Trial)
+    public void parseClasses() {
+        var classLoader = DependencyAnalysisBenchmark.class.getClassLoader();
+        classSource = new PreOptimizingClassHolderSource(new ClasspathClassHolderSource(classLoader,
+                new ReferenceCache()));
+        for (var className : CompiledCorpus.get(corpus).getDependencyInfo().getReachableClasses()) {
+            classSource.get(className);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createVM() {
+        vm = new TeaVMBuilder(new JavaScriptTarget())
+                .setClassLoader(DependencyAnalysisBenchmark.class.getClassLoader())
+                .setClassSource(classSource)
+                .setDependencyAnalyzerFactory(threads > 0
+                        ? ConcurrentDependencyAnalyzer.factory(threads)
+                        : PreciseDependencyAnalyzer::new)
+                .build();
+        vm.installPlugins();
+        vm.setEntryPoint(CompiledCorpus.entryPoint(corpus));
+        vm.setProgressListener(new StopAfterDependencyAnalysis());
+    }
+
+    @Benchmark
+    public DependencyInfo analyze() {
+        vm.build(new MemoryBuildTarget(), CompiledCorpus.OUTPUT_NAME);
+        return vm.getDependencyInfo();
+    }
+
+    static class StopAfterDependencyAnalysis implements TeaVMProgressListener {
+        @Override
+        public TeaVMProgressFeedback phaseStarted(TeaVMPhase phase, int count) {
+            return phase == TeaVMPhase.DEPENDENCY_ANALYSIS
+                    ? TeaVMProgressFeedback.CONTINUE
+                    : TeaVMProgressFeedback.CANCEL;
+        }
+
+        @Override
+        public TeaVMProgressFeedback progressReached(int progress) {
+            return TeaVMProgressFeedback.CONTINUE;
+        }
+    }
+}
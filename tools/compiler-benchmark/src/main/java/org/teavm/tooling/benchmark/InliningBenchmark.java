@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.model.ClassHierarchy;
+import org.teavm.model.ListableClassHolderSource;
+import org.teavm.model.optimization.DefaultInliningStrategy;
+import org.teavm.model.optimization.Inlining;
+import org.teavm.model.optimization.InliningFilterFactory;
+
+/**
+ * Measures inlining of corpus in the same way as {@link org.teavm.vm.TeaVMOptimizationLevel#ADVANCED}
+ * optimization level does it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class InliningBenchmark {
+    @Param({ "collections", "text" })
+    public String corpus;
+
+    private CompiledCorpus compiledCorpus;
+    private ListableClassHolderSource classes;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        compiledCorpus = CompiledCorpus.get(corpus);
+    }
+
+    @Setup(Level.Invocation)
+    public void copyClasses() {
+        classes = compiledCorpus.copyClassesBeforeInlining();
+    }
+
+    @Benchmark
+    public ListableClassHolderSource inline() {
+        var inlining = new Inlining(new ClassHierarchy(classes), compiledCorpus.getDependencyInfo(),
+                new DefaultInliningStrategy(100, 7, 300, true), classes, compiledCorpus::isExternal, false,
+                InliningFilterFactory.DEFAULT);
+        for (var methodReference : inlining.getOrder()) {
+            var cls = classes.get(methodReference.getClassName());
+            var method = cls != null ? cls.getMethod(methodReference.getDescriptor()) : null;
+            if (method == null || method.getProgram() == null) {
+                continue;
+            }
+            if (!inlining.hasUsages(methodReference)) {
+                inlining.removeUsages(method.getProgram());
+                method.setProgram(null);
+            } else {
+                inlining.apply(method.getProgram(), methodReference);
+            }
+        }
+        return classes;
+    }
+}
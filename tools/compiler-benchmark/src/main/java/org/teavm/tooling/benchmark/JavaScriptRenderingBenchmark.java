@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.model.ListableClassHolderSource;
+import org.teavm.vm.MemoryBuildTarget;
+
+/**
+ * Measures generation of JavaScript from optimized classes of corpus. Besides {@code StatementRenderer},
+ * this includes decompilation, which can be measured separately by {@link DecompilerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JavaScriptRenderingBenchmark {
+    @Param({ "collections", "text" })
+    public String corpus;
+
+    @Param({ "false", "true" })
+    public boolean obfuscated;
+
+    private CompiledCorpus compiledCorpus;
+    private ListableClassHolderSource classes;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        compiledCorpus = CompiledCorpus.get(corpus);
+    }
+
+    @Setup(Level.Invocation)
+    public void copyClasses() {
+        classes = compiledCorpus.copyOptimizedClasses();
+        compiledCorpus.javaScriptTarget.setObfuscated(obfuscated);
+    }
+
+    @Benchmark
+    public byte[] render() {
+        var buildTarget = new MemoryBuildTarget();
+        compiledCorpus.javaScriptTarget.emit(classes, buildTarget, CompiledCorpus.OUTPUT_NAME);
+        return buildTarget.getContent(CompiledCorpus.OUTPUT_NAME);
+    }
+}
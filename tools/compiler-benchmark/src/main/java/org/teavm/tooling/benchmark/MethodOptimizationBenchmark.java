@@ -0,0 +1,173 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.model.ClassHierarchy;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.MethodReader;
+import org.teavm.model.Program;
+import org.teavm.model.optimization.ArrayUnwrapMotion;
+import org.teavm.model.optimization.ClassInitElimination;
+import org.teavm.model.optimization.ConstantConditionElimination;
+import org.teavm.model.optimization.GlobalValueNumbering;
+import org.teavm.model.optimization.LoopInvariantMotion;
+import org.teavm.model.optimization.MethodOptimization;
+import org.teavm.model.optimization.MethodOptimizationContext;
+import org.teavm.model.optimization.RedundantJumpElimination;
+import org.teavm.model.optimization.RedundantNullCheckElimination;
+import org.teavm.model.optimization.RedundantPhiElimination;
+import org.teavm.model.optimization.RepeatedFieldReadElimination;
+import org.teavm.model.optimization.ScalarReplacement;
+import org.teavm.model.optimization.SystemArrayCopyOptimization;
+import org.teavm.model.optimization.UnreachableBasicBlockElimination;
+import org.teavm.model.optimization.UnusedVariableElimination;
+import org.teavm.model.util.ProgramUtils;
+
+/**
+ * Measures a single optimization pass applied once to every method of corpus. Input programs are taken
+ * right before optimizations, i.e. after inlining, so passes that run later in the real pipeline
+ * see slightly different input here. This keeps input fixed for each pass, so results of different
+ * commits remain comparable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MethodOptimizationBenchmark {
+    @Param({ "collections", "text" })
+    public String corpus;
+
+    @Param({ "RedundantJumpElimination", "ArrayUnwrapMotion", "ScalarReplacement", "LoopInvariantMotion",
+            "RepeatedFieldReadElimination", "GlobalValueNumbering", "RedundantNullCheckElimination",
+            "ConstantConditionElimination", "UnusedVariableElimination", "ClassInitElimination",
+            "UnreachableBasicBlockElimination", "SystemArrayCopyOptimization", "RedundantPhiElimination" })
+    public String optimization;
+
+    private CompiledCorpus compiledCorpus;
+    private ClassHierarchy hierarchy;
+    private List<MethodReader> methods = new ArrayList<>();
+    private List<Program> programs = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void compile() {
+        compiledCorpus = CompiledCorpus.get(corpus);
+        hierarchy = new ClassHierarchy(compiledCorpus.getDependencyInfo().getClassSource());
+        createOptimization();
+    }
+
+    @Setup(Level.Invocation)
+    public void copyPrograms() {
+        methods.clear();
+        programs.clear();
+        for (var captured : compiledCorpus.getProgramsBeforeOptimizations()) {
+            methods.add(captured.method);
+            programs.add(ProgramUtils.copy(captured.program));
+        }
+    }
+
+    @Benchmark
+    public int optimize() {
+        var changed = 0;
+        for (var i = 0; i < programs.size(); ++i) {
+            var program = programs.get(i);
+            if (program.basicBlockCount() > 0 && createOptimization().optimize(new Context(methods.get(i)),
+                    program)) {
+                ++changed;
+            }
+        }
+        return changed;
+    }
+
+    // Passes may keep state of the method they process, so TeaVM creates new instances for each method
+    private MethodOptimization createOptimization() {
+        switch (optimization) {
+            case "RedundantJumpElimination":
+                return new RedundantJumpElimination();
+            case "ArrayUnwrapMotion":
+                return new ArrayUnwrapMotion();
+            case "ScalarReplacement":
+                return new ScalarReplacement();
+            case "LoopInvariantMotion":
+                return new LoopInvariantMotion();
+            case "RepeatedFieldReadElimination":
+                return new RepeatedFieldReadElimination();
+            case "GlobalValueNumbering":
+                return new GlobalValueNumbering(false);
+            case "RedundantNullCheckElimination":
+                return new RedundantNullCheckElimination();
+            case "ConstantConditionElimination":
+                return new ConstantConditionElimination();
+            case "UnusedVariableElimination":
+                return new UnusedVariableElimination();
+            case "ClassInitElimination":
+                return new ClassInitElimination();
+            case "UnreachableBasicBlockElimination":
+                return new UnreachableBasicBlockElimination();
+            case "SystemArrayCopyOptimization":
+                return new SystemArrayCopyOptimization();
+            case "RedundantPhiElimination":
+                return new RedundantPhiElimination();
+            default:
+                throw new IllegalArgumentException("Unknown optimization: " + optimization);
+        }
+    }
+
+    class Context implements MethodOptimizationContext {
+        private final MethodReader method;
+
+        Context(MethodReader method) {
+            this.method = method;
+        }
+
+        @Override
+        public MethodReader getMethod() {
+            return method;
+        }
+
+        @Override
+        public DependencyInfo getDependencyInfo() {
+            return compiledCorpus.getDependencyInfo();
+        }
+
+        @Override
+        public ClassReaderSource getClassSource() {
+            return compiledCorpus.getDependencyInfo().getClassSource();
+        }
+
+        @Override
+        public ClassHierarchy getHierarchy() {
+            return hierarchy;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.teavm.ast.RegularMethodNode;
+import org.teavm.ast.decompilation.Decompiler;
+import org.teavm.cache.AstIO;
+import org.teavm.cache.InMemorySymbolTable;
+import org.teavm.cache.ProgramIO;
+import org.teavm.cache.VarDataInput;
+import org.teavm.cache.VarDataOutput;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.Program;
+import org.teavm.model.ReferenceCache;
+
+/**
+ * Measures serialization of optimized programs and their ASTs, as done by incremental build cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({ "collections", "text" })
+    public String corpus;
+
+    private ProgramIO programIO;
+    private AstIO astIO;
+    private List<Program> programs = new ArrayList<>();
+    private List<RegularMethodNode> methodNodes = new ArrayList<>();
+    private List<byte[]> programData = new ArrayList<>();
+    private List<byte[]> astData = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        var referenceCache = new ReferenceCache();
+        var symbolTable = new InMemorySymbolTable();
+        var fileTable = new InMemorySymbolTable();
+        var variableTable = new InMemorySymbolTable();
+        programIO = new ProgramIO(referenceCache, symbolTable, fileTable, variableTable);
+        astIO = new AstIO(referenceCache, symbolTable, fileTable, variableTable);
+
+        var classes = CompiledCorpus.get(corpus).copyOptimizedClasses();
+        var decompiler = new Decompiler(classes, Set.of(), false);
+        for (var className : classes.getClassNames()) {
+            for (var method : classes.get(className).getMethods()) {
+                if (method.getProgram() != null && !method.hasModifier(ElementModifier.NATIVE)) {
+                    programs.add(method.getProgram());
+                    methodNodes.add(decompiler.decompileRegular(method));
+                }
+            }
+        }
+
+        // Fill symbol tables and prepare input for reading benchmarks
+        for (var program : programs) {
+            programData.add(serializeProgram(program));
+        }
+        for (var methodNode : methodNodes) {
+            astData.add(serializeAst(methodNode));
+        }
+    }
+
+    @Benchmark
+    public void writePrograms(Blackhole blackhole) throws IOException {
+        for (var program : programs) {
+            blackhole.consume(serializeProgram(program));
+        }
+    }
+
+    @Benchmark
+    public void readPrograms(Blackhole blackhole) throws IOException {
+        for (var data : programData) {
+            blackhole.consume(programIO.read(new ByteArrayInputStream(data)));
+        }
+    }
+
+    @Benchmark
+    public void writeAst(Blackhole blackhole) throws IOException {
+        for (var methodNode : methodNodes) {
+            blackhole.consume(serializeAst(methodNode));
+        }
+    }
+
+    @Benchmark
+    public void readAst(Blackhole blackhole) throws IOException {
+        for (var i = 0; i < astData.size(); ++i) {
+            var input = new VarDataInput(new ByteArrayInputStream(astData.get(i)));
+            blackhole.consume(astIO.read(input, methodNodes.get(i).getReference()));
+        }
+    }
+
+    private byte[] serializeProgram(Program program) throws IOException {
+        var output = new ByteArrayOutputStream();
+        programIO.write(program, output);
+        return output.toByteArray();
+    }
+
+    private byte[] serializeAst(RegularMethodNode methodNode) throws IOException {
+        var output = new ByteArrayOutputStream();
+        astIO.write(new VarDataOutput(output), methodNode);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.backend.wasm.WasmGCTarget;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.render.WasmBinaryRenderer;
+import org.teavm.backend.wasm.render.WasmBinaryStatsCollector;
+import org.teavm.backend.wasm.render.WasmBinaryVersion;
+import org.teavm.backend.wasm.render.WasmBinaryWriter;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+/**
+ * Measures encoding of WebAssembly module, produced from corpus by Wasm GC target, into binary format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class WasmBinaryRenderingBenchmark {
+    @Param({ "collections", "text" })
+    public String corpus;
+
+    private WasmModule module;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        var target = new WasmGCTarget();
+        target.addClassConsumer((context, className) -> module = context.module());
+        var vm = new TeaVMBuilder(target).build();
+        vm.installPlugins();
+        vm.setOptimizationLevel(TeaVMOptimizationLevel.ADVANCED);
+        vm.setEntryPoint(CompiledCorpus.entryPoint(corpus));
+        vm.build(new MemoryBuildTarget(), "classes.wasm");
+        if (!vm.getProblemProvider().getSevereProblems().isEmpty() || module == null) {
+            throw new IllegalStateException("Could not compile corpus " + corpus + " to WebAssembly");
+        }
+    }
+
+    @Benchmark
+    public byte[] render() {
+        var writer = new WasmBinaryWriter();
+        var renderer = new WasmBinaryRenderer(writer, WasmBinaryVersion.V_0x1, false, null, null, null, null,
+                WasmBinaryStatsCollector.EMPTY);
+        renderer.render(module);
+        return writer.getData();
+    }
+}
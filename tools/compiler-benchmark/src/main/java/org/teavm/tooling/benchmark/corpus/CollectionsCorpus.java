@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark.corpus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+public final class CollectionsCorpus {
+    private CollectionsCorpus() {
+    }
+
+    public static void main(String[] args) {
+        List<String> words = new ArrayList<>(List.of(args));
+        Map<Integer, List<String>> byLength = new TreeMap<>();
+        Map<Character, Integer> letters = new HashMap<>();
+        for (var word : words) {
+            byLength.computeIfAbsent(word.length(), k -> new ArrayList<>()).add(word.toUpperCase());
+            for (var i = 0; i < word.length(); ++i) {
+                letters.merge(word.charAt(i), 1, Integer::sum);
+            }
+        }
+        var unique = new LinkedHashSet<>(words);
+        var text = byLength.entrySet().stream()
+                .map(entry -> String.format("%d: %s", entry.getKey(), String.join(",", entry.getValue())))
+                .collect(Collectors.joining("\n"));
+        System.out.println(text + "\n" + unique.size() + " unique words, letters: " + letters);
+    }
+}
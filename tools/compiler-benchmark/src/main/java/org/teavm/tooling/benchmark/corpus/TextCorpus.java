@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.benchmark.corpus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.regex.Pattern;
+
+public final class TextCorpus {
+    private static final Pattern NUMBER = Pattern.compile("-?[0-9]+(\\.[0-9]+)?");
+
+    private TextCorpus() {
+    }
+
+    public static void main(String[] args) {
+        var sum = BigDecimal.ZERO;
+        var sb = new StringBuilder();
+        for (var arg : args) {
+            var matcher = NUMBER.matcher(arg);
+            while (matcher.find()) {
+                sum = sum.add(new BigDecimal(matcher.group()));
+            }
+            sb.append(arg.replaceAll("\\s+", " ").trim()).append(';');
+        }
+        var average = args.length > 0
+                ? sum.divide(BigDecimal.valueOf(args.length), 10, RoundingMode.HALF_EVEN)
+                : BigDecimal.ZERO;
+        System.out.println(sb + " sum=" + sum + " average=" + average.stripTrailingZeros().toPlainString()
+                + " hash=" + Long.toHexString(Double.doubleToLongBits(average.doubleValue())));
+    }
+}
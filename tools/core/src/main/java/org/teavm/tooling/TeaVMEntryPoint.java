@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling;
+
+import java.util.Objects;
+
+/**
+ * Describes one entry point of a batch build, see {@link TeaVMTool#generateBatch(java.util.List)}.
+ */
+public final class TeaVMEntryPoint {
+    private final String mainClass;
+    private final String entryPointName;
+    private final String targetFileName;
+
+    public TeaVMEntryPoint(String mainClass, String entryPointName, String targetFileName) {
+        this.mainClass = Objects.requireNonNull(mainClass);
+        this.entryPointName = entryPointName;
+        this.targetFileName = Objects.requireNonNull(targetFileName);
+    }
+
+    public TeaVMEntryPoint(String mainClass, String targetFileName) {
+        this(mainClass, "main", targetFileName);
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public String getEntryPointName() {
+        return entryPointName;
+    }
+
+    public String getTargetFileName() {
+        return targetFileName;
+    }
+}
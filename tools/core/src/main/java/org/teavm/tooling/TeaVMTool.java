@@ -15,10 +15,14 @@
  */
 package org.teavm.tooling;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
@@ -45,6 +49,7 @@ import org.teavm.backend.wasm.WasmRuntimeType;
 import org.teavm.backend.wasm.WasmTarget;
 import org.teavm.backend.wasm.debug.sourcemap.SourceMapBuilder;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
+import org.teavm.cache.AlwaysFreshCacheStatus;
 import org.teavm.cache.AlwaysStaleCacheStatus;
 import org.teavm.cache.CacheStatus;
 import org.teavm.cache.DiskCachedClassReaderSource;
@@ -52,26 +57,40 @@ import org.teavm.cache.DiskMethodNodeCache;
 import org.teavm.cache.DiskProgramCache;
 import org.teavm.cache.EmptyProgramCache;
 import org.teavm.cache.FileSymbolTable;
+import org.teavm.cache.InMemoryMethodNodeCache;
+import org.teavm.cache.InMemoryProgramCache;
+import org.teavm.cache.InMemorySymbolTable;
+import org.teavm.cache.PackedCachedClassReaderSource;
+import org.teavm.cache.PackedProgramCache;
 import org.teavm.debugging.information.DebugInformation;
 import org.teavm.debugging.information.DebugInformationBuilder;
 import org.teavm.debugging.information.SourceMapsWriter;
+import org.teavm.dependency.ConcurrentDependencyAnalyzer;
 import org.teavm.dependency.DependencyInfo;
+import org.teavm.dependency.DependencySnapshot;
 import org.teavm.dependency.FastDependencyAnalyzer;
 import org.teavm.dependency.PreciseDependencyAnalyzer;
+import org.teavm.diagnostics.Problem;
 import org.teavm.diagnostics.ProblemProvider;
 import org.teavm.model.ClassHolderSource;
 import org.teavm.model.ClassHolderTransformer;
 import org.teavm.model.ClassReader;
+import org.teavm.model.ClassReaderSource;
 import org.teavm.model.PreOptimizingClassHolderSource;
+import org.teavm.model.ProgramCache;
 import org.teavm.model.ReferenceCache;
+import org.teavm.model.profile.ExecutionProfile;
 import org.teavm.model.transformation.AssertionRemoval;
 import org.teavm.parsing.ClasspathClassHolderSource;
+import org.teavm.parsing.CompositeClassHolderSource;
+import org.teavm.parsing.SharedClassHolderSource;
 import org.teavm.tooling.sources.DefaultSourceFileResolver;
 import org.teavm.tooling.sources.SourceFileProvider;
 import org.teavm.vm.BuildTarget;
 import org.teavm.vm.DirectoryBuildTarget;
 import org.teavm.vm.TeaVM;
 import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMMetrics;
 import org.teavm.vm.TeaVMOptimizationLevel;
 import org.teavm.vm.TeaVMProgressListener;
 import org.teavm.vm.TeaVMTarget;
@@ -84,6 +103,7 @@ public class TeaVMTool {
     private JSModuleType jsModuleType = JSModuleType.UMD;
     private boolean strict;
     private int maxTopLevelNames = 80_000;
+    private int renderingThreads = 1;
     private String mainClass;
     private String entryPointName = "main";
     private Properties properties = new Properties();
@@ -92,12 +112,20 @@ public class TeaVMTool {
     private TeaVMSourceFilePolicy sourceFilePolicy = TeaVMSourceFilePolicy.DO_NOTHING;
     private boolean incremental;
     private File cacheDirectory = new File("./teavm-cache");
+    private boolean packedCache;
+    private boolean incrementalDependencyAnalysis;
+    private File metricsFile;
+    private boolean profileInstrumentation;
+    private File profileFile;
+    private TeaVMMetrics metrics;
     private List<String> transformers = new ArrayList<>();
     private List<String> classesToPreserve = new ArrayList<>();
+    private List<String> splitPoints = new ArrayList<>();
     private TeaVMToolLog log = new EmptyTeaVMToolLog();
     private ClassLoader classLoader = TeaVMTool.class.getClassLoader();
-    private DiskCachedClassReaderSource cachedClassSource;
-    private DiskProgramCache programCache;
+    private ClassLoader sharedClassLoader;
+    private Flushable cachedClassSource;
+    private ProgramCache programCache;
     private DiskMethodNodeCache astCache;
     private FileSymbolTable symbolTable;
     private FileSymbolTable fileTable;
@@ -107,6 +135,9 @@ public class TeaVMTool {
     private TeaVM vm;
     private boolean fastDependencyAnalysis;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.SIMPLE;
+    private int optimizationThreads = 1;
+    private int dependencyAnalysisThreads = 1;
+    private int classPrefetchThreads;
     private List<SourceFileProvider> sourceFileProviders = new ArrayList<>();
     private DebugInformationBuilder debugEmitter;
     private JavaScriptTarget javaScriptTarget;
@@ -126,6 +157,7 @@ public class TeaVMTool {
     private boolean shortFileNames;
     private boolean assertionsRemoved;
     private SourceMapBuilder wasmSourceMapWriter;
+    private BatchState batch;
 
     public File getTargetDirectory() {
         return targetDirectory;
@@ -155,6 +187,10 @@ public class TeaVMTool {
         this.maxTopLevelNames = maxTopLevelNames;
     }
 
+    public void setRenderingThreads(int renderingThreads) {
+        this.renderingThreads = renderingThreads;
+    }
+
     public boolean isIncremental() {
         return incremental;
     }
@@ -191,6 +227,73 @@ public class TeaVMTool {
         this.cacheDirectory = cacheDirectory;
     }
 
+    public boolean isPackedCache() {
+        return packedCache;
+    }
+
+    /**
+     * Makes incremental build store cached classes and programs in a couple of pack files instead
+     * of a separate file per class and per method.
+     */
+    public void setPackedCache(boolean packedCache) {
+        this.packedCache = packedCache;
+    }
+
+    public boolean isIncrementalDependencyAnalysis() {
+        return incrementalDependencyAnalysis;
+    }
+
+    /**
+     * Makes incremental build store results of dependency analysis in cache directory and reuse them
+     * for classes that did not change since previous build.
+     */
+    public void setIncrementalDependencyAnalysis(boolean incrementalDependencyAnalysis) {
+        this.incrementalDependencyAnalysis = incrementalDependencyAnalysis;
+    }
+
+    public File getMetricsFile() {
+        return metricsFile;
+    }
+
+    /**
+     * Makes build collect timings of compilation phases and optimization passes, cache statistics
+     * and memory usage, and write them to the given file in JSON format.
+     */
+    public void setMetricsFile(File metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    public boolean isProfileInstrumentation() {
+        return profileInstrumentation;
+    }
+
+    /**
+     * Makes generated code count method invocations, call sites and receiver types. The counters can be
+     * dumped after a representative run and passed back via {@link #setProfileFile(File)}.
+     */
+    public void setProfileInstrumentation(boolean profileInstrumentation) {
+        this.profileInstrumentation = profileInstrumentation;
+    }
+
+    public File getProfileFile() {
+        return profileFile;
+    }
+
+    /**
+     * Sets file with execution profile recorded by instrumented build. The profile guides inlining,
+     * devirtualization and method order; it takes effect in ADVANCED and FULL optimization levels.
+     */
+    public void setProfileFile(File profileFile) {
+        this.profileFile = profileFile;
+    }
+
+    /**
+     * Returns metrics of the last build, or {@code null} if metrics file was not specified.
+     */
+    public TeaVMMetrics getMetrics() {
+        return metrics;
+    }
+
     public boolean isSourceMapsFileGenerated() {
         return sourceMapsFileGenerated;
     }
@@ -230,6 +333,15 @@ public class TeaVMTool {
         return classesToPreserve;
     }
 
+    /**
+     * Split points of JavaScript code in form {@code chunk=className.methodName}, in addition to methods
+     * annotated with {@link org.teavm.interop.SplitPoint}. Applied to ES2015 modules of JavaScript target
+     * and to WebAssembly GC target.
+     */
+    public List<String> getSplitPoints() {
+        return splitPoints;
+    }
+
     public TeaVMToolLog getLog() {
         return log;
     }
@@ -254,6 +366,38 @@ public class TeaVMTool {
         this.optimizationLevel = optimizationLevel;
     }
 
+    public int getOptimizationThreads() {
+        return optimizationThreads;
+    }
+
+    public void setOptimizationThreads(int optimizationThreads) {
+        this.optimizationThreads = optimizationThreads;
+    }
+
+    public int getDependencyAnalysisThreads() {
+        return dependencyAnalysisThreads;
+    }
+
+    /**
+     * Sets number of threads that analyze data flow of reached methods during dependency analysis.
+     * Ignored in fast dependency analysis mode.
+     */
+    public void setDependencyAnalysisThreads(int dependencyAnalysisThreads) {
+        this.dependencyAnalysisThreads = dependencyAnalysisThreads;
+    }
+
+    public int getClassPrefetchThreads() {
+        return classPrefetchThreads;
+    }
+
+    /**
+     * Sets number of threads that parse classes from classpath ahead of time, before dependency analyzer
+     * requests them. Zero (default) means that classes are parsed on demand.
+     */
+    public void setClassPrefetchThreads(int classPrefetchThreads) {
+        this.classPrefetchThreads = classPrefetchThreads;
+    }
+
     public boolean isFastDependencyAnalysis() {
         return fastDependencyAnalysis;
     }
@@ -286,6 +430,19 @@ public class TeaVMTool {
         this.classLoader = classLoader;
     }
 
+    public ClassLoader getSharedClassLoader() {
+        return sharedClassLoader;
+    }
+
+    /**
+     * Sets class loader of libraries that don't change between builds in this JVM, usually a parent of
+     * {@link #getClassLoader()}. Classes found there are taken from {@link SharedClassHolderSource},
+     * so that they are parsed only once per process. Ignored by incremental builds, which have their own cache.
+     */
+    public void setSharedClassLoader(ClassLoader sharedClassLoader) {
+        this.sharedClassLoader = sharedClassLoader;
+    }
+
     public WasmBinaryVersion getWasmVersion() {
         return wasmVersion;
     }
@@ -327,6 +484,9 @@ public class TeaVMTool {
     }
 
     public ProblemProvider getProblemProvider() {
+        if (batch != null) {
+            return batch;
+        }
         return vm != null ? vm.getProblemProvider() : null;
     }
 
@@ -375,15 +535,34 @@ public class TeaVMTool {
         javaScriptTarget.setObfuscated(obfuscated);
         javaScriptTarget.setStrict(strict);
         javaScriptTarget.setMaxTopLevelNames(maxTopLevelNames);
+        javaScriptTarget.setRenderingThreads(renderingThreads);
 
         debugEmitter = debugInformationGenerated || sourceMapsFileGenerated
                 ? new DebugInformationBuilder(referenceCache) : null;
         javaScriptTarget.setDebugEmitter(debugEmitter);
         javaScriptTarget.setModuleType(jsModuleType);
+        parseSplitPoints(javaScriptTarget::addSplitPoint);
 
         return javaScriptTarget;
     }
 
+    private void parseSplitPoints(SplitPointConsumer consumer) {
+        for (var splitPoint : splitPoints) {
+            var chunkIndex = splitPoint.indexOf('=');
+            var methodIndex = splitPoint.lastIndexOf('.');
+            if (chunkIndex <= 0 || methodIndex <= chunkIndex + 1 || methodIndex == splitPoint.length() - 1) {
+                throw new IllegalArgumentException("Split point should have form chunk=className.methodName: "
+                        + splitPoint);
+            }
+            consumer.accept(splitPoint.substring(chunkIndex + 1, methodIndex),
+                    splitPoint.substring(methodIndex + 1), splitPoint.substring(0, chunkIndex));
+        }
+    }
+
+    private interface SplitPointConsumer {
+        void accept(String className, String methodName, String chunk);
+    }
+
     private WasmTarget prepareWebAssemblyTarget() {
         webAssemblyTarget = new WasmTarget();
         webAssemblyTarget.setDebugging(debugInformationGenerated);
@@ -418,6 +597,8 @@ public class TeaVMTool {
         target.setDebugInfoLocation(wasmDebugInfoLocation);
         target.setBufferHeapMinSize(minDirectBuffersSize);
         target.setBufferHeapMaxSize(maxDirectBuffersSize);
+        target.setRenderingThreads(renderingThreads);
+        parseSplitPoints(target::addSplitPoint);
         if (sourceMapsFileGenerated) {
             wasmSourceMapWriter = new SourceMapBuilder();
             target.setSourceMapBuilder(wasmSourceMapWriter);
@@ -439,11 +620,57 @@ public class TeaVMTool {
         return cTarget;
     }
 
+    /**
+     * Builds several entry points with the same settings, one output file per entry point.
+     * Main class, entry point name and target file name of this tool are ignored and taken
+     * from the given entry points instead.
+     *
+     * <p>Unlike calling {@link #generate()} for each entry point, parsed classes are shared between
+     * builds. When methods are optimized independently of entry point (i.e. with
+     * {@link TeaVMOptimizationLevel#SIMPLE} or in incremental mode), optimized programs and ASTs
+     * are shared as well, so that each method common to several entry points is only compiled once.
+     * {@link #getProblemProvider()} reports problems of all entry points, {@link #getGeneratedFiles()}
+     * lists files generated for all entry points.
+     */
+    public void generateBatch(List<TeaVMEntryPoint> entryPoints) throws TeaVMToolException {
+        var savedMainClass = mainClass;
+        var savedEntryPointName = entryPointName;
+        var savedTargetFileName = targetFileName;
+        batch = new BatchState();
+        try {
+            for (var entryPoint : entryPoints) {
+                mainClass = entryPoint.getMainClass();
+                entryPointName = entryPoint.getEntryPointName();
+                targetFileName = entryPoint.getTargetFileName();
+                doGenerate();
+                if (cancelled) {
+                    break;
+                }
+            }
+        } finally {
+            mainClass = savedMainClass;
+            entryPointName = savedEntryPointName;
+            targetFileName = savedTargetFileName;
+        }
+    }
+
     public void generate() throws TeaVMToolException {
+        batch = null;
+        doGenerate();
+    }
+
+    private void doGenerate() throws TeaVMToolException {
         try {
             cancelled = false;
             log.info("Running TeaVM");
-            referenceCache = new ReferenceCache();
+            if (batch != null && batch.referenceCache != null) {
+                referenceCache = batch.referenceCache;
+            } else {
+                // Don't intern references of the build in caches of shared class pools, since classes
+                // of the build change between builds, which would make these caches grow without bound
+                referenceCache = new ReferenceCache();
+            }
+            metrics = metricsFile != null ? new TeaVMMetrics() : null;
             TeaVMBuilder vmBuilder = new TeaVMBuilder(prepareTarget());
             CacheStatus cacheStatus;
             vmBuilder.setReferenceCache(referenceCache);
@@ -453,16 +680,30 @@ public class TeaVMTool {
                 fileTable = new FileSymbolTable(new File(cacheDirectory, "files"));
                 variableTable = new FileSymbolTable(new File(cacheDirectory, "variables"));
                 ClasspathClassHolderSource innerClassSource = new ClasspathClassHolderSource(classLoader,
-                        referenceCache);
+                        referenceCache, classPrefetchThreads);
                 ClassHolderSource classSource = new PreOptimizingClassHolderSource(innerClassSource);
-                cachedClassSource = new DiskCachedClassReaderSource(cacheDirectory, referenceCache, symbolTable,
-                        fileTable, variableTable, classSource, innerClassSource);
-                programCache = new DiskProgramCache(cacheDirectory, referenceCache, symbolTable, fileTable,
-                        variableTable);
+                ClassReaderSource cachedClasses;
+                if (packedCache) {
+                    var packedClassSource = new PackedCachedClassReaderSource(cacheDirectory, referenceCache,
+                            symbolTable, fileTable, variableTable, classSource, innerClassSource);
+                    cachedClasses = packedClassSource;
+                    cacheStatus = packedClassSource;
+                    cachedClassSource = packedClassSource;
+                    programCache = new PackedProgramCache(cacheDirectory, referenceCache, symbolTable, fileTable,
+                            variableTable);
+                } else {
+                    var diskClassSource = new DiskCachedClassReaderSource(cacheDirectory, referenceCache,
+                            symbolTable, fileTable, variableTable, classSource, innerClassSource);
+                    cachedClasses = diskClassSource;
+                    cacheStatus = diskClassSource;
+                    cachedClassSource = diskClassSource;
+                    programCache = new DiskProgramCache(cacheDirectory, referenceCache, symbolTable, fileTable,
+                            variableTable);
+                }
                 if (targetType == TeaVMTargetType.JAVASCRIPT) {
                     astCache = new DiskMethodNodeCache(cacheDirectory, referenceCache, symbolTable, fileTable,
                             variableTable);
-                    javaScriptTarget.setAstCache(astCache);
+                    javaScriptTarget.setAstCache(metrics != null ? metrics.countHits(astCache) : astCache);
                 }
                 try {
                     symbolTable.update();
@@ -471,37 +712,80 @@ public class TeaVMTool {
                 } catch (IOException e) {
                     log.info("Cache is missing");
                 }
-                vmBuilder.setClassLoader(classLoader).setClassSource(cachedClassSource);
-                cacheStatus = cachedClassSource;
+                vmBuilder.setClassLoader(classLoader).setClassSource(cachedClasses);
             } else {
-                vmBuilder.setClassLoader(classLoader).setClassSource(new PreOptimizingClassHolderSource(
-                        new ClasspathClassHolderSource(classLoader, referenceCache)));
-                cacheStatus = AlwaysStaleCacheStatus.INSTANCE;
+                ClassHolderSource classSource;
+                if (batch != null && batch.classSource != null) {
+                    classSource = batch.classSource;
+                } else {
+                    classSource = new PreOptimizingClassHolderSource(
+                            new ClasspathClassHolderSource(classLoader, referenceCache, classPrefetchThreads));
+                    if (sharedClassLoader != null) {
+                        classSource = new CompositeClassHolderSource(List.of(
+                                SharedClassHolderSource.forClassLoader(sharedClassLoader), classSource));
+                    }
+                }
+                vmBuilder.setClassLoader(classLoader).setClassSource(classSource);
+                if (batch != null) {
+                    batch.referenceCache = referenceCache;
+                    batch.classSource = classSource;
+                }
+                if (batch != null && getEffectiveOptimizationLevel() == TeaVMOptimizationLevel.SIMPLE) {
+                    // Classes don't change between builds of a batch, so cached programs never get stale
+                    batch.initCaches(referenceCache);
+                    cacheStatus = AlwaysFreshCacheStatus.INSTANCE;
+                    if (targetType == TeaVMTargetType.JAVASCRIPT) {
+                        javaScriptTarget.setAstCache(metrics != null
+                                ? metrics.countHits(batch.astCache)
+                                : batch.astCache);
+                    }
+                } else {
+                    cacheStatus = AlwaysStaleCacheStatus.INSTANCE;
+                }
             }
 
-            vmBuilder.setDependencyAnalyzerFactory(fastDependencyAnalysis
-                    ? FastDependencyAnalyzer::new
-                    : PreciseDependencyAnalyzer::new);
+            if (fastDependencyAnalysis) {
+                vmBuilder.setDependencyAnalyzerFactory(FastDependencyAnalyzer::new);
+            } else if (dependencyAnalysisThreads > 1) {
+                vmBuilder.setDependencyAnalyzerFactory(ConcurrentDependencyAnalyzer.factory(
+                        dependencyAnalysisThreads));
+            } else {
+                vmBuilder.setDependencyAnalyzerFactory(PreciseDependencyAnalyzer::new);
+            }
             vmBuilder.setObfuscated(obfuscated);
             vmBuilder.setStrict(strict);
+            vmBuilder.setOptimizationThreads(optimizationThreads);
 
             vm = vmBuilder.build();
             if (progressListener != null) {
                 vm.setProgressListener(progressListener);
             }
+            vm.setMetrics(metrics);
 
             if (assertionsRemoved) {
                 vm.add(new AssertionRemoval());
             }
 
             vm.setProperties(properties);
-            vm.setProgramCache(incremental ? programCache : EmptyProgramCache.INSTANCE);
+            if (incremental) {
+                vm.setProgramCache(programCache);
+            } else if (batch != null && batch.programCache != null) {
+                vm.setProgramCache(batch.programCache);
+            } else {
+                vm.setProgramCache(EmptyProgramCache.INSTANCE);
+            }
             vm.setCacheStatus(cacheStatus);
-            vm.setOptimizationLevel(!fastDependencyAnalysis && !incremental
-                    ? optimizationLevel
-                    : TeaVMOptimizationLevel.SIMPLE);
+            vm.setOptimizationLevel(getEffectiveOptimizationLevel());
+            vm.setProfileInstrumentation(profileInstrumentation);
+            if (profileFile != null) {
+                vm.setExecutionProfile(readExecutionProfile());
+            }
             if (incremental) {
                 vm.addVirtualMethods(m -> true);
+                if (incrementalDependencyAnalysis) {
+                    vm.setDependencySnapshotEnabled(true);
+                    vm.setDependencySnapshot(readDependencySnapshot());
+                }
             }
 
             vm.installPlugins();
@@ -527,10 +811,17 @@ public class TeaVMTool {
             if (vm.wasCancelled()) {
                 log.info("Build cancelled");
                 cancelled = true;
+                if (batch != null) {
+                    batch.discardCaches();
+                }
                 return;
             }
 
             ProblemProvider problemProvider = vm.getProblemProvider();
+            if (batch != null) {
+                batch.commitCaches();
+                batch.addProblems(problemProvider);
+            }
             if (problemProvider.getProblems().isEmpty()) {
                 log.info("Output file successfully built");
             } else if (problemProvider.getSevereProblems().isEmpty()) {
@@ -552,7 +843,7 @@ public class TeaVMTool {
             }
 
             if (incremental) {
-                programCache.flush();
+                ((Flushable) programCache).flush();
                 if (astCache != null) {
                     astCache.flush();
                 }
@@ -560,15 +851,69 @@ public class TeaVMTool {
                 symbolTable.flush();
                 fileTable.flush();
                 variableTable.flush();
+                if (incrementalDependencyAnalysis && vm.getDependencySnapshot() != null) {
+                    try (var output = new BufferedOutputStream(new FileOutputStream(getDependencySnapshotFile()))) {
+                        vm.getDependencySnapshot().write(output);
+                    }
+                }
                 log.info("Cache updated");
             }
 
             printStats();
+            if (metrics != null) {
+                writeMetrics();
+            }
         } catch (IOException e) {
             throw new TeaVMToolException("IO error occurred", e);
         }
     }
 
+    private void writeMetrics() throws IOException {
+        var parent = metricsFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (var writer = new OutputStreamWriter(new FileOutputStream(metricsFile), StandardCharsets.UTF_8)) {
+            metrics.writeJson(writer);
+        }
+        log.info("Build metrics written to " + metricsFile);
+    }
+
+    private DependencySnapshot readDependencySnapshot() {
+        var file = getDependencySnapshotFile();
+        if (!file.exists()) {
+            return null;
+        }
+        try (var input = new BufferedInputStream(new FileInputStream(file))) {
+            return DependencySnapshot.read(input);
+        } catch (IOException e) {
+            log.info("Dependency snapshot could not be read, running full dependency analysis");
+            return null;
+        }
+    }
+
+    private ExecutionProfile readExecutionProfile() throws IOException {
+        var profile = new ExecutionProfile();
+        try (var reader = new InputStreamReader(new FileInputStream(profileFile), StandardCharsets.UTF_8)) {
+            profile.read(reader);
+        }
+        log.info("Execution profile read from " + profileFile);
+        return profile;
+    }
+
+    private File getDependencySnapshotFile() {
+        if (batch != null) {
+            // Snapshot depends on entry point, so keep separate snapshot for each entry point of a batch
+            var key = mainClass + "-" + getResolvedTargetFileName();
+            return new File(cacheDirectory, "dependencies-" + key.replaceAll("[^A-Za-z0-9._-]", "_") + ".bin");
+        }
+        return new File(cacheDirectory, "dependencies.bin");
+    }
+
+    private TeaVMOptimizationLevel getEffectiveOptimizationLevel() {
+        return !fastDependencyAnalysis && !incremental ? optimizationLevel : TeaVMOptimizationLevel.SIMPLE;
+    }
+
     private String getResolvedTargetFileName() {
         if (targetFileName.isEmpty()) {
             switch (targetType) {
@@ -606,13 +951,33 @@ public class TeaVMTool {
             File sourceMapsFile = new File(targetDirectory, sourceMapsFileName);
             try (Writer sourceMapsOut = new OutputStreamWriter(new FileOutputStream(sourceMapsFile),
                     StandardCharsets.UTF_8)) {
-                writeSourceMaps(sourceMapsOut, debugInfo);
+                writeSourceMaps(sourceMapsOut, debugInfo, getResolvedTargetFileName());
             }
             generatedFiles.add(sourceMapsFile);
+            for (var entry : javaScriptTarget.getChunkDebugInformation().entrySet()) {
+                writeChunkSourceMaps(entry.getKey(), entry.getValue());
+            }
             log.info("Source maps successfully written");
         }
     }
 
+    private void writeChunkSourceMaps(String chunkFileName, DebugInformation debugInfo) throws IOException {
+        var chunkFile = new File(targetDirectory, chunkFileName);
+        generatedFiles.add(chunkFile);
+        var sourceMapsFileName = chunkFileName + ".map";
+        try (var writer = new OutputStreamWriter(new FileOutputStream(chunkFile, true), StandardCharsets.UTF_8)) {
+            // Source map is in the same directory as the chunk
+            writer.append("\n//# sourceMappingURL=")
+                    .append(sourceMapsFileName.substring(sourceMapsFileName.lastIndexOf('/') + 1));
+        }
+        var sourceMapsFile = new File(targetDirectory, sourceMapsFileName);
+        try (var sourceMapsOut = new OutputStreamWriter(new FileOutputStream(sourceMapsFile),
+                StandardCharsets.UTF_8)) {
+            writeSourceMaps(sourceMapsOut, debugInfo, chunkFileName);
+        }
+        generatedFiles.add(sourceMapsFile);
+    }
+
     private void additionalWasmGCOutput() throws IOException {
         if (sourceMapsFileGenerated) {
             var targetDir = new File(targetDirectory, "src");
@@ -633,7 +998,8 @@ public class TeaVMTool {
         }
     }
 
-    private void writeSourceMaps(Writer out, DebugInformation debugInfo) throws IOException {
+    private void writeSourceMaps(Writer out, DebugInformation debugInfo, String generatedFileName)
+            throws IOException {
         var sourceMapWriter = new SourceMapsWriter(out);
         var targetDir = new File(targetDirectory, "src");
         var resolver = new DefaultSourceFileResolver(targetDir, sourceFileProviders);
@@ -643,7 +1009,7 @@ public class TeaVMTool {
         if (sourceFilePolicy != TeaVMSourceFilePolicy.DO_NOTHING) {
             sourceMapWriter.addSourceResolver(resolver);
         }
-        sourceMapWriter.write(getResolvedTargetFileName(), "src", debugInfo);
+        sourceMapWriter.write(generatedFileName, "src", debugInfo);
 
         resolver.close();
     }
@@ -700,4 +1066,52 @@ public class TeaVMTool {
         }
         return transformerInstances;
     }
+
+    private static class BatchState implements ProblemProvider {
+        ReferenceCache referenceCache;
+        ClassHolderSource classSource;
+        InMemoryProgramCache programCache;
+        InMemoryMethodNodeCache astCache;
+        final List<Problem> problems = new ArrayList<>();
+        final List<Problem> severeProblems = new ArrayList<>();
+
+        void initCaches(ReferenceCache referenceCache) {
+            if (programCache == null) {
+                var symbolTable = new InMemorySymbolTable();
+                var fileTable = new InMemorySymbolTable();
+                var variableTable = new InMemorySymbolTable();
+                programCache = new InMemoryProgramCache(referenceCache, symbolTable, fileTable, variableTable);
+                astCache = new InMemoryMethodNodeCache(referenceCache, symbolTable, fileTable, variableTable);
+            }
+        }
+
+        void commitCaches() {
+            if (programCache != null) {
+                programCache.commit();
+                astCache.commit();
+            }
+        }
+
+        void discardCaches() {
+            if (programCache != null) {
+                programCache.discard();
+                astCache.discard();
+            }
+        }
+
+        void addProblems(ProblemProvider provider) {
+            problems.addAll(provider.getProblems());
+            severeProblems.addAll(provider.getSevereProblems());
+        }
+
+        @Override
+        public List<Problem> getProblems() {
+            return problems;
+        }
+
+        @Override
+        public List<Problem> getSevereProblems() {
+            return severeProblems;
+        }
+    }
 }
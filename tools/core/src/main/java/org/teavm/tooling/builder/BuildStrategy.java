@@ -75,6 +75,20 @@ public interface BuildStrategy {
 
     void setFastDependencyAnalysis(boolean value);
 
+    void setOptimizationThreads(int optimizationThreads);
+
+    void setDependencyAnalysisThreads(int dependencyAnalysisThreads);
+
+    void setClassPrefetchThreads(int classPrefetchThreads);
+
+    void setRenderingThreads(int renderingThreads);
+
+    void setPackedCache(boolean packedCache);
+
+    void setIncrementalDependencyAnalysis(boolean incrementalDependencyAnalysis);
+
+    void setMetricsFile(String metricsFile);
+
     void setTargetFileName(String targetFileName);
 
     void setClassesToPreserve(String[] classesToPreserve);
@@ -53,6 +53,13 @@ public class InProcessBuildStrategy implements BuildStrategy {
     private String cacheDirectory;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.ADVANCED;
     private boolean fastDependencyAnalysis;
+    private String metricsFile;
+    private boolean incrementalDependencyAnalysis;
+    private boolean packedCache;
+    private int renderingThreads = 1;
+    private int classPrefetchThreads = 0;
+    private int dependencyAnalysisThreads = 1;
+    private int optimizationThreads = 1;
     private boolean obfuscated;
     private JSModuleType jsModuleType;
     private boolean strict;
@@ -200,6 +207,41 @@ public class InProcessBuildStrategy implements BuildStrategy {
         this.fastDependencyAnalysis = fastDependencyAnalysis;
     }
 
+    @Override
+    public void setOptimizationThreads(int optimizationThreads) {
+        this.optimizationThreads = optimizationThreads;
+    }
+
+    @Override
+    public void setDependencyAnalysisThreads(int dependencyAnalysisThreads) {
+        this.dependencyAnalysisThreads = dependencyAnalysisThreads;
+    }
+
+    @Override
+    public void setClassPrefetchThreads(int classPrefetchThreads) {
+        this.classPrefetchThreads = classPrefetchThreads;
+    }
+
+    @Override
+    public void setRenderingThreads(int renderingThreads) {
+        this.renderingThreads = renderingThreads;
+    }
+
+    @Override
+    public void setPackedCache(boolean packedCache) {
+        this.packedCache = packedCache;
+    }
+
+    @Override
+    public void setIncrementalDependencyAnalysis(boolean incrementalDependencyAnalysis) {
+        this.incrementalDependencyAnalysis = incrementalDependencyAnalysis;
+    }
+
+    @Override
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
     @Override
     public void setTargetFileName(String targetFileName) {
         this.targetFileName = targetFileName;
@@ -284,6 +326,13 @@ public class InProcessBuildStrategy implements BuildStrategy {
         tool.setClassLoader(classLoader);
         tool.setOptimizationLevel(optimizationLevel);
         tool.setFastDependencyAnalysis(fastDependencyAnalysis);
+        tool.setMetricsFile(metricsFile != null ? new File(metricsFile) : null);
+        tool.setIncrementalDependencyAnalysis(incrementalDependencyAnalysis);
+        tool.setPackedCache(packedCache);
+        tool.setRenderingThreads(renderingThreads);
+        tool.setClassPrefetchThreads(classPrefetchThreads);
+        tool.setDependencyAnalysisThreads(dependencyAnalysisThreads);
+        tool.setOptimizationThreads(optimizationThreads);
 
         tool.setSourceMapsFileGenerated(sourceMapsFileGenerated);
         tool.setDebugInformationGenerated(debugInformationGenerated);
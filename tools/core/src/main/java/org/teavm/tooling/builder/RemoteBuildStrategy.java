@@ -169,6 +169,41 @@ public class RemoteBuildStrategy implements BuildStrategy {
         request.fastDependencyAnalysis = value;
     }
 
+    @Override
+    public void setOptimizationThreads(int optimizationThreads) {
+        request.optimizationThreads = optimizationThreads;
+    }
+
+    @Override
+    public void setDependencyAnalysisThreads(int dependencyAnalysisThreads) {
+        request.dependencyAnalysisThreads = dependencyAnalysisThreads;
+    }
+
+    @Override
+    public void setClassPrefetchThreads(int classPrefetchThreads) {
+        request.classPrefetchThreads = classPrefetchThreads;
+    }
+
+    @Override
+    public void setRenderingThreads(int renderingThreads) {
+        request.renderingThreads = renderingThreads;
+    }
+
+    @Override
+    public void setPackedCache(boolean packedCache) {
+        request.packedCache = packedCache;
+    }
+
+    @Override
+    public void setIncrementalDependencyAnalysis(boolean incrementalDependencyAnalysis) {
+        request.incrementalDependencyAnalysis = incrementalDependencyAnalysis;
+    }
+
+    @Override
+    public void setMetricsFile(String metricsFile) {
+        request.metricsFile = metricsFile;
+    }
+
     @Override
     public void setTargetFileName(String targetFileName) {
         request.tagetFileName = targetFileName;
@@ -57,6 +57,7 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
     private File incrementalCache;
     private ClassLoader lastJarClassLoader;
     private List<String> lastJarClassPath;
+    private List<Long> lastJarTimestamps;
 
     BuildDaemon(boolean incremental) throws RemoteException {
         super();
@@ -144,7 +145,9 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
         tool.setEntryPointName(request.entryPointName);
         tool.setTargetDirectory(new File(request.targetDirectory));
         tool.setTargetFileName(request.tagetFileName);
-        tool.setClassLoader(buildClassLoader(request.classPath, incremental && request.incremental));
+        ClassLoader classLoader = buildClassLoader(request.classPath);
+        tool.setClassLoader(classLoader);
+        tool.setSharedClassLoader(classLoader.getParent());
 
         tool.setSourceMapsFileGenerated(request.sourceMapsFileGenerated);
         tool.setDebugInformationGenerated(request.debugInformationGenerated);
@@ -157,6 +160,13 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
 
         tool.setOptimizationLevel(request.optimizationLevel);
         tool.setFastDependencyAnalysis(request.fastDependencyAnalysis);
+        tool.setMetricsFile(request.metricsFile != null ? new File(request.metricsFile) : null);
+        tool.setIncrementalDependencyAnalysis(request.incrementalDependencyAnalysis);
+        tool.setPackedCache(request.packedCache);
+        tool.setRenderingThreads(request.renderingThreads);
+        tool.setClassPrefetchThreads(request.classPrefetchThreads);
+        tool.setDependencyAnalysisThreads(request.dependencyAnalysisThreads);
+        tool.setOptimizationThreads(request.optimizationThreads);
         tool.setObfuscated(request.obfuscated);
         tool.setJsModuleType(request.jsModuleType);
         tool.setStrict(request.strict);
@@ -196,7 +206,7 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
         return response;
     }
 
-    private ClassLoader buildClassLoader(List<String> classPathEntries, boolean incremental) {
+    private ClassLoader buildClassLoader(List<String> classPathEntries) {
         System.out.println("Classpath: " + classPathEntries);
         Function<String, URL> mapper = entry -> {
             try {
@@ -209,16 +219,15 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
                 .filter(entry -> entry.endsWith(".jar"))
                 .collect(Collectors.toList());
 
-        ClassLoader jarClassLoader = null;
+        List<Long> jarTimestamps = jarEntries.stream()
+                .map(entry -> new File(entry).lastModified())
+                .collect(Collectors.toList());
 
-        if (incremental) {
-            if (jarEntries.equals(lastJarClassPath) && lastJarClassLoader != null) {
-                jarClassLoader = lastJarClassLoader;
-                System.out.println("Reusing previous class path");
-            }
-        } else {
-            lastJarClassLoader = null;
-            lastJarClassPath = null;
+        ClassLoader jarClassLoader = null;
+        if (jarEntries.equals(lastJarClassPath) && jarTimestamps.equals(lastJarTimestamps)
+                && lastJarClassLoader != null) {
+            jarClassLoader = lastJarClassLoader;
+            System.out.println("Reusing previous class path");
         }
         if (jarClassLoader == null) {
             URL[] jarUrls = jarEntries.stream()
@@ -226,10 +235,9 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
                     .toArray(URL[]::new);
             jarClassLoader = new URLClassLoader(jarUrls);
         }
-        if (incremental) {
-            lastJarClassPath = jarEntries;
-            lastJarClassLoader = jarClassLoader;
-        }
+        lastJarClassPath = jarEntries;
+        lastJarTimestamps = jarTimestamps;
+        lastJarClassLoader = jarClassLoader;
 
         URL[] urls = classPathEntries.stream()
                 .filter(entry -> !entry.endsWith(".jar"))
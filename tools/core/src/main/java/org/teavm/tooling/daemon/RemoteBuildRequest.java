@@ -50,6 +50,13 @@ public class RemoteBuildRequest implements Serializable {
     public Properties properties;
     public TeaVMOptimizationLevel optimizationLevel;
     public boolean fastDependencyAnalysis;
+    public String metricsFile;
+    public boolean incrementalDependencyAnalysis;
+    public boolean packedCache;
+    public int renderingThreads = 1;
+    public int classPrefetchThreads = 0;
+    public int dependencyAnalysisThreads = 1;
+    public int optimizationThreads = 1;
     public WasmBinaryVersion wasmVersion;
     public boolean wasmExceptionsUsed;
     public WasmDebugInfoLocation wasmDebugInfoLocation;
@@ -75,6 +75,7 @@ import org.teavm.cache.InMemorySymbolTable;
 import org.teavm.cache.MemoryCachedClassReaderSource;
 import org.teavm.debugging.information.DebugInformation;
 import org.teavm.debugging.information.DebugInformationBuilder;
+import org.teavm.dependency.DependencySnapshot;
 import org.teavm.dependency.FastDependencyAnalyzer;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassReader;
@@ -133,6 +134,7 @@ public class CodeServlet extends HttpServlet {
     private InMemoryProgramCache programCache;
     private InMemoryMethodNodeCache astCache;
     private int lastReachedClasses;
+    private DependencySnapshot dependencySnapshot;
     private boolean firstTime = true;
 
     private final Object contentLock = new Object();
@@ -156,6 +158,14 @@ public class CodeServlet extends HttpServlet {
     private boolean fileSystemWatched = true;
     private boolean compileOnStartup = true;
     private boolean logBuildErrors = true;
+    private boolean lazyCompilation;
+    private String lazyMethodPath;
+    // Classes are not evicted while lazy target is alive, so programs and ASTs computed for it are
+    // valid for the next build as well
+    private final LazyMethodBodies lazyMethodBodies = new LazyMethodBodies(() -> {
+        programCache.commit();
+        astCache.commit();
+    });
 
     public CodeServlet(String mainClass, String[] classPath) {
         this.mainClass = mainClass;
@@ -233,6 +243,14 @@ public class CodeServlet extends HttpServlet {
         this.logBuildErrors = logBuildErrors;
     }
 
+    /**
+     * Makes server generate stubs instead of method bodies. Body of a method is compiled when the method
+     * is called for the first time, and is fetched by the page from the server synchronously.
+     */
+    public void setLazyCompilation(boolean lazyCompilation) {
+        this.lazyCompilation = lazyCompilation;
+    }
+
     public void addProgressHandler(ProgressHandler handler) {
         synchronized (progressHandlers) {
             progressHandlers.add(handler);
@@ -264,11 +282,13 @@ public class CodeServlet extends HttpServlet {
             if (compiling) {
                 return;
             }
+            discardLazyMethods();
             astCache.invalidate();
             programCache.invalidate();
             classSource.invalidate();
             symbolTable.invalidate();
             fileSymbolTable.invalidate();
+            dependencySnapshot = null;
         }
     }
 
@@ -320,6 +340,7 @@ public class CodeServlet extends HttpServlet {
 
         indicatorWsPath = pathToFile + fileName + ".ws";
         deobfuscatorPath = pathToFile + fileName + ".deobfuscator.js";
+        lazyMethodPath = pathToFile + fileName + ".lazy/";
         WebSocketPolicy wsPolicy = new WebSocketPolicy(WebSocketBehavior.SERVER);
         wsFactory = WebSocketServletFactory.Loader.load(config.getServletContext(), wsPolicy);
         wsFactory.setCreator((req, resp) -> {
@@ -363,6 +384,9 @@ public class CodeServlet extends HttpServlet {
                             return;
                         }
                     }
+                } else if (lazyCompilation && path.startsWith(lazyMethodPath)) {
+                    serveLazyMethod(path.substring(lazyMethodPath.length()), req, resp, hasBody);
+                    return;
                 } else if (path.equals(deobfuscatorPath)) {
                     serveDeobfuscator(req, resp, hasBody);
                     return;
@@ -420,6 +444,38 @@ public class CodeServlet extends HttpServlet {
         }
     }
 
+    private void serveLazyMethod(String request, HttpServletRequest req, HttpServletResponse resp, boolean hasBody)
+            throws IOException {
+        allowOrigin(req, resp);
+        noCache(resp);
+        if (!hasBody) {
+            resp.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            resp.setHeader("Access-Control-Allow-Methods", "GET");
+            return;
+        }
+
+        var result = lazyMethodBodies.get(request);
+        if (result.getStatus() != HttpServletResponse.SC_OK) {
+            if (result.getError() != null) {
+                log.error(result.getText(), result.getError());
+            }
+            resp.setStatus(result.getStatus());
+            return;
+        }
+        var body = result.getText();
+
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setCharacterEncoding("UTF-8");
+        resp.setContentType("application/javascript");
+        resp.getWriter().write(body);
+        resp.getWriter().flush();
+        log.debug("Served lazily compiled method " + request);
+    }
+
+    private void discardLazyMethods() {
+        lazyMethodBodies.discard();
+    }
+
     private void serveDeobfuscator(HttpServletRequest req, HttpServletResponse resp, boolean hasBody)
             throws IOException {
         ClassLoader loader = CodeServlet.class.getClassLoader();
@@ -817,6 +873,9 @@ public class CodeServlet extends HttpServlet {
                             + String.join(", ", staleClasses));
                 }
 
+                if (!staleClasses.isEmpty()) {
+                    discardLazyMethods();
+                }
                 classSource.evict(staleClasses);
                 hasJob = !staleClasses.isEmpty();
             }
@@ -850,7 +909,9 @@ public class CodeServlet extends HttpServlet {
         classSource = null;
         watcher = null;
         astCache = null;
+        discardLazyMethods();
         programCache = null;
+        dependencySnapshot = null;
         synchronized (content) {
             content.clear();
         }
@@ -860,6 +921,7 @@ public class CodeServlet extends HttpServlet {
     }
 
     private void buildOnce() {
+        discardLazyMethods();
         fireBuildStarted();
         reportProgress(0);
 
@@ -892,6 +954,7 @@ public class CodeServlet extends HttpServlet {
             jsTarget.setModuleType(jsModuleType);
         }
         jsTarget.setStrict(true);
+        jsTarget.setLazyMethodBodies(lazyCompilation);
         vm.setOptimizationLevel(TeaVMOptimizationLevel.SIMPLE);
         vm.setCacheStatus(classSource);
         vm.addVirtualMethods(m -> true);
@@ -904,6 +967,8 @@ public class CodeServlet extends HttpServlet {
         vm.getProperties().putAll(properties);
 
         vm.setLastKnownClasses(lastReachedClasses);
+        vm.setDependencySnapshotEnabled(true);
+        vm.setDependencySnapshot(dependencySnapshot);
         vm.setEntryPoint(mainClass);
 
         log.info("Starting build");
@@ -913,7 +978,7 @@ public class CodeServlet extends HttpServlet {
         addIndicator();
         generateDebug(debugInformationBuilder);
 
-        postBuild(vm, startTime);
+        postBuild(vm, jsTarget, startTime);
     }
 
     private void emptyBuild() {
@@ -955,6 +1020,9 @@ public class CodeServlet extends HttpServlet {
             script = script.replace("FILE_NAME", "\"" + fileName + "\"");
             script = script.replace("PATH_TO_FILE", "\"http://localhost:" + port + pathToFile + "\"");
             script = script.replace("DEOBFUSCATE_FLAG", String.valueOf(deobfuscateStack));
+            script = script.replace("LAZY_PATH", lazyCompilation && !boot
+                    ? "\"http://localhost:" + port + lazyMethodPath + lazyMethodBodies.getBuildNumber() + "/\""
+                    : "null");
             return script;
         } catch (IOException e) {
             throw new RuntimeException("IO error occurred writing debug information", e);
@@ -981,16 +1049,20 @@ public class CodeServlet extends HttpServlet {
         }
     }
 
-    private void postBuild(TeaVM vm, long startTime) {
+    private void postBuild(TeaVM vm, JavaScriptTarget jsTarget, long startTime) {
         if (!vm.wasCancelled()) {
             log.info("Recompiled stale methods: " + programCache.getPendingItemsCount());
             if (vm.getProblemProvider().getSevereProblems().isEmpty()) {
                 log.info("Build complete successfully");
                 saveNewResult();
                 lastReachedClasses = vm.getDependencyInfo().getReachableClasses().size();
+                dependencySnapshot = vm.getDependencySnapshot();
                 classSource.commit();
                 programCache.commit();
                 astCache.commit();
+                if (lazyCompilation) {
+                    lazyMethodBodies.complete(jsTarget);
+                }
                 reportCompilationComplete(true);
             } else {
                 log.info("Build complete with errors");
@@ -44,6 +44,7 @@ public class DevServer {
     private JSModuleType jsModuleType;
     private boolean compileOnStartup;
     private boolean logBuildErrors = true;
+    private boolean lazyCompilation;
 
     private Server server;
     private int port = 9090;
@@ -149,6 +150,10 @@ public class DevServer {
         this.logBuildErrors = logBuildErrors;
     }
 
+    public void setLazyCompilation(boolean lazyCompilation) {
+        this.lazyCompilation = lazyCompilation;
+    }
+
     public void start() {
         server = new Server();
         ServerConnector connector = new ServerConnector(server);
@@ -174,6 +179,7 @@ public class DevServer {
         servlet.setFileSystemWatched(fileSystemWatched);
         servlet.setCompileOnStartup(compileOnStartup);
         servlet.setLogBuildErrors(logBuildErrors);
+        servlet.setLazyCompilation(lazyCompilation);
         servlet.getProperties().putAll(properties);
         servlet.getPreservedClasses().addAll(preservedClasses);
         servlet.setJsModuleType(jsModuleType);
@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.devserver;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
+import org.teavm.backend.javascript.JavaScriptTarget;
+
+/**
+ * Bodies of lazily compiled methods of the last successful build, served by {@link CodeServlet}.
+ * A page requests a body by number of the build it was loaded from and index of the method,
+ * as {@code <build>/<index>}. Names and string pool indexes are assigned per build, so a page loaded
+ * from another build gets {@code 410 Gone}.
+ */
+public class LazyMethodBodies {
+    private final Runnable onCompiled;
+    private JavaScriptTarget target;
+    private int buildNumber;
+    private final Map<Integer, String> bodies = new HashMap<>();
+
+    /**
+     * @param onCompiled called after a body was compiled, while the lock of this object is held.
+     */
+    public LazyMethodBodies(Runnable onCompiled) {
+        this.onCompiled = onCompiled;
+    }
+
+    public synchronized int getBuildNumber() {
+        return buildNumber;
+    }
+
+    /**
+     * Makes bodies of the completed build available. Target must have been built with lazy method bodies.
+     */
+    public synchronized void complete(JavaScriptTarget target) {
+        this.target = target;
+    }
+
+    /**
+     * Forgets bodies of the current build and starts a new build number, so that pages loaded earlier
+     * get {@code 410 Gone}.
+     */
+    public synchronized void discard() {
+        target = null;
+        bodies.clear();
+        ++buildNumber;
+    }
+
+    public synchronized Result get(String request) {
+        int build;
+        int index;
+        try {
+            int separator = request.indexOf('/');
+            build = Integer.parseInt(request.substring(0, separator));
+            index = Integer.parseInt(request.substring(separator + 1));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return new Result(HttpServletResponse.SC_BAD_REQUEST, null, null);
+        }
+
+        if (target == null || build != buildNumber) {
+            // Page was loaded from previous build, names in it may not match names in current build
+            return new Result(HttpServletResponse.SC_GONE, null, null);
+        }
+        var methods = target.getLazyMethods();
+        if (index < 0 || index >= methods.size()) {
+            return new Result(HttpServletResponse.SC_NOT_FOUND, null, null);
+        }
+        var body = bodies.get(index);
+        if (body == null) {
+            var method = methods.get(index);
+            try {
+                body = target.renderLazyMethodBody(index);
+            } catch (RuntimeException e) {
+                return new Result(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error compiling method " + method,
+                        e);
+            }
+            body += "\n//# sourceURL=teavm-lazy/" + method.getClassName() + "/"
+                    + method.getName() + "-" + index + ".js";
+            bodies.put(index, body);
+            onCompiled.run();
+        }
+        return new Result(HttpServletResponse.SC_OK, body, null);
+    }
+
+    public static class Result {
+        private final int status;
+        private final String text;
+        private final RuntimeException error;
+
+        Result(int status, String text, RuntimeException error) {
+            this.status = status;
+            this.text = text;
+            this.error = error;
+        }
+
+        /**
+         * HTTP status of the response.
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Body of the method for {@code 200 OK} or error message for {@code 500 Internal Server Error}.
+         */
+        public String getText() {
+            return text;
+        }
+
+        public RuntimeException getError() {
+            return error;
+        }
+    }
+}
@@ -21,6 +21,7 @@
     let deobfuscate = DEOBFUSCATE_FLAG;
     let fileName = FILE_NAME;
     let pathToFile = PATH_TO_FILE;
+    let lazyPath = LAZY_PATH;
 
     function createWebSocket() {
         return new WebSocket("ws://WS_PATH");
@@ -157,6 +158,21 @@
         installDeobfuscator();
     }
 
+    if (lazyPath !== null) {
+        window.$teavm_lazyMethodBody = function(index) {
+            const xhr = new XMLHttpRequest();
+            xhr.open("GET", lazyPath + index, false);
+            xhr.send();
+            if (xhr.status !== 200) {
+                if (xhr.status === 410) {
+                    indicator.show("Code was recompiled, please reload the page");
+                }
+                throw new Error("Could not load method #" + index + ": " + xhr.status);
+            }
+            return xhr.responseText;
+        };
+    }
+
     function startMain() {
         ws.close();
         window.removeEventListener("load", onLoad);
@@ -72,6 +72,7 @@ class TeaVMExtensionImpl extends TeaVMBaseExtensionImpl implements TeaVMExtensio
         js.getObfuscated().convention(property("js.obfuscated").map(Boolean::parseBoolean).orElse(true));
         js.getSourceMap().convention(property("js.sourceMap").map(Boolean::parseBoolean).orElse(false));
         js.getStrict().convention(property("js.strict").map(Boolean::parseBoolean).orElse(false));
+        js.getRenderingThreads().convention(property("js.renderingThreads").map(Integer::parseInt).orElse(1));
         js.getModuleType().convention(property("js.moduleType").map(JSModuleType::valueOf).orElse(JSModuleType.UMD));
         js.getEntryPointName().convention("main");
         js.getTargetFileName().convention(project.provider(() -> project.getName() + ".js"));
@@ -131,6 +132,8 @@ class TeaVMExtensionImpl extends TeaVMBaseExtensionImpl implements TeaVMExtensio
         wasmGC.getMaxDirectBuffersSize().convention(property("wasm-gc.maxDirectBuffersSize")
                 .map(Integer::parseInt)
                 .orElse(32));
+        wasmGC.getRenderingThreads().convention(property("wasm-gc.renderingThreads").map(Integer::parseInt)
+                .orElse(1));
     }
 
     private void setupWasiDefaults() {
@@ -158,6 +161,10 @@ class TeaVMExtensionImpl extends TeaVMBaseExtensionImpl implements TeaVMExtensio
         all.getOutputDir().convention(project.getLayout().getBuildDirectory().dir("generated/teavm"));
         all.getDebugInformation().convention(property("debugInformation").map(Boolean::parseBoolean).orElse(false));
         all.getOptimization().convention(OptimizationLevel.BALANCED);
+        all.getOptimizationThreads().convention(property("optimizationThreads").map(Integer::parseInt).orElse(1));
+        all.getDependencyAnalysisThreads().convention(property("dependencyAnalysisThreads")
+                .map(Integer::parseInt).orElse(1));
+        all.getClassPrefetchThreads().convention(property("classPrefetchThreads").map(Integer::parseInt).orElse(0));
         all.getFastGlobalAnalysis().convention(property("fastGlobalAnalysis").map(Boolean::parseBoolean).orElse(false));
         all.getOutOfProcess().convention(property("outOfProcess").map(Boolean::parseBoolean).orElse(false));
         all.getProcessMemory().convention(property("processMemory").map(Integer::parseInt).orElse(512));
@@ -259,6 +266,10 @@ class TeaVMExtensionImpl extends TeaVMBaseExtensionImpl implements TeaVMExtensio
         target.getDebugInformation().convention(source.getDebugInformation());
         target.getFastGlobalAnalysis().convention(source.getFastGlobalAnalysis());
         target.getOptimization().convention(source.getOptimization());
+        target.getOptimizationThreads().convention(source.getOptimizationThreads());
+        target.getDependencyAnalysisThreads().convention(source.getDependencyAnalysisThreads());
+        target.getClassPrefetchThreads().convention(source.getClassPrefetchThreads());
+        target.getMetricsFile().convention(source.getMetricsFile());
         target.getProperties().putAll(source.getProperties());
 
         target.getOutOfProcess().convention(source.getOutOfProcess());
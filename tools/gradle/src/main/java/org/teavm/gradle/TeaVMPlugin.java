@@ -142,6 +142,7 @@ public class TeaVMPlugin implements Plugin<Project> {
             task.getEntryPointName().convention(js.getEntryPointName());
             task.getSourceFilePolicy().convention(js.getSourceFilePolicy());
             task.getMaxTopLevelNames().convention(js.getMaxTopLevelNames());
+            task.getRenderingThreads().convention(js.getRenderingThreads());
 
             setupSources(task.getSourceFiles(), project);
         });
@@ -233,6 +234,7 @@ public class TeaVMPlugin implements Plugin<Project> {
             task.getSourceFilePolicy().convention(wasmGC.getSourceFilePolicy());
             task.getMinDirectBuffersSize().convention(wasmGC.getMinDirectBuffersSize());
             task.getMaxDirectBuffersSize().convention(wasmGC.getMaxDirectBuffersSize());
+            task.getRenderingThreads().convention(wasmGC.getRenderingThreads());
             setupSources(task.getSourceFiles(), project);
             buildTask.dependsOn(task);
         });
@@ -340,6 +342,10 @@ public class TeaVMPlugin implements Plugin<Project> {
         task.getDebugInformation().convention(configuration.getDebugInformation());
         task.getFastGlobalAnalysis().convention(configuration.getFastGlobalAnalysis());
         task.getOptimization().convention(configuration.getOptimization());
+        task.getOptimizationThreads().convention(configuration.getOptimizationThreads());
+        task.getDependencyAnalysisThreads().convention(configuration.getDependencyAnalysisThreads());
+        task.getClassPrefetchThreads().convention(configuration.getClassPrefetchThreads());
+        task.getMetricsFile().convention(configuration.getMetricsFile());
         task.getOutOfProcess().convention(configuration.getOutOfProcess());
         task.getProcessMemory().convention(configuration.getProcessMemory());
         task.getProperties().putAll(configuration.getProperties());
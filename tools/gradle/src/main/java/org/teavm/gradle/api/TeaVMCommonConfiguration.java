@@ -16,6 +16,7 @@
 package org.teavm.gradle.api;
 
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
@@ -29,6 +30,14 @@ public interface TeaVMCommonConfiguration {
 
     Property<OptimizationLevel> getOptimization();
 
+    Property<Integer> getOptimizationThreads();
+
+    Property<Integer> getDependencyAnalysisThreads();
+
+    Property<Integer> getClassPrefetchThreads();
+
+    RegularFileProperty getMetricsFile();
+
     MapProperty<String, String> getProperties();
 
     ListProperty<String> getPreservedClasses();
@@ -37,6 +37,8 @@ public interface TeaVMJSConfiguration extends TeaVMWebConfiguration {
 
     Property<Integer> getMaxTopLevelNames();
 
+    Property<Integer> getRenderingThreads();
+
     TeaVMDevServerConfiguration getDevServer();
 
     void devServer(Action<TeaVMDevServerConfiguration> action);
@@ -19,6 +19,7 @@ import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
 import org.teavm.gradle.api.JSModuleType;
 import org.teavm.gradle.api.SourceFilePolicy;
@@ -33,6 +34,7 @@ public abstract class GenerateJavaScriptTask extends TeaVMTask {
         getSourceMap().convention(false);
         getSourceFilePolicy().convention(SourceFilePolicy.LINK_LOCAL_FILES);
         getEntryPointName().convention("main");
+        getRenderingThreads().convention(1);
     }
 
     @Input
@@ -66,11 +68,15 @@ public abstract class GenerateJavaScriptTask extends TeaVMTask {
     @Optional
     public abstract Property<Integer> getMaxTopLevelNames();
 
+    @Internal
+    public abstract Property<Integer> getRenderingThreads();
+
     @Override
     protected void setupBuilder(BuildStrategy builder) {
         builder.setTargetType(TeaVMTargetType.JAVASCRIPT);
         builder.setObfuscated(getObfuscated().get());
         builder.setStrict(getStrict().get());
+        builder.setRenderingThreads(getRenderingThreads().get());
         if (getMaxTopLevelNames().isPresent()) {
             builder.setMaxTopLevelNames(getMaxTopLevelNames().get());
         }
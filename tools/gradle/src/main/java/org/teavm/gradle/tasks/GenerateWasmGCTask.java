@@ -19,6 +19,7 @@ import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
 import org.teavm.gradle.api.SourceFilePolicy;
 import org.teavm.gradle.api.WasmDebugInfoLevel;
@@ -36,6 +37,7 @@ public abstract class GenerateWasmGCTask extends TeaVMTask {
         getSourceFilePolicy().convention(SourceFilePolicy.LINK_LOCAL_FILES);
         getMinDirectBuffersSize().convention(2);
         getMaxDirectBuffersSize().convention(32);
+        getRenderingThreads().convention(1);
     }
 
     @Input
@@ -66,6 +68,9 @@ public abstract class GenerateWasmGCTask extends TeaVMTask {
     @Input
     public abstract Property<Integer> getMaxDirectBuffersSize();
 
+    @Internal
+    public abstract Property<Integer> getRenderingThreads();
+
     @Override
     protected void setupBuilder(BuildStrategy builder) {
         builder.setStrict(getStrict().get());
@@ -74,6 +79,7 @@ public abstract class GenerateWasmGCTask extends TeaVMTask {
         builder.setSourceMapsFileGenerated(getSourceMap().get());
         builder.setMinDirectBuffersSize(getMinDirectBuffersSize().get() * 1024 * 1024);
         builder.setMaxDirectBuffersSize(getMaxDirectBuffersSize().get() * 1024 * 1024);
+        builder.setRenderingThreads(getRenderingThreads().get());
         switch (getDebugInfoLevel().get()) {
             case FULL:
                 builder.setWasmDebugInfoLevel(org.teavm.backend.wasm.WasmDebugInfoLevel.FULL);
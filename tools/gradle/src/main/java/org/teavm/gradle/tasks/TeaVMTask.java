@@ -25,6 +25,7 @@ import javax.inject.Inject;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
@@ -33,6 +34,7 @@ import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.internal.logging.progress.ProgressLogger;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
@@ -55,6 +57,9 @@ public abstract class TeaVMTask extends DefaultTask {
         getDebugInformation().convention(false);
         getTargetFileName().convention("bundle");
         getOptimization().convention(OptimizationLevel.BALANCED);
+        getOptimizationThreads().convention(1);
+        getDependencyAnalysisThreads().convention(1);
+        getClassPrefetchThreads().convention(0);
         getFastGlobalAnalysis().convention(false);
         getOutOfProcess().convention(false);
         getProcessMemory().convention(512);
@@ -75,6 +80,19 @@ public abstract class TeaVMTask extends DefaultTask {
     @Optional
     public abstract Property<OptimizationLevel> getOptimization();
 
+    @Internal
+    public abstract Property<Integer> getOptimizationThreads();
+
+    @Internal
+    public abstract Property<Integer> getDependencyAnalysisThreads();
+
+    @Internal
+    public abstract Property<Integer> getClassPrefetchThreads();
+
+    @OutputFile
+    @Optional
+    public abstract RegularFileProperty getMetricsFile();
+
     @Input
     @Optional
     public abstract Property<Boolean> getFastGlobalAnalysis();
@@ -147,7 +165,13 @@ public abstract class TeaVMTask extends DefaultTask {
         builder.setClassPathEntries(classPathStrings);
         builder.setTargetFileName(getTargetFileName().get());
         builder.setOptimizationLevel(map(getOptimization().get()));
+        builder.setOptimizationThreads(getOptimizationThreads().get());
+        builder.setDependencyAnalysisThreads(getDependencyAnalysisThreads().get());
+        builder.setClassPrefetchThreads(getClassPrefetchThreads().get());
         builder.setFastDependencyAnalysis(getFastGlobalAnalysis().get());
+        if (getMetricsFile().isPresent()) {
+            builder.setMetricsFile(getMetricsFile().get().getAsFile().getAbsolutePath());
+        }
         builder.setTargetDirectory(getOutputDir().get().getAbsolutePath());
         builder.setClassesToPreserve(getPreservedClasses().get().toArray(new String[0]));
         if (getProperties().isPresent()) {
@@ -51,14 +51,12 @@ class CRunStrategy implements TestRunStrategy {
             List<String> runtimeOutput = new ArrayList<>();
             List<String> stdout = new ArrayList<>();
             outputFile.setExecutable(true);
-            synchronized (this) {
-                List<String> runCommand = new ArrayList<>();
-                runCommand.add(outputFile.getPath());
-                if (run.getArgument() != null) {
-                    runCommand.add(run.getArgument());
-                }
-                runProcess(new ProcessBuilder(runCommand.toArray(new String[0])).start(), runtimeOutput, stdout);
+            List<String> runCommand = new ArrayList<>();
+            runCommand.add(outputFile.getPath());
+            if (run.getArgument() != null) {
+                runCommand.add(run.getArgument());
             }
+            runProcess(new ProcessBuilder(runCommand.toArray(new String[0])).start(), runtimeOutput, stdout);
             if (!stdout.isEmpty() && stdout.get(stdout.size() - 1).equals("SUCCESS")) {
                 writeLines(runtimeOutput);
             } else {
@@ -78,8 +76,11 @@ class CRunStrategy implements TestRunStrategy {
     }
 
     private void writeLines(List<String> lines) {
-        for (String line : lines) {
-            System.out.println(line);
+        // Tests may run concurrently, don't let their output interleave
+        synchronized (System.out) {
+            for (String line : lines) {
+                System.out.println(line);
+            }
         }
     }
 
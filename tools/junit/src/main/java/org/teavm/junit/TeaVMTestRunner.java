@@ -38,6 +38,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -59,10 +67,9 @@ import org.teavm.model.MethodDescriptor;
 import org.teavm.model.MethodHolder;
 import org.teavm.model.MethodReader;
 import org.teavm.model.MethodReference;
-import org.teavm.model.PreOptimizingClassHolderSource;
 import org.teavm.model.ReferenceCache;
 import org.teavm.model.ValueType;
-import org.teavm.parsing.ClasspathClassHolderSource;
+import org.teavm.parsing.SharedClassHolderSource;
 import org.teavm.vm.TeaVM;
 import org.teavm.vm.TeaVMTarget;
 
@@ -86,18 +93,29 @@ public class TeaVMTestRunner extends Runner implements Filterable {
     private static ClassLoader classLoader;
     private Description suiteDescription;
     private static File outputDir;
-    private Map<Method, Description> descriptions = new HashMap<>();
+    private Map<Method, Description> descriptions = new ConcurrentHashMap<>();
     private static Map<TestPlatform, TestRunStrategy> runners = new HashMap<>();
     private List<Method> filteredChildren;
     private static ReferenceCache referenceCache = new ReferenceCache();
-    private List<TestRun> runsInCurrentClass = new ArrayList<>();
+    private List<TestRun> runsInCurrentClass = Collections.synchronizedList(new ArrayList<>());
     private static List<TestPlatformSupport<?>> platforms = new ArrayList<>();
     private List<TestPlatformSupport<?>> participatingPlatforms = new ArrayList<>();
+    private static ExecutorService executor;
 
     static {
         classLoader = TeaVMTestRunner.class.getClassLoader();
         classSource = getClassSource(classLoader);
 
+        var threads = TestUtil.getThreadCount();
+        if (threads > 1) {
+            var threadIndex = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                var thread = new Thread(runnable, "teavm-junit-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
         String outputPath = System.getProperty(PATH_PARAM);
         if (outputPath != null) {
             outputDir = new File(outputPath);
@@ -162,9 +180,14 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         if (isWholeClassCompilation) {
             runWithWholeClassCompilation(children, notifier);
         } else {
+            var pendingTests = new ArrayList<PendingTest>();
             for (Method child : children) {
-                runChild(child, notifier);
+                runChild(child, notifier, pendingTests);
+                if (executor == null) {
+                    finishTests(pendingTests, notifier);
+                }
             }
+            finishTests(pendingTests, notifier);
         }
 
         writeRunsDescriptor();
@@ -182,9 +205,12 @@ public class TeaVMTestRunner extends Runner implements Filterable {
 
         var skipJvmForClass = !testClass.isAnnotationPresent(SkipJVM.class);
 
+        var pendingTests = new ArrayList<PendingTest>();
         for (var child : children) {
             var description = describeChild(child);
             notifier.fireTestStarted(description);
+            var pendingTest = new PendingTest(description);
+            pendingTests.add(pendingTest);
 
             if (isIgnored(child)) {
                 notifier.fireTestIgnored(description);
@@ -200,21 +226,17 @@ public class TeaVMTestRunner extends Runner implements Filterable {
                     for (var testForPlatform : tests) {
                         var runs = testForPlatform.runs.get(child);
                         if (runs != null) {
-                            for (var run : runs) {
-                                try {
-                                    submitRun(run);
-                                } catch (Throwable e) {
-                                    notifier.fireTestFailure(new Failure(description, e));
-                                    break;
-                                }
-                            }
+                            pendingTest.results.add(submit(() -> submitRuns(runs)));
                         }
                     }
                 }
             }
 
-            notifier.fireTestFinished(description);
+            if (executor == null) {
+                finishTests(pendingTests, notifier);
+            }
         }
+        finishTests(pendingTests, notifier);
 
         for (var testsForPlatform : tests) {
             var runner = runners.get(testsForPlatform.platform.getPlatform());
@@ -285,52 +307,73 @@ public class TeaVMTestRunner extends Runner implements Filterable {
     private List<PlatformClassTests> compileWholeClass(List<Method> children, RunNotifier notifier) {
         var description = getDescription();
 
+        var compilations = new ArrayList<Future<ClassCompilation>>();
+        for (var platform : participatingPlatforms) {
+            if (platform.isEnabled() && hasChildrenToRun(children, platform.getPlatform())) {
+                var path = getOutputPathForClass(platform);
+                for (var configuration : platform.getConfigurations()) {
+                    compilations.add(submit(() -> compileClassForConfiguration(platform, configuration,
+                            children, path)));
+                }
+            }
+        }
+
         var result = new ArrayList<PlatformClassTests>();
-        for (var platformSupport : participatingPlatforms) {
-            var item = compileClassForPlatform(platformSupport, children, testClass, description, notifier);
-            if (item == null) {
+        PlatformClassTests platformClassTests = null;
+        for (var future : compilations) {
+            var compilation = await(future);
+            if (!compilation.result.success) {
+                notifier.fireTestFailure(createFailure(description, compilation.result));
                 return null;
             }
-            if (item.platform != null) {
-                result.add(item);
+            var platform = compilation.platform;
+            if (platformClassTests == null || platformClassTests.platform != platform) {
+                completePlatformClassTests(platformClassTests);
+                platformClassTests = new PlatformClassTests();
+                platformClassTests.platform = platform;
+                result.add(platformClassTests);
             }
+            for (var run : compilation.runs) {
+                platformClassTests.runs.computeIfAbsent(run.getMethod(), m -> new ArrayList<>()).add(run);
+                platform.additionalOutput(compilation.path, new File(compilation.path, run.getMethod().getName()),
+                        compilation.configuration, MethodReference.parse(run.getArgument()));
+            }
+            platform.additionalOutput(compilation.path, compilation.configuration);
         }
+        completePlatformClassTests(platformClassTests);
 
         return result;
     }
 
     @SuppressWarnings("unchecked")
-    private PlatformClassTests compileClassForPlatform(TestPlatformSupport<?> platform, List<Method> children,
-            Class<?> cls, Description description, RunNotifier notifier) {
-        var platformClassTests = new PlatformClassTests();
-        var isModule = cls.isAnnotationPresent(JsModuleTest.class);
-        if (platform.isEnabled() && hasChildrenToRun(children, platform.getPlatform())) {
-            platformClassTests.platform = platform;
-            var path = getOutputPathForClass(platform);
-            for (var configuration : platform.getConfigurations()) {
-                var castPlatform = (TestPlatformSupport<TeaVMTarget>) platform;
-                var castConfiguration = (TeaVMTestConfiguration<TeaVMTarget>) configuration;
-                var runs = new ArrayList<TestRun>();
-                var result = castPlatform.compile(wholeClass(children, platform.getPlatform(), configuration, runs),
-                        "classTest", castConfiguration, path, testClass);
-                if (!result.success) {
-                    notifier.fireTestFailure(createFailure(description, result));
-                    return null;
-                }
-                var group = new TestRunGroup(path, result.file.getName(), platform.getPlatform(), isModule);
-                for (var run : runs) {
-                    run.group = group;
-                    platformClassTests.runs.computeIfAbsent(run.getMethod(), m -> new ArrayList<>()).add(run);
-                    platform.additionalOutput(path, new File(path, run.getMethod().getName()),
-                            configuration, MethodReference.parse(run.getArgument()));
-                }
-                platform.additionalOutput(path, configuration);
-            }
-            for (var method : platformClassTests.runs.keySet()) {
-                platform.additionalOutputForAllConfigurations(path, method);
+    private ClassCompilation compileClassForConfiguration(TestPlatformSupport<?> platform,
+            TeaVMTestConfiguration<?> configuration, List<Method> children, File path) {
+        var compilation = new ClassCompilation();
+        compilation.platform = platform;
+        compilation.configuration = configuration;
+        compilation.path = path;
+        var castPlatform = (TestPlatformSupport<TeaVMTarget>) platform;
+        var castConfiguration = (TeaVMTestConfiguration<TeaVMTarget>) configuration;
+        compilation.result = castPlatform.compile(wholeClass(children, platform.getPlatform(), configuration,
+                compilation.runs), "classTest", castConfiguration, path, testClass);
+        if (compilation.result.success) {
+            var isModule = testClass.isAnnotationPresent(JsModuleTest.class);
+            var group = new TestRunGroup(path, compilation.result.file.getName(), platform.getPlatform(), isModule);
+            for (var run : compilation.runs) {
+                run.group = group;
             }
         }
-        return platformClassTests;
+        return compilation;
+    }
+
+    private void completePlatformClassTests(PlatformClassTests platformClassTests) {
+        if (platformClassTests == null) {
+            return;
+        }
+        var path = getOutputPathForClass(platformClassTests.platform);
+        for (var method : platformClassTests.runs.keySet()) {
+            platformClassTests.platform.additionalOutputForAllConfigurations(path, method);
+        }
     }
 
     private boolean isPlatformPresent(AnnotatedElement declaration, TestPlatform platform) {
@@ -369,7 +412,7 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         return isPlatformPresent(testClass, platform) && isPlatformPresent(child, platform);
     }
 
-    private void runChild(Method child, RunNotifier notifier) {
+    private void runChild(Method child, RunNotifier notifier, List<PendingTest> pendingTests) {
         Description description = describeChild(child);
         notifier.fireTestStarted(description);
 
@@ -390,27 +433,9 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         }
 
         if (success && outputDir != null) {
-            List<TestRun> runs = new ArrayList<>();
-
-            try {
-                prepareCompiledTest(child, notifier, runs);
-
-                for (var run : runs) {
-                    try {
-                        submitRun(run);
-                    } catch (Throwable e) {
-                        notifier.fireTestFailure(new Failure(description, e));
-                        break;
-                    }
-                }
-
-                for (var run : runs) {
-                    var strategy = runners.get(run.getGroup().getKind());
-                    strategy.cleanup();
-                }
-            } finally {
-                notifier.fireTestFinished(description);
-            }
+            var pendingTest = new PendingTest(description);
+            pendingTest.results.add(submit(() -> compileAndRunChild(child, notifier)));
+            pendingTests.add(pendingTest);
         } else {
             if (!ran) {
                 notifier.fireTestIgnored(description);
@@ -419,6 +444,17 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         }
     }
 
+    private Throwable compileAndRunChild(Method child, RunNotifier notifier) {
+        List<TestRun> runs = new ArrayList<>();
+        prepareCompiledTest(child, notifier, runs);
+        var failure = submitRuns(runs);
+        for (var run : runs) {
+            var strategy = runners.get(run.getGroup().getKind());
+            strategy.cleanup();
+        }
+        return failure;
+    }
+
     private void prepareCompiledTest(Method child, RunNotifier notifier, List<TestRun> runs) {
         MethodDescriptor descriptor = getDescriptor(child);
         MethodReference reference = new MethodReference(child.getDeclaringClass().getName(), descriptor);
@@ -810,6 +846,17 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         return new Failure(description, throwable);
     }
 
+    private Throwable submitRuns(List<TestRun> runs) {
+        for (var run : runs) {
+            try {
+                submitRun(run);
+            } catch (Throwable e) {
+                return e;
+            }
+        }
+        return null;
+    }
+
     private void submitRun(TestRun run) throws IOException {
         runsInCurrentClass.add(run);
         var strategy = runners.get(run.getGroup().getKind());
@@ -820,6 +867,58 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         strategy.runTest(run);
     }
 
+    /**
+     * Runs task on the thread pool when parallel mode is enabled, otherwise runs it immediately
+     * on the current thread.
+     */
+    private static <T> Future<T> submit(Callable<T> task) {
+        if (executor != null) {
+            return executor.submit(task);
+        }
+        var future = new FutureTask<>(task);
+        future.run();
+        return future;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            var cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private void finishTests(List<PendingTest> pendingTests, RunNotifier notifier) {
+        for (var pendingTest : pendingTests) {
+            try {
+                for (var result : pendingTest.results) {
+                    Throwable failure;
+                    try {
+                        failure = await(result);
+                    } catch (RuntimeException | Error e) {
+                        failure = e;
+                    }
+                    if (failure != null) {
+                        notifier.fireTestFailure(new Failure(pendingTest.description, failure));
+                    }
+                }
+            } finally {
+                notifier.fireTestFinished(pendingTest.description);
+            }
+        }
+        pendingTests.clear();
+    }
+
     private File getOutputPath(Method method, TestPlatformSupport<?> platform) {
         File path = outputDir;
         path = new File(new File(path, platform.getPath()), testClass.getName().replace('.', '/'));
@@ -917,7 +1016,7 @@ public class TeaVMTestRunner extends Runner implements Filterable {
     }
 
     private static ClassHolderSource getClassSource(ClassLoader classLoader) {
-        return new PreOptimizingClassHolderSource(new ClasspathClassHolderSource(classLoader, referenceCache));
+        return SharedClassHolderSource.forClassLoader(classLoader);
     }
 
     @Override
@@ -1034,4 +1133,21 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         TestPlatformSupport<?> platform;
         LinkedHashMap<Method, List<TestRun>> runs = new LinkedHashMap<>();
     }
+
+    private static class ClassCompilation {
+        TestPlatformSupport<?> platform;
+        TeaVMTestConfiguration<?> configuration;
+        File path;
+        CompileResult result;
+        List<TestRun> runs = new ArrayList<>();
+    }
+
+    private static class PendingTest {
+        final Description description;
+        final List<Future<Throwable>> results = new ArrayList<>();
+
+        PendingTest(Description description) {
+            this.description = description;
+        }
+    }
 }
@@ -16,6 +16,7 @@
 package org.teavm.junit;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.teavm.junit.PropertyNames.THREADS;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -31,6 +32,18 @@ final class TestUtil {
     private TestUtil() {
     }
 
+    /**
+     * Returns number of tests that are compiled and run concurrently. One means that tests are compiled
+     * and run one after another on the thread that JUnit calls runner on.
+     */
+    static int getThreadCount() {
+        var threads = Integer.parseInt(System.getProperty(THREADS, "1"));
+        if (threads < 1) {
+            throw new IllegalArgumentException("Property " + THREADS + " must be positive: " + threads);
+        }
+        return threads;
+    }
+
     static File getOutputFile(File path, String baseName, String suffix, boolean separateDir, String extension) {
         StringBuilder simpleName = new StringBuilder();
         simpleName.append(baseName);
@@ -42,9 +42,7 @@ class WasiRunStrategy implements TestRunStrategy {
             }
             List<String> runtimeOutput = new ArrayList<>();
             List<String> stdout = new ArrayList<>();
-            synchronized (this) {
-                runProcess(new ProcessBuilder(commandLine.toArray(new String[0])).start(), runtimeOutput, stdout);
-            }
+            runProcess(new ProcessBuilder(commandLine.toArray(new String[0])).start(), runtimeOutput, stdout);
             if (!stdout.isEmpty() && stdout.get(stdout.size() - 1).equals("SUCCESS")) {
                 writeLines(runtimeOutput);
             } else {
@@ -64,8 +62,11 @@ class WasiRunStrategy implements TestRunStrategy {
     }
 
     private void writeLines(List<String> lines) {
-        for (String line : lines) {
-            System.out.println(line);
+        // Tests may run concurrently, don't let their output interleave
+        synchronized (System.out) {
+            for (String line : lines) {
+                System.out.println(line);
+            }
         }
     }
 
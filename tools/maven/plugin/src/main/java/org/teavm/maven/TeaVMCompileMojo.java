@@ -91,6 +91,9 @@ public class TeaVMCompileMojo extends AbstractMojo {
     @Parameter(property = "teavm.maxTopLevelNames", defaultValue = "80000")
     private int maxTopLevelNames = 80_000;
 
+    @Parameter(property = "teavm.renderingThreads", defaultValue = "1")
+    private int renderingThreads = 1;
+
     @Parameter
     private Properties properties;
 
@@ -109,6 +112,15 @@ public class TeaVMCompileMojo extends AbstractMojo {
     @Parameter(property = "teavm.incremental", defaultValue = "false")
     private boolean incremental;
 
+    @Parameter(property = "teavm.packedCache", defaultValue = "false")
+    private boolean packedCache;
+
+    @Parameter(property = "teavm.incrementalDependencyAnalysis", defaultValue = "false")
+    private boolean incrementalDependencyAnalysis;
+
+    @Parameter(property = "teavm.metricsFile")
+    private File metricsFile;
+
     @Parameter
     private String[] transformers;
 
@@ -139,6 +151,15 @@ public class TeaVMCompileMojo extends AbstractMojo {
     @Parameter(property = "teavm.fastGlobalAnalysis", defaultValue = "false")
     private boolean fastGlobalAnalysis;
 
+    @Parameter(property = "teavm.optimizationThreads", defaultValue = "1")
+    private int optimizationThreads = 1;
+
+    @Parameter(property = "teavm.dependencyAnalysisThreads", defaultValue = "1")
+    private int dependencyAnalysisThreads = 1;
+
+    @Parameter(property = "teavm.classPrefetchThreads", defaultValue = "0")
+    private int classPrefetchThreads;
+
     @Parameter(property = "teavm.targetType", defaultValue = "JAVASCRIPT")
     private TeaVMTargetType targetType = TeaVMTargetType.JAVASCRIPT;
 
@@ -186,6 +207,7 @@ public class TeaVMCompileMojo extends AbstractMojo {
             builder.setStrict(strict);
             builder.setJsModuleType(jsModuleType);
             builder.setMaxTopLevelNames(maxTopLevelNames);
+            builder.setRenderingThreads(renderingThreads);
             builder.setTargetDirectory(targetDirectory.getAbsolutePath());
             if (transformers != null) {
                 builder.setTransformers(transformers);
@@ -313,10 +335,18 @@ public class TeaVMCompileMojo extends AbstractMojo {
             }
             builder.setOptimizationLevel(optimizationLevel);
             builder.setFastDependencyAnalysis(fastGlobalAnalysis);
+            builder.setOptimizationThreads(optimizationThreads);
+            builder.setDependencyAnalysisThreads(dependencyAnalysisThreads);
+            builder.setClassPrefetchThreads(classPrefetchThreads);
             if (classesToPreserve != null) {
                 builder.setClassesToPreserve(classesToPreserve);
             }
             builder.setCacheDirectory(cacheDirectory.getAbsolutePath());
+            builder.setPackedCache(packedCache);
+            builder.setIncrementalDependencyAnalysis(incrementalDependencyAnalysis);
+            if (metricsFile != null) {
+                builder.setMetricsFile(metricsFile.getAbsolutePath());
+            }
             builder.setTargetType(targetType);
             builder.setWasmVersion(wasmVersion);
             builder.setWasmExceptionsUsed(wasmExceptionsUsed);